@@ -1,19 +1,26 @@
 // Main.java
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.InputMismatchException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.stream.Collectors;
 
 // Importando pacotes inteiros com o curinga *
 import ambiente.*;
+import ambiente.RegistroEntidades.Categoria;
 import comunicacao.*;
+import missao.DespachanteCarga;
 import missao.Missao;
 import missao.MissaoExplorar;
 import missao.MissaoMonitorar;
 import missao.MissaoPatrulhar;
+import missao.RotasPatrulha;
 import robo.*;
 import sensores.*;
 import util.Log;
+import util.Metricas;
 
 
 /**
@@ -25,11 +32,18 @@ public class Main {
     private static Ambiente ambiente;
     private static CentralComunicacao centralComunicacao;
     private static Scanner scanner = new Scanner(System.in);
+    private static final String ARQUIVO_ROTAS_PADRAO = "rotas_patrulha.txt";
+    private static RotasPatrulha rotasCarregadas;  // Rotas lidas do arquivo, compartilhadas pelas patrulhas
+    private static String arquivoRotasCarregado;
+    private static final DespachanteCarga despachante = new DespachanteCarga(); // Distribui pedidos de carga entre os drones
 
     public static void main(String[] args) {
         try {
+            iniciarMetricas();
             ambiente = new Ambiente(20, 15, 5);
+            Metricas.definirCobertura(ambiente::getCoberturaExploracao);
             centralComunicacao = new CentralComunicacao();
+            centralComunicacao.definirRelogio(ambiente::getTick); // Limites de taxa das mensagens contados em ticks
             inicializarEntidades();
             menuInterativo();
         } catch (Exception e) {
@@ -42,31 +56,48 @@ public class Main {
         }
     }
 
+    /**
+     * Exporta as métricas por JMX e, se a propriedade {@code simulador.metricas.arquivo}
+     * estiver definida, grava-as nesse arquivo a cada {@code simulador.metricas.periodo}
+     * segundos (padrão: 10).
+     */
+    private static void iniciarMetricas() {
+        Metricas.registrarJmx();
+        String arquivo = System.getProperty("simulador.metricas.arquivo");
+        if (arquivo != null) {
+            Metricas.iniciarDespejoPeriodico(arquivo, Long.getLong("simulador.metricas.periodo", 10));
+        }
+    }
+
 private static void inicializarEntidades() {
     System.out.println("Inicializando entidades...");
     Log.registrar("SIMULADOR INICIADO: Ambiente e entidades sendo criados.");
     try {
      
-        RoboAereo rAereoAgente = new RoboAereo("Drone-Vortex", 5, 5, 2, "LESTE", 10, 4);
+        RoboAereo rAereoAgente = new RoboAereo("Drone-Vortex", 5, 5, 2, Rumo.LESTE, 10, 4);
         rAereoAgente.adicionarSensor(new SensorAltitude("Altura-Drone", 0));
         rAereoAgente.adicionarSensor(new SensorProximidade("Prox-Drone", 8.0));
         rAereoAgente.ligar();
         // Atribuindo uma missão de exploração ao drone
         rAereoAgente.definirMissao(new MissaoExplorar());
 
-        RoboDroneDeCarga rDroneCarga1 = new RoboDroneDeCarga("Cargueiro-Atlas", 1, 1, 1, "NORTE", 8, 4, 0, 10);
+        RoboDroneDeCarga rDroneCarga1 = new RoboDroneDeCarga("Cargueiro-Atlas", 1, 1, 1, Rumo.NORTE, 8, 4, 0, 10);
         rDroneCarga1.adicionarSensor(new SensorAltitude("Altura-Carga", 0));
         rDroneCarga1.ligar();
-        // O drone de carga já tem seu próprio comportamento autônomo, mas também poderia receber uma missão
+        // O drone de carga já tem seu próprio comportamento autônomo; enquanto houver pedidos, o despachante lhe dá missões de entrega
+        despachante.registrarDrone(rDroneCarga1);
 
         
-        RoboTerrestre roboPatrulha = new RoboTerrestre("Patrulheiro-Cerberus", 8, 10, "OESTE", 8);
+        RoboTerrestre roboPatrulha = new RoboTerrestre("Patrulheiro-Cerberus", 8, 10, Rumo.OESTE, 8);
         roboPatrulha.adicionarSensor(new SensorProximidade("Prox-Patrulheiro", 6.0));
+        SensorLinhaDeVisada lidarPatrulha = new SensorLinhaDeVisada("Lidar-Patrulheiro", 6.0, 16);
+        lidarPatrulha.definirAmostragem(2, Sensor.FASE_AUTOMATICA); // Sensor caro: lido a cada 2 rodadas
+        roboPatrulha.adicionarSensor(lidarPatrulha);
         roboPatrulha.ligar();
         roboPatrulha.definirMissao(new MissaoPatrulhar());
 
        
-        RoboComunicador roboTagarela = new RoboComunicador("Tagarela-Hermes", 3, 3, "SUL", 5, centralComunicacao);
+        RoboComunicador roboTagarela = new RoboComunicador("Tagarela-Hermes", 3, 3, Rumo.SUL, 5, centralComunicacao);
         roboTagarela.ligar();
         roboTagarela.definirMissao(new MissaoMonitorar());
 
@@ -112,6 +143,7 @@ private static void inicializarEntidades() {
             System.out.println("5. Listar mensagens trocadas");
             System.out.println("6. Acionar todos os sensores (teste global)");
             System.out.println("7. Gerenciar Missões"); // NOVA OPÇÃO
+            System.out.println("8. Exibir métricas de desempenho");
             System.out.println("0. Sair");
             System.out.print("Escolha uma opção: ");
 
@@ -131,9 +163,10 @@ private static void inicializarEntidades() {
                     case 2: escolherRoboParaInteragir(); break;
                     case 3: visualizarStatusGeral(); break;
                     case 4: ambiente.visualizarAmbiente(); break;
-                    case 5: centralComunicacao.exibirMensagens(); break;
+                    case 5: centralComunicacao.exibirMensagens(); centralComunicacao.exibirEstatisticas(); break;
                     case 6: ambiente.executarSensoresGlobais(); break;
                     case 7: gerenciarMissoes(); break; // NOVA CHAMADA
+                    case 8: exibirMetricas(); break;
                     case 0: System.out.println("Saindo do simulador..."); Log.registrar("SIMULADOR FINALIZADO."); break;
                     default: System.out.println("Opção inválida.");
                 }
@@ -167,32 +200,46 @@ private static void inicializarEntidades() {
         }
         scanner.nextLine(); // Consome a nova linha
 
-        // Obtém todos os robôs do ambiente
-        List<Robo> robos = ambiente.getEntidades().stream()
-                                .filter(e -> e instanceof Robo) // Filtra apenas entidades que são Robôs
-                                .map(e -> (Robo) e)           // Converte Entidade para Robo
-                                .collect(Collectors.toList()); // Coleta em uma lista
-        if (robos.isEmpty()) {
+        // Percorre os robôs do ambiente pelo registro
+        RegistroEntidades registro = ambiente.getRegistro();
+        int numRobos = registro.getTamanho(Categoria.ROBO);
+        if (numRobos == 0) {
             System.out.println("Nenhum robô no ambiente.");
             return;
         }
-
-        if (criterio == 1) { // Listar por tipo
-            robos.stream()
-                 .collect(Collectors.groupingBy(r -> r.getClass().getSimpleName())) // Agrupa robôs pelo nome da classe (tipo)
-                 .forEach((tipo, lista) -> {
-                     System.out.println("\nTipo: " + tipo);
-                     lista.forEach(r -> System.out.println("  - " + r.getDescricao())); // Imprime descrição de cada robô do tipo
-                 });
-        } else if (criterio == 2) { // Listar por estado
-            robos.stream()
-                 .collect(Collectors.groupingBy(Robo::getEstado)) // Agrupa robôs pelo estado (LIGADO, DESLIGADO, etc.)
-                 .forEach((estado, lista) -> {
-                     System.out.println("\nEstado: " + estado);
-                     lista.forEach(r -> System.out.println("  - " + r.getDescricao())); // Imprime descrição de cada robô no estado
-                 });
-        } else {
+        if (criterio != 1 && criterio != 2) {
             System.out.println("Critério inválido.");
+            return;
+        }
+
+        // Agrupa os robôs pelo nome da classe (tipo) ou pelo estado (LIGADO, DESLIGADO, etc.)
+        Map<Object, List<Robo>> grupos = new LinkedHashMap<>();
+        for (int i = 0; i < numRobos; i++) {
+            Robo r = (Robo) registro.get(Categoria.ROBO, i);
+            Object chave = criterio == 1 ? r.getClass().getSimpleName() : r.getEstado();
+            grupos.computeIfAbsent(chave, k -> new ArrayList<>()).add(r);
+        }
+        String rotulo = criterio == 1 ? "Tipo: " : "Estado: ";
+        grupos.forEach((chave, lista) -> {
+            System.out.println("\n" + rotulo + chave);
+            lista.forEach(r -> System.out.println("  - " + r.getDescricao())); // Imprime descrição de cada robô do grupo
+        });
+    }
+
+    /**
+     * Exibe as métricas de desempenho globais e, para cada sensor dos robôs, a amostragem
+     * configurada, a taxa efetiva de leitura e o custo médio medido.
+     */
+    private static void exibirMetricas() {
+        System.out.print("\n--- Métricas de Desempenho ---\n" + Metricas.resumo());
+        System.out.println("\n--- Sensores ---");
+        RegistroEntidades registro = ambiente.getRegistro();
+        for (int i = 0, n = registro.getTamanho(Categoria.ROBO); i < n; i++) {
+            Robo robo = (Robo) registro.get(Categoria.ROBO, i);
+            for (Sensor s : robo.getSensores()) {
+                System.out.println(String.format("%s / %s: período %d, fase %d, taxa efetiva %.2f, custo médio %.1f µs",
+                    robo.getId(), s.getNome(), s.getPeriodo(), s.getFase(), s.getTaxaEfetiva(), s.getCustoMedioNanos() / 1e3));
+            }
         }
     }
 
@@ -204,10 +251,11 @@ private static void inicializarEntidades() {
     private static void visualizarStatusGeral() throws ForaDosLimitesException { // Adicionado throws para cobrir visualizarAmbiente
         System.out.println("\n--- Status do Ambiente ---");
         System.out.println("Dimensões: " + ambiente.getLargura() + "x" + ambiente.getProfundidade() + "x" + ambiente.getAltura());
-        System.out.println("Total de Entidades: " + ambiente.getEntidades().size());
-        // Conta o número de robôs e obstáculos
-        long numRobos = ambiente.getEntidades().stream().filter(e -> e instanceof Robo).count();
-        long numObstaculos = ambiente.getEntidades().stream().filter(e -> e instanceof Obstaculo).count();
+        System.out.println("Total de Entidades: " + ambiente.getRegistro().getTotal());
+        // Número de robôs e obstáculos
+        RegistroEntidades registro = ambiente.getRegistro();
+        int numRobos = registro.getTamanho(Categoria.ROBO);
+        int numObstaculos = registro.getTamanho(Categoria.OBSTACULO);
         System.out.println("Robôs: " + numRobos + " | Obstáculos: " + numObstaculos);
 
         System.out.println("\n--- Status dos Robôs ---");
@@ -215,47 +263,46 @@ private static void inicializarEntidades() {
             System.out.println("Nenhum robô no ambiente.");
         } else {
             // Imprime a descrição de cada robô
-            ambiente.getEntidades().stream()
-                .filter(e -> e instanceof Robo)
-                .map(e -> (Robo) e)
-                .forEach(r -> System.out.println(r.getDescricao()));
+            for (int i = 0; i < numRobos; i++) {
+                System.out.println(registro.get(Categoria.ROBO, i).getDescricao());
+            }
         }
         ambiente.visualizarAmbiente(); // Mostra o mapa atual do ambiente
     }
 
     /**
-     * Permite ao usuário selecionar um robô da lista de robôs disponíveis no ambiente.
+     * Permite ao usuário selecionar um robô da lista de robôs disponíveis no ambiente,
+     * pelo número na lista ou pelo id.
      * @return O objeto {@link Robo} selecionado, ou `null` se nenhum robô for selecionado ou se a seleção for inválida.
      */
     private static Robo selecionarRobo() {
-        // Obtém a lista de robôs do ambiente
-        List<Robo> robos = ambiente.getEntidades().stream()
-                                .filter(e -> e instanceof Robo)
-                                .map(e -> (Robo) e)
-                                .collect(Collectors.toList());
-        if (robos.isEmpty()) {
+        RegistroEntidades registro = ambiente.getRegistro();
+        int numRobos = registro.getTamanho(Categoria.ROBO);
+        if (numRobos == 0) {
             System.out.println("Nenhum robô disponível.");
             return null;
         }
         System.out.println("\nSelecione o Robô:");
         // Lista os robôs disponíveis para seleção
-        for (int i = 0; i < robos.size(); i++) {
-            System.out.println((i + 1) + ". " + robos.get(i).getId() + " (" + robos.get(i).getClass().getSimpleName() + ")");
+        for (int i = 0; i < numRobos; i++) {
+            Robo r = (Robo) registro.get(Categoria.ROBO, i);
+            System.out.println((i + 1) + ". " + r.getId() + " (" + r.getClass().getSimpleName() + ")");
         }
-        System.out.print("Número do robô: ");
-        int escolha = -1;
-        // Lê a escolha do usuário
-        if (scanner.hasNextInt()){
-            escolha = scanner.nextInt() - 1; // Ajusta para índice baseado em zero
-        } else {
-            System.out.println("Entrada inválida para seleção.");
-            if(scanner.hasNext()) scanner.next(); // Limpa entrada inválida
-            return null; // Retorna null se a entrada não for um número
+        System.out.print("Número ou id do robô: ");
+        String entrada = scanner.nextLine().trim();
+        // Primeiro tenta o id; depois, o número na lista
+        Robo porId = registro.getRobo(entrada);
+        if (porId != null) {
+            return porId;
         }
-        scanner.nextLine(); // Consome a nova linha
-        // Verifica se a escolha é válida
-        if (escolha >= 0 && escolha < robos.size()) {
-            return robos.get(escolha); // Retorna o robô selecionado
+        try {
+            int escolha = Integer.parseInt(entrada) - 1; // Ajusta para índice baseado em zero
+            if (escolha >= 0 && escolha < numRobos) {
+                return (Robo) registro.get(Categoria.ROBO, escolha); // Retorna o robô selecionado
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Entrada inválida para seleção.");
+            return null;
         }
         System.out.println("Seleção inválida.");
         return null; // Retorna null se a seleção for inválida
@@ -280,6 +327,7 @@ private static void inicializarEntidades() {
             if (roboSelecionado instanceof Sensoreavel) System.out.println("4. Acionar Sensores");
             if (roboSelecionado instanceof Comunicavel) System.out.println("5. Enviar Mensagem");
             if (roboSelecionado instanceof Autonomo) System.out.println("6. Executar Ação Autônoma");
+            System.out.println("7. Definir Rumo (atual: " + roboSelecionado.getDirecao() + ")");
             System.out.println("0. Voltar ao menu principal");
             System.out.print("Escolha uma ação: ");
 
@@ -321,6 +369,7 @@ private static void inicializarEntidades() {
                             System.out.println("Robô não é Autônomo");
                         }
                         break;
+                    case 7: definirRumo(roboSelecionado); break;
                     case 0: break; // Volta ao menu principal
                     default: System.out.println("Opção inválida.");
                 }
@@ -359,6 +408,21 @@ private static void inicializarEntidades() {
         ambiente.visualizarAmbiente(); // Mostra o ambiente após o movimento
     }
 
+    /**
+     * Define o rumo de um robô, usado na sua tarefa padrão de patrulha.
+     * Aceita o nome do rumo (ex: NORDESTE, sul acima) ou as siglas N, NE, L, SE, S, SO, O e NO.
+     * @param robo O robô cujo rumo será alterado.
+     */
+    private static void definirRumo(Robo robo) {
+        System.out.print("Digite o rumo (N, NE, L, SE, S, SO, O, NO ou o nome, ex: LESTE_ACIMA): ");
+        try {
+            robo.setDirecao(Rumo.analisar(scanner.nextLine()));
+            System.out.println("Novo rumo de " + robo.getId() + ": " + robo.getDirecao());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
     /**
      * Liga ou desliga um robô, alternando seu estado atual.
      * @param robo O robô a ter seu estado alterado.
@@ -385,25 +449,26 @@ private static void inicializarEntidades() {
              return;
         }
         System.out.println("Selecione o destinatário para " + ((Robo)remetente).getId() + ":");
-        // Lista todos os robôs que também são Comunicavel e não são o próprio remetente
-        List<Robo> potenciaisDestinatarios = ambiente.getEntidades().stream()
-                                .filter(e -> e instanceof Robo && e instanceof Comunicavel && e != remetente)
-                                .map(e -> (Robo) e)
-                                .collect(Collectors.toList());
-        if (potenciaisDestinatarios.isEmpty()) {
+        // Lista os robôs comunicáveis, exceto o próprio remetente (numerados pela posição no registro)
+        RegistroEntidades registro = ambiente.getRegistro();
+        int numComunicadores = registro.getTamanho(Categoria.COMUNICADOR);
+        if (numComunicadores == 0 || (numComunicadores == 1 && registro.get(Categoria.COMUNICADOR, 0) == remetente)) {
             System.out.println("Nenhum outro robô comunicável disponível.");
             return;
         }
         // Mostra os destinatários disponíveis
-        for (int i = 0; i < potenciaisDestinatarios.size(); i++) {
-            System.out.println((i + 1) + ". " + potenciaisDestinatarios.get(i).getId());
+        for (int i = 0; i < numComunicadores; i++) {
+            Entidade e = registro.get(Categoria.COMUNICADOR, i);
+            if (e != remetente) {
+                System.out.println((i + 1) + ". " + ((Robo) e).getId());
+            }
         }
         System.out.print("Número do destinatário: ");
         int escolha = scanner.nextInt() - 1; // Ajusta para índice baseado em zero
         scanner.nextLine(); // Consome a nova linha
 
-        if (escolha >= 0 && escolha < potenciaisDestinatarios.size()) {
-            Comunicavel destinatario = (Comunicavel) potenciaisDestinatarios.get(escolha);
+        if (escolha >= 0 && escolha < numComunicadores && registro.get(Categoria.COMUNICADOR, escolha) != remetente) {
+            Comunicavel destinatario = (Comunicavel) registro.get(Categoria.COMUNICADOR, escolha);
             System.out.print("Digite a mensagem: ");
             String msg = scanner.nextLine();
             // Envia a mensagem através da interface Comunicavel do remetente
@@ -417,6 +482,8 @@ private static void inicializarEntidades() {
         System.out.println("\n--- Gerenciamento de Missões ---");
         System.out.println("1. Atribuir missão a um agente");
         System.out.println("2. Executar missão de um agente");
+        System.out.println("3. Executar um tick (missões de todos os agentes)");
+        System.out.println("4. Criar pedido de entrega de carga");
         System.out.println("0. Voltar");
         System.out.print("Escolha uma opção: ");
         int opcao = -1;
@@ -427,6 +494,11 @@ private static void inicializarEntidades() {
             switch (opcao) {
                 case 1: atribuirMissao(); break;
                 case 2: executarMissaoDeAgente(); break;
+                case 3:
+                    despachante.aoTick(ambiente); // Distribui os pedidos antes de as missões andarem
+                    ambiente.executarTick();
+                    break;
+                case 4: criarPedidoDeCarga(); break;
                 case 0: break;
                 default: System.out.println("Opção inválida.");
             }
@@ -436,37 +508,88 @@ private static void inicializarEntidades() {
         }
     }
 
+    /**
+     * Lê os pontos de coleta e entrega de um pedido e o entrega ao despachante, que o
+     * atribuirá a um drone de carga livre em um dos próximos ticks.
+     */
+    private static void criarPedidoDeCarga() {
+        System.out.print("Coleta (x y): ");
+        int deX = scanner.nextInt(), deY = scanner.nextInt();
+        System.out.print("Entrega (x y): ");
+        int paraX = scanner.nextInt(), paraY = scanner.nextInt();
+        System.out.print("Quantidade: ");
+        int quantidade = scanner.nextInt();
+        scanner.nextLine();
+        try {
+            int id = despachante.adicionarPedido(deX, deY, paraX, paraY, quantidade);
+            System.out.println("Pedido " + id + " registrado. Pendentes: " + despachante.getPedidosPendentes());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Pedido inválido: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lê um arquivo de rotas (ou reaproveita o já carregado) e cria a patrulha da rota escolhida.
+     * @return A missão criada, ou null se o arquivo ou a rota forem inválidos.
+     */
+    private static Missao criarPatrulhaDeArquivo() {
+        System.out.print("Arquivo de rotas [" + ARQUIVO_ROTAS_PADRAO + "]: ");
+        String arquivo = scanner.nextLine().trim();
+        if (arquivo.isEmpty()) arquivo = ARQUIVO_ROTAS_PADRAO;
+        try {
+            if (rotasCarregadas == null || !arquivo.equals(arquivoRotasCarregado)) {
+                rotasCarregadas = RotasPatrulha.carregar(arquivo);
+                arquivoRotasCarregado = arquivo;
+            }
+        } catch (IOException e) {
+            System.out.println("Não foi possível carregar as rotas: " + e.getMessage());
+            return null;
+        }
+        for (int r = 0; r < rotasCarregadas.getNumRotas(); r++) {
+            System.out.println((r + 1) + ". " + rotasCarregadas.getNome(r) + " (" + rotasCarregadas.getTamanho(r) + " pontos)");
+        }
+        System.out.print("Número da rota: ");
+        int rota = scanner.nextInt() - 1;
+        scanner.nextLine();
+        if (rota < 0 || rota >= rotasCarregadas.getNumRotas()) {
+            System.out.println("Rota inválida.");
+            return null;
+        }
+        return new missao.MissaoPatrulhar(rotasCarregadas, rota, false);
+    }
+
     /**
      * Permite ao usuário escolher um AgenteInteligente e atribuir uma missão a ele.
      */
     private static void atribuirMissao() {
         System.out.println("\nSelecione o agente para receber a missão:");
-        List<AgenteInteligente> agentes = ambiente.getEntidades().stream()
-                .filter(e -> e instanceof AgenteInteligente)
-                .map(e -> (AgenteInteligente) e)
-                .collect(Collectors.toList());
+        RegistroEntidades registro = ambiente.getRegistro();
+        int numAgentes = registro.getTamanho(Categoria.AGENTE);
 
-        if (agentes.isEmpty()) {
+        if (numAgentes == 0) {
             System.out.println("Nenhum Agente Inteligente disponível.");
             return;
         }
 
         // Lista os agentes disponíveis
-        for (int i = 0; i < agentes.size(); i++) {
-            System.out.println((i + 1) + ". " + agentes.get(i).getId());
+        for (int i = 0; i < numAgentes; i++) {
+            System.out.println((i + 1) + ". " + ((AgenteInteligente) registro.get(Categoria.AGENTE, i)).getId());
         }
         System.out.print("Número do agente: ");
         int escolhaAgente = scanner.nextInt() - 1;
         scanner.nextLine();
 
-        if (escolhaAgente >= 0 && escolhaAgente < agentes.size()) {
-            AgenteInteligente agenteSelecionado = agentes.get(escolhaAgente);
+        if (escolhaAgente >= 0 && escolhaAgente < numAgentes) {
+            AgenteInteligente agenteSelecionado = (AgenteInteligente) registro.get(Categoria.AGENTE, escolhaAgente);
 
             // Menu para escolher a missão
             System.out.println("\nEscolha a missão para " + agenteSelecionado.getId() + ":");
-            System.out.println("1. Explorar (movimento aleatório)");
+            System.out.println("1. Explorar (fronteiras ainda não vistas)");
             System.out.println("2. Patrulhar (seguir rota pré-definida)");
             System.out.println("3. Monitorar (usar sensores)");
+            System.out.println("4. Patrulhar cooperativamente (reservando o caminho)");
+            System.out.println("5. Patrulhar rota carregada de arquivo");
+            System.out.println("6. Cobrir uma região (varredura com sensores)");
             System.out.print("Sua escolha: ");
             int escolhaMissao = scanner.nextInt();
             scanner.nextLine();
@@ -482,6 +605,24 @@ private static void inicializarEntidades() {
                 case 3:
                     missao = new missao.MissaoMonitorar(); // Usando o nome completo
                     break;
+                case 4:
+                    missao = new missao.MissaoPatrulhar(true);
+                    break;
+                case 5:
+                    missao = criarPatrulhaDeArquivo();
+                    if (missao == null) return;
+                    break;
+                case 6:
+                    System.out.print("Região (x1 y1 x2 y2): ");
+                    int rx1 = scanner.nextInt(), ry1 = scanner.nextInt(), rx2 = scanner.nextInt(), ry2 = scanner.nextInt();
+                    scanner.nextLine();
+                    try {
+                        missao = new missao.MissaoCobertura(Math.min(rx1, rx2), Math.min(ry1, ry2), Math.max(rx1, rx2), Math.max(ry1, ry2));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Região inválida: " + e.getMessage());
+                        return;
+                    }
+                    break;
                 default:
                     System.out.println("Opção de missão inválida.");
                     return;
@@ -500,25 +641,28 @@ private static void inicializarEntidades() {
      */
     private static void executarMissaoDeAgente() {
         System.out.println("\nSelecione o agente para executar a missão:");
-        List<AgenteInteligente> agentes = ambiente.getEntidades().stream()
-                .filter(e -> e instanceof AgenteInteligente && ((AgenteInteligente) e).temMissao())
-                .map(e -> (AgenteInteligente) e)
-                .collect(Collectors.toList());
-
-        if (agentes.isEmpty()) {
+        RegistroEntidades registro = ambiente.getRegistro();
+        int numAgentes = registro.getTamanho(Categoria.AGENTE);
+
+        // Lista apenas os agentes com missão (numerados pela posição no registro)
+        boolean algum = false;
+        for (int i = 0; i < numAgentes; i++) {
+            AgenteInteligente agente = (AgenteInteligente) registro.get(Categoria.AGENTE, i);
+            if (agente.temMissao()) {
+                System.out.println((i + 1) + ". " + agente.getId());
+                algum = true;
+            }
+        }
+        if (!algum) {
             System.out.println("Nenhum Agente Inteligente com missão atribuída.");
             return;
         }
-
-        for (int i = 0; i < agentes.size(); i++) {
-            System.out.println((i + 1) + ". " + agentes.get(i).getId());
-        }
         System.out.print("Número do agente: ");
         int escolha = scanner.nextInt() - 1;
         scanner.nextLine();
 
-        if (escolha >= 0 && escolha < agentes.size()) {
-            AgenteInteligente agenteSelecionado = agentes.get(escolha);
+        if (escolha >= 0 && escolha < numAgentes && ((AgenteInteligente) registro.get(Categoria.AGENTE, escolha)).temMissao()) {
+            AgenteInteligente agenteSelecionado = (AgenteInteligente) registro.get(Categoria.AGENTE, escolha);
             agenteSelecionado.executarMissao(ambiente);
         } else {
             System.out.println("Seleção inválida.");
@@ -1,8 +1,30 @@
 package ambiente;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import navegacao.CamposDeFluxo;
+import navegacao.Decomposicoes;
+import navegacao.MapaExploracao;
+import navegacao.PerfilMovimento;
+import navegacao.PlanejadorAEstrela;
+import navegacao.PlanejadorCooperativo;
+import navegacao.PlanejadorDStarLite;
+import navegacao.PlanejadorHierarquico;
+import navegacao.TabelaReservas;
+import robo.AgenteInteligente;
+import robo.ArmazemRobos;
 import robo.Robo;
 import robo.EstadoRobo;
+import sensores.EscalonadorFases;
+import sensores.Sensor;
 import sensores.Sensoreavel;
+import util.Metricas;
+import util.jfr.EventoColisao;
+import util.jfr.EventoMovimento;
+import util.jfr.EventoTick;
 
 
 /**
@@ -11,13 +33,31 @@ import sensores.Sensoreavel;
  * da posição de todas as entidades.
  */
 public class Ambiente {
+    /** Número mínimo de entidades sensoreáveis para acionar os sensores em paralelo. */
+    private static final int LIMIAR_SENSORES_PARALELOS = 64;
+
     private final int largura, profundidade, altura; // Dimensões do ambiente
-    private ArrayList<Entidade> entidades;         // Lista de todas as entidades presentes no ambiente
+    private final ArmazemRobos armazem = new ArmazemRobos(64); // Posição e estado dos robôs, pelos handles do registro
+    private final RegistroEntidades registro = new RegistroEntidades(armazem); // Handles, ids e categorias das entidades
     private TipoEntidade[][][] mapa;               // Representação tridimensional do ambiente, indicando o que ocupa cada célula
+    private final GradeEspacial grade;             // Índice espacial para consultas por vizinhança
+    private final TabelaVizinhanca tabelaVizinhanca = new TabelaVizinhanca(); // Pares de robôs próximos da rodada de sensores
+    private final EscalonadorFases escalonadorFases = new EscalonadorFases(); // Fases automáticas de amostragem dos sensores
+    private boolean vizinhancaValida;              // true apenas durante executarSensoresGlobais
+    private PlanejadorAEstrela planejador;         // Planejador de caminhos compartilhado, criado sob demanda
+    private CamposDeFluxo camposDeFluxo;           // Campos de distância até destinos compartilhados, criados sob demanda
+    private Decomposicoes decomposicoes;           // Decomposições de regiões para cobertura, criadas sob demanda
+    private final HashMap<Long, PlanejadorHierarquico> planejadoresHierarquicos = new HashMap<>(); // Um por perfil de movimento
+    private final HashMap<Robo, PlanejadorDStarLite> planejadoresIncrementais = new HashMap<>(); // Estado de busca D* Lite de cada robô
+    // Um por altitude explorada; concorrente porque a cobertura pode ser lida pela thread do JMX
+    private final ConcurrentHashMap<Integer, MapaExploracao> mapasExploracao = new ConcurrentHashMap<>();
+    private PlanejadorCooperativo planejadorCooperativo; // Planejador espaço-tempo com tabela de reservas, criado sob demanda
+    private long tick;                             // Relógio da simulação (número de ticks executados)
+    private final List<OuvinteMudancaCelulas> ouvintes = new ArrayList<>(); // Avisados quando obstáculos mudam o mapa
 
     /**
      * Construtor para criar um novo ambiente com as dimensões especificadas.
-     * Inicializa o mapa como vazio e a lista de entidades.
+     * Inicializa o mapa como vazio.
      *
      * @param largura      A dimensão X do ambiente.
      * @param profundidade A dimensão Y do ambiente.
@@ -28,7 +68,6 @@ public class Ambiente {
         this.largura = largura;
         this.profundidade = profundidade;
         this.altura = altura;
-        this.entidades = new ArrayList<>(); // Inicializa a lista de entidades
 
         // Validação das dimensões do ambiente
         if (largura <= 0 || profundidade <= 0 || altura <= 0) {
@@ -38,6 +77,7 @@ public class Ambiente {
         // Cria o mapa tridimensional
         this.mapa = new TipoEntidade[largura][profundidade][altura];
         inicializarMapa(); // Preenche o mapa com células vazias
+        this.grade = new GradeEspacial(largura, profundidade, GradeEspacial.TAMANHO_BALDE_PADRAO);
     }
 
     /**
@@ -84,6 +124,23 @@ public class Ambiente {
         return mapa[x][y][z] != TipoEntidade.VAZIO; // Verifica se a célula não está marcada como VAZIO
     }
 
+    /**
+     * Retorna o tipo de entidade que ocupa a célula (x, y, z), sem lançar exceções.
+     * Destinado a laços internos (como o traçado de raios dos sensores) que já
+     * controlam os limites por conta própria.
+     *
+     * @param x A coordenada X.
+     * @param y A coordenada Y.
+     * @param z A coordenada Z.
+     * @return O {@link TipoEntidade} da célula, ou null se a posição estiver fora dos limites.
+     */
+    public TipoEntidade getTipoEm(int x, int y, int z) {
+        if (!dentroDosLimites(x, y, z)) {
+            return null;
+        }
+        return mapa[x][y][z];
+    }
+
     /**
      * Retorna a entidade que está em uma posição específica (x, y, z).
      * Este método é primariamente útil para entidades pontuais como Robôs, que ocupam uma única célula.
@@ -99,16 +156,9 @@ public class Ambiente {
         if (!dentroDosLimites(x, y, z)) {
             throw new ForaDosLimitesException("Consulta de entidade fora dos limites: (" + x + "," + y + "," + z + ")");
         }
-        // Verifica se há uma entidade pontual (como um Robô) na célula.
-        if (mapa[x][y][z] != TipoEntidade.VAZIO) {
-            for (Entidade ent : entidades) {
-                // Verifica apenas entidades que ocupam um único ponto, como Robôs.
-                if (ent instanceof Robo) {
-                    if (ent.getX() == x && ent.getY() == y && ent.getZ() == z) {
-                        return ent; // Retorna o robô encontrado
-                    }
-                }
-            }
+        // Apenas robôs ocupam um único ponto; o robô da célula é procurado só no seu balde da grade.
+        if (mapa[x][y][z] == TipoEntidade.ROBO) {
+            return grade.buscarEm(x, y, z);
         }
         return null; // Nenhuma entidade pontual encontrada, ou a célula é parte de um obstáculo maior.
     }
@@ -120,10 +170,15 @@ public class Ambiente {
      * @param e A entidade a ser adicionada.
      * @throws ColisaoException        Se a posição onde a entidade seria adicionada já estiver ocupada.
      * @throws ForaDosLimitesException Se a entidade (ou parte dela) estiver fora dos limites do ambiente.
+     * @throws IllegalArgumentException Se já houver no ambiente outro robô com o mesmo id.
      */
     public void adicionarEntidade(Entidade e) throws ColisaoException, ForaDosLimitesException {
         if (e instanceof Robo) { // Se a entidade é um Robô
             Robo r = (Robo) e;
+            Robo mesmoId = registro.getRobo(r.getId());
+            if (mesmoId != null && mesmoId != r) {
+                throw new IllegalArgumentException("Já existe um robô com o id " + r.getId() + " no ambiente.");
+            }
             // Verifica se o robô está dentro dos limites
             if (!dentroDosLimites(r.getX(), r.getY(), r.getZ())) {
                 throw new ForaDosLimitesException("Robô " + r.getId() + " fora dos limites ao adicionar: (" + r.getX() + "," + r.getY() + "," + r.getZ() + ")");
@@ -160,7 +215,11 @@ public class Ambiente {
                 }
             }
         }
-        entidades.add(e); // Adiciona a entidade à lista de entidades do ambiente
+        registro.registrar(e); // O estado de um robô passa a morar no armazém do ambiente
+        grade.inserir(e);
+        if (e instanceof Obstaculo) {
+            avisarOuvintes((Obstaculo) e, true);
+        }
     }
 
     /**
@@ -190,7 +249,39 @@ public class Ambiente {
                 }
             }
         }
-        entidades.remove(e); // Remove a entidade da lista de entidades do ambiente
+        if (registro.remover(e)) { // O(1): o handle fica guardado na própria entidade
+            grade.remover(e);
+            if (e instanceof Obstaculo) {
+                avisarOuvintes((Obstaculo) e, false);
+            } else if (e instanceof Robo) {
+                PlanejadorDStarLite incremental = planejadoresIncrementais.remove(e);
+                if (incremental != null) {
+                    removerOuvinte(incremental);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registra um ouvinte para ser avisado quando obstáculos bloquearem ou liberarem células do mapa.
+     * @param ouvinte O ouvinte a ser registrado.
+     */
+    public void adicionarOuvinte(OuvinteMudancaCelulas ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Cancela o registro de um ouvinte de mudanças do mapa.
+     * @param ouvinte O ouvinte a ser removido.
+     */
+    public void removerOuvinte(OuvinteMudancaCelulas ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    private void avisarOuvintes(Obstaculo o, boolean bloqueadas) {
+        for (int i = 0; i < ouvintes.size(); i++) {
+            ouvintes.get(i).celulasAlteradas(o.getX1(), o.getY1(), o.getZ1(), o.getX2(), o.getY2(), o.getZ2(), bloqueadas);
+        }
     }
 
     /**
@@ -212,6 +303,9 @@ public class Ambiente {
             throw new AcaoNaoPermitidaException("Apenas robôs podem ser movidos com moverEntidade. Tentativa em: " + e.getDescricao());
         }
         Robo robo = (Robo) e;
+        long inicio = Metricas.inicioAmostrado();
+        EventoMovimento evento = new EventoMovimento();
+        evento.begin();
 
         // Verifica se o robô está ligado
         if (robo.getEstado() == EstadoRobo.DESLIGADO) {
@@ -219,10 +313,13 @@ public class Ambiente {
         }
         // Verifica se a nova posição está dentro dos limites
         if (!dentroDosLimites(novoX, novoY, novoZ)) {
+            Metricas.contar(Metricas.Contador.FORA_DOS_LIMITES);
             throw new ForaDosLimitesException("Movimento para (" + novoX + "," + novoY + "," + novoZ + ") está fora dos limites para o robô " + robo.getId());
         }
         // Verifica se a nova posição está ocupada
         if (estaOcupado(novoX, novoY, novoZ)) {
+            Metricas.contar(Metricas.Contador.COLISOES);
+            registrarColisao(robo, novoX, novoY, novoZ);
             throw new ColisaoException("Colisão! Posição (" + novoX + "," + novoY + "," + novoZ + ") já está ocupada. Robô " + robo.getId() + " não pode mover.");
         }
 
@@ -236,11 +333,39 @@ public class Ambiente {
              mapa[antigoX][antigoY][antigoZ] = TipoEntidade.VAZIO;
         }
 
-        // Atualiza a posição do objeto Robô
+        // Atualiza a posição do objeto Robô e o índice espacial
         robo.atualizarPosicao(novoX, novoY, novoZ);
+        grade.mover(robo, antigoX, antigoY, novoX, novoY);
         // Marca a nova posição do robô no mapa
         mapa[novoX][novoY][novoZ] = robo.getTipo();
         System.out.println("Robô " + robo.getId() + " moveu-se de (" + antigoX + "," + antigoY + "," + antigoZ + ") para (" + novoX + "," + novoY + "," + novoZ + ")");
+        Metricas.contar(Metricas.Contador.MOVIMENTOS_ACEITOS);
+        Metricas.MOVIMENTO.registrarDesde(inicio);
+        if (evento.shouldCommit()) {
+            evento.robo = robo.getId();
+            evento.handle = robo.getHandle();
+            evento.deX = antigoX;
+            evento.deY = antigoY;
+            evento.deZ = antigoZ;
+            evento.paraX = novoX;
+            evento.paraY = novoY;
+            evento.paraZ = novoZ;
+            evento.commit();
+        }
+    }
+
+    /** Emite o evento de colisão do JFR, se estiver ativo na gravação. */
+    private void registrarColisao(Robo robo, int x, int y, int z) {
+        EventoColisao evento = new EventoColisao();
+        if (evento.shouldCommit()) {
+            evento.robo = robo.getId();
+            evento.handle = robo.getHandle();
+            evento.x = x;
+            evento.y = y;
+            evento.z = z;
+            evento.ocupante = String.valueOf(getTipoEm(x, y, z));
+            evento.commit();
+        }
     }
 
     /**
@@ -263,30 +388,22 @@ public class Ambiente {
                 for (int x = 0; x < largura; x++) { // Itera sobre cada coluna X
                     char symbol = '.'; // Símbolo padrão para célula vazia
                     if (mapa[x][y][z] != TipoEntidade.VAZIO) { // Se a célula não está vazia
-                        Entidade entNaCelula = null;
                         // Verifica se um robô está exatamente nesta célula x,y,z
-                        for (Entidade ent : entidades) {
-                            if (ent instanceof Robo && ent.getX() == x && ent.getY() == y && ent.getZ() == z) {
-                                entNaCelula = ent;
-                                break; // Encontrou o robô
-                            }
-                        }
+                        Entidade entNaCelula = getEntidadeEm(x, y, z);
 
                         if (entNaCelula != null) { // Se encontrou um robô na célula
                             symbol = entNaCelula.getRepresentacao(); // Usa a representação do robô
                         } else if (mapa[x][y][z] == TipoEntidade.OBSTACULO) {
                             // Se é um obstáculo, encontra qual obstáculo ocupa esta célula para obter sua representação específica
                             char obsSymbol = 'X'; // Símbolo padrão para parte de um obstáculo
-                            for (Entidade ent : entidades) {
-                                if (ent instanceof Obstaculo) {
-                                    Obstaculo o = (Obstaculo) ent;
-                                    // Verifica se a célula (x,y,z) pertence a este obstáculo
-                                    if (x >= o.getX1() && x <= o.getX2() &&
-                                        y >= o.getY1() && y <= o.getY2() &&
-                                        z >= o.getZ1() && z <= o.getZ2()) {
-                                        obsSymbol = o.getRepresentacao(); // Usa a representação do obstáculo
-                                        break;
-                                    }
+                            for (int i = 0, n = registro.getTamanho(RegistroEntidades.Categoria.OBSTACULO); i < n; i++) {
+                                Obstaculo o = (Obstaculo) registro.get(RegistroEntidades.Categoria.OBSTACULO, i);
+                                // Verifica se a célula (x,y,z) pertence a este obstáculo
+                                if (x >= o.getX1() && x <= o.getX2() &&
+                                    y >= o.getY1() && y <= o.getY2() &&
+                                    z >= o.getZ1() && z <= o.getZ2()) {
+                                    obsSymbol = o.getRepresentacao(); // Usa a representação do obstáculo
+                                    break;
                                 }
                             }
                             symbol = obsSymbol;
@@ -306,27 +423,267 @@ public class Ambiente {
     /**
      * Aciona os sensores de todas as entidades "Sensoreáveis" (geralmente robôs) no ambiente.
      * Cada entidade sensoreável irá então executar sua lógica de sensoriamento.
+     * Com muitas entidades, os sensores são acionados em paralelo sobre o mundo parado;
+     * a saída de cada entidade é acumulada separadamente e impressa na ordem das entidades.
+     * Cada sensor deve estar acoplado a um único robô, pois guarda o estado da sua última leitura.
      */
     public void executarSensoresGlobais() {
         System.out.println("\n--- Executando Sensores no Ambiente ---");
-        for (Entidade e : entidades) {
-            if (e instanceof Sensoreavel) { // Verifica se a entidade pode ter sensores
+        // Calcula de uma só vez os pares de robôs vizinhos, até o maior raio de sensor presente.
+        // As entidades sensoreáveis vêm da categoria do registro, sem filtrar todas as entidades.
+        Entidade[] sensoreaveis = registro.copiar(RegistroEntidades.Categoria.SENSOREAVEL);
+        double raioMaximo = 0;
+        for (Entidade e : sensoreaveis) {
+            if (e instanceof Robo) {
+                for (Sensor s : ((Robo) e).getSensores()) {
+                    raioMaximo = Math.max(raioMaximo, s.getRaio());
+                }
+            }
+        }
+        tabelaVizinhanca.construir(armazem, registro, raioMaximo);
+
+        // Fase de sensores: o mundo não muda enquanto ela dura, então cada entidade pode
+        // ser processada em qualquer thread do pool (work-stealing), escrevendo em um buffer próprio.
+        String[] saidas = new String[sensoreaveis.length];
+        IntStream indices = IntStream.range(0, saidas.length);
+        if (saidas.length >= LIMIAR_SENSORES_PARALELOS) {
+            indices = indices.parallel();
+        }
+        vizinhancaValida = true;
+        try {
+            indices.forEach(i -> {
+                StringBuilder saida = new StringBuilder();
                 try {
-                    ((Sensoreavel) e).acionarSensores(this); // Chama o método para acionar sensores
+                    ((Sensoreavel) sensoreaveis[i]).acionarSensores(this, saida); // Chama o método para acionar sensores
                 } catch (RoboDesligadoException rde) {
                     // Informa se um robô estava desligado e não pôde acionar seus sensores
-                    System.out.println("Erro ao acionar sensores para " + ((Robo) e).getId() + ": " + rde.getMessage());
+                    saida.append("Erro ao acionar sensores para ").append(((Robo) sensoreaveis[i]).getId()).append(": ").append(rde.getMessage()).append('\n');
                 }
-            }
+                saidas[i] = saida.toString();
+            });
+        } finally {
+            vizinhancaValida = false;
+        }
+        // Os resultados são impressos na ordem das entidades, independentemente da thread que os produziu.
+        for (String saida : saidas) {
+            System.out.print(saida);
         }
     }
 
     /**
-     * Retorna a lista de todas as entidades presentes no ambiente.
-     * @return Uma `ArrayList` contendo todas as entidades.
+     * Retorna a tabela de vizinhança da rodada de sensores em andamento.
+     * A tabela só é válida durante {@link #executarSensoresGlobais()}, quando o mundo
+     * não se move; fora dela, os sensores devem consultar a grade espacial.
+     * @return A {@link TabelaVizinhanca} da rodada atual, ou null se não houver rodada em andamento.
+     */
+    public TabelaVizinhanca getTabelaVizinhanca() {
+        return vizinhancaValida ? tabelaVizinhanca : null;
+    }
+
+    /**
+     * Retorna o escalonador que distribui as fases automáticas de amostragem dos sensores
+     * dos robôs deste ambiente. Criado junto com o ambiente, pois é usado na fase paralela de sensores.
+     * @return O {@link EscalonadorFases} do ambiente.
+     */
+    public EscalonadorFases getEscalonadorFases() {
+        return escalonadorFases;
+    }
+
+    /**
+     * Retorna uma cópia da lista de todas as entidades presentes no ambiente, na ordem dos handles.
+     * Para percorrer um tipo de entidade, prefira as categorias do {@link #getRegistro() registro}.
+     * @return Uma `ArrayList` nova contendo todas as entidades.
      */
     public ArrayList<Entidade> getEntidades() {
-        return entidades;
+        return registro.copiarTodas();
+    }
+
+    /**
+     * Retorna o registro das entidades, para buscas por id e percursos por categoria
+     * sem filtrar a lista de entidades.
+     * @return O {@link RegistroEntidades} mantido pelo ambiente.
+     */
+    public RegistroEntidades getRegistro() {
+        return registro;
+    }
+
+    /**
+     * Retorna o armazém com a posição, o estado e a direção dos robôs do ambiente,
+     * indexado pelos mesmos handles do {@link #getRegistro() registro}.
+     * @return O {@link ArmazemRobos} mantido pelo ambiente.
+     */
+    public ArmazemRobos getArmazem() {
+        return armazem;
+    }
+
+    /**
+     * Retorna o índice espacial do ambiente, usado para consultas por vizinhança
+     * (por exemplo, pelos sensores de proximidade).
+     * @return A {@link GradeEspacial} mantida pelo ambiente.
+     */
+    public GradeEspacial getGrade() {
+        return grade;
+    }
+
+    /**
+     * Retorna o planejador de caminhos A* compartilhado por todos os robôs deste ambiente.
+     * Seus buffers são reaproveitados entre consultas; não deve ser usado por várias threads ao mesmo tempo.
+     * @return O planejador do ambiente.
+     */
+    public PlanejadorAEstrela getPlanejador() {
+        if (planejador == null) {
+            planejador = new PlanejadorAEstrela(this);
+        }
+        return planejador;
+    }
+
+    /**
+     * Retorna o cache de campos de distância (flow fields) deste ambiente, usado por robôs
+     * que se dirigem a destinos compartilhados.
+     * @return Os campos de distância do ambiente.
+     */
+    public CamposDeFluxo getCamposDeFluxo() {
+        if (camposDeFluxo == null) {
+            camposDeFluxo = new CamposDeFluxo(this);
+        }
+        return camposDeFluxo;
+    }
+
+    /**
+     * Retorna o cache de decomposições de regiões (boustrophedon) deste ambiente, usado
+     * pelas missões de cobertura.
+     * @return As decomposições do ambiente.
+     */
+    public Decomposicoes getDecomposicoes() {
+        if (decomposicoes == null) {
+            decomposicoes = new Decomposicoes(this);
+            adicionarOuvinte(decomposicoes);
+        }
+        return decomposicoes;
+    }
+
+    /**
+     * Retorna o planejador hierárquico (HPA*) deste ambiente para o perfil de movimento dado,
+     * criando-o na primeira vez. Indicado para trajetos longos em ambientes grandes.
+     * @param perfil As restrições de movimento do robô.
+     * @return O planejador hierárquico do perfil.
+     */
+    public PlanejadorHierarquico getPlanejadorHierarquico(PerfilMovimento perfil) {
+        long chave = ((long) perfil.getZMin() * altura + perfil.getZMax()) * 2 + (perfil.permiteDiagonais() ? 1 : 0);
+        PlanejadorHierarquico p = planejadoresHierarquicos.get(chave);
+        if (p == null) {
+            p = new PlanejadorHierarquico(this, perfil);
+            adicionarOuvinte(p);
+            planejadoresHierarquicos.put(chave, p);
+        }
+        return p;
+    }
+
+    /**
+     * Retorna o mapa de exploração do plano de altitude z, compartilhado pelos robôs que
+     * exploram esse plano, criando-o na primeira vez.
+     * @param z A altitude do plano.
+     * @return O mapa de exploração do plano.
+     */
+    public MapaExploracao getMapaExploracao(int z) {
+        MapaExploracao m = mapasExploracao.get(z);
+        if (m == null) {
+            m = new MapaExploracao(this, z);
+            adicionarOuvinte(m);
+            mapasExploracao.put(z, m);
+        }
+        return m;
+    }
+
+    /**
+     * Retorna a cobertura da exploração somada em todos os planos já explorados: a fração das
+     * células livres desses planos que algum robô já viu.
+     * @return Um valor entre 0 e 1, ou 0 se nenhum plano foi explorado.
+     */
+    public double getCoberturaExploracao() {
+        long visitadas = 0, livres = 0;
+        for (MapaExploracao m : mapasExploracao.values()) {
+            visitadas += m.getCelulasVisitadas();
+            livres += m.getCelulasLivres();
+        }
+        return livres == 0 ? 0 : (double) visitadas / livres;
+    }
+
+    /**
+     * Retorna o planejador incremental (D* Lite) do robô, criando-o na primeira vez.
+     * Cada robô tem o seu, pois o estado da busca guardado entre as consultas depende do
+     * destino; ele é avisado das mudanças de obstáculos e descartado quando o robô sai do ambiente.
+     * @param robo O robô dono do planejador.
+     * @return O planejador incremental do robô.
+     */
+    public PlanejadorDStarLite getPlanejadorIncremental(Robo robo) {
+        PlanejadorDStarLite p = planejadoresIncrementais.get(robo);
+        if (p == null) {
+            p = new PlanejadorDStarLite(this, PerfilMovimento.paraRobo(robo, this));
+            adicionarOuvinte(p);
+            planejadoresIncrementais.put(robo, p);
+        }
+        return p;
+    }
+
+    /**
+     * Retorna o planejador cooperativo deste ambiente, cuja {@link TabelaReservas} é
+     * compartilhada por todos os agentes que planejam em espaço-tempo.
+     * @return O planejador cooperativo do ambiente.
+     */
+    public PlanejadorCooperativo getPlanejadorCooperativo() {
+        if (planejadorCooperativo == null) {
+            TabelaReservas reservas = new TabelaReservas((long) largura * profundidade * altura);
+            reservas.avancarPara(tick);
+            planejadorCooperativo = new PlanejadorCooperativo(this, reservas);
+        }
+        return planejadorCooperativo;
+    }
+
+    /**
+     * Retorna o tick atual da simulação.
+     * @return O número de ticks já executados.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Avança o relógio da simulação em um tick. Reservas espaço-temporais de ticks
+     * passados deixam de valer.
+     */
+    public void avancarTick() {
+        tick++;
+        if (planejadorCooperativo != null) {
+            planejadorCooperativo.getReservas().avancarPara(tick);
+        }
+    }
+
+    /**
+     * Executa um tick da simulação: cada agente inteligente com missão executa um passo
+     * da sua missão, na ordem do registro, e em seguida o relógio avança.
+     */
+    public void executarTick() {
+        long inicio = Metricas.inicio();
+        EventoTick evento = new EventoTick();
+        evento.begin();
+        long numero = tick;
+        int agentes = 0;
+        System.out.println("\n--- Tick " + tick + " ---");
+        // Copia os agentes, pois missões podem adicionar ou remover entidades
+        for (Entidade e : registro.copiar(RegistroEntidades.Categoria.AGENTE)) {
+            if (((AgenteInteligente) e).temMissao()) {
+                ((AgenteInteligente) e).executarMissao(this);
+                agentes++;
+            }
+        }
+        avancarTick();
+        Metricas.TICK.registrarDesde(inicio);
+        if (evento.shouldCommit()) {
+            evento.tick = numero;
+            evento.agentes = agentes;
+            evento.commit();
+        }
     }
 
     // Getters para as dimensões do ambiente
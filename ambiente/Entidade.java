@@ -43,4 +43,12 @@ public interface Entidade {
      * @return Um char para representação no console.
      */
     char getRepresentacao();
+
+    /**
+     * Retorna o handle da entidade no {@link RegistroEntidades} do ambiente onde ela está.
+     * Fora de um ambiente o valor não tem significado; {@link RegistroEntidades#getHandle(Entidade)}
+     * diz se a entidade está registrada.
+     * @return O handle da entidade.
+     */
+    int getHandle();
 }
\ No newline at end of file
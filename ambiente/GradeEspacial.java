@@ -0,0 +1,236 @@
+package ambiente;
+// GradeEspacial.java
+
+import java.util.ArrayList;
+
+/**
+ * Índice espacial uniforme (lista de células) sobre o plano XY do {@link Ambiente}.
+ * O plano é dividido em baldes quadrados de lado fixo; cada robô é guardado no balde
+ * que contém sua posição e cada obstáculo em todos os baldes que sua caixa cobre.
+ * Robôs e obstáculos ficam em listas separadas em cada balde, para que uma consulta só
+ * de obstáculos não precise percorrer os robôs.
+ * Uma consulta por raio examina apenas os baldes vizinhos que intersectam o raio,
+ * de modo que o custo depende da densidade local e não do tamanho do mundo.
+ * Cada balde guarda também a época da sua última modificação, o que permite
+ * saber se algo mudou em uma região desde uma leitura anterior.
+ */
+public class GradeEspacial {
+    /** Lado padrão (em células do mapa) de cada balde da grade. */
+    public static final int TAMANHO_BALDE_PADRAO = 8;
+
+    /**
+     * Interface funcional para receber as entidades encontradas em uma consulta.
+     */
+    @FunctionalInterface
+    public interface Visitante {
+        void visitar(Entidade e);
+    }
+
+    private final int tamanhoBalde;
+    private final int colunas, linhas; // Número de baldes em X e em Y
+    private final ArrayList<Entidade>[] baldes;            // Robôs e outras entidades pontuais, criados sob demanda
+    private final ArrayList<Entidade>[] baldesObstaculos;  // Obstáculos, criados sob demanda
+    private final long[] epocas;                // Época da última modificação de cada balde
+    private long epocaAtual;                    // Contador global de modificações
+
+    /**
+     * Cria uma grade cobrindo um plano de largura x profundidade células.
+     *
+     * @param largura      A dimensão X do ambiente.
+     * @param profundidade A dimensão Y do ambiente.
+     * @param tamanhoBalde O lado de cada balde, em células.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public GradeEspacial(int largura, int profundidade, int tamanhoBalde) {
+        this.tamanhoBalde = Math.max(1, tamanhoBalde);
+        this.colunas = (largura + this.tamanhoBalde - 1) / this.tamanhoBalde;
+        this.linhas = (profundidade + this.tamanhoBalde - 1) / this.tamanhoBalde;
+        this.baldes = new ArrayList[colunas * linhas];
+        this.baldesObstaculos = new ArrayList[colunas * linhas];
+        this.epocas = new long[colunas * linhas];
+    }
+
+    public int getTamanhoBalde() { return tamanhoBalde; }
+
+    /** Converte uma coordenada do mapa no índice de balde, limitado às bordas da grade. */
+    private int baldeX(int x) { return Math.max(0, Math.min(colunas - 1, x / tamanhoBalde)); }
+    private int baldeY(int y) { return Math.max(0, Math.min(linhas - 1, y / tamanhoBalde)); }
+
+    private ArrayList<Entidade> balde(ArrayList<Entidade>[] listas, int bx, int by, boolean criar) {
+        int i = bx + by * colunas;
+        epocas[i] = epocaAtual; // Todo acesso para modificação marca o balde como alterado
+        ArrayList<Entidade> lista = listas[i];
+        if (lista == null && criar) {
+            lista = new ArrayList<>();
+            listas[i] = lista;
+        }
+        return lista;
+    }
+
+    /**
+     * Insere uma entidade na grade.
+     * @param e A entidade (robô ou obstáculo) a ser indexada.
+     */
+    public void inserir(Entidade e) {
+        epocaAtual++;
+        if (e instanceof Obstaculo) {
+            Obstaculo o = (Obstaculo) e;
+            for (int bx = baldeX(o.getX1()); bx <= baldeX(o.getX2()); bx++) {
+                for (int by = baldeY(o.getY1()); by <= baldeY(o.getY2()); by++) {
+                    balde(baldesObstaculos, bx, by, true).add(e);
+                }
+            }
+        } else {
+            balde(baldes, baldeX(e.getX()), baldeY(e.getY()), true).add(e);
+        }
+    }
+
+    /**
+     * Remove uma entidade da grade, usando sua posição atual.
+     * @param e A entidade a ser removida.
+     */
+    public void remover(Entidade e) {
+        epocaAtual++;
+        if (e instanceof Obstaculo) {
+            Obstaculo o = (Obstaculo) e;
+            for (int bx = baldeX(o.getX1()); bx <= baldeX(o.getX2()); bx++) {
+                for (int by = baldeY(o.getY1()); by <= baldeY(o.getY2()); by++) {
+                    ArrayList<Entidade> lista = balde(baldesObstaculos, bx, by, false);
+                    if (lista != null) lista.remove(e);
+                }
+            }
+        } else {
+            ArrayList<Entidade> lista = balde(baldes, baldeX(e.getX()), baldeY(e.getY()), false);
+            if (lista != null) lista.remove(e);
+        }
+    }
+
+    /**
+     * Atualiza a grade após o movimento de uma entidade pontual (robô).
+     * Os baldes de origem e destino sempre avançam de época; a lista de
+     * entidades só é alterada quando a entidade troca de balde.
+     *
+     * @param e       A entidade que se moveu.
+     * @param antigoX A coordenada X anterior.
+     * @param antigoY A coordenada Y anterior.
+     * @param novoX   A nova coordenada X.
+     * @param novoY   A nova coordenada Y.
+     */
+    public void mover(Entidade e, int antigoX, int antigoY, int novoX, int novoY) {
+        int abx = baldeX(antigoX), aby = baldeY(antigoY);
+        int nbx = baldeX(novoX), nby = baldeY(novoY);
+        epocaAtual++;
+        if (abx == nbx && aby == nby) {
+            epocas[abx + aby * colunas] = epocaAtual;
+            return;
+        }
+        ArrayList<Entidade> antiga = balde(baldes, abx, aby, false);
+        if (antiga != null) antiga.remove(e);
+        balde(baldes, nbx, nby, true).add(e);
+    }
+
+    /**
+     * Retorna a época atual da grade (número de modificações já feitas).
+     * @return A época atual.
+     */
+    public long getEpocaAtual() {
+        return epocaAtual;
+    }
+
+    /**
+     * Retorna a época mais recente entre os baldes que intersectam o quadrado de
+     * lado 2*raio centrado em (x, y). Se o valor não passou de uma época guardada
+     * anteriormente, nada mudou nessa região desde então.
+     *
+     * @param x    A coordenada X do centro da região.
+     * @param y    A coordenada Y do centro da região.
+     * @param raio O raio da região.
+     * @return A maior época entre os baldes da região.
+     */
+    public long epocaRegiao(int x, int y, double raio) {
+        int alcance = (int) Math.ceil(raio);
+        int bx0 = baldeX(x - alcance), bx1 = baldeX(x + alcance);
+        int by0 = baldeY(y - alcance), by1 = baldeY(y + alcance);
+        long maior = 0;
+        for (int by = by0; by <= by1; by++) {
+            for (int bx = bx0; bx <= bx1; bx++) {
+                maior = Math.max(maior, epocas[bx + by * colunas]);
+            }
+        }
+        return maior;
+    }
+
+    /**
+     * Procura a entidade pontual (robô) que está exatamente na célula dada, examinando
+     * apenas o balde que contém a célula.
+     *
+     * @return A entidade na célula, ou null se não houver nenhuma.
+     */
+    public Entidade buscarEm(int x, int y, int z) {
+        ArrayList<Entidade> lista = baldes[baldeX(x) + baldeY(y) * colunas];
+        if (lista == null) return null;
+        for (int i = 0, n = lista.size(); i < n; i++) {
+            Entidade e = lista.get(i);
+            if (e.getX() == x && e.getY() == y && e.getZ() == z) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Visita todas as entidades cujos baldes intersectam o quadrado de lado 2*raio
+     * centrado em (x, y). A filtragem exata pela distância fica a cargo do visitante.
+     * Cada obstáculo é visitado uma única vez, mesmo que ocupe vários baldes.
+     *
+     * @param x         A coordenada X do centro da consulta.
+     * @param y         A coordenada Y do centro da consulta.
+     * @param raio      O raio da consulta.
+     * @param visitante Quem recebe cada entidade candidata.
+     */
+    public void consultar(int x, int y, double raio, Visitante visitante) {
+        int alcance = (int) Math.ceil(raio);
+        int bx0 = baldeX(x - alcance), bx1 = baldeX(x + alcance);
+        int by0 = baldeY(y - alcance), by1 = baldeY(y + alcance);
+        for (int by = by0; by <= by1; by++) {
+            for (int bx = bx0; bx <= bx1; bx++) {
+                ArrayList<Entidade> lista = baldes[bx + by * colunas];
+                if (lista == null) continue;
+                for (int i = 0, n = lista.size(); i < n; i++) {
+                    visitante.visitar(lista.get(i));
+                }
+            }
+        }
+        consultarObstaculos(x, y, raio, visitante);
+    }
+
+    /**
+     * Visita apenas os obstáculos cujos baldes intersectam o quadrado de lado 2*raio
+     * centrado em (x, y), sem percorrer os robôs. Cada obstáculo é visitado uma única vez,
+     * mesmo que ocupe vários baldes.
+     *
+     * @param x         A coordenada X do centro da consulta.
+     * @param y         A coordenada Y do centro da consulta.
+     * @param raio      O raio da consulta.
+     * @param visitante Quem recebe cada obstáculo candidato.
+     */
+    public void consultarObstaculos(int x, int y, double raio, Visitante visitante) {
+        int alcance = (int) Math.ceil(raio);
+        int bx0 = baldeX(x - alcance), bx1 = baldeX(x + alcance);
+        int by0 = baldeY(y - alcance), by1 = baldeY(y + alcance);
+        for (int by = by0; by <= by1; by++) {
+            for (int bx = bx0; bx <= bx1; bx++) {
+                ArrayList<Entidade> lista = baldesObstaculos[bx + by * colunas];
+                if (lista == null) continue;
+                for (int i = 0, n = lista.size(); i < n; i++) {
+                    // Só visita o obstáculo no primeiro balde da consulta que ele ocupa.
+                    Obstaculo o = (Obstaculo) lista.get(i);
+                    if (bx != Math.max(bx0, baldeX(o.getX1())) || by != Math.max(by0, baldeY(o.getY1()))) {
+                        continue;
+                    }
+                    visitante.visitar(o);
+                }
+            }
+        }
+    }
+}
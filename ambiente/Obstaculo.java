@@ -16,6 +16,7 @@ public class Obstaculo implements Entidade {
     private final int x2, y2, z2; // Canto superior-direito-traseiro
     private final TipoObstaculo tipoObstaculo; // O tipo do obstáculo (ex: PAREDE, ARVORE)
     private final char representacao; // Caractere para visualização no mapa
+    private int handle = -1; // Handle no registro do ambiente, ou -1 fora de um
 
     /**
      * Construtor para definir um obstáculo usando uma caixa delimitadora 3D (bounding box).
@@ -137,6 +138,16 @@ public class Obstaculo implements Entidade {
         return this.representacao;
     }
 
+    @Override
+    public int getHandle() {
+        return handle;
+    }
+
+    /** Guarda o handle dado pelo {@link RegistroEntidades} (-1 ao sair dele). */
+    void definirHandle(int handle) {
+        this.handle = handle;
+    }
+
     /**
      * Sobrescreve o método toString para retornar a descrição do obstáculo.
      * @return A descrição do obstáculo.
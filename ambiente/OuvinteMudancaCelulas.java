@@ -0,0 +1,19 @@
+package ambiente;
+// OuvinteMudancaCelulas.java
+
+/**
+ * Interface para quem precisa ser avisado quando células do mapa passam a ser
+ * bloqueadas por um obstáculo ou deixam de ser. Estruturas derivadas do mapa
+ * (como campos de distância e planejadores incrementais) a usam para se atualizar
+ * sem recalcular tudo. Movimentos de robôs não geram avisos.
+ */
+@FunctionalInterface
+public interface OuvinteMudancaCelulas {
+    /**
+     * Chamado depois que todas as células da caixa [x1..x2] x [y1..y2] x [z1..z2] mudaram.
+     *
+     * @param bloqueadas true se as células passaram a ser ocupadas por um obstáculo;
+     *                   false se foram liberadas.
+     */
+    void celulasAlteradas(int x1, int y1, int z1, int x2, int y2, int z2, boolean bloqueadas);
+}
@@ -0,0 +1,230 @@
+package ambiente;
+// RegistroEntidades.java
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import comunicacao.Comunicavel;
+import robo.AgenteInteligente;
+import robo.ArmazemRobos;
+import robo.Robo;
+import sensores.Sensoreavel;
+
+/**
+ * Registro das entidades de um {@link Ambiente} por handles inteiros densos.
+ * Cada entidade adicionada recebe um handle (reaproveitado de uma lista de livres quando
+ * possível). Os robôs ficam também indexados pelo seu id. As entidades são separadas em
+ * conjuntos por {@link Categoria}; cada conjunto é um array compacto de handles com
+ * remoção por troca com o último elemento. Assim, buscas por id custam O(1), e percorrer
+ * uma categoria custa O(k) no número dos seus membros, sem filtrar a lista de entidades.
+ * A ordem dentro de uma categoria muda quando há remoções.
+ *
+ * <p>O handle é o mesmo em todo o ambiente: cada entidade o guarda consigo (o robô, como
+ * a linha do {@link ArmazemRobos} do registro para onde passa o seu estado ao ser
+ * registrado), de modo que achar o handle de uma entidade não passa por nenhum mapa.
+ */
+public class RegistroEntidades {
+    /** Categorias de entidades; uma entidade pode pertencer a várias. */
+    public enum Categoria { ROBO, OBSTACULO, AGENTE, COMUNICADOR, SENSOREAVEL, AUTONOMO }
+
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+
+    private Entidade[] entidades = new Entidade[16]; // Entidade de cada handle (null se livre)
+    private int limite;                              // Handles em [0, limite) já foram usados
+    private int[] livres = new int[16];
+    private int numLivres;
+    private int total;
+    private final HashMap<String, Integer> porId = new HashMap<>();
+    private final ArmazemRobos armazem;              // Estado dos robôs, nos mesmos handles
+
+    private final int[][] membros = new int[CATEGORIAS.length][];  // Handles de cada categoria
+    private final int[] tamanhos = new int[CATEGORIAS.length];
+    private final int[][] posicoes = new int[CATEGORIAS.length][]; // posicoes[c][h]: índice de h em membros[c], ou -1
+
+    /**
+     * @param armazem O armazém para onde vai o estado dos robôs registrados, na linha do seu handle.
+     */
+    public RegistroEntidades(ArmazemRobos armazem) {
+        this.armazem = armazem;
+        for (int c = 0; c < CATEGORIAS.length; c++) {
+            membros[c] = new int[8];
+            posicoes[c] = new int[entidades.length];
+            Arrays.fill(posicoes[c], -1);
+        }
+    }
+
+    /**
+     * Registra uma entidade.
+     * @return O handle da entidade (o mesmo, se ela já estava registrada).
+     * @throws IllegalArgumentException Se for um robô com o id de outro robô já registrado.
+     */
+    public int registrar(Entidade e) {
+        int existente = getHandle(e);
+        if (existente >= 0) {
+            return existente;
+        }
+        if (e instanceof Robo && porId.containsKey(((Robo) e).getId())) {
+            throw new IllegalArgumentException("Já existe um robô com o id " + ((Robo) e).getId() + ".");
+        }
+        int h;
+        if (numLivres > 0) {
+            h = livres[--numLivres];
+        } else {
+            if (limite == entidades.length) {
+                crescer(limite * 2);
+            }
+            h = limite++;
+        }
+        entidades[h] = e;
+        if (e instanceof Robo) {
+            ((Robo) e).transferirPara(armazem, h);
+            porId.put(((Robo) e).getId(), h);
+        } else if (e instanceof Obstaculo) {
+            ((Obstaculo) e).definirHandle(h);
+        }
+        for (Categoria c : CATEGORIAS) {
+            if (pertence(e, c)) {
+                inserir(c.ordinal(), h);
+            }
+        }
+        total++;
+        return h;
+    }
+
+    /**
+     * Remove uma entidade do registro; o seu handle passa a estar livre.
+     * @return true se a entidade estava registrada.
+     */
+    public boolean remover(Entidade e) {
+        int h = getHandle(e);
+        if (h < 0) {
+            return false;
+        }
+        if (e instanceof Robo) {
+            porId.remove(((Robo) e).getId());
+            ((Robo) e).transferirPara(new ArmazemRobos(1), 0); // O robô leva o seu estado consigo
+        } else if (e instanceof Obstaculo) {
+            ((Obstaculo) e).definirHandle(-1);
+        }
+        for (int c = 0; c < CATEGORIAS.length; c++) {
+            int p = posicoes[c][h];
+            if (p >= 0) {
+                // Troca com o último membro da categoria
+                int ultimo = membros[c][--tamanhos[c]];
+                membros[c][p] = ultimo;
+                posicoes[c][ultimo] = p;
+                posicoes[c][h] = -1;
+            }
+        }
+        entidades[h] = null;
+        if (numLivres == livres.length) {
+            livres = Arrays.copyOf(livres, numLivres * 2);
+        }
+        livres[numLivres++] = h;
+        total--;
+        return true;
+    }
+
+    private static boolean pertence(Entidade e, Categoria c) {
+        switch (c) {
+            case ROBO: return e instanceof Robo;
+            case OBSTACULO: return e instanceof Obstaculo;
+            case AGENTE: return e instanceof AgenteInteligente;
+            case COMUNICADOR: return e instanceof Robo && e instanceof Comunicavel;
+            case SENSOREAVEL: return e instanceof Sensoreavel;
+            case AUTONOMO: return e instanceof Autonomo;
+            default: return false;
+        }
+    }
+
+    private void inserir(int c, int h) {
+        if (tamanhos[c] == membros[c].length) {
+            membros[c] = Arrays.copyOf(membros[c], tamanhos[c] * 2);
+        }
+        posicoes[c][h] = tamanhos[c];
+        membros[c][tamanhos[c]++] = h;
+    }
+
+    private void crescer(int capacidade) {
+        int antiga = entidades.length;
+        entidades = Arrays.copyOf(entidades, capacidade);
+        for (int c = 0; c < CATEGORIAS.length; c++) {
+            posicoes[c] = Arrays.copyOf(posicoes[c], capacidade);
+            Arrays.fill(posicoes[c], antiga, capacidade, -1);
+        }
+    }
+
+    /** Número de entidades registradas. */
+    public int getTotal() { return total; }
+
+    /** A entidade do handle, ou null se o handle estiver livre. */
+    public Entidade getEntidade(int handle) {
+        return handle >= 0 && handle < limite ? entidades[handle] : null;
+    }
+
+    /** O handle da entidade, ou -1 se ela não estiver registrada. */
+    public int getHandle(Entidade e) {
+        int h = e.getHandle();
+        return h >= 0 && h < limite && entidades[h] == e ? h : -1;
+    }
+
+    /** O handle do robô com o id dado, ou -1 se não houver. */
+    public int getHandle(String id) {
+        Integer h = porId.get(id);
+        return h == null ? -1 : h;
+    }
+
+    /** O robô com o id dado, ou null se não houver. */
+    public Robo getRobo(String id) {
+        Integer h = porId.get(id);
+        return h == null ? null : (Robo) entidades[h];
+    }
+
+    /** Número de entidades da categoria. */
+    public int getTamanho(Categoria c) {
+        return tamanhos[c.ordinal()];
+    }
+
+    /** Handle do i-ésimo membro da categoria (0 <= i < getTamanho(c)). */
+    public int getHandle(Categoria c, int i) {
+        return membros[c.ordinal()][i];
+    }
+
+    /** O i-ésimo membro da categoria (0 <= i < getTamanho(c)). */
+    public Entidade get(Categoria c, int i) {
+        return entidades[membros[c.ordinal()][i]];
+    }
+
+    /** Verifica se a entidade do handle pertence à categoria. */
+    public boolean contem(Categoria c, int handle) {
+        return handle >= 0 && handle < limite && posicoes[c.ordinal()][handle] >= 0;
+    }
+
+    /**
+     * Copia todas as entidades registradas, na ordem dos handles.
+     * @return Uma lista nova com as entidades.
+     */
+    public ArrayList<Entidade> copiarTodas() {
+        ArrayList<Entidade> copia = new ArrayList<>(total);
+        for (int h = 0; h < limite; h++) {
+            if (entidades[h] != null) {
+                copia.add(entidades[h]);
+            }
+        }
+        return copia;
+    }
+
+    /**
+     * Copia os membros da categoria, para percorrê-los enquanto o registro pode mudar.
+     * @return As entidades da categoria, na ordem atual.
+     */
+    public Entidade[] copiar(Categoria c) {
+        int n = tamanhos[c.ordinal()];
+        Entidade[] copia = new Entidade[n];
+        for (int i = 0; i < n; i++) {
+            copia[i] = entidades[membros[c.ordinal()][i]];
+        }
+        return copia;
+    }
+}
@@ -0,0 +1,219 @@
+package ambiente;
+// TabelaVizinhanca.java
+
+import java.util.Arrays;
+
+import robo.ArmazemRobos;
+import robo.Robo;
+
+/**
+ * Tabela de vizinhança entre robôs, calculada uma única vez por rodada de sensores.
+ * Todos os pares de robôs a até um raio máximo de distância são encontrados dividindo
+ * o plano XY em células quadradas de lado igual ao raio: os robôs são ordenados pela
+ * célula, e cada robô só é comparado com os da sua célula e das quatro células vizinhas
+ * "à frente" (as outras quatro já o compararam). Assim cada par é avaliado uma só vez,
+ * e uma coluna densa de robôs com o mesmo X não degenera em comparações de todos com
+ * todos. O resultado fica disponível para todos os sensores da rodada.
+ * As posições são copiadas em lote do {@link ArmazemRobos} do ambiente, e os robôs
+ * são identificados pelos seus handles; os vizinhos são guardados em formato compacto
+ * (início/fim por robô em arrays primitivos).
+ */
+public class TabelaVizinhanca {
+    private int quantidade;
+    private double raioMaximo;
+    private RegistroEntidades registro;
+
+    // Robôs da rodada, ordenados pela célula: handle, posição e célula
+    private int[] handles = new int[0], xs = new int[0], ys = new int[0], zs = new int[0];
+    private long[] celulas = new long[0];
+    private int[] coletaHandles = new int[0], coletaX = new int[0], coletaY = new int[0], coletaZ = new int[0];
+    private long[] ordem = new long[0];                  // (célula << 32) | posição na coleta, para ordenar
+    private int[] indicePorHandle = new int[0];          // Índice na tabela de cada handle, ou -1
+
+    // Pares encontrados na varredura (reaproveitados entre rodadas)
+    private int[] paresA = new int[16], paresB = new int[16];
+    private long[] paresDistancia = new long[16];
+    private int numPares;
+
+    // Vizinhos de cada robô: posições [inicio[i], inicio[i+1]) de vizinhos/distancias
+    private int[] inicio = new int[1];
+    private int[] vizinhos = new int[0];
+    private long[] distancias = new long[0];
+
+    /**
+     * Recalcula a tabela para os robôs do armazém do ambiente.
+     *
+     * @param armazem  O armazém com as posições dos robôs.
+     * @param registro O registro do ambiente, cujos handles são os do armazém.
+     * @param raio     O raio máximo de vizinhança (em geral, o maior raio de sensor da rodada).
+     */
+    public void construir(ArmazemRobos armazem, RegistroEntidades registro, double raio) {
+        this.raioMaximo = raio;
+        this.registro = registro;
+        int n = armazem.getOcupados();
+        if (handles.length < n) {
+            int novo = Math.max(n, handles.length * 2);
+            handles = new int[novo];
+            xs = new int[novo];
+            ys = new int[novo];
+            zs = new int[novo];
+            celulas = new long[novo];
+            coletaHandles = new int[novo];
+            coletaX = new int[novo];
+            coletaY = new int[novo];
+            coletaZ = new int[novo];
+            ordem = new long[novo];
+        }
+        // Copia as posições em lote e ordena pela célula um array de longs, sem comparadores nem objetos
+        quantidade = armazem.coletarPosicoes(coletaHandles, coletaX, coletaY, coletaZ);
+        int lado = Math.max(1, (int) Math.ceil(raio));
+        int maiorX = 0;
+        for (int i = 0; i < quantidade; i++) {
+            maiorX = Math.max(maiorX, coletaX[i]);
+        }
+        // Uma coluna a mais, vazia, para que a vizinha de cima à esquerda da coluna 0 não dê a volta
+        long colunas = maiorX / lado + 2;
+        for (int i = 0; i < quantidade; i++) {
+            ordem[i] = ((coletaY[i] / lado) * colunas + coletaX[i] / lado) << 32 | i;
+        }
+        Arrays.sort(ordem, 0, quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            int j = (int) ordem[i];
+            handles[i] = coletaHandles[j];
+            xs[i] = coletaX[j];
+            ys[i] = coletaY[j];
+            zs[i] = coletaZ[j];
+            celulas[i] = ordem[i] >>> 32;
+        }
+        int maiorHandle = quantidade > 0 ? 0 : -1;
+        for (int i = 0; i < quantidade; i++) {
+            maiorHandle = Math.max(maiorHandle, handles[i]);
+        }
+        if (indicePorHandle.length <= maiorHandle) {
+            indicePorHandle = new int[Math.max(maiorHandle + 1, indicePorHandle.length * 2)];
+        }
+        Arrays.fill(indicePorHandle, -1);
+        for (int i = 0; i < quantidade; i++) {
+            indicePorHandle[handles[i]] = i;
+        }
+
+        // Varredura por célula: a própria célula e as vizinhas à direita, abaixo à esquerda,
+        // abaixo e abaixo à direita, todas com índice maior e portanto mais adiante no array.
+        numPares = 0;
+        double raioQuadrado = raio * raio;
+        long[] deslocamentos = {1, colunas - 1, colunas, colunas + 1};
+        for (int a = 0; a < quantidade; ) {
+            long celula = celulas[a];
+            int b = fimCelula(a);
+            for (int i = a; i < b; i++) {
+                compararCom(i, i + 1, b, raioQuadrado);
+            }
+            for (long deslocamento : deslocamentos) {
+                int c = buscarCelula(celula + deslocamento, b);
+                if (c < 0) continue;
+                int d = fimCelula(c);
+                for (int i = a; i < b; i++) {
+                    compararCom(i, c, d, raioQuadrado);
+                }
+            }
+            a = b;
+        }
+
+        // Converte a lista de pares em listas de vizinhos por robô (cada par entra nos dois sentidos).
+        if (inicio.length < quantidade + 1) inicio = new int[quantidade + 1];
+        Arrays.fill(inicio, 0, quantidade + 1, 0);
+        for (int p = 0; p < numPares; p++) {
+            inicio[paresA[p] + 1]++;
+            inicio[paresB[p] + 1]++;
+        }
+        for (int i = 0; i < quantidade; i++) inicio[i + 1] += inicio[i];
+        int total = inicio[quantidade];
+        if (vizinhos.length < total) {
+            vizinhos = new int[total];
+            distancias = new long[total];
+        }
+        int[] cursor = Arrays.copyOf(inicio, quantidade);
+        for (int p = 0; p < numPares; p++) {
+            int a = paresA[p], b = paresB[p];
+            vizinhos[cursor[a]] = b; distancias[cursor[a]++] = paresDistancia[p];
+            vizinhos[cursor[b]] = a; distancias[cursor[b]++] = paresDistancia[p];
+        }
+    }
+
+    /** Compara o robô i com os robôs [de, ate) e guarda os pares dentro do raio. */
+    private void compararCom(int i, int de, int ate, double raioQuadrado) {
+        long ax = xs[i], ay = ys[i], az = zs[i];
+        for (int j = de; j < ate; j++) {
+            long dx = xs[j] - ax, dy = ys[j] - ay, dz = zs[j] - az;
+            long d2 = dx * dx + dy * dy + dz * dz;
+            if (d2 <= raioQuadrado) adicionarPar(i, j, d2);
+        }
+    }
+
+    /** Posição seguinte ao último robô da célula do robô a. */
+    private int fimCelula(int a) {
+        long celula = celulas[a];
+        int b = a + 1;
+        while (b < quantidade && celulas[b] == celula) b++;
+        return b;
+    }
+
+    /** Primeira posição, a partir de de, de um robô da célula dada, ou -1 se ela estiver vazia. */
+    private int buscarCelula(long celula, int de) {
+        int baixo = de, alto = quantidade;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (celulas[meio] < celula) baixo = meio + 1;
+            else alto = meio;
+        }
+        return baixo < quantidade && celulas[baixo] == celula ? baixo : -1;
+    }
+
+    private void adicionarPar(int a, int b, long d2) {
+        if (numPares == paresA.length) {
+            int novo = numPares * 2;
+            paresA = Arrays.copyOf(paresA, novo);
+            paresB = Arrays.copyOf(paresB, novo);
+            paresDistancia = Arrays.copyOf(paresDistancia, novo);
+        }
+        paresA[numPares] = a;
+        paresB[numPares] = b;
+        paresDistancia[numPares++] = d2;
+    }
+
+    /**
+     * Verifica se a tabela pode responder a consultas de um sensor com o raio dado.
+     * @param raio O raio do sensor.
+     * @return true se o raio não excede o raio máximo usado na construção.
+     */
+    public boolean cobre(double raio) {
+        return raio <= raioMaximo;
+    }
+
+    /**
+     * Retorna o índice do robô na tabela.
+     * @param r O robô.
+     * @return O índice, ou -1 se o robô não estava no ambiente quando a tabela foi construída.
+     */
+    public int indice(Robo r) {
+        int h = r.getHandle();
+        return h < indicePorHandle.length && registro.getEntidade(h) == r ? indicePorHandle[h] : -1;
+    }
+
+    /** Primeira posição dos vizinhos do robô de índice i. */
+    public int inicioVizinhos(int i) { return inicio[i]; }
+    /** Posição seguinte à última dos vizinhos do robô de índice i. */
+    public int fimVizinhos(int i) { return inicio[i + 1]; }
+    /** O robô vizinho na posição k. */
+    public Robo vizinho(int k) { return (Robo) registro.getEntidade(handles[vizinhos[k]]); }
+    /** O handle do robô vizinho na posição k. */
+    public int handleVizinho(int k) { return handles[vizinhos[k]]; }
+    /** As coordenadas do robô vizinho na posição k, copiadas do armazém na construção. */
+    public int xVizinho(int k) { return xs[vizinhos[k]]; }
+    public int yVizinho(int k) { return ys[vizinhos[k]]; }
+    public int zVizinho(int k) { return zs[vizinhos[k]]; }
+    /** A distância ao quadrado até o vizinho na posição k. */
+    public long distanciaQuadrada(int k) { return distancias[k]; }
+    /** Número de pares de vizinhos encontrados na última construção. */
+    public int getNumPares() { return numPares; }
+}
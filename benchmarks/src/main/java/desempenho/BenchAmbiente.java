@@ -0,0 +1,106 @@
+package desempenho;
+// BenchAmbiente.java
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ambiente.Ambiente;
+import ambiente.Entidade;
+import ambiente.Obstaculo;
+import ambiente.TipoObstaculo;
+import robo.RoboTerrestre;
+
+/**
+ * Operações básicas do {@link Ambiente}: consulta de ocupação, busca da entidade de uma
+ * célula, movimento de robôs e inclusão (com remoção) de obstáculos grandes, em mundos de
+ * tamanhos e populações diferentes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchAmbiente {
+    @Param({"64", "256"})
+    int largura;
+
+    @Param({"100", "2000"})
+    int robos;
+
+    @Param({"0.1"})
+    double densidadeObstaculos;
+
+    private Ambiente ambiente;
+    private List<RoboTerrestre> lista;
+    private int[] consultas; // Triplas (x, y, z) sorteadas
+    private int proximaConsulta;
+    private int proximoRobo;
+    private Obstaculo grande;
+
+    @Setup
+    public void preparar() {
+        Mundos.silenciarSaida();
+        Random aleatorio = new Random(Mundos.SEMENTE);
+        ambiente = Mundos.criar(largura, 4, 3, densidadeObstaculos, aleatorio);
+        lista = Mundos.adicionarRobos(ambiente, Math.min(robos, largura * largura / 2), aleatorio);
+        consultas = new int[3 * 4096];
+        for (int i = 0; i < consultas.length; i += 3) {
+            consultas[i] = aleatorio.nextInt(largura);
+            consultas[i + 1] = aleatorio.nextInt(largura);
+            consultas[i + 2] = 0;
+        }
+        // Um prédio de 16 x 16 no plano mais alto, acima dos obstáculos e dos robôs
+        grande = new Obstaculo(0, 0, 3, 15, 15, 3, TipoObstaculo.PREDIO);
+    }
+
+    @Benchmark
+    public boolean estaOcupado() throws Exception {
+        int i = proximaConsulta;
+        proximaConsulta = (i + 3) % consultas.length;
+        return ambiente.estaOcupado(consultas[i], consultas[i + 1], consultas[i + 2]);
+    }
+
+    @Benchmark
+    public Entidade getEntidadeEmRobo() throws Exception {
+        RoboTerrestre r = lista.get(proximoRobo);
+        proximoRobo = (proximoRobo + 1) % lista.size();
+        return ambiente.getEntidadeEm(r.getX(), r.getY(), r.getZ());
+    }
+
+    /** Move um robô para uma vizinha livre e de volta (duas chamadas de moverEntidade). */
+    @Benchmark
+    public int moverEntidadeIdaEVolta() throws Exception {
+        RoboTerrestre r = lista.get(proximoRobo);
+        proximoRobo = (proximoRobo + 1) % lista.size();
+        int x = r.getX(), y = r.getY();
+        int nx = x + 1 < largura ? x + 1 : x - 1;
+        if (ambiente.estaOcupado(nx, y, 0)) {
+            return 0;
+        }
+        ambiente.moverEntidade(r, nx, y, 0);
+        ambiente.moverEntidade(r, x, y, 0);
+        return 2;
+    }
+
+    /** Inclui e remove um obstáculo de 256 células; ambos avisam os ouvintes do mapa. */
+    @Benchmark
+    public int adicionarRemoverObstaculoGrande() throws Exception {
+        ambiente.adicionarEntidade(grande);
+        ambiente.removerEntidade(grande);
+        return ambiente.getRegistro().getTotal();
+    }
+}
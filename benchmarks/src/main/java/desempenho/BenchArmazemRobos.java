@@ -0,0 +1,101 @@
+package desempenho;
+// BenchArmazemRobos.java
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import robo.ArmazemRobos;
+import robo.EstadoRobo;
+import robo.Rumo;
+
+/**
+ * Passada que prepara a tabela de vizinhança de uma rodada de sensores sobre muitos robôs:
+ * cópia do handle e da posição de todos os robôs e contagem dos ligados. Compara o {@link ArmazemRobos} (arrays paralelos) com um
+ * objeto por robô, no layout anterior ao armazém, percorrido em ordem embaralhada como
+ * ficam os objetos espalhados pelo heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BenchArmazemRobos {
+    /** Layout de um robô antes do armazém: campos próprios e referências a enum e string. */
+    static final class RoboObjeto {
+        int x, y, z;
+        EstadoRobo estado;
+        Rumo direcao;
+        String id;
+    }
+
+    @Param({"100000", "1000000"})
+    int robos;
+
+    private ArmazemRobos armazem;
+    private List<RoboObjeto> objetos;
+    private int[] handles, xs, ys, zs;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(Mundos.SEMENTE);
+        armazem = new ArmazemRobos(robos);
+        objetos = new ArrayList<>(robos);
+        for (int i = 0; i < robos; i++) {
+            int x = aleatorio.nextInt(1000), y = aleatorio.nextInt(1000), z = aleatorio.nextInt(4);
+            EstadoRobo estado = aleatorio.nextInt(4) == 0 ? EstadoRobo.DESLIGADO : EstadoRobo.LIGADO;
+            Rumo direcao = Rumo.doOrdinal(aleatorio.nextInt(Rumo.PLANARES));
+            armazem.ocupar(i, x, y, z, estado, direcao, ArmazemRobos.TIPO_TERRESTRE);
+            RoboObjeto o = new RoboObjeto();
+            o.x = x;
+            o.y = y;
+            o.z = z;
+            o.estado = estado;
+            o.direcao = direcao;
+            o.id = "R" + i;
+            objetos.add(o);
+        }
+        Collections.shuffle(objetos, aleatorio);
+        handles = new int[robos];
+        xs = new int[robos];
+        ys = new int[robos];
+        zs = new int[robos];
+    }
+
+    @Benchmark
+    public long objetos() {
+        long total = 0;
+        int n = 0;
+        for (RoboObjeto o : objetos) {
+            handles[n] = n;
+            xs[n] = o.x;
+            ys[n] = o.y;
+            zs[n++] = o.z;
+        }
+        for (RoboObjeto o : objetos) {
+            if (o.estado == EstadoRobo.LIGADO) total++;
+        }
+        return total + n + xs[n - 1];
+    }
+
+    @Benchmark
+    public long armazem() {
+        int n = armazem.coletarPosicoes(handles, xs, ys, zs);
+        return armazem.contarNoEstado(EstadoRobo.LIGADO) + n + xs[n - 1];
+    }
+}
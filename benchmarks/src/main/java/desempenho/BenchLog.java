@@ -0,0 +1,40 @@
+package desempenho;
+// BenchLog.java
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import util.Log;
+
+/**
+ * Vazão de {@link Log#registrar}, com uma e com várias threads escrevendo no arquivo
+ * de log do diretório atual.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchLog {
+    @Benchmark
+    public void registrar() {
+        Log.registrar("MISSAO PATRULHAR: R0 chegou ao ponto 3 da rota.");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void registrarQuatroThreads() {
+        Log.registrar("MISSAO PATRULHAR: R0 chegou ao ponto 3 da rota.");
+    }
+}
@@ -0,0 +1,80 @@
+package desempenho;
+// BenchMissoes.java
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ambiente.Ambiente;
+import missao.Missao;
+import missao.MissaoCobertura;
+import missao.MissaoExplorar;
+import missao.MissaoPatrulhar;
+import robo.RoboTerrestre;
+
+/**
+ * Ticks completos da simulação ({@link Ambiente#executarTick}), com todos os robôs
+ * executando o mesmo tipo de missão. O mundo continua de um tick para o outro, de modo
+ * que a medida inclui os replanejamentos que as missões fazem ao longo do tempo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchMissoes {
+    @Param({"64", "256"})
+    int largura;
+
+    @Param({"16", "128"})
+    int agentes;
+
+    @Param({"explorar", "patrulhar", "patrulhar-cooperativa", "cobertura"})
+    String missao;
+
+    private Ambiente ambiente;
+
+    @Setup
+    public void preparar() {
+        Mundos.silenciarSaida();
+        Random aleatorio = new Random(Mundos.SEMENTE);
+        ambiente = Mundos.criar(largura, 1, 1, 0.05, aleatorio);
+        List<RoboTerrestre> robos = Mundos.adicionarRobos(ambiente, agentes, aleatorio);
+        int faixa = Math.max(1, largura / robos.size());
+        for (int i = 0; i < robos.size(); i++) {
+            robos.get(i).definirMissao(criarMissao(i, faixa));
+        }
+    }
+
+    private Missao criarMissao(int i, int faixa) {
+        switch (missao) {
+            case "explorar": return new MissaoExplorar();
+            case "patrulhar": return new MissaoPatrulhar();
+            case "patrulhar-cooperativa": return new MissaoPatrulhar(true);
+            case "cobertura":
+                // Cada robô cobre uma faixa vertical do mapa
+                int x1 = Math.min(i * faixa, largura - 1);
+                return new MissaoCobertura(x1, 0, Math.min(x1 + faixa - 1, largura - 1), largura - 1);
+            default: throw new IllegalArgumentException("Missão desconhecida: " + missao);
+        }
+    }
+
+    @Benchmark
+    public long tick() {
+        ambiente.executarTick();
+        return ambiente.getTick();
+    }
+}
@@ -0,0 +1,88 @@
+package desempenho;
+// BenchRegistro.java
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ambiente.Ambiente;
+import ambiente.Entidade;
+import ambiente.RegistroEntidades;
+import ambiente.RegistroEntidades.Categoria;
+import robo.AgenteInteligente;
+import robo.Robo;
+
+/**
+ * Busca de robô por id e percurso dos agentes pelo {@link RegistroEntidades}, comparados
+ * com o filtro sobre a lista de entidades que o menu fazia antes do registro.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchRegistro {
+    @Param({"100", "5000"})
+    int robos;
+
+    private Ambiente ambiente;
+    private List<Entidade> lista; // A lista de entidades que o ambiente mantinha antes do registro
+    private String[] ids;
+    private int proximo;
+
+    @Setup
+    public void preparar() {
+        Mundos.silenciarSaida();
+        Random aleatorio = new Random(Mundos.SEMENTE);
+        ambiente = Mundos.criar(256, 1, 1, 0.1, aleatorio);
+        ids = Mundos.adicionarRobos(ambiente, robos, aleatorio).stream().map(Robo::getId).toArray(String[]::new);
+        lista = ambiente.getEntidades();
+    }
+
+    @Benchmark
+    public Robo buscarPorIdRegistro() {
+        String id = ids[proximo];
+        proximo = (proximo + 1) % ids.length;
+        return ambiente.getRegistro().getRobo(id);
+    }
+
+    @Benchmark
+    public Robo buscarPorIdLista() {
+        String id = ids[proximo];
+        proximo = (proximo + 1) % ids.length;
+        return lista.stream()
+            .filter(e -> e instanceof Robo && ((Robo) e).getId().equals(id))
+            .map(e -> (Robo) e)
+            .findFirst().orElse(null);
+    }
+
+    @Benchmark
+    public int contarAgentesSemMissaoRegistro() {
+        RegistroEntidades registro = ambiente.getRegistro();
+        int n = 0;
+        for (int i = 0; i < registro.getTamanho(Categoria.AGENTE); i++) {
+            if (!((AgenteInteligente) registro.get(Categoria.AGENTE, i)).temMissao()) n++;
+        }
+        return n;
+    }
+
+    @Benchmark
+    public long contarAgentesSemMissaoLista() {
+        return lista.stream()
+            .filter(e -> e instanceof AgenteInteligente && !((AgenteInteligente) e).temMissao())
+            .count();
+    }
+}
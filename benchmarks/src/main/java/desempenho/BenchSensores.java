@@ -0,0 +1,79 @@
+package desempenho;
+// BenchSensores.java
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ambiente.Ambiente;
+import robo.RoboTerrestre;
+import sensores.LeituraSensor;
+import sensores.SensorProximidade;
+
+/**
+ * {@link SensorProximidade#monitorar} (leitura e formatação, sem cache) em mundos com
+ * densidades diferentes de robôs e obstáculos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchSensores {
+    @Param({"128"})
+    int largura;
+
+    /** Fração das células do plano ocupadas por robôs. */
+    @Param({"0.01", "0.05", "0.2"})
+    double densidadeRobos;
+
+    @Param({"0.05"})
+    double densidadeObstaculos;
+
+    @Param({"4", "10"})
+    double raio;
+
+    private Ambiente ambiente;
+    private List<RoboTerrestre> robos;
+    private SensorProximidade sensor;
+    private final LeituraSensor leitura = new LeituraSensor();
+    private int proximo;
+
+    @Setup
+    public void preparar() {
+        Mundos.silenciarSaida();
+        Random aleatorio = new Random(Mundos.SEMENTE);
+        ambiente = Mundos.criar(largura, 2, 2, densidadeObstaculos, aleatorio);
+        robos = Mundos.adicionarRobos(ambiente, (int) (largura * largura * densidadeRobos), aleatorio);
+        sensor = new SensorProximidade("Bench", raio);
+    }
+
+    @Benchmark
+    public String monitorar() {
+        RoboTerrestre r = robos.get(proximo);
+        proximo = (proximo + 1) % robos.size();
+        return sensor.monitorar(ambiente, r);
+    }
+
+    /** Apenas a busca de proximidade, sem formatar a leitura. */
+    @Benchmark
+    public int ler() {
+        RoboTerrestre r = robos.get(proximo);
+        proximo = (proximo + 1) % robos.size();
+        sensor.ler(ambiente, r, leitura);
+        return leitura.getQuantidade();
+    }
+}
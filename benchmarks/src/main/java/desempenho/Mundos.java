@@ -0,0 +1,72 @@
+package desempenho;
+// Mundos.java
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ambiente.Ambiente;
+import ambiente.ColisaoException;
+import ambiente.ForaDosLimitesException;
+import ambiente.Obstaculo;
+import ambiente.TipoObstaculo;
+import robo.RoboTerrestre;
+import robo.Rumo;
+
+/**
+ * Construção dos mundos usados pelos benchmarks: ambientes com obstáculos e robôs
+ * espalhados por um gerador com semente fixa, para que cada execução meça o mesmo mundo.
+ */
+final class Mundos {
+    static final long SEMENTE = 42;
+
+    private Mundos() {
+    }
+
+    /** Descarta a saída do console, que o simulador usa a cada ação e dominaria as medidas. */
+    static void silenciarSaida() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Cria um ambiente quadrado com colunas de obstáculo de uma célula ocupando a fração dada
+     * do plano, do chão até a altura dada.
+     */
+    static Ambiente criar(int largura, int altura, int alturaObstaculos, double densidadeObstaculos, Random aleatorio) {
+        Ambiente ambiente = new Ambiente(largura, largura, altura);
+        int alvo = (int) (largura * (long) largura * densidadeObstaculos);
+        for (int n = 0; n < alvo; ) {
+            int x = aleatorio.nextInt(largura), y = aleatorio.nextInt(largura);
+            try {
+                ambiente.adicionarEntidade(new Obstaculo(x, y, x, y, TipoObstaculo.PAREDE, 0, alturaObstaculos));
+                n++;
+            } catch (ColisaoException | ForaDosLimitesException e) {
+                // Célula já ocupada: sorteia outra
+            }
+        }
+        return ambiente;
+    }
+
+    /** Adiciona robôs terrestres ligados em células livres sorteadas do plano Z=0. */
+    static List<RoboTerrestre> adicionarRobos(Ambiente ambiente, int quantidade, Random aleatorio) {
+        List<RoboTerrestre> robos = new ArrayList<>(quantidade);
+        int largura = ambiente.getLargura(), profundidade = ambiente.getProfundidade();
+        if (quantidade > largura * profundidade) {
+            throw new IllegalArgumentException("Robôs demais para o plano: " + quantidade);
+        }
+        while (robos.size() < quantidade) {
+            RoboTerrestre r = new RoboTerrestre("R" + robos.size(), aleatorio.nextInt(largura), aleatorio.nextInt(profundidade),
+                Rumo.NORTE.girar(2 * aleatorio.nextInt(4)), 1); // Velocidade 1: só rumos cardeais
+            try {
+                ambiente.adicionarEntidade(r);
+                r.ligar();
+                robos.add(r);
+            } catch (ColisaoException | ForaDosLimitesException e) {
+                // Célula já ocupada: sorteia outra
+            }
+        }
+        return robos;
+    }
+}
@@ -0,0 +1,86 @@
+package cenarios;
+// Cenario.java
+
+import ambiente.Ambiente;
+import ambiente.TipoObstaculo;
+import comunicacao.CentralComunicacao;
+import missao.DespachanteCarga;
+
+/**
+ * Um mundo montado pelo {@link GeradorCenario}: o ambiente já povoado, a central de
+ * comunicação dos robôs comunicadores e o despachante dos drones de carga, além da
+ * contagem do que foi criado de cada tipo.
+ */
+public class Cenario {
+    private final Ambiente ambiente;
+    private final CentralComunicacao central;
+    private final DespachanteCarga despachante;
+    private final long semente;
+    private final int[] robos;            // Robôs criados, por GeradorCenario.TipoRobo
+    private final int[] obstaculos;       // Obstáculos criados, por TipoObstaculo
+    private final long[] celulasObstaculo; // Células do plano Z=0 cobertas, por TipoObstaculo
+
+    Cenario(Ambiente ambiente, CentralComunicacao central, DespachanteCarga despachante, long semente,
+            int[] robos, int[] obstaculos, long[] celulasObstaculo) {
+        this.ambiente = ambiente;
+        this.central = central;
+        this.despachante = despachante;
+        this.semente = semente;
+        this.robos = robos;
+        this.obstaculos = obstaculos;
+        this.celulasObstaculo = celulasObstaculo;
+    }
+
+    /**
+     * Executa um tick do cenário: o despachante distribui os pedidos de carga e
+     * depois cada agente dá um passo da sua missão.
+     */
+    public void executarTick() {
+        despachante.aoTick(ambiente);
+        ambiente.executarTick();
+    }
+
+    public Ambiente getAmbiente() { return ambiente; }
+    public CentralComunicacao getCentral() { return central; }
+    public DespachanteCarga getDespachante() { return despachante; }
+    public long getSemente() { return semente; }
+
+    /** Número de robôs criados do tipo dado. */
+    public int getNumRobos(GeradorCenario.TipoRobo tipo) {
+        return robos[tipo.ordinal()];
+    }
+
+    /** Número total de robôs criados. */
+    public int getNumRobos() {
+        int total = 0;
+        for (int n : robos) {
+            total += n;
+        }
+        return total;
+    }
+
+    /** Número de obstáculos criados do tipo dado. */
+    public int getNumObstaculos(TipoObstaculo tipo) {
+        return obstaculos[tipo.ordinal()];
+    }
+
+    /** Número de células do plano Z=0 cobertas pelos obstáculos do tipo dado. */
+    public long getCelulasObstaculo(TipoObstaculo tipo) {
+        return celulasObstaculo[tipo.ordinal()];
+    }
+
+    /** Descrição de uma linha: dimensões, semente e contagens por tipo. */
+    public String descrever() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(ambiente.getLargura()).append('x').append(ambiente.getProfundidade()).append('x').append(ambiente.getAltura())
+          .append(", semente ").append(semente).append(", robôs:");
+        for (GeradorCenario.TipoRobo t : GeradorCenario.TipoRobo.values()) {
+            sb.append(' ').append(t).append('=').append(robos[t.ordinal()]);
+        }
+        sb.append(", obstáculos:");
+        for (TipoObstaculo t : TipoObstaculo.values()) {
+            sb.append(' ').append(t).append('=').append(obstaculos[t.ordinal()]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,223 @@
+package cenarios;
+// Escalabilidade.java
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import ambiente.TipoObstaculo;
+import missao.MissaoEntregaCarga;
+import missao.MissaoExplorar;
+import missao.MissaoMonitorar;
+import missao.MissaoPatrulhar;
+import util.Histograma;
+import util.Log;
+import util.Metricas;
+
+/**
+ * Mede como a simulação escala com o número de robôs. Para cada tamanho pedido, gera um
+ * cenário ({@link GeradorCenario}) com densidade fixa de robôs e obstáculos, executa alguns
+ * ticks de aquecimento e depois N ticks medidos, e informa:
+ * <ul>
+ *   <li>tempo de geração do cenário;</li>
+ *   <li>vazão: ticks por segundo e passos de missão por segundo;</li>
+ *   <li>memória: heap ocupado pelo cenário (depois de um GC) e pico do heap durante os ticks;</li>
+ *   <li>latência: p50, p99, p99,9 e máximo da duração dos ticks, e de cada tipo de missão
+ *       (pelos histogramas das {@link Metricas}).</li>
+ * </ul>
+ *
+ * <p>Uso: {@code java cenarios.Escalabilidade [ticks] [robôs ...]}, por exemplo
+ * {@code java -Xmx8g cenarios.Escalabilidade 20 1000 100000 1000000}. Propriedades:
+ * {@code cenario.semente} (padrão 42), {@code cenario.altura} (padrão 4),
+ * {@code cenario.aquecimento} (ticks não medidos, padrão 3), {@code cenario.cooperativa}
+ * ({@code false} para patrulhas com um planejador D* Lite por robô) e {@code cenario.pontosCarga}
+ * (destinos distintos dos drones de carga, padrão {@value GeradorCenario#PONTOS_CARGA_PADRAO};
+ * acima da capacidade de {@link navegacao.CamposDeFluxo} mede-se o recálculo dos campos de fluxo,
+ * informado como "campos de fluxo construídos").
+ *
+ * <p>Com mais de um tamanho, cada um é medido em uma JVM própria, com as mesmas opções da
+ * atual: um tamanho que esgota o heap termina apenas o seu processo, e o JIT e o heap de um
+ * tamanho não influenciam o seguinte. {@code -Dcenario.processoPorTamanho=false} mede todos
+ * no mesmo processo. Um {@link OutOfMemoryError} não é tratado: encerra a JVM da medida.
+ *
+ * <p>A saída de console e o arquivo de log do simulador são desligados durante as medidas,
+ * como nos benchmarks; o relatório sai na saída padrão original.
+ */
+public class Escalabilidade {
+    private static final int TICKS_PADRAO = 20;
+    private static final int[] ROBOS_PADRAO = {1_000, 10_000, 100_000};
+    private static final double DENSIDADE_ROBOS = 0.05; // Robôs por célula do plano
+    // Fração dos robôs de cada GeradorCenario.TipoRobo: terrestre, aéreo, drone de carga, comunicador
+    private static final double[] MISTURA_ROBOS = {0.4, 0.2, 0.1, 0.3};
+    // Fração do chão coberta por cada TipoObstaculo: parede, árvore, prédio, buraco, outro
+    private static final double[] DENSIDADE_OBSTACULOS = {0.03, 0.01, 0.04, 0.005, 0.005};
+    private static final Class<?>[] MISSOES = {MissaoPatrulhar.class, MissaoExplorar.class, MissaoEntregaCarga.class, MissaoMonitorar.class};
+    private static final double MB = 1024.0 * 1024.0;
+
+    private static PrintStream relatorio;
+
+    public static void main(String[] args) {
+        int ticks = TICKS_PADRAO;
+        int[] tamanhos = ROBOS_PADRAO;
+        try {
+            if (args.length > 0) {
+                ticks = Integer.parseInt(args[0]);
+            }
+            if (args.length > 1) {
+                tamanhos = new int[args.length - 1];
+                for (int i = 1; i < args.length; i++) {
+                    tamanhos[i - 1] = Integer.parseInt(args[i]);
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Uso: java cenarios.Escalabilidade [ticks] [robôs ...]");
+            System.exit(1);
+        }
+        long semente = Long.getLong("cenario.semente", 42);
+        int altura = Integer.getInteger("cenario.altura", 4);
+        int aquecimento = Integer.getInteger("cenario.aquecimento", 3);
+        boolean cooperativa = !"false".equals(System.getProperty("cenario.cooperativa"));
+        int pontosCarga = Integer.getInteger("cenario.pontosCarga", GeradorCenario.PONTOS_CARGA_PADRAO);
+
+        if (tamanhos.length > 1 && !"false".equals(System.getProperty("cenario.processoPorTamanho"))) {
+            for (int robos : tamanhos) {
+                if (!medirEmProcesso(robos, ticks)) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        relatorio = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(System.out);
+        Log.setAtivo(false);
+        Metricas.setAtiva(true);
+        relatorio.printf(Locale.ROOT, "Escalabilidade: %d ticks medidos (+%d de aquecimento), semente %d, heap máximo %.0f MB, %d processadores%n",
+            ticks, aquecimento, semente, Runtime.getRuntime().maxMemory() / MB, Runtime.getRuntime().availableProcessors());
+        for (int robos : tamanhos) {
+            try {
+                medir(robos, ticks, aquecimento, altura, semente, cooperativa, pontosCarga);
+            } catch (IllegalArgumentException e) {
+                relatorio.println("Cenário com " + robos + " robôs falhou: " + e);
+            }
+        }
+    }
+
+    /**
+     * Mede um tamanho em uma nova JVM, com as opções e o classpath da atual, e espera o seu fim.
+     * A saída do processo vai direto para a saída desta JVM.
+     * @return false se a espera foi interrompida e as medidas restantes devem ser abandonadas.
+     */
+    private static boolean medirEmProcesso(int robos, int ticks) {
+        String java = ProcessHandle.current().info().command()
+            .orElse(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        List<String> comando = new ArrayList<>();
+        comando.add(java);
+        comando.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        comando.add("-cp");
+        comando.add(System.getProperty("java.class.path"));
+        comando.add(Escalabilidade.class.getName());
+        comando.add(Integer.toString(ticks));
+        comando.add(Integer.toString(robos));
+        try {
+            int codigo = new ProcessBuilder(comando).inheritIO().start().waitFor();
+            if (codigo != 0) {
+                System.out.println("Cenário com " + robos + " robôs falhou (código de saída " + codigo + ").");
+            }
+        } catch (IOException e) {
+            System.err.println("Não foi possível iniciar a medida de " + robos + " robôs: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    private static void medir(int robos, int ticks, int aquecimento, int altura, long semente, boolean cooperativa, int pontosCarga) {
+        if (robos <= 0 || ticks <= 0) {
+            throw new IllegalArgumentException("Número de robôs e de ticks devem ser positivos.");
+        }
+        int lado = (int) Math.ceil(Math.sqrt(robos / DENSIDADE_ROBOS));
+        double plano = (double) lado * lado;
+        GeradorCenario gerador = new GeradorCenario(lado, lado, altura, semente);
+        gerador.definirPatrulhaCooperativa(cooperativa);
+        gerador.definirPontosCarga(pontosCarga);
+        for (GeradorCenario.TipoRobo t : GeradorCenario.TipoRobo.values()) {
+            gerador.definirDensidade(t, Math.min(1, robos * MISTURA_ROBOS[t.ordinal()] / plano));
+        }
+        for (TipoObstaculo t : TipoObstaculo.values()) {
+            gerador.definirDensidade(t, DENSIDADE_OBSTACULOS[t.ordinal()]);
+        }
+
+        long heapAntes = heapAposGc();
+        long inicio = System.nanoTime();
+        Cenario cenario = gerador.gerar();
+        double segundosGeracao = (System.nanoTime() - inicio) / 1e9;
+        long heapCenario = heapAposGc() - heapAntes;
+        relatorio.printf(Locale.ROOT, "%n== %d robôs: %s%n", cenario.getNumRobos(), cenario.descrever());
+        relatorio.printf(Locale.ROOT, "geração: %.2f s; heap do cenário: %.1f MB (%.0f bytes por robô)%n",
+            segundosGeracao, heapCenario / MB, (double) heapCenario / cenario.getNumRobos());
+
+        for (int i = 0; i < aquecimento; i++) {
+            cenario.executarTick();
+        }
+        Metricas.zerar();
+        Histograma duracaoTicks = new Histograma("tick");
+        for (MemoryPoolMXBean area : ManagementFactory.getMemoryPoolMXBeans()) {
+            area.resetPeakUsage();
+        }
+        inicio = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            long t = System.nanoTime();
+            cenario.executarTick();
+            duracaoTicks.registrar(System.nanoTime() - t);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long passos = 0;
+        for (Class<?> missao : MISSOES) {
+            passos += Metricas.missao(missao).getContagem();
+        }
+
+        relatorio.printf(Locale.ROOT, "vazão: %.2f ticks/s, %.0f passos de missão/s; pico do heap: %.1f MB%n",
+            ticks / segundos, passos / segundos, picoHeap() / MB);
+        relatorio.printf(Locale.ROOT, "tick: p50=%.2f ms p99=%.2f ms p99,9=%.2f ms máx=%.2f ms%n",
+            duracaoTicks.getP50() / 1e6, duracaoTicks.getP99() / 1e6, duracaoTicks.getP999() / 1e6, duracaoTicks.getMaximo() / 1e6);
+        for (Class<?> missao : MISSOES) {
+            Histograma h = Metricas.missao(missao);
+            if (h.getContagem() > 0) {
+                relatorio.printf(Locale.ROOT, "  %-20s n=%d p50=%.1f µs p99=%.1f µs p99,9=%.1f µs máx=%.1f µs%n", missao.getSimpleName(),
+                    h.getContagem(), h.getP50() / 1e3, h.getP99() / 1e3, h.getP999() / 1e3, h.getMaximo() / 1e3);
+            }
+        }
+        relatorio.printf(Locale.ROOT, "  movimentos aceitos=%d, colisões=%d, campos de fluxo construídos=%d%n",
+            Metricas.getContagem(Metricas.Contador.MOVIMENTOS_ACEITOS), Metricas.getContagem(Metricas.Contador.COLISOES),
+            Metricas.getContagem(Metricas.Contador.CAMPOS_FLUXO_CONSTRUIDOS));
+    }
+
+    private static long heapAposGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 2; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /** Soma dos picos de cada área do heap desde o último resetPeakUsage (um limite superior do pico real). */
+    private static long picoHeap() {
+        long total = 0;
+        for (MemoryPoolMXBean area : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (area.getType() == MemoryType.HEAP) {
+                total += area.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,341 @@
+package cenarios;
+// GeradorCenario.java
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ambiente.Ambiente;
+import ambiente.ColisaoException;
+import ambiente.Entidade;
+import ambiente.ForaDosLimitesException;
+import ambiente.Obstaculo;
+import ambiente.TipoEntidade;
+import ambiente.TipoObstaculo;
+import comunicacao.CentralComunicacao;
+import missao.DespachanteCarga;
+import missao.MissaoExplorar;
+import missao.MissaoMonitorar;
+import missao.MissaoPatrulhar;
+import missao.RotasPatrulha;
+import robo.RoboAereo;
+import robo.RoboComunicador;
+import robo.RoboDroneDeCarga;
+import robo.RoboTerrestre;
+import robo.Rumo;
+import sensores.SensorProximidade;
+
+/**
+ * Gera cenários sintéticos de qualquer tamanho a partir de uma semente: um {@link Ambiente}
+ * com a densidade pedida de cada {@link TipoObstaculo} e de cada classe de robô, todos os
+ * robôs ligados e com missão. A mesma semente e a mesma configuração geram sempre o mesmo
+ * cenário.
+ *
+ * <p>As densidades são frações das células do plano (largura x profundidade). Obstáculos
+ * cobrem essa fração do chão; robôs terrestres e comunicadores ficam no chão, e robôs
+ * aéreos e drones de carga em células sorteadas de todos os níveis acima dele. As células
+ * são sorteadas sem reposição ({@link PermutacaoCelulas}) e só células livres são usadas,
+ * então a geração não fica presa em tentativas repetidas mesmo em mapas cheios.
+ *
+ * <p>Formas dos obstáculos: PAREDE é um segmento de 2 a 8 células em X ou em Y, PREDIO um
+ * retângulo de 2 a 4 células de lado, e os demais ocupam uma célula. A altura de cada um
+ * é a altura padrão do tipo, limitada à altura do ambiente (pelo menos 1).
+ *
+ * <p>Missões atribuídas:
+ * <ul>
+ *   <li>TERRESTRE: {@link MissaoPatrulhar} em um quadrado de lado 2 * raioPatrulha ao redor da posição inicial,
+ *       por padrão no modo cooperativo (ver {@link #definirPatrulhaCooperativa(boolean)});</li>
+ *   <li>AEREO: {@link MissaoExplorar};</li>
+ *   <li>DRONE_DE_CARGA: registrado no {@link DespachanteCarga}, com um pedido de entrega por drone entre
+ *       dois dos pontos de carga sorteados no chão ({@value #PONTOS_CARGA_PADRAO} por padrão, poucos destinos
+ *       distintos para que os campos de fluxo caibam no cache do ambiente; ver {@link #definirPontosCarga(int)});</li>
+ *   <li>COMUNICADOR: {@link MissaoMonitorar} sem exibir as leituras, com um {@link SensorProximidade}.</li>
+ * </ul>
+ */
+public class GeradorCenario {
+    /** Classes de robô que o gerador sabe criar. */
+    public enum TipoRobo { TERRESTRE, AEREO, DRONE_DE_CARGA, COMUNICADOR }
+
+    private static final TipoObstaculo[] TIPOS_OBSTACULO = TipoObstaculo.values();
+    private static final TipoRobo[] TIPOS_ROBO = TipoRobo.values();
+    private static final int VELOCIDADE = 5;
+    private static final int CARGA_MAXIMA = 10;
+    private static final double RAIO_SENSOR = 3.0;
+    /** Número padrão de pontos de coleta e entrega dos pedidos dos drones de carga. */
+    public static final int PONTOS_CARGA_PADRAO = 4;
+
+    private final int largura, profundidade, altura;
+    private final long semente;
+    private final double[] densidadeObstaculos = new double[TIPOS_OBSTACULO.length];
+    private final double[] densidadeRobos = new double[TIPOS_ROBO.length];
+    private int raioPatrulha = 4;
+    private boolean patrulhaCooperativa = true;
+    private int pontosCarga = PONTOS_CARGA_PADRAO;
+
+    /**
+     * @param largura      Largura (X) do ambiente.
+     * @param profundidade Profundidade (Y) do ambiente.
+     * @param altura       Altura (Z) do ambiente; robôs aéreos precisam de pelo menos 2.
+     * @param semente      A semente do sorteio.
+     * @throws IllegalArgumentException Se alguma dimensão não for positiva.
+     */
+    public GeradorCenario(int largura, int profundidade, int altura, long semente) {
+        if (largura <= 0 || profundidade <= 0 || altura <= 0) {
+            throw new IllegalArgumentException("Dimensões do cenário devem ser positivas.");
+        }
+        this.largura = largura;
+        this.profundidade = profundidade;
+        this.altura = altura;
+        this.semente = semente;
+    }
+
+    /**
+     * Define a fração das células do chão coberta por obstáculos do tipo dado.
+     * @throws IllegalArgumentException Se a densidade estiver fora de [0, 1].
+     */
+    public void definirDensidade(TipoObstaculo tipo, double densidade) {
+        densidadeObstaculos[tipo.ordinal()] = validar(densidade);
+    }
+
+    /**
+     * Define quantos robôs do tipo dado são criados, como fração das células do plano.
+     * @throws IllegalArgumentException Se a densidade estiver fora de [0, 1].
+     */
+    public void definirDensidade(TipoRobo tipo, double densidade) {
+        densidadeRobos[tipo.ordinal()] = validar(densidade);
+    }
+
+    /**
+     * Define o tamanho das rotas de patrulha dos robôs terrestres.
+     * @throws IllegalArgumentException Se o raio for negativo.
+     */
+    public void definirRaioPatrulha(int raio) {
+        if (raio < 0) {
+            throw new IllegalArgumentException("O raio de patrulha não pode ser negativo.");
+        }
+        raioPatrulha = raio;
+    }
+
+    /**
+     * Define o modo de planejamento das patrulhas. No modo não cooperativo, cada robô mantém
+     * um planejador D* Lite do tamanho do mapa inteiro, o que limita o cenário a poucos
+     * milhares de robôs; no cooperativo, todos compartilham a tabela de reservas do ambiente.
+     */
+    public void definirPatrulhaCooperativa(boolean cooperativa) {
+        patrulhaCooperativa = cooperativa;
+    }
+
+    /**
+     * Define quantos pontos de carga distintos são sorteados para os pedidos dos drones.
+     * Cada ponto é um destino com o seu próprio campo de fluxo; com mais pontos do que cabem
+     * no cache de campos do ambiente, as entregas passam a recalculá-los.
+     * @throws IllegalArgumentException Se houver menos de 2 pontos (coleta e entrega precisam diferir).
+     */
+    public void definirPontosCarga(int pontos) {
+        if (pontos < 2) {
+            throw new IllegalArgumentException("São necessários pelo menos 2 pontos de carga.");
+        }
+        pontosCarga = pontos;
+    }
+
+    private static double validar(double densidade) {
+        if (!(densidade >= 0 && densidade <= 1)) {
+            throw new IllegalArgumentException("Densidade fora de [0, 1]: " + densidade);
+        }
+        return densidade;
+    }
+
+    private long plano() {
+        return (long) largura * profundidade;
+    }
+
+    /** Número de robôs do tipo dado que {@link #gerar()} vai criar. */
+    public int getNumRobos(TipoRobo tipo) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.round(densidadeRobos[tipo.ordinal()] * plano()));
+    }
+
+    /**
+     * Gera o cenário.
+     * @return O cenário, com todos os robôs ligados e com missão.
+     * @throws IllegalArgumentException Se não houver células livres suficientes para as densidades
+     *                                  pedidas, ou se houver robôs aéreos em um ambiente de altura 1.
+     */
+    public Cenario gerar() {
+        if (altura < 2 && (getNumRobos(TipoRobo.AEREO) > 0 || getNumRobos(TipoRobo.DRONE_DE_CARGA) > 0)) {
+            throw new IllegalArgumentException("Robôs aéreos exigem um ambiente de altura 2 ou mais.");
+        }
+        Random aleatorio = new Random(semente);
+        Ambiente ambiente = new Ambiente(largura, profundidade, altura);
+        CentralComunicacao central = new CentralComunicacao();
+        central.definirRelogio(ambiente::getTick);
+        DespachanteCarga despachante = new DespachanteCarga();
+        int[] robos = new int[TIPOS_ROBO.length];
+        int[] obstaculos = new int[TIPOS_OBSTACULO.length];
+        long[] celulasObstaculo = new long[TIPOS_OBSTACULO.length];
+
+        // Uma só permutação do chão para obstáculos e robôs terrestres: nenhuma célula é sorteada duas vezes
+        PermutacaoCelulas chao = new PermutacaoCelulas(plano(), aleatorio);
+        for (TipoObstaculo tipo : TIPOS_OBSTACULO) {
+            long alvo = Math.round(densidadeObstaculos[tipo.ordinal()] * plano());
+            while (celulasObstaculo[tipo.ordinal()] < alvo) {
+                long c = proximaLivre(ambiente, chao, 0, tipo.toString());
+                Obstaculo o = criarObstaculo(tipo, x(c), y(c), aleatorio);
+                if (adicionar(ambiente, o)) {
+                    obstaculos[tipo.ordinal()]++;
+                    celulasObstaculo[tipo.ordinal()] += (long) (o.getX2() - o.getX1() + 1) * (o.getY2() - o.getY1() + 1);
+                }
+            }
+        }
+
+        // Robôs terrestres: as rotas de patrulha são montadas junto, uma por robô
+        int numTerrestres = getNumRobos(TipoRobo.TERRESTRE);
+        List<RoboTerrestre> terrestres = new ArrayList<>(numTerrestres);
+        int[] coordenadas = new int[numTerrestres * 4 * 3];
+        int[] inicios = new int[numTerrestres + 1];
+        for (int i = 0; i < numTerrestres; i++) {
+            long c = proximaLivre(ambiente, chao, 0, "robôs terrestres");
+            int x = x(c), y = y(c);
+            RoboTerrestre r = new RoboTerrestre("T" + i, x, y, rumo(aleatorio), VELOCIDADE);
+            adicionar(ambiente, r);
+            r.ligar();
+            terrestres.add(r);
+            montarRota(ambiente, x, y, i, coordenadas, inicios);
+        }
+        if (numTerrestres > 0) {
+            RotasPatrulha rotas = RotasPatrulha.criar(coordenadas, inicios);
+            for (int i = 0; i < numTerrestres; i++) {
+                terrestres.get(i).definirMissao(new MissaoPatrulhar(rotas, i, patrulhaCooperativa));
+            }
+        }
+        robos[TipoRobo.TERRESTRE.ordinal()] = numTerrestres;
+
+        int numComunicadores = getNumRobos(TipoRobo.COMUNICADOR);
+        for (int i = 0; i < numComunicadores; i++) {
+            long c = proximaLivre(ambiente, chao, 0, "robôs comunicadores");
+            RoboComunicador r = new RoboComunicador("C" + i, x(c), y(c), rumo(aleatorio), VELOCIDADE, central);
+            r.adicionarSensor(new SensorProximidade("Prox-C" + i, RAIO_SENSOR));
+            adicionar(ambiente, r);
+            r.ligar();
+            r.definirMissao(new MissaoMonitorar(false)); // Cenários grandes não exibem as leituras
+        }
+        robos[TipoRobo.COMUNICADOR.ordinal()] = numComunicadores;
+
+        // Robôs aéreos e drones: células de todos os níveis acima do chão
+        int numAereos = getNumRobos(TipoRobo.AEREO), numDrones = getNumRobos(TipoRobo.DRONE_DE_CARGA);
+        int[] cargaX = new int[pontosCarga], cargaY = new int[pontosCarga];
+        for (int i = 0; i < pontosCarga && numDrones > 0; i++) {
+            long c = proximaLivre(ambiente, chao, 0, "pontos de carga");
+            cargaX[i] = x(c);
+            cargaY[i] = y(c);
+        }
+        if (numAereos + numDrones > 0) {
+            PermutacaoCelulas ar = new PermutacaoCelulas(plano() * (altura - 1), aleatorio);
+            for (int i = 0; i < numAereos; i++) {
+                long c = proximaLivre(ambiente, ar, 1, "robôs aéreos");
+                RoboAereo r = new RoboAereo("A" + i, x(c), y(c), z(c, 1), rumo(aleatorio), altura - 1, 4);
+                adicionar(ambiente, r);
+                r.ligar();
+                r.definirMissao(new MissaoExplorar());
+            }
+            for (int i = 0; i < numDrones; i++) {
+                long c = proximaLivre(ambiente, ar, 1, "drones de carga");
+                RoboDroneDeCarga d = new RoboDroneDeCarga("D" + i, x(c), y(c), z(c, 1), rumo(aleatorio), altura - 1, 4, 0, CARGA_MAXIMA);
+                adicionar(ambiente, d);
+                d.ligar();
+                despachante.registrarDrone(d);
+                int coleta = aleatorio.nextInt(pontosCarga);
+                int entrega = (coleta + 1 + aleatorio.nextInt(pontosCarga - 1)) % pontosCarga;
+                despachante.adicionarPedido(cargaX[coleta], cargaY[coleta], cargaX[entrega], cargaY[entrega],
+                    1 + aleatorio.nextInt(CARGA_MAXIMA));
+            }
+        }
+        robos[TipoRobo.AEREO.ordinal()] = numAereos;
+        robos[TipoRobo.DRONE_DE_CARGA.ordinal()] = numDrones;
+
+        return new Cenario(ambiente, central, despachante, semente, robos, obstaculos, celulasObstaculo);
+    }
+
+    /**
+     * Sorteia a próxima célula livre de uma permutação cujo índice 0 está no nível zBase.
+     * @throws IllegalArgumentException Se a permutação se esgotar.
+     */
+    private long proximaLivre(Ambiente ambiente, PermutacaoCelulas celulas, int zBase, String oQue) {
+        long c;
+        do {
+            c = celulas.proximo();
+            if (c < 0) {
+                throw new IllegalArgumentException("Não há células livres suficientes para " + oQue + " em um ambiente "
+                    + largura + "x" + profundidade + "x" + altura + ".");
+            }
+        } while (ambiente.getTipoEm(x(c), y(c), z(c, zBase)) != TipoEntidade.VAZIO);
+        return c;
+    }
+
+    private int x(long c) { return (int) (c % largura); }
+    private int y(long c) { return (int) (c / largura % profundidade); }
+    private int z(long c, int zBase) { return zBase + (int) (c / plano()); }
+
+    private static Rumo rumo(Random aleatorio) {
+        return Rumo.doOrdinal(aleatorio.nextInt(Rumo.PLANARES));
+    }
+
+    /** Cria um obstáculo do tipo dado com um canto em (x, y), recortado aos limites do ambiente. */
+    private Obstaculo criarObstaculo(TipoObstaculo tipo, int x, int y, Random aleatorio) {
+        int x2 = x, y2 = y;
+        switch (tipo) {
+            case PAREDE:
+                int comprimento = 2 + aleatorio.nextInt(7);
+                if (aleatorio.nextBoolean()) {
+                    x2 = x + comprimento - 1;
+                } else {
+                    y2 = y + comprimento - 1;
+                }
+                break;
+            case PREDIO:
+                x2 = x + 1 + aleatorio.nextInt(3);
+                y2 = y + 1 + aleatorio.nextInt(3);
+                break;
+            default:
+                break;
+        }
+        int alturaObstaculo = Math.max(1, Math.min(tipo.getAlturaPadrao(), altura));
+        return new Obstaculo(x, y, Math.min(x2, largura - 1), Math.min(y2, profundidade - 1), tipo, 0, alturaObstaculo);
+    }
+
+    /**
+     * Adiciona a entidade ao ambiente.
+     * @return false se alguma das suas células já estava ocupada.
+     */
+    private static boolean adicionar(Ambiente ambiente, Entidade e) {
+        try {
+            ambiente.adicionarEntidade(e);
+            return true;
+        } catch (ColisaoException | ForaDosLimitesException ex) {
+            // Obstáculo maior que uma célula sobre outro: o sorteio segue para a próxima célula
+            return false;
+        }
+    }
+
+    /**
+     * Escreve a rota i: os cantos do quadrado ao redor de (x, y), recortados aos limites.
+     * Cantos sobre obstáculos são trocados pela posição inicial, que é sempre alcançável.
+     */
+    private void montarRota(Ambiente ambiente, int x, int y, int i, int[] coordenadas, int[] inicios) {
+        int r = raioPatrulha;
+        int[] cantosX = {x - r, x - r, x + r, x + r};
+        int[] cantosY = {y - r, y + r, y + r, y - r};
+        int p = i * 4 * 3;
+        for (int k = 0; k < 4; k++) {
+            int cx = Math.max(0, Math.min(cantosX[k], largura - 1));
+            int cy = Math.max(0, Math.min(cantosY[k], profundidade - 1));
+            if (ambiente.getTipoEm(cx, cy, 0) == TipoEntidade.OBSTACULO) {
+                cx = x;
+                cy = y;
+            }
+            coordenadas[p++] = cx;
+            coordenadas[p++] = cy;
+            coordenadas[p++] = 0;
+        }
+        inicios[i + 1] = (i + 1) * 4;
+    }
+}
@@ -0,0 +1,68 @@
+package cenarios;
+// PermutacaoCelulas.java
+
+import java.util.Random;
+
+/**
+ * Percorre os índices [0, n) em uma ordem aleatória, sem repetir nenhum, em espaço
+ * constante. A ordem é dada por uma rede de Feistel de quatro rodadas sobre o menor
+ * domínio 2^(2m) que contém n; índices do domínio fora de [0, n) são pulados (no máximo
+ * 3 de cada 4). Assim o gerador sorteia células sem reposição mesmo em mapas com dezenas
+ * de milhões de células, sem guardar a lista das células.
+ */
+final class PermutacaoCelulas {
+    private static final int RODADAS = 4;
+
+    private final long n;
+    private final int meia;      // Bits de cada metade do domínio
+    private final long mascara;
+    private final long dominio;
+    private final long[] chaves = new long[RODADAS];
+    private long contador;
+
+    /**
+     * @param n         O número de índices.
+     * @param aleatorio O gerador que sorteia as chaves da permutação.
+     */
+    PermutacaoCelulas(long n, Random aleatorio) {
+        this.n = n;
+        int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(Math.max(1, n - 1)));
+        meia = (bits + 1) / 2;
+        mascara = (1L << meia) - 1;
+        dominio = 1L << (2 * meia);
+        for (int i = 0; i < RODADAS; i++) {
+            chaves[i] = aleatorio.nextLong();
+        }
+    }
+
+    /**
+     * O próximo índice da permutação.
+     * @return O índice, ou -1 se todos já foram devolvidos.
+     */
+    long proximo() {
+        while (contador < dominio) {
+            long v = permutar(contador++);
+            if (v < n) {
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    private long permutar(long v) {
+        long esquerda = v >>> meia, direita = v & mascara;
+        for (long chave : chaves) {
+            long t = direita;
+            direita = esquerda ^ (misturar(direita ^ chave) & mascara);
+            esquerda = t;
+        }
+        return (esquerda << meia) | direita;
+    }
+
+    // Função de mistura do SplitMix64
+    private static long misturar(long v) {
+        v = (v ^ (v >>> 30)) * 0xBF58476D1CE4E5B9L;
+        v = (v ^ (v >>> 27)) * 0x94D049BB133111EBL;
+        return v ^ (v >>> 31);
+    }
+}
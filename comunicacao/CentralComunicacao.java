@@ -1,22 +1,70 @@
 package comunicacao;
 // CentralComunicacao.java
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import util.Metricas;
+import util.jfr.EventoMensagem;
 
 /**
  * Representa uma central de comunicação que registra todas as mensagens trocadas
  * entre entidades comunicáveis (geralmente robôs).
  * Funciona como um hub para o registro e visualização de comunicações.
+ * A central também limita a taxa de mensagens por canal (destinatário) e mantém
+ * contadores de mensagens aceitas, limitadas e descartadas por robô remetente.
+ * As taxas são medidas em ticks da simulação, lidos do relógio definido em
+ * {@link #definirRelogio(LongSupplier)}.
  */
 public class CentralComunicacao {
+    /** Taxa padrão de mensagens por tick aceitas em cada canal. */
+    public static final double TAXA_PADRAO_CANAL = 10.0;
+    /** Rajada padrão de mensagens aceitas de uma só vez em cada canal. */
+    public static final double RAJADA_PADRAO_CANAL = 50.0;
+
     private List<String> mensagens; // Lista para armazenar o log das mensagens
+    private final Map<String, LimitadorTaxa> limitesPorCanal;          // Limitador por destinatário
+    private final Map<String, ContadoresMensagens> contadoresPorRobo;  // Contadores por remetente
+    private final double taxaCanal;
+    private final double rajadaCanal;
+    private LongSupplier relogio = () -> 0L; // Tick atual da simulação
 
     /**
      * Construtor da CentralComunicacao.
-     * Inicializa a lista de mensagens.
+     * Inicializa a lista de mensagens e usa os limites padrão por canal.
      */
     public CentralComunicacao() {
+        this(TAXA_PADRAO_CANAL, RAJADA_PADRAO_CANAL);
+    }
+
+    /**
+     * Construtor da CentralComunicacao com limites de canal personalizados.
+     *
+     * @param taxaCanal   Mensagens por tick aceitas por canal (destinatário).
+     * @param rajadaCanal Rajada máxima aceita por canal.
+     */
+    public CentralComunicacao(double taxaCanal, double rajadaCanal) {
         this.mensagens = new ArrayList<>();
+        this.limitesPorCanal = new HashMap<>();
+        this.contadoresPorRobo = new HashMap<>();
+        this.taxaCanal = taxaCanal;
+        this.rajadaCanal = rajadaCanal;
+    }
+
+    /**
+     * Define de onde a central lê o tick atual (normalmente {@code ambiente::getTick}).
+     * Sem relógio, o tick fica em 0 e os limites de taxa não são reabastecidos.
+     * @param relogio Fornece o tick atual da simulação.
+     */
+    public void definirRelogio(LongSupplier relogio) {
+        this.relogio = relogio;
+    }
+
+    /** O tick atual segundo o relógio da central. */
+    public long getTick() {
+        return relogio.getAsLong();
     }
 
     /**
@@ -28,10 +76,88 @@ public class CentralComunicacao {
      * @param msg           O conteúdo da mensagem.
      */
     public void registrarMensagem(String remetenteId, String destinatarioId, String msg) {
+        EventoMensagem evento = new EventoMensagem();
+        evento.begin();
         // Formata a mensagem para o log
         String log = "De: " + remetenteId + " | Para: " + (destinatarioId != null ? destinatarioId : "TODOS") + " | Msg: " + msg;
         this.mensagens.add(log); // Adiciona a mensagem formatada à lista
         System.out.println("Central: Mensagem registrada - " + log); // Imprime uma confirmação no console
+        Metricas.contar(Metricas.Contador.MENSAGENS);
+        if (evento.shouldCommit()) {
+            evento.remetente = remetenteId;
+            evento.destinatario = destinatarioId != null ? destinatarioId : "TODOS";
+            evento.tamanho = msg != null ? msg.length() : 0;
+            evento.commit();
+        }
+    }
+
+    /**
+     * Tenta registrar uma mensagem respeitando o limite de taxa do canal do destinatário.
+     * Nunca bloqueia: se o canal estiver saturado, a mensagem é rejeitada imediatamente.
+     *
+     * @param remetenteId    O ID da entidade que enviou a mensagem.
+     * @param destinatarioId O ID da entidade destinatária. Pode ser null se a mensagem for para "TODOS".
+     * @param msg            O conteúdo da mensagem.
+     * @return {@link ResultadoEnvio#ENTREGUE} se registrada, ou {@link ResultadoEnvio#LIMITADA_CANAL}.
+     */
+    public synchronized ResultadoEnvio tentarRegistrarMensagem(String remetenteId, String destinatarioId, String msg) {
+        if (!tentarUsarCanal(remetenteId, destinatarioId)) {
+            return ResultadoEnvio.LIMITADA_CANAL;
+        }
+        confirmarEntrega(remetenteId, destinatarioId, msg);
+        return ResultadoEnvio.ENTREGUE;
+    }
+
+    /**
+     * Consome uma ficha do canal do destinatário, sem registrar a mensagem. Quem entrega
+     * a mensagem depois deve chamar {@link #confirmarEntrega} ou contabilizá-la como descartada.
+     *
+     * @param remetenteId    O ID da entidade que enviou a mensagem.
+     * @param destinatarioId O ID da entidade destinatária. Pode ser null se a mensagem for para "TODOS".
+     * @return true se o canal aceitou a mensagem; false se está saturado (já contabilizado como
+     * {@link ResultadoEnvio#LIMITADA_CANAL}).
+     */
+    public synchronized boolean tentarUsarCanal(String remetenteId, String destinatarioId) {
+        String canal = destinatarioId != null ? destinatarioId : "TODOS";
+        LimitadorTaxa limitador = limitesPorCanal.computeIfAbsent(canal, c -> new LimitadorTaxa(taxaCanal, rajadaCanal));
+        if (!limitador.tentarConsumir(getTick())) {
+            contabilizar(remetenteId, ResultadoEnvio.LIMITADA_CANAL);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Registra uma mensagem que já chegou ao destinatário e a contabiliza como entregue.
+     *
+     * @param remetenteId    O ID da entidade que enviou a mensagem.
+     * @param destinatarioId O ID da entidade destinatária. Pode ser null se a mensagem for para "TODOS".
+     * @param msg            O conteúdo da mensagem.
+     */
+    public synchronized void confirmarEntrega(String remetenteId, String destinatarioId, String msg) {
+        registrarMensagem(remetenteId, destinatarioId, msg);
+        contabilizar(remetenteId, ResultadoEnvio.ENTREGUE);
+    }
+
+    /**
+     * Contabiliza o resultado de uma tentativa de envio para o robô remetente.
+     * Usado também pelos módulos de comunicação para registrar mensagens
+     * rejeitadas antes de chegarem à central.
+     *
+     * @param remetenteId O ID do robô remetente.
+     * @param resultado   O resultado da tentativa de envio.
+     */
+    public synchronized void contabilizar(String remetenteId, ResultadoEnvio resultado) {
+        contadoresPorRobo.computeIfAbsent(remetenteId, id -> new ContadoresMensagens()).registrar(resultado);
+    }
+
+    /**
+     * Retorna os contadores de mensagens de um robô remetente.
+     * @param remetenteId O ID do robô.
+     * @return Os contadores do robô, ou null se ele nunca tentou enviar mensagens.
+     */
+    public synchronized ContadoresMensagens getContadores(String remetenteId) {
+        return contadoresPorRobo.get(remetenteId);
     }
 
     /**
@@ -50,4 +176,16 @@ public class CentralComunicacao {
         }
         System.out.println("--------------------------------------");
     }
-}
\ No newline at end of file
+
+    /**
+     * Exibe os contadores de mensagens aceitas, limitadas e descartadas de cada robô.
+     */
+    public synchronized void exibirEstatisticas() {
+        System.out.println("\n--- Estatísticas de Comunicação por Robô ---");
+        if (contadoresPorRobo.isEmpty()) {
+            System.out.println("Nenhuma tentativa de envio registrada.");
+            return;
+        }
+        contadoresPorRobo.forEach((id, c) -> System.out.println("  " + id + ": " + c));
+    }
+}
@@ -0,0 +1,31 @@
+package comunicacao;
+// ContadoresMensagens.java
+
+/**
+ * Contadores de mensagens de um único robô remetente, mantidos pela
+ * {@link CentralComunicacao}: quantas foram aceitas, limitadas por taxa
+ * e descartadas.
+ */
+public class ContadoresMensagens {
+    private long aceitas;
+    private long limitadas;
+    private long descartadas;
+
+    void registrar(ResultadoEnvio resultado) {
+        switch (resultado) {
+            case ENTREGUE: aceitas++; break;
+            case LIMITADA_REMETENTE:
+            case LIMITADA_CANAL: limitadas++; break;
+            case DESCARTADA: descartadas++; break;
+        }
+    }
+
+    public long getAceitas() { return aceitas; }
+    public long getLimitadas() { return limitadas; }
+    public long getDescartadas() { return descartadas; }
+
+    @Override
+    public String toString() {
+        return "aceitas=" + aceitas + ", limitadas=" + limitadas + ", descartadas=" + descartadas;
+    }
+}
@@ -0,0 +1,66 @@
+package comunicacao;
+// LimitadorTaxa.java
+
+/**
+ * Limitador de taxa do tipo balde de fichas (token bucket).
+ * O balde é reabastecido a uma taxa fixa por tick da simulação até a sua capacidade
+ * (a rajada máxima permitida), e cada mensagem consome uma ficha. Medir a taxa em ticks,
+ * e não em tempo de relógio, faz o limite valer igual para uma simulação rápida ou lenta.
+ * A verificação nunca bloqueia: sem fichas disponíveis, {@link #tentarConsumir(long)}
+ * apenas retorna false e o chamador decide o que fazer com a mensagem.
+ */
+public class LimitadorTaxa {
+    private final double capacidade;     // Número máximo de fichas acumuladas (rajada)
+    private final double fichasPorTick;  // Taxa de reabastecimento
+    private double fichas;               // Fichas disponíveis no momento
+    private long ultimoReabastecimento;  // Tick do último reabastecimento
+
+    /**
+     * Construtor do limitador. O balde começa cheio.
+     *
+     * @param mensagensPorTick Taxa sustentada de mensagens permitidas por tick.
+     * @param rajadaMaxima     Quantidade de mensagens que podem ser enviadas de uma só vez.
+     * @throws IllegalArgumentException Se a taxa ou a rajada não forem positivas.
+     */
+    public LimitadorTaxa(double mensagensPorTick, double rajadaMaxima) {
+        if (mensagensPorTick <= 0 || rajadaMaxima <= 0) {
+            throw new IllegalArgumentException("Taxa e rajada do limitador devem ser positivas.");
+        }
+        this.capacidade = rajadaMaxima;
+        this.fichasPorTick = mensagensPorTick;
+        this.fichas = rajadaMaxima;
+    }
+
+    /**
+     * Tenta consumir uma ficha do balde, depois de reabastecê-lo pelos ticks passados
+     * desde a última chamada.
+     * @param tick O tick atual da simulação.
+     * @return true se havia ficha disponível (mensagem aceita), false se a taxa foi excedida.
+     */
+    public synchronized boolean tentarConsumir(long tick) {
+        reabastecer(tick);
+        if (fichas < 1.0) {
+            return false;
+        }
+        fichas -= 1.0;
+        return true;
+    }
+
+    /**
+     * Informa quantos ticks faltam para que o balde tenha uma ficha, sem consumi-la.
+     * Usado para explicar a quem enviou por que a mensagem foi recusada.
+     * @param tick O tick atual da simulação.
+     * @return 0 se uma mensagem seria aceita agora; senão, os ticks até a próxima ficha.
+     */
+    public synchronized long ticksAteLiberar(long tick) {
+        reabastecer(tick);
+        return fichas >= 1.0 ? 0 : (long) Math.ceil((1.0 - fichas) / fichasPorTick);
+    }
+
+    private void reabastecer(long tick) {
+        if (tick > ultimoReabastecimento) {
+            fichas = Math.min(capacidade, fichas + (tick - ultimoReabastecimento) * fichasPorTick);
+            ultimoReabastecimento = tick;
+        }
+    }
+}
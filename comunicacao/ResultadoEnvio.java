@@ -0,0 +1,18 @@
+package comunicacao;
+// ResultadoEnvio.java
+
+/**
+ * Enumeração com os resultados possíveis de uma tentativa de envio de mensagem.
+ * Permite que o remetente saiba, sem bloquear e sem exceções, se a mensagem
+ * foi entregue ou por que foi rejeitada.
+ */
+public enum ResultadoEnvio {
+    /** A mensagem foi registrada na central e entregue ao destinatário. */
+    ENTREGUE,
+    /** O remetente excedeu sua taxa de envio; a mensagem não foi enviada. */
+    LIMITADA_REMETENTE,
+    /** O canal do destinatário excedeu sua taxa de recebimento; a mensagem não foi enviada. */
+    LIMITADA_CANAL,
+    /** A mensagem foi descartada (destinatário inválido, desligado ou incapaz de recebê-la). */
+    DESCARTADA
+}
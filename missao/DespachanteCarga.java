@@ -0,0 +1,384 @@
+package missao;
+// DespachanteCarga.java
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ambiente.Ambiente;
+import robo.RoboDroneDeCarga;
+import util.Log;
+
+/**
+ * Despachante de pedidos de carga para uma frota de {@link RoboDroneDeCarga}.
+ * Os pedidos (coleta, entrega e quantidade) se acumulam e, a cada {@code intervalo} ticks,
+ * são distribuídos de uma vez entre os drones livres: cada drone considera apenas os
+ * {@code vizinhos} pedidos pendentes mais próximos (encontrados em uma grade de baldes),
+ * o que dá uma matriz de custos esparsa, e a atribuição de menor distância total até as
+ * coletas é resolvida por leilão (Bertsekas).
+ * Cada drone que recebe um pedido ganha uma {@link MissaoEntregaCarga}. Pedidos abandonados
+ * (o drone desistiu ou saiu da frota) voltam a ficar pendentes, até {@link #LIMITE_DEVOLUCOES} vezes.
+ * Os pedidos ficam em arrays primitivos, e os identificadores de pedidos concluídos são reaproveitados.
+ * Uma instância não deve ser usada por várias threads ao mesmo tempo.
+ */
+public class DespachanteCarga {
+    /** Número padrão de ticks entre duas rodadas de atribuição. */
+    public static final int INTERVALO_PADRAO = 5;
+    /** Número padrão de pedidos candidatos por drone. */
+    public static final int VIZINHOS_PADRAO = 8;
+    /** Vezes que um pedido pode voltar à fila antes de ser descartado. */
+    public static final int LIMITE_DEVOLUCOES = 3;
+
+    private static final byte LIVRE = 0, PENDENTE = 1, ATRIBUIDO = 2;
+    private static final int TAMANHO_BALDE = 8; // Lado (em células) de cada balde da grade de pedidos
+
+    private final int intervalo, vizinhos;
+    private final List<RoboDroneDeCarga> drones = new ArrayList<>();
+
+    // Pedidos, indexados pelo identificador
+    private int[] coletaX = new int[16], coletaY = new int[16], entregaX = new int[16], entregaY = new int[16], quantidade = new int[16];
+    private byte[] situacao = new byte[16];
+    private int[] devolucoes = new int[16];
+    private int[] livres = new int[16]; // Pilha de identificadores livres
+    private int numLivres, numPedidos, numPendentes;
+
+    // Buffers da rodada de atribuição, reaproveitados
+    private int[] pendentes = new int[0], baldeInicio = new int[0], baldeItens = new int[0];
+    private int[] candInicio = new int[0], candPedido = new int[0];
+    private long[] candBeneficio = new long[0], preco = new long[0];
+    private int[] donoDoPedido = new int[0], pedidoDoDrone = new int[0], fila = new int[0];
+    private final int[] melhoresPedidos;
+    private final int[] melhoresCustos;
+    private int ultimoAtribuidos;
+    private long ultimaDuracaoNanos;
+
+    public DespachanteCarga() {
+        this(INTERVALO_PADRAO, VIZINHOS_PADRAO);
+    }
+
+    /**
+     * @param intervalo Número de ticks entre duas rodadas de atribuição.
+     * @param vizinhos  Quantos pedidos pendentes (os mais próximos) cada drone considera.
+     * @throws IllegalArgumentException Se algum dos parâmetros for menor que 1.
+     */
+    public DespachanteCarga(int intervalo, int vizinhos) {
+        if (intervalo < 1 || vizinhos < 1) {
+            throw new IllegalArgumentException("Intervalo e número de vizinhos devem ser positivos.");
+        }
+        this.intervalo = intervalo;
+        this.vizinhos = vizinhos;
+        this.melhoresPedidos = new int[vizinhos];
+        this.melhoresCustos = new int[vizinhos];
+    }
+
+    /**
+     * Inclui um drone na frota atendida pelo despachante.
+     * @param drone O drone a ser incluído.
+     */
+    public void registrarDrone(RoboDroneDeCarga drone) {
+        if (!drones.contains(drone)) {
+            drones.add(drone);
+        }
+    }
+
+    /**
+     * Retira um drone da frota. Se ele estava atendendo um pedido, o pedido volta à fila.
+     * @param drone O drone a ser retirado.
+     */
+    public void removerDrone(RoboDroneDeCarga drone) {
+        if (drones.remove(drone) && drone.getMissao() instanceof MissaoEntregaCarga) {
+            MissaoEntregaCarga missao = (MissaoEntregaCarga) drone.getMissao();
+            if (!missao.isConcluida()) {
+                missao.abandonar(drone);
+            }
+        }
+    }
+
+    /**
+     * Registra um pedido de transporte.
+     * @return O identificador do pedido.
+     * @throws IllegalArgumentException Se a quantidade não for positiva.
+     */
+    public int adicionarPedido(int deX, int deY, int paraX, int paraY, int qtd) {
+        if (qtd <= 0) {
+            throw new IllegalArgumentException("A quantidade do pedido deve ser positiva.");
+        }
+        int id;
+        if (numLivres > 0) {
+            id = livres[--numLivres];
+        } else {
+            if (numPedidos == situacao.length) {
+                int novo = numPedidos * 2;
+                coletaX = Arrays.copyOf(coletaX, novo);
+                coletaY = Arrays.copyOf(coletaY, novo);
+                entregaX = Arrays.copyOf(entregaX, novo);
+                entregaY = Arrays.copyOf(entregaY, novo);
+                quantidade = Arrays.copyOf(quantidade, novo);
+                situacao = Arrays.copyOf(situacao, novo);
+                devolucoes = Arrays.copyOf(devolucoes, novo);
+                livres = Arrays.copyOf(livres, novo);
+            }
+            id = numPedidos++;
+        }
+        coletaX[id] = deX;
+        coletaY[id] = deY;
+        entregaX[id] = paraX;
+        entregaY[id] = paraY;
+        quantidade[id] = qtd;
+        situacao[id] = PENDENTE;
+        devolucoes[id] = 0;
+        numPendentes++;
+        return id;
+    }
+
+    /** Chamado pela missão quando a carga do pedido é entregue. */
+    void concluirPedido(int id) {
+        if (situacao[id] == ATRIBUIDO) {
+            situacao[id] = LIVRE;
+            livres[numLivres++] = id;
+        }
+    }
+
+    /**
+     * Chamado pela missão que abandona o pedido: ele volta a ficar pendente, com a coleta
+     * em (x, y), ou é descartado se já voltou à fila {@link #LIMITE_DEVOLUCOES} vezes.
+     */
+    void devolverPedido(int id, int x, int y) {
+        if (situacao[id] != ATRIBUIDO) {
+            return;
+        }
+        if (++devolucoes[id] > LIMITE_DEVOLUCOES) {
+            Log.registrar("DESPACHANTE: pedido " + id + " descartado após " + LIMITE_DEVOLUCOES + " devoluções.");
+            concluirPedido(id);
+            return;
+        }
+        coletaX[id] = x;
+        coletaY[id] = y;
+        situacao[id] = PENDENTE;
+        numPendentes++;
+        Log.registrar("DESPACHANTE: pedido " + id + " devolvido à fila, com coleta em (" + x + ", " + y + ").");
+    }
+
+    public int getPedidosPendentes() { return numPendentes; }
+    /** Quantos drones receberam pedidos na última rodada. */
+    public int getUltimoAtribuidos() { return ultimoAtribuidos; }
+    /** Tempo de CPU, em nanossegundos, da última rodada de atribuição. */
+    public long getUltimaDuracaoNanos() { return ultimaDuracaoNanos; }
+
+    /**
+     * Deve ser chamado uma vez por tick (antes de {@link Ambiente#executarTick()}); a cada
+     * {@code intervalo} ticks distribui os pedidos pendentes.
+     * @return Quantos pedidos foram atribuídos neste tick.
+     */
+    public int aoTick(Ambiente ambiente) {
+        if (ambiente.getTick() % intervalo != 0) {
+            return 0;
+        }
+        return despachar(ambiente);
+    }
+
+    /**
+     * Distribui agora os pedidos pendentes entre os drones livres.
+     * @return Quantos pedidos foram atribuídos.
+     */
+    public int despachar(Ambiente ambiente) {
+        long inicio = System.nanoTime();
+        ultimoAtribuidos = 0;
+        List<RoboDroneDeCarga> disponiveis = new ArrayList<>();
+        for (RoboDroneDeCarga d : drones) {
+            Missao m = d.getMissao();
+            if (m == null || (m instanceof MissaoEntregaCarga && ((MissaoEntregaCarga) m).isConcluida())) {
+                disponiveis.add(d);
+            }
+        }
+        if (disponiveis.isEmpty() || numPendentes == 0) {
+            ultimaDuracaoNanos = System.nanoTime() - inicio;
+            return 0;
+        }
+        montarGrade(ambiente);
+        montarCandidatos(ambiente, disponiveis);
+        leiloar(disponiveis.size());
+
+        for (int i = 0; i < disponiveis.size(); i++) {
+            int p = pedidoDoDrone[i];
+            if (p < 0) continue;
+            int id = pendentes[p];
+            situacao[id] = ATRIBUIDO;
+            numPendentes--;
+            ultimoAtribuidos++;
+            RoboDroneDeCarga drone = disponiveis.get(i);
+            drone.definirMissao(new MissaoEntregaCarga(this, id, coletaX[id], coletaY[id], entregaX[id], entregaY[id], quantidade[id]));
+        }
+        ultimaDuracaoNanos = System.nanoTime() - inicio;
+        Log.registrar("DESPACHANTE: " + ultimoAtribuidos + " pedidos atribuídos a " + disponiveis.size() + " drones livres em "
+            + (ultimaDuracaoNanos / 1000) + " us; " + numPendentes + " pendentes.");
+        return ultimoAtribuidos;
+    }
+
+    /** Distribui os pedidos pendentes em baldes quadrados (ordenação por contagem). */
+    private void montarGrade(Ambiente ambiente) {
+        if (pendentes.length < numPendentes) {
+            pendentes = new int[numPendentes];
+            baldeItens = new int[numPendentes];
+        }
+        int n = 0;
+        for (int id = 0; id < numPedidos; id++) {
+            if (situacao[id] == PENDENTE) pendentes[n++] = id;
+        }
+        int bx = baldesX(ambiente), by = baldesY(ambiente);
+        if (baldeInicio.length < bx * by + 1) {
+            baldeInicio = new int[bx * by + 1];
+        }
+        Arrays.fill(baldeInicio, 0, bx * by + 1, 0);
+        for (int p = 0; p < n; p++) {
+            baldeInicio[balde(ambiente, pendentes[p]) + 1]++;
+        }
+        for (int b = 0; b < bx * by; b++) {
+            baldeInicio[b + 1] += baldeInicio[b];
+        }
+        // Próxima posição livre de cada balde
+        int[] cursor = Arrays.copyOf(baldeInicio, bx * by);
+        for (int p = 0; p < n; p++) {
+            baldeItens[cursor[balde(ambiente, pendentes[p])]++] = p;
+        }
+    }
+
+    private int baldesX(Ambiente ambiente) { return (ambiente.getLargura() + TAMANHO_BALDE - 1) / TAMANHO_BALDE; }
+    private int baldesY(Ambiente ambiente) { return (ambiente.getProfundidade() + TAMANHO_BALDE - 1) / TAMANHO_BALDE; }
+
+    private int balde(Ambiente ambiente, int id) {
+        int x = Math.max(0, Math.min(coletaX[id], ambiente.getLargura() - 1));
+        int y = Math.max(0, Math.min(coletaY[id], ambiente.getProfundidade() - 1));
+        return x / TAMANHO_BALDE + baldesX(ambiente) * (y / TAMANHO_BALDE);
+    }
+
+    /** Distância octil no plano, nos mesmos pesos dos planejadores (10 reto, 14 diagonal). */
+    private static int distancia(int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0), dy = Math.abs(y1 - y0);
+        return 10 * Math.max(dx, dy) + 4 * Math.min(dx, dy);
+    }
+
+    /**
+     * Monta a matriz esparsa (em linhas comprimidas) com os pedidos mais próximos de cada
+     * drone que cabem na sua capacidade livre, percorrendo os baldes em anéis crescentes.
+     */
+    private void montarCandidatos(Ambiente ambiente, List<RoboDroneDeCarga> disponiveis) {
+        int n = disponiveis.size();
+        if (candInicio.length < n + 1) {
+            candInicio = new int[n + 1];
+            pedidoDoDrone = new int[n];
+            fila = new int[n];
+        }
+        if (candPedido.length < n * vizinhos) {
+            candPedido = new int[n * vizinhos];
+            candBeneficio = new long[n * vizinhos];
+        }
+        int bx = baldesX(ambiente), by = baldesY(ambiente);
+        long maiorCusto = 0;
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            RoboDroneDeCarga d = disponiveis.get(i);
+            int x = d.getX(), y = d.getY();
+            int capacidade = d.getCargaMaxima() - d.getCarga();
+            int cbx = Math.max(0, Math.min(x, ambiente.getLargura() - 1)) / TAMANHO_BALDE;
+            int cby = Math.max(0, Math.min(y, ambiente.getProfundidade() - 1)) / TAMANHO_BALDE;
+            int encontrados = 0;
+            for (int anel = 0; anel <= Math.max(bx, by); anel++) {
+                // Pedidos do anel seguinte estão a pelo menos (anel - 1) baldes de distância
+                if (encontrados == vizinhos && melhoresCustos[vizinhos - 1] <= 10L * (anel - 1) * TAMANHO_BALDE) break;
+                for (int b2y = cby - anel; b2y <= cby + anel; b2y++) {
+                    if (b2y < 0 || b2y >= by) continue;
+                    boolean borda = b2y == cby - anel || b2y == cby + anel;
+                    for (int b2x = cbx - anel; b2x <= cbx + anel; b2x += borda || anel == 0 ? 1 : 2 * anel) {
+                        if (b2x < 0 || b2x >= bx) continue;
+                        int b = b2x + bx * b2y;
+                        for (int k = baldeInicio[b]; k < baldeInicio[b + 1]; k++) {
+                            int p = baldeItens[k], id = pendentes[p];
+                            if (quantidade[id] > capacidade) continue;
+                            encontrados = inserirMelhor(encontrados, p, distancia(x, y, coletaX[id], coletaY[id]));
+                        }
+                    }
+                }
+            }
+            candInicio[i] = total;
+            for (int k = 0; k < encontrados; k++) {
+                candPedido[total] = melhoresPedidos[k];
+                candBeneficio[total++] = melhoresCustos[k]; // Custo por enquanto; vira benefício abaixo
+                maiorCusto = Math.max(maiorCusto, melhoresCustos[k]);
+            }
+        }
+        candInicio[n] = total;
+        // Benefício = (maior custo + 1) - custo, sempre positivo: ficar sem pedido vale 0
+        for (int k = 0; k < total; k++) {
+            candBeneficio[k] = maiorCusto + 1 - candBeneficio[k];
+        }
+    }
+
+    /** Insere um candidato na lista ordenada dos melhores (menor custo primeiro). */
+    private int inserirMelhor(int encontrados, int p, int custo) {
+        if (encontrados == vizinhos && custo >= melhoresCustos[vizinhos - 1]) {
+            return encontrados;
+        }
+        int pos = encontrados == vizinhos ? vizinhos - 1 : encontrados++;
+        while (pos > 0 && melhoresCustos[pos - 1] > custo) {
+            melhoresCustos[pos] = melhoresCustos[pos - 1];
+            melhoresPedidos[pos] = melhoresPedidos[pos - 1];
+            pos--;
+        }
+        melhoresCustos[pos] = custo;
+        melhoresPedidos[pos] = p;
+        return encontrados;
+    }
+
+    /**
+     * Leilão de Bertsekas sobre a matriz esparsa: cada drone sem pedido oferece pelo pedido de
+     * maior valor (benefício - preço), aumentando seu preço pela diferença para o segundo
+     * melhor mais 1; quem perde o pedido volta para a fila. Ficar sem pedido vale 0, de modo
+     * que um drone só desiste quando todos os seus candidatos já têm dono a um preço maior que
+     * o seu benefício. Como os custos são inteiros e o incremento mínimo é 1, o custo total fica
+     * a no máximo (número de drones) unidades do ótimo.
+     */
+    private void leiloar(int n) {
+        int m = numPendentes;
+        if (preco.length < m) {
+            preco = new long[m];
+            donoDoPedido = new int[m];
+        }
+        Arrays.fill(preco, 0, m, 0L);
+        Arrays.fill(donoDoPedido, 0, m, -1);
+        int ocupados = 0;
+        for (int i = 0; i < n; i++) {
+            pedidoDoDrone[i] = -1;
+            if (candInicio[i + 1] > candInicio[i]) fila[ocupados++] = i;
+        }
+        int cabeca = 0;
+        while (ocupados > 0) {
+            int i = fila[cabeca];
+            cabeca = cabeca + 1 == n ? 0 : cabeca + 1;
+            ocupados--;
+            long melhor = 0, segundo = 0; // Ficar sem pedido vale 0
+            int escolhido = -1;
+            for (int k = candInicio[i]; k < candInicio[i + 1]; k++) {
+                long valor = candBeneficio[k] - preco[candPedido[k]];
+                if (valor > melhor) {
+                    segundo = melhor;
+                    melhor = valor;
+                    escolhido = candPedido[k];
+                } else if (valor > segundo) {
+                    segundo = valor;
+                }
+            }
+            if (escolhido < 0) continue; // Desiste: nenhum pedido vale mais que ficar livre
+            preco[escolhido] += melhor - segundo + 1;
+            int anterior = donoDoPedido[escolhido];
+            if (anterior >= 0) {
+                pedidoDoDrone[anterior] = -1;
+                int fim = cabeca + ocupados;
+                fila[fim >= n ? fim - n : fim] = anterior;
+                ocupados++;
+            }
+            donoDoPedido[escolhido] = i;
+            pedidoDoDrone[i] = escolhido;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package missao;
+// MissaoCobertura.java
+
+import ambiente.Ambiente;
+import ambiente.RoboDesligadoException;
+import ambiente.TipoEntidade;
+import navegacao.Caminho;
+import navegacao.DecomposicaoBoustrophedon;
+import navegacao.PerfilMovimento;
+import robo.Robo;
+import sensores.Sensor;
+import sensores.Sensoreavel;
+import util.Log;
+
+/**
+ * Missão de monitoramento por cobertura: o robô varre uma região retangular do seu plano
+ * em zigue-zague, acionando os sensores a cada passo. A região é dividida em células livres
+ * de obstáculos pela {@link DecomposicaoBoustrophedon} (compartilhada pelo cache do ambiente),
+ * e as passadas são espaçadas pelo alcance do maior sensor do robô. O deslocamento entre os
+ * pontos da varredura usa o A*. Terminada a varredura, ela recomeça; se um obstáculo mudar
+ * dentro da região, a decomposição é refeita e a varredura continua do ponto mais próximo.
+ */
+public class MissaoCobertura implements Missao {
+    private final int x1, y1, x2, y2;
+    private DecomposicaoBoustrophedon decomposicao;
+    private final Caminho varredura = new Caminho(); // Pontos da varredura; o cursor indica o próximo
+    private final Caminho trecho = new Caminho();    // Caminho até o próximo ponto
+    private int varreduras; // Varreduras completas
+
+    /**
+     * @param x1 Menor X da região.
+     * @param y1 Menor Y da região.
+     * @param x2 Maior X da região.
+     * @param y2 Maior Y da região.
+     * @throws IllegalArgumentException Se a região for vazia.
+     */
+    public MissaoCobertura(int x1, int y1, int x2, int y2) {
+        if (x1 > x2 || y1 > y2) {
+            throw new IllegalArgumentException("Região de cobertura vazia.");
+        }
+        this.x1 = x1;
+        this.y1 = y1;
+        this.x2 = x2;
+        this.y2 = y2;
+    }
+
+    @Override
+    public void executar(Robo robo, Ambiente ambiente) {
+        System.out.println("Robô " + robo.getId() + " cobrindo a região (" + x1 + ", " + y1 + ")-(" + x2 + ", " + y2 + ")");
+        if (decomposicao == null || !decomposicao.isValida() || decomposicao.getZ() != robo.getZ()) {
+            try {
+                planejarVarredura(robo, ambiente);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Falha na cobertura: " + e.getMessage());
+                Log.registrar("MISSAO COBERTURA: " + robo.getId() + " - " + e.getMessage());
+                return;
+            }
+        }
+        acionarSensores(robo, ambiente);
+        if (varredura.getTamanho() == 0) {
+            System.out.println("Região sem células livres para " + robo.getId() + ".");
+            return;
+        }
+
+        // Chegou ao ponto atual: passa ao seguinte (e recomeça no fim da varredura)
+        // e já segue para ele neste mesmo tick.
+        if (robo.getX() == varredura.proximoX() && robo.getY() == varredura.proximoY()) {
+            varredura.avancar();
+            trecho.limpar();
+            if (varredura.concluido()) {
+                varreduras++;
+                System.out.println(robo.getId() + " concluiu a varredura " + varreduras + " da região.");
+                Log.registrar("MISSAO COBERTURA: " + robo.getId() + " concluiu a varredura " + varreduras + ".");
+                decomposicao.gerarVarredura(raioSensores(robo), varredura);
+            }
+            if (robo.getX() == varredura.proximoX() && robo.getY() == varredura.proximoY()) {
+                return; // Varredura de um só ponto: não há para onde ir
+            }
+        }
+
+        try {
+            if (trecho.concluido() || !trecho.terminaEm(varredura.proximoX(), varredura.proximoY(), varredura.proximoZ())
+                    || Math.abs(trecho.proximoX() - robo.getX()) > 1 || Math.abs(trecho.proximoY() - robo.getY()) > 1) {
+                if (!ambiente.getPlanejador().planejar(robo.getX(), robo.getY(), robo.getZ(), varredura.proximoX(),
+                        varredura.proximoY(), varredura.proximoZ(), PerfilMovimento.paraRobo(robo, ambiente), trecho)) {
+                    System.out.println("Ponto de varredura (" + varredura.proximoX() + ", " + varredura.proximoY() + ") inalcançável para " + robo.getId() + ". Pulando.");
+                    varredura.avancar();
+                    if (varredura.concluido()) {
+                        decomposicao.gerarVarredura(raioSensores(robo), varredura);
+                    }
+                    return;
+                }
+            }
+            if (trecho.getCursor() == trecho.getTamanho() - 1
+                    && ambiente.getTipoEm(trecho.proximoX(), trecho.proximoY(), trecho.proximoZ()) != TipoEntidade.VAZIO) {
+                // Outro robô está no ponto de varredura: a um passo dele, o ponto já está ao alcance dos sensores
+                System.out.println("Ponto de varredura (" + varredura.proximoX() + ", " + varredura.proximoY() + ") ocupado; " + robo.getId() + " passa ao seguinte.");
+                varredura.avancar();
+                trecho.limpar();
+                if (varredura.concluido()) {
+                    decomposicao.gerarVarredura(raioSensores(robo), varredura);
+                }
+                return;
+            }
+            robo.moverRelativamente(ambiente, trecho.proximoX() - robo.getX(), trecho.proximoY() - robo.getY(), trecho.proximoZ() - robo.getZ());
+            trecho.avancar();
+        } catch (Exception e) {
+            System.err.println("Falha na cobertura: " + e.getMessage());
+            Log.registrar("MISSAO COBERTURA: Falha ao mover " + robo.getId() + " - " + e.getMessage());
+            trecho.limpar();
+        }
+    }
+
+    /**
+     * Obtém a decomposição da região no plano do robô e gera a varredura, continuando a partir
+     * do ponto mais próximo do robô.
+     */
+    private void planejarVarredura(Robo robo, Ambiente ambiente) {
+        decomposicao = ambiente.getDecomposicoes().obter(x1, y1, x2, y2, robo.getZ());
+        decomposicao.gerarVarredura(raioSensores(robo), varredura);
+        trecho.limpar();
+        int maisProximo = 0, menorDistancia = Integer.MAX_VALUE;
+        for (int i = 0; i < varredura.getTamanho(); i++) {
+            int d = Math.max(Math.abs(varredura.getX(i) - robo.getX()), Math.abs(varredura.getY(i) - robo.getY()));
+            if (d < menorDistancia) {
+                menorDistancia = d;
+                maisProximo = i;
+            }
+        }
+        for (int i = 0; i < maisProximo; i++) {
+            varredura.avancar();
+        }
+        Log.registrar("MISSAO COBERTURA: " + robo.getId() + " dividiu a região em " + decomposicao.getNumCelulas()
+            + " células, com " + varredura.getTamanho() + " pontos de varredura.");
+    }
+
+    /** Alcance do maior sensor do robô (pelo menos 1). */
+    private static double raioSensores(Robo robo) {
+        double maior = 1;
+        for (Sensor s : robo.getSensores()) {
+            maior = Math.max(maior, s.getRaio());
+        }
+        return maior;
+    }
+
+    private void acionarSensores(Robo robo, Ambiente ambiente) {
+        if (!(robo instanceof Sensoreavel)) {
+            return;
+        }
+        try {
+            ((Sensoreavel) robo).acionarSensores(ambiente);
+        } catch (RoboDesligadoException e) {
+            System.err.println("Falha ao monitorar: " + e.getMessage());
+            Log.registrar("MISSAO COBERTURA: Falha - " + e.getMessage());
+        }
+    }
+
+    /** Número de varreduras completas da região. */
+    public int getVarreduras() {
+        return varreduras;
+    }
+}
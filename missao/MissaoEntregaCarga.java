@@ -0,0 +1,127 @@
+package missao;
+// MissaoEntregaCarga.java
+
+import ambiente.Ambiente;
+import robo.Robo;
+import robo.RoboDroneDeCarga;
+import util.Log;
+
+/**
+ * Missão de um drone de carga para atender um pedido do {@link DespachanteCarga}:
+ * ir até o ponto de coleta, carregar, levar a carga até o ponto de entrega e descarregar.
+ * Ao terminar, a missão avisa o despachante, e o drone volta a ficar disponível.
+ * Se o drone falhar seguidamente a caminho da coleta ou da entrega, ele desiste do pedido,
+ * que volta à fila do despachante: com a coleta original, ou, se a carga já estava a bordo,
+ * com a coleta no ponto onde o drone a deixou.
+ */
+public class MissaoEntregaCarga implements Missao {
+    private enum Etapa { COLETA, ENTREGA, CONCLUIDA }
+
+    /** Falhas seguidas (a caminho da coleta ou da entrega) após as quais o drone desiste do pedido. */
+    public static final int LIMITE_FALHAS = 10;
+
+    private final DespachanteCarga despachante;
+    private final int pedido;
+    private final int coletaX, coletaY, entregaX, entregaY, quantidade;
+    private Etapa etapa = Etapa.COLETA;
+    private int falhasSeguidas;
+
+    /**
+     * @param despachante Quem atribuiu o pedido (avisado na conclusão); pode ser null.
+     * @param pedido      O identificador do pedido no despachante.
+     * @param coletaX     Coordenada X do ponto de coleta.
+     * @param coletaY     Coordenada Y do ponto de coleta.
+     * @param entregaX    Coordenada X do ponto de entrega.
+     * @param entregaY    Coordenada Y do ponto de entrega.
+     * @param quantidade  A quantidade de carga do pedido.
+     */
+    public MissaoEntregaCarga(DespachanteCarga despachante, int pedido, int coletaX, int coletaY,
+                              int entregaX, int entregaY, int quantidade) {
+        this.despachante = despachante;
+        this.pedido = pedido;
+        this.coletaX = coletaX;
+        this.coletaY = coletaY;
+        this.entregaX = entregaX;
+        this.entregaY = entregaY;
+        this.quantidade = quantidade;
+    }
+
+    @Override
+    public void executar(Robo robo, Ambiente ambiente) {
+        if (!(robo instanceof RoboDroneDeCarga)) {
+            System.out.println("Missão de entrega: " + robo.getId() + " não é um drone de carga.");
+            return;
+        }
+        RoboDroneDeCarga drone = (RoboDroneDeCarga) robo;
+        try {
+            switch (etapa) {
+                case COLETA:
+                    if (drone.getX() == coletaX && drone.getY() == coletaY) {
+                        drone.carregar(quantidade);
+                        etapa = Etapa.ENTREGA;
+                        Log.registrar("MISSAO ENTREGA: " + drone.getId() + " coletou o pedido " + pedido + ".");
+                    } else {
+                        drone.moverEmDirecao(ambiente, coletaX, coletaY);
+                    }
+                    break;
+                case ENTREGA:
+                    if (drone.getX() == entregaX && drone.getY() == entregaY) {
+                        drone.descarregar(quantidade);
+                        etapa = Etapa.CONCLUIDA;
+                        System.out.println(drone.getId() + " entregou o pedido " + pedido + " em (" + entregaX + ", " + entregaY + ").");
+                        Log.registrar("MISSAO ENTREGA: " + drone.getId() + " entregou o pedido " + pedido + ".");
+                        if (despachante != null) {
+                            despachante.concluirPedido(pedido);
+                        }
+                    } else {
+                        drone.moverEmDirecao(ambiente, entregaX, entregaY);
+                    }
+                    break;
+                default:
+                    System.out.println(drone.getId() + " aguarda um novo pedido de entrega.");
+                    break;
+            }
+            falhasSeguidas = 0;
+        } catch (Exception e) {
+            System.err.println("Falha na entrega: " + e.getMessage());
+            Log.registrar("MISSAO ENTREGA: Falha de " + drone.getId() + " no pedido " + pedido + " - " + e.getMessage());
+            if (etapa != Etapa.CONCLUIDA && ++falhasSeguidas >= LIMITE_FALHAS) {
+                System.out.println(drone.getId() + " desiste do pedido " + pedido + ": "
+                    + (etapa == Etapa.COLETA ? "coleta" : "entrega") + " inalcançável.");
+                abandonar(drone);
+            }
+        }
+    }
+
+    /**
+     * Encerra a missão sem entregar a carga e devolve o pedido ao despachante. Se a carga já
+     * estava a bordo, o drone a descarrega onde está, e esse ponto passa a ser a coleta.
+     * Chamado quando o drone desiste e quando ele deixa a frota do despachante.
+     */
+    void abandonar(RoboDroneDeCarga drone) {
+        Etapa anterior = etapa;
+        etapa = Etapa.CONCLUIDA;
+        int x = coletaX, y = coletaY;
+        if (anterior == Etapa.ENTREGA) {
+            x = drone.getX();
+            y = drone.getY();
+            try {
+                drone.descarregar(quantidade);
+            } catch (Exception e) {
+                Log.registrar("MISSAO ENTREGA: " + drone.getId() + " não conseguiu descarregar o pedido " + pedido + " - " + e.getMessage());
+            }
+        }
+        if (anterior != Etapa.CONCLUIDA && despachante != null) {
+            despachante.devolverPedido(pedido, x, y);
+        }
+    }
+
+    /** true depois que a carga foi entregue (ou o pedido foi cancelado). */
+    public boolean isConcluida() {
+        return etapa == Etapa.CONCLUIDA;
+    }
+
+    public int getPedido() {
+        return pedido;
+    }
+}
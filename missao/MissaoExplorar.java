@@ -1,31 +1,91 @@
 package missao;
 
 import ambiente.Ambiente;
+import navegacao.Caminho;
+import navegacao.MapaExploracao;
+import navegacao.PerfilMovimento;
 import robo.Robo;
 import util.Log;
+import util.Metricas;
 
-import java.util.Random;
-
+/**
+ * Missão de exploração por fronteiras: a cada execução o robô marca como vistas as células
+ * ao seu redor no {@link MapaExploracao} do seu plano (compartilhado com os demais robôs que
+ * exploram o mesmo plano) e segue até a fronteira mais próxima, isto é, a célula livre ainda
+ * não vista mais perto dele. As células vistas pela primeira vez são somadas em
+ * {@link Metricas.Contador#CELULAS_EXPLORADAS}; a cobertura acumulada é lida sob demanda
+ * do {@link MapaExploracao} (exportada pelas {@link Metricas}).
+ */
+public class MissaoExplorar implements Missao {
+    private final int raio; // Raio da área considerada vista ao redor do robô
+    private final Caminho caminho = new Caminho(); // Caminho até a fronteira escolhida
+    private int ultimoGanho;  // Células vistas pela primeira vez na última execução
+    private int totalGanho;   // Células vistas pela primeira vez por este robô
 
+    public MissaoExplorar() {
+        this(MapaExploracao.RAIO_PADRAO);
+    }
 
-public class MissaoExplorar implements Missao {
-     private Random random = new Random();
+    /**
+     * @param raio Raio (em células) da área considerada vista ao redor do robô.
+     * @throws IllegalArgumentException Se o raio for negativo.
+     */
+    public MissaoExplorar(int raio) {
+        if (raio < 0) {
+            throw new IllegalArgumentException("O raio de exploração não pode ser negativo.");
+        }
+        this.raio = raio;
+    }
 
     @Override
     public void executar(Robo robo, Ambiente ambiente) {
         System.out.println("Robô " + robo.getId() + " está explorando...");
         Log.registrar("MISSAO EXPLORAR: Iniciada por " + robo.getId());
 
-        // Lógica de movimentação aleatória simples
-        int dx = random.nextInt(3) - 1; // Gera -1, 0 ou 1
-        int dy = random.nextInt(3) - 1; // Gera -1, 0 ou 1
+        MapaExploracao mapa = ambiente.getMapaExploracao(robo.getZ());
+        ultimoGanho = mapa.marcarVisitadas(robo.getX(), robo.getY(), raio);
+        totalGanho += ultimoGanho;
+        Metricas.contar(Metricas.Contador.CELULAS_EXPLORADAS, ultimoGanho);
 
         try {
-            robo.moverRelativamente(ambiente, dx, dy, 0); // Tenta mover no plano XY
+            if (precisaReplanejar(robo, mapa)
+                    && !mapa.caminhoAteFronteira(robo.getX(), robo.getY(), PerfilMovimento.paraRobo(robo, ambiente).permiteDiagonais(), caminho)) {
+                System.out.println(robo.getId() + " não encontra mais áreas inexploradas alcançáveis.");
+                Log.registrar("MISSAO EXPLORAR: " + robo.getId() + " concluiu a exploração alcançável do plano z=" + mapa.getZ());
+                return;
+            }
+            robo.moverRelativamente(ambiente, caminho.proximoX() - robo.getX(), caminho.proximoY() - robo.getY(), 0);
+            caminho.avancar();
             Log.registrar("MISSAO EXPLORAR: " + robo.getId() + " moveu-se para (" + robo.getX() + ", " + robo.getY() + ", " + robo.getZ() + ")");
         } catch (Exception e) {
             System.err.println("Falha na exploração: " + e.getMessage());
             Log.registrar("MISSAO EXPLORAR: Falha ao mover " + robo.getId() + " - " + e.getMessage());
+            caminho.limpar(); // Procura outra fronteira na próxima execução
+        }
+    }
+
+    /**
+     * Verifica se é preciso escolher outra fronteira: o caminho acabou, o robô saiu dele,
+     * ou o alvo deixou de ser fronteira (foi visto por este ou outro robô).
+     */
+    private boolean precisaReplanejar(Robo robo, MapaExploracao mapa) {
+        if (caminho.concluido() || caminho.getZ(caminho.getTamanho() - 1) != robo.getZ()) {
+            return true;
         }
+        int fim = caminho.getTamanho() - 1;
+        if (!mapa.isFronteira(caminho.getX(fim), caminho.getY(fim))) {
+            return true;
+        }
+        return Math.abs(caminho.proximoX() - robo.getX()) > 1 || Math.abs(caminho.proximoY() - robo.getY()) > 1;
+    }
+
+    /** Células vistas pela primeira vez na última execução. */
+    public int getUltimoGanho() {
+        return ultimoGanho;
+    }
+
+    /** Células vistas pela primeira vez por este robô desde o início da missão. */
+    public int getTotalGanho() {
+        return totalGanho;
     }
 }
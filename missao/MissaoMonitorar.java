@@ -9,8 +9,25 @@ import util.Log;
 /**
  * Missão que faz o robô ficar parado e monitorar o ambiente ao seu redor
  * utilizando seus sensores.
+ * Por padrão as leituras são formatadas e exibidas no console, como no acionamento
+ * manual dos sensores; em execuções sem console (cenários grandes, medidas) a missão
+ * pode apenas ler os sensores, sem formatar texto.
  */
 public class MissaoMonitorar implements Missao {
+    private final boolean exibirLeituras; // Se as leituras são formatadas e impressas
+
+    /** Cria a missão exibindo as leituras no console. */
+    public MissaoMonitorar() {
+        this(true);
+    }
+
+    /**
+     * @param exibirLeituras true para formatar e imprimir as leituras a cada execução;
+     *                       false para apenas ler os sensores e registrar o total de detecções.
+     */
+    public MissaoMonitorar(boolean exibirLeituras) {
+        this.exibirLeituras = exibirLeituras;
+    }
 
     @Override
     public void executar(Robo robo, Ambiente ambiente) {
@@ -25,9 +42,15 @@ public class MissaoMonitorar implements Missao {
         }
 
         try {
-            // Aciona os sensores do robô
-            ((Sensoreavel) robo).acionarSensores(ambiente);
-            Log.registrar("MISSAO MONITORAR: Sensores de " + robo.getId() + " foram acionados.");
+            if (exibirLeituras) {
+                // O console consome as leituras: os sensores formatam o texto sob demanda
+                ((Sensoreavel) robo).acionarSensores(ambiente);
+                Log.registrar("MISSAO MONITORAR: Sensores de " + robo.getId() + " foram acionados.");
+            } else {
+                // Sem console: consome apenas as leituras estruturadas, sem formatar texto
+                int deteccoes = ((Sensoreavel) robo).lerSensores(ambiente);
+                Log.registrar("MISSAO MONITORAR: Sensores de " + robo.getId() + " foram acionados (" + deteccoes + " detecções).");
+            }
 
         } catch (RoboDesligadoException e) {
             System.err.println("Falha ao monitorar: " + e.getMessage());
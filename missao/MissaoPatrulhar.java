@@ -1,68 +1,255 @@
 package missao;
 
 import ambiente.Ambiente;
+import ambiente.TipoEntidade;
+import navegacao.Caminho;
+import navegacao.PerfilMovimento;
+import navegacao.PlanejadorCooperativo;
+import navegacao.PlanejadorDStarLite;
+import navegacao.PlanejadorHierarquico;
 import robo.Robo;
 import util.Log;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Missão que faz o robô seguir uma rota de patrulha pré-definida.
- * A rota é uma lista de coordenadas (pontos de patrulha).
+ * A rota é uma das {@link RotasPatrulha}, compartilhadas entre as missões; cada missão
+ * guarda apenas o índice da rota e o do próximo ponto.
+ * O deslocamento entre os pontos segue um caminho planejado com D* Lite, que contorna
+ * obstáculos e é reparado de forma incremental quando eles mudam; depois de uma falha de
+ * movimento (um robô no caminho), o trecho seguinte é planejado com A*, que desvia de robôs.
+ * Só obstáculos fazem um ponto ser pulado; se um robô está parado sobre ele, a missão espera.
+ * No modo cooperativo, o caminho é planejado em espaço-tempo e reservado na tabela de
+ * reservas do ambiente, para que robôs em patrulha não disputem as mesmas células;
+ * nesse modo a missão deve ser executada uma vez por tick (ver {@link Ambiente#executarTick()}).
  */
 public class MissaoPatrulhar implements Missao {
-    private List<int[]> rota; // Lista de pontos [x, y, z]
+    /** Distância (em células, no plano XY) a partir da qual o caminho é planejado hierarquicamente. */
+    public static final int DISTANCIA_HIERARQUICA = 64;
+
+    private final RotasPatrulha rotas; // Rotas compartilhadas (somente leitura)
+    private final int rota;            // Índice da rota seguida por esta missão
     private int pontoAtualIndex = 0; // Índice do próximo ponto de patrulha na rota
+    private final Caminho caminho = new Caminho(); // Caminho planejado até o ponto atual (ou até o próximo ponto intermediário)
+    private final Caminho pontos = new Caminho();  // Pontos intermediários da rota hierárquica, para alvos distantes
+    private boolean caminhoIncremental;  // true se o caminho veio do D* Lite
+    private long versaoIncremental;      // Versão do D* Lite quando o caminho foi planejado
+    private boolean desviarDeRobos;      // true depois de uma falha de movimento: o próximo trecho usa o A*
+
+    // Modo cooperativo: o caminho tem uma célula por tick a partir do tick em que foi planejado
+    private final boolean cooperativa;
+    private long tickPlanejamento;
+    private int origemX, origemY, origemZ;
 
     /**
-     * Construtor que define a rota de patrulha.
+     * Construtor que define a rota de patrulha padrão (um quadrado no plano Z=0).
      */
     public MissaoPatrulhar() {
-        this.rota = new ArrayList<>();
-        // Exemplo de rota de patrulha: um quadrado no plano Z=0
-        rota.add(new int[]{5, 5, 0});
-        rota.add(new int[]{5, 10, 0});
-        rota.add(new int[]{10, 10, 0});
-        rota.add(new int[]{10, 5, 0});
+        this(false);
+    }
+
+    /**
+     * Construtor que usa a rota padrão e define o modo de planejamento.
+     * @param cooperativa true para planejar em espaço-tempo, reservando as células do caminho.
+     */
+    public MissaoPatrulhar(boolean cooperativa) {
+        this(RotasPatrulha.padrao(), 0, cooperativa);
+    }
+
+    /**
+     * Construtor que define a rota de patrulha e o modo de planejamento.
+     * @param rotas       O conjunto de rotas compartilhado.
+     * @param rota        O índice da rota a seguir.
+     * @param cooperativa true para planejar em espaço-tempo, reservando as células do caminho.
+     * @throws IllegalArgumentException Se o índice da rota não existir no conjunto.
+     */
+    public MissaoPatrulhar(RotasPatrulha rotas, int rota, boolean cooperativa) {
+        if (rota < 0 || rota >= rotas.getNumRotas()) {
+            throw new IllegalArgumentException("Rota de patrulha inexistente: " + rota);
+        }
+        this.rotas = rotas;
+        this.rota = rota;
+        this.cooperativa = cooperativa;
     }
 
     @Override
     public void executar(Robo robo, Ambiente ambiente) {
-        if (rota.isEmpty()) {
+        int tamanhoRota = rotas.getTamanho(rota);
+        if (tamanhoRota == 0) {
             System.out.println("Missão Patrulhar: Nenhuma rota definida para " + robo.getId());
             return;
         }
 
         // Pega o próximo ponto da rota
-        int[] proximoPonto = rota.get(pontoAtualIndex);
-        int alvoX = proximoPonto[0];
-        int alvoY = proximoPonto[1];
-        int alvoZ = proximoPonto[2];
+        int alvoX = rotas.getX(rota, pontoAtualIndex);
+        int alvoY = rotas.getY(rota, pontoAtualIndex);
+        int alvoZ = rotas.getZ(rota, pontoAtualIndex);
 
         System.out.println("Robô " + robo.getId() + " patrulhando em direção a (" + alvoX + ", " + alvoY + ", " + alvoZ + ")");
-        Log.registrar("MISSAO PATRULHAR: " + robo.getId() + " indo para o ponto " + (pontoAtualIndex + 1) + "/" + rota.size());
+        Log.registrar("MISSAO PATRULHAR: " + robo.getId() + " indo para o ponto " + (pontoAtualIndex + 1) + "/" + tamanhoRota);
+
+        // Se chegou ao ponto, avança para o próximo ponto da rota
+        if (robo.getX() == alvoX && robo.getY() == alvoY && robo.getZ() == alvoZ) {
+            System.out.println(robo.getId() + " chegou ao ponto de patrulha: (" + alvoX + ", " + alvoY + ", " + alvoZ + ")");
+            Log.registrar("MISSAO PATRULHAR: " + robo.getId() + " chegou ao ponto de patrulha.");
+            pontoAtualIndex = (pontoAtualIndex + 1) % rotas.getTamanho(rota); // Volta ao início se chegar ao fim da rota
+            descartarCaminho(robo, ambiente);
+            return;
+        }
+
+        if (cooperativa) {
+            executarCooperativa(robo, ambiente, alvoX, alvoY, alvoZ);
+            return;
+        }
 
         try {
-            // Lógica de movimento simples: move um passo em direção ao alvo
-            int dx = Integer.compare(alvoX, robo.getX()); // Retorna -1, 0 ou 1
-            int dy = Integer.compare(alvoY, robo.getY());
-            int dz = Integer.compare(alvoZ, robo.getZ());
-            
-            // Se o robô não estiver no ponto alvo, move-se
-            if (dx != 0 || dy != 0 || dz != 0) {
-                robo.moverRelativamente(ambiente, dx, dy, dz);
-            } else {
-                // Se chegou ao ponto, avança para o próximo ponto da rota
-                System.out.println(robo.getId() + " chegou ao ponto de patrulha: (" + alvoX + ", " + alvoY + ", " + alvoZ + ")");
-                Log.registrar("MISSAO PATRULHAR: " + robo.getId() + " chegou ao ponto de patrulha.");
-                pontoAtualIndex = (pontoAtualIndex + 1) % rota.size(); // Volta ao início se chegar ao fim da rota
+            // (Re)planeja quando não há caminho até o ponto atual ou o robô saiu dele
+            if (precisaReplanejar(robo, alvoX, alvoY, alvoZ) || mapaMudou(robo, ambiente)) {
+                if (!planejarTrecho(robo, ambiente, alvoX, alvoY, alvoZ)) {
+                    // Só pula o ponto quando não existe caminho até ele
+                    System.out.println("Ponto de patrulha (" + alvoX + ", " + alvoY + ", " + alvoZ + ") inalcançável para " + robo.getId() + ". Pulando para o próximo.");
+                    Log.registrar("MISSAO PATRULHAR: " + robo.getId() + " não encontrou caminho até o ponto " + (pontoAtualIndex + 1) + ".");
+                    pontoAtualIndex = (pontoAtualIndex + 1) % rotas.getTamanho(rota);
+                    return;
+                }
+            }
+            // Um robô parado no ponto de patrulha (ou no ponto intermediário da rota hierárquica)
+            // não o torna inalcançável: espera ele sair
+            if (caminho.getCursor() == caminho.getTamanho() - 1
+                    && ambiente.getTipoEm(caminho.proximoX(), caminho.proximoY(), caminho.proximoZ()) != TipoEntidade.VAZIO) {
+                System.out.println(robo.getId() + " aguarda o ponto (" + caminho.proximoX() + ", " + caminho.proximoY() + ", " + caminho.proximoZ() + ") ser liberado.");
+                return;
             }
+            // Dá o próximo passo do caminho planejado
+            robo.moverRelativamente(ambiente, caminho.proximoX() - robo.getX(), caminho.proximoY() - robo.getY(), caminho.proximoZ() - robo.getZ());
+            caminho.avancar();
 
         } catch (Exception e) {
             System.err.println("Falha na patrulha: " + e.getMessage());
             Log.registrar("MISSAO PATRULHAR: Falha ao mover " + robo.getId() + " - " + e.getMessage());
-            // Em caso de falha (ex: colisão), pode ser útil avançar para o próximo ponto
-            pontoAtualIndex = (pontoAtualIndex + 1) % rota.size();
+            // Em caso de falha (ex: colisão com um robô que entrou no caminho), replaneja na próxima execução
+            caminho.limpar();
+            desviarDeRobos = true;
+        }
+    }
+
+    /**
+     * Dá o passo deste tick no modo cooperativo, replanejando (e refazendo as reservas)
+     * na metade da janela, quando o caminho acaba ou quando o robô não está onde deveria.
+     */
+    private void executarCooperativa(Robo robo, Ambiente ambiente, int alvoX, int alvoY, int alvoZ) {
+        PlanejadorCooperativo planejador = ambiente.getPlanejadorCooperativo();
+        long tick = ambiente.getTick();
+        int passo = (int) (tick - tickPlanejamento); // Índice da célula do caminho para o tick seguinte
+        if (precisaReplanejarCooperativo(robo, passo)) {
+            planejador.liberar(robo, tickPlanejamento, caminho, PlanejadorCooperativo.JANELA_PADRAO);
+            tickPlanejamento = tick;
+            passo = 0;
+            origemX = robo.getX();
+            origemY = robo.getY();
+            origemZ = robo.getZ();
+            if (!planejador.planejar(robo, tick, origemX, origemY, origemZ, alvoX, alvoY, alvoZ,
+                    PerfilMovimento.paraRobo(robo, ambiente), PlanejadorCooperativo.JANELA_PADRAO, caminho)) {
+                TipoEntidade tipoAlvo = ambiente.getTipoEm(alvoX, alvoY, alvoZ);
+                if (tipoAlvo != null && tipoAlvo != TipoEntidade.OBSTACULO) {
+                    // O destino é válido: o robô só está cercado neste tick e tenta de novo no próximo
+                    System.out.println(robo.getId() + " está cercado e aguarda.");
+                    return;
+                }
+                System.out.println("Ponto de patrulha (" + alvoX + ", " + alvoY + ", " + alvoZ + ") inalcançável para " + robo.getId() + ". Pulando para o próximo.");
+                Log.registrar("MISSAO PATRULHAR: " + robo.getId() + " não encontrou caminho até o ponto " + (pontoAtualIndex + 1) + ".");
+                pontoAtualIndex = (pontoAtualIndex + 1) % rotas.getTamanho(rota);
+                return;
+            }
+        }
+        if (passo >= caminho.getTamanho()) {
+            return;
+        }
+        int dx = caminho.getX(passo) - robo.getX(), dy = caminho.getY(passo) - robo.getY(), dz = caminho.getZ(passo) - robo.getZ();
+        if (dx == 0 && dy == 0 && dz == 0) {
+            System.out.println(robo.getId() + " aguarda a passagem de outro robô.");
+            return;
+        }
+        if (ambiente.getTipoEm(robo.getX() + dx, robo.getY() + dy, robo.getZ() + dz) != TipoEntidade.VAZIO) {
+            // Alguém sem reserva ainda ocupa a célula: espera, e o desvio da posição prevista força um novo plano
+            System.out.println(robo.getId() + " aguarda a célula (" + (robo.getX() + dx) + ", " + (robo.getY() + dy) + ", " + (robo.getZ() + dz) + ") ser liberada.");
+            return;
+        }
+        try {
+            robo.moverRelativamente(ambiente, dx, dy, dz);
+        } catch (Exception e) {
+            System.err.println("Falha na patrulha: " + e.getMessage());
+            Log.registrar("MISSAO PATRULHAR: Falha ao mover " + robo.getId() + " - " + e.getMessage());
+            descartarCaminho(robo, ambiente);
+        }
+    }
+
+    private boolean precisaReplanejarCooperativo(Robo robo, int passo) {
+        if (caminho.getTamanho() == 0 || passo < 0 || passo >= caminho.getTamanho() || passo >= PlanejadorCooperativo.JANELA_PADRAO / 2) {
+            return true;
+        }
+        // O robô deve estar na célula prevista para o tick atual
+        int ex = passo == 0 ? origemX : caminho.getX(passo - 1);
+        int ey = passo == 0 ? origemY : caminho.getY(passo - 1);
+        int ez = passo == 0 ? origemZ : caminho.getZ(passo - 1);
+        return robo.getX() != ex || robo.getY() != ey || robo.getZ() != ez;
+    }
+
+    /** Esquece o caminho atual, cancelando suas reservas no modo cooperativo. */
+    private void descartarCaminho(Robo robo, Ambiente ambiente) {
+        if (cooperativa) {
+            ambiente.getPlanejadorCooperativo().liberar(robo, tickPlanejamento, caminho, PlanejadorCooperativo.JANELA_PADRAO);
+        }
+        caminho.limpar();
+        pontos.limpar();
+    }
+
+    /**
+     * Planeja o caminho até o alvo. Pontos próximos usam o A* direto; para pontos distantes,
+     * a rota passa pelos agrupamentos do planejador hierárquico e só o trecho até o próximo
+     * ponto intermediário é detalhado.
+     * @return false se o alvo é inalcançável.
+     */
+    private boolean planejarTrecho(Robo robo, Ambiente ambiente, int alvoX, int alvoY, int alvoZ) {
+        PerfilMovimento perfil = PerfilMovimento.paraRobo(robo, ambiente);
+        int x = robo.getX(), y = robo.getY(), z = robo.getZ();
+        caminhoIncremental = false;
+        if (Math.max(Math.abs(alvoX - x), Math.abs(alvoY - y)) <= DISTANCIA_HIERARQUICA) {
+            pontos.limpar();
+            if (desviarDeRobos) {
+                desviarDeRobos = false;
+                // Se os robôs fecham todas as passagens, o D* Lite (que só considera obstáculos) decide se o alvo é alcançável
+                if (ambiente.getPlanejador().planejar(x, y, z, alvoX, alvoY, alvoZ, perfil, caminho)) {
+                    return true;
+                }
+            }
+            PlanejadorDStarLite incremental = ambiente.getPlanejadorIncremental(robo);
+            caminhoIncremental = true;
+            versaoIncremental = incremental.getVersao();
+            return incremental.planejar(x, y, z, alvoX, alvoY, alvoZ, caminho);
+        }
+        PlanejadorHierarquico hierarquico = ambiente.getPlanejadorHierarquico(perfil);
+        if (pontos.terminaEm(alvoX, alvoY, alvoZ) && hierarquico.refinarProximoTrecho(x, y, z, pontos, caminho)) {
+            return true;
+        }
+        return hierarquico.planejarPontos(x, y, z, alvoX, alvoY, alvoZ, pontos)
+            && hierarquico.refinarProximoTrecho(x, y, z, pontos, caminho);
+    }
+
+    /** Verifica se obstáculos mudaram desde que o caminho atual foi planejado pelo D* Lite. */
+    private boolean mapaMudou(Robo robo, Ambiente ambiente) {
+        return caminhoIncremental && ambiente.getPlanejadorIncremental(robo).getVersao() != versaoIncremental;
+    }
+
+    /**
+     * Verifica se o caminho guardado ainda leva ao alvo a partir da posição atual do robô.
+     */
+    private boolean precisaReplanejar(Robo robo, int alvoX, int alvoY, int alvoZ) {
+        if (caminho.concluido() || !(caminho.terminaEm(alvoX, alvoY, alvoZ) || pontos.terminaEm(alvoX, alvoY, alvoZ))) {
+            return true;
         }
+        // O próximo passo precisa ser vizinho da posição atual
+        return Math.abs(caminho.proximoX() - robo.getX()) > 1
+            || Math.abs(caminho.proximoY() - robo.getY()) > 1
+            || Math.abs(caminho.proximoZ() - robo.getZ()) > 1;
     }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package missao;
+// RotasPatrulha.java
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Conjunto imutável de rotas de patrulha, compartilhado (somente leitura) pelas missões
+ * de todos os robôs. Os pontos de todas as rotas ficam em um único array de triplas
+ * (x, y, z), e um segundo array guarda onde cada rota começa; cada missão guarda apenas
+ * o índice da sua rota e o ponto em que está.
+ *
+ * <p>Formato do arquivo: uma rota por linha, com nome opcional seguido de dois-pontos e
+ * os pontos "x,y,z" separados por espaços. Linhas vazias e iniciadas por '#' são ignoradas.
+ * <pre>
+ * quadrado: 5,5,0 5,10,0 10,10,0 10,5,0
+ * </pre>
+ */
+public class RotasPatrulha {
+    private static final RotasPatrulha PADRAO = new RotasPatrulha(
+        new int[]{5, 5, 0, 5, 10, 0, 10, 10, 0, 10, 5, 0}, new int[]{0, 4}, new String[]{"quadrado"});
+
+    private final int[] coordenadas; // Triplas (x, y, z) de todas as rotas, em sequência
+    private final int[] inicios;     // inicios[r] é o primeiro ponto da rota r; inicios[numRotas] é o total de pontos
+    private final String[] nomes;    // null: as rotas se chamam "rota1", "rota2", ...
+
+    private RotasPatrulha(int[] coordenadas, int[] inicios, String[] nomes) {
+        this.coordenadas = coordenadas;
+        this.inicios = inicios;
+        this.nomes = nomes;
+    }
+
+    /** Retorna o conjunto com a rota embutida padrão: um quadrado no plano Z=0. */
+    public static RotasPatrulha padrao() {
+        return PADRAO;
+    }
+
+    /**
+     * Cria um conjunto de rotas sem nome a partir dos pontos já montados (por exemplo, por um
+     * gerador de cenários). As rotas se chamam "rota1", "rota2" e assim por diante.
+     *
+     * @param coordenadas Triplas (x, y, z) de todas as rotas, em sequência (o array passa a pertencer às rotas).
+     * @param inicios     inicios[r] é o primeiro ponto da rota r; o último elemento é o total de pontos.
+     * @throws IllegalArgumentException Se não houver rotas ou os inícios não forem coerentes com as coordenadas.
+     */
+    public static RotasPatrulha criar(int[] coordenadas, int[] inicios) {
+        if (inicios.length < 2 || inicios[0] != 0 || inicios[inicios.length - 1] * 3 != coordenadas.length) {
+            throw new IllegalArgumentException("Rotas de patrulha mal formadas.");
+        }
+        for (int r = 1; r < inicios.length; r++) {
+            if (inicios[r] < inicios[r - 1]) {
+                throw new IllegalArgumentException("Rotas de patrulha mal formadas: início da rota " + r + " fora de ordem.");
+            }
+        }
+        return new RotasPatrulha(coordenadas, inicios, null);
+    }
+
+    /**
+     * Carrega as rotas de um arquivo.
+     *
+     * @param arquivo O caminho do arquivo de rotas.
+     * @return As rotas lidas.
+     * @throws IOException Se o arquivo não puder ser lido, estiver mal formatado ou não tiver rotas.
+     */
+    public static RotasPatrulha carregar(String arquivo) throws IOException {
+        int[] coordenadas = new int[3 * 64];
+        int[] inicios = new int[16];
+        String[] nomes = new String[15];
+        int numPontos = 0, numRotas = 0;
+        try (BufferedReader leitor = new BufferedReader(new FileReader(arquivo))) {
+            String linha;
+            int numeroLinha = 0;
+            while ((linha = leitor.readLine()) != null) {
+                numeroLinha++;
+                linha = linha.trim();
+                if (linha.isEmpty() || linha.startsWith("#")) continue;
+                String nome = "rota" + (numRotas + 1);
+                int doisPontos = linha.indexOf(':');
+                if (doisPontos >= 0) {
+                    nome = linha.substring(0, doisPontos).trim();
+                    linha = linha.substring(doisPontos + 1).trim();
+                }
+                String[] pontos = linha.split("\\s+");
+                if (linha.isEmpty()) {
+                    throw new IOException(arquivo + ", linha " + numeroLinha + ": rota sem pontos.");
+                }
+                if (numRotas + 1 == inicios.length) {
+                    inicios = Arrays.copyOf(inicios, inicios.length * 2);
+                    nomes = Arrays.copyOf(nomes, inicios.length - 1);
+                }
+                inicios[numRotas] = numPontos;
+                nomes[numRotas] = nome;
+                for (String ponto : pontos) {
+                    String[] partes = ponto.split(",");
+                    if (partes.length != 3) {
+                        throw new IOException(arquivo + ", linha " + numeroLinha + ": ponto inválido '" + ponto + "' (esperado x,y,z).");
+                    }
+                    if ((numPontos + 1) * 3 > coordenadas.length) {
+                        coordenadas = Arrays.copyOf(coordenadas, coordenadas.length * 2);
+                    }
+                    try {
+                        for (int k = 0; k < 3; k++) {
+                            coordenadas[numPontos * 3 + k] = Integer.parseInt(partes[k].trim());
+                        }
+                    } catch (NumberFormatException e) {
+                        throw new IOException(arquivo + ", linha " + numeroLinha + ": coordenada inválida em '" + ponto + "'.");
+                    }
+                    numPontos++;
+                }
+                numRotas++;
+            }
+        }
+        if (numRotas == 0) {
+            throw new IOException(arquivo + ": nenhuma rota encontrada.");
+        }
+        inicios[numRotas] = numPontos;
+        return new RotasPatrulha(Arrays.copyOf(coordenadas, numPontos * 3), Arrays.copyOf(inicios, numRotas + 1),
+            Arrays.copyOf(nomes, numRotas));
+    }
+
+    public int getNumRotas() { return inicios.length - 1; }
+    public String getNome(int rota) { return nomes != null ? nomes[rota] : "rota" + (rota + 1); }
+    /** Número de pontos da rota. */
+    public int getTamanho(int rota) { return inicios[rota + 1] - inicios[rota]; }
+    public int getX(int rota, int ponto) { return coordenadas[(inicios[rota] + ponto) * 3]; }
+    public int getY(int rota, int ponto) { return coordenadas[(inicios[rota] + ponto) * 3 + 1]; }
+    public int getZ(int rota, int ponto) { return coordenadas[(inicios[rota] + ponto) * 3 + 2]; }
+
+    /**
+     * Procura uma rota pelo nome.
+     * @return O índice da rota, ou -1 se não existir.
+     */
+    public int indiceDe(String nome) {
+        for (int r = 0; r < getNumRotas(); r++) {
+            if (getNome(r).equals(nome)) return r;
+        }
+        return -1;
+    }
+}
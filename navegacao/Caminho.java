@@ -0,0 +1,81 @@
+package navegacao;
+// Caminho.java
+
+import java.util.Arrays;
+
+/**
+ * Sequência de células produzida por um planejador, guardada em um array primitivo
+ * de triplas (x, y, z). O buffer é reaproveitado entre planejamentos, e um cursor
+ * indica o próximo passo a ser dado pelo robô.
+ * A célula de origem não faz parte do caminho; a última célula é o destino.
+ */
+public class Caminho {
+    private static final int[] VAZIO = new int[0];
+
+    private int[] coordenadas = VAZIO; // Alocado no primeiro uso, pois muitas missões guardam caminhos que nunca usam
+    private int tamanho;
+    private int cursor;
+
+    /** Esvazia o caminho, sem liberar a memória. */
+    public void limpar() {
+        tamanho = 0;
+        cursor = 0;
+    }
+
+    /**
+     * Prepara o buffer para receber um caminho de n células, que serão preenchidas com
+     * {@link #definir(int, int, int, int)} em qualquer ordem.
+     */
+    void preparar(int n) {
+        if (coordenadas.length < n * 3) {
+            coordenadas = Arrays.copyOf(coordenadas, Math.max(n * 3, coordenadas.length * 2));
+        }
+        tamanho = n;
+        cursor = 0;
+    }
+
+    void definir(int i, int x, int y, int z) {
+        coordenadas[i * 3] = x;
+        coordenadas[i * 3 + 1] = y;
+        coordenadas[i * 3 + 2] = z;
+    }
+
+    /**
+     * Acrescenta uma célula ao final do caminho.
+     * @param x A coordenada X.
+     * @param y A coordenada Y.
+     * @param z A coordenada Z.
+     */
+    public void adicionar(int x, int y, int z) {
+        int n = tamanho;
+        if (coordenadas.length < (n + 1) * 3) {
+            coordenadas = Arrays.copyOf(coordenadas, Math.max(3 * 32, coordenadas.length * 2));
+        }
+        tamanho = n + 1;
+        definir(n, x, y, z);
+    }
+
+    /** Número de células do caminho. */
+    public int getTamanho() { return tamanho; }
+    public int getX(int i) { return coordenadas[i * 3]; }
+    public int getY(int i) { return coordenadas[i * 3 + 1]; }
+    public int getZ(int i) { return coordenadas[i * 3 + 2]; }
+
+    /** true se não há mais passos a dar (caminho vazio ou já percorrido). */
+    public boolean concluido() { return cursor >= tamanho; }
+    /** Índice do próximo passo. */
+    public int getCursor() { return cursor; }
+    public int proximoX() { return getX(cursor); }
+    public int proximoY() { return getY(cursor); }
+    public int proximoZ() { return getZ(cursor); }
+    /** Marca o próximo passo como dado. */
+    public void avancar() { cursor++; }
+
+    /**
+     * Verifica se o caminho termina na célula dada.
+     * @return true se o caminho não está vazio e sua última célula é (x, y, z).
+     */
+    public boolean terminaEm(int x, int y, int z) {
+        return tamanho > 0 && getX(tamanho - 1) == x && getY(tamanho - 1) == y && getZ(tamanho - 1) == z;
+    }
+}
@@ -0,0 +1,283 @@
+package navegacao;
+// CampoDeFluxo.java
+
+import java.util.Arrays;
+
+import ambiente.Ambiente;
+import ambiente.OuvinteMudancaCelulas;
+import ambiente.TipoEntidade;
+
+/**
+ * Campo de distâncias (flow field) até um destino compartilhado: para cada célula dentro
+ * da faixa de altitudes de um {@link PerfilMovimento}, guarda em um array primitivo o número
+ * de passos até a coluna de destino (alvoX, alvoY, qualquer altitude da faixa).
+ * Depois de construído, qualquer robô com esse perfil encontra seu próximo passo olhando
+ * apenas os vizinhos da própria célula, de modo que o custo não depende de quantos robôs
+ * compartilham o destino.
+ * Apenas obstáculos bloqueiam o campo; robôs são desviados localmente na escolha do passo.
+ * Quando obstáculos são adicionados ou removidos, o campo é corrigido de forma incremental:
+ * células liberadas propagam distâncias menores, e células bloqueadas invalidam apenas
+ * a subárvore de células que dependiam delas, que é então reabastecida pelas vizinhas.
+ */
+public class CampoDeFluxo implements OuvinteMudancaCelulas {
+    /** Distância das células que não alcançam o destino. */
+    public static final int INALCANCAVEL = Integer.MAX_VALUE;
+
+    private final Ambiente ambiente;
+    private final int alvoX, alvoY;
+    private final PerfilMovimento perfil;
+    private final int largura, profundidade, zMin, zMax;
+
+    // Indexados por x + largura * (y + profundidade * (z - zMin))
+    private final int[] distancia;
+    private final int[] pai;        // Vizinho do qual a distância foi herdada (-1 no destino ou sem caminho)
+    private final boolean[] naFila;
+    private final boolean[] orfa;
+
+    private final int[] fila;       // Fila circular da propagação
+    private int inicioFila, tamanhoFila;
+    private int[] orfas = new int[64];
+
+    /**
+     * Constrói o campo de distâncias até a coluna (alvoX, alvoY).
+     *
+     * @param ambiente O ambiente cujo mapa define os bloqueios.
+     * @param alvoX    Coordenada X do destino.
+     * @param alvoY    Coordenada Y do destino.
+     * @param perfil   As restrições de movimento dos robôs que usarão o campo.
+     * @throws IllegalArgumentException Se o destino ou a faixa de altitudes estiver fora do ambiente.
+     */
+    public CampoDeFluxo(Ambiente ambiente, int alvoX, int alvoY, PerfilMovimento perfil) {
+        if (!ambiente.dentroDosLimites(alvoX, alvoY, perfil.getZMin()) || !ambiente.dentroDosLimites(alvoX, alvoY, perfil.getZMax())) {
+            throw new IllegalArgumentException("Destino (" + alvoX + "," + alvoY + ") ou faixa de altitudes fora do ambiente.");
+        }
+        this.ambiente = ambiente;
+        this.alvoX = alvoX;
+        this.alvoY = alvoY;
+        this.perfil = perfil;
+        this.largura = ambiente.getLargura();
+        this.profundidade = ambiente.getProfundidade();
+        this.zMin = perfil.getZMin();
+        this.zMax = perfil.getZMax();
+        int celulas = largura * profundidade * (zMax - zMin + 1);
+        this.distancia = new int[celulas];
+        this.pai = new int[celulas];
+        this.naFila = new boolean[celulas];
+        this.orfa = new boolean[celulas];
+        this.fila = new int[celulas];
+        recalcular();
+    }
+
+    public int getAlvoX() { return alvoX; }
+    public int getAlvoY() { return alvoY; }
+    public PerfilMovimento getPerfil() { return perfil; }
+
+    private int indice(int x, int y, int z) {
+        return x + largura * (y + profundidade * (z - zMin));
+    }
+
+    private boolean bloqueada(int x, int y, int z) {
+        return ambiente.getTipoEm(x, y, z) == TipoEntidade.OBSTACULO;
+    }
+
+    /** Refaz o campo inteiro com uma busca em largura a partir da coluna de destino. */
+    public void recalcular() {
+        Arrays.fill(distancia, INALCANCAVEL);
+        Arrays.fill(pai, -1);
+        for (int z = zMin; z <= zMax; z++) {
+            if (!bloqueada(alvoX, alvoY, z)) {
+                int c = indice(alvoX, alvoY, z);
+                distancia[c] = 0;
+                enfileirar(c);
+            }
+        }
+        propagar();
+    }
+
+    /**
+     * Retorna o número de passos da célula dada até o destino.
+     * @return A distância, ou {@link #INALCANCAVEL} se não houver caminho ou a célula estiver fora do campo.
+     */
+    public int getDistancia(int x, int y, int z) {
+        if (z < zMin || z > zMax || !ambiente.dentroDosLimites(x, y, z)) {
+            return INALCANCAVEL;
+        }
+        return distancia[indice(x, y, z)];
+    }
+
+    /**
+     * Escolhe o próximo passo a partir da célula dada: a célula vizinha livre (sem obstáculo
+     * nem robô) com a menor distância ao destino, desde que menor que a distância atual.
+     * Em caso de empate, prefere passos retos.
+     *
+     * @param x     Coordenada X atual.
+     * @param y     Coordenada Y atual.
+     * @param z     Coordenada Z atual.
+     * @param saida Array de 3 posições que recebe a célula escolhida.
+     * @return true se há um passo que aproxima do destino; false se o robô já está no
+     * destino, não há caminho ou todos os vizinhos úteis estão ocupados por robôs.
+     */
+    public boolean proximoPasso(int x, int y, int z, int[] saida) {
+        int melhor = getDistancia(x, y, z);
+        boolean encontrou = false;
+        for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+            if (!perfil.permiteDiagonais() && Vizinhanca.EIXOS[v] != 1) continue;
+            int nx = x + Vizinhanca.DX[v], ny = y + Vizinhanca.DY[v], nz = z + Vizinhanca.DZ[v];
+            int d = getDistancia(nx, ny, nz);
+            if (d >= melhor || ambiente.getTipoEm(nx, ny, nz) != TipoEntidade.VAZIO) continue;
+            melhor = d;
+            saida[0] = nx;
+            saida[1] = ny;
+            saida[2] = nz;
+            encontrou = true;
+        }
+        return encontrou;
+    }
+
+    /**
+     * Atualiza o campo depois que uma caixa de células mudou de estado.
+     */
+    @Override
+    public void celulasAlteradas(int x1, int y1, int z1, int x2, int y2, int z2, boolean bloqueadas) {
+        x1 = Math.max(x1, 0); y1 = Math.max(y1, 0); z1 = Math.max(z1, zMin);
+        x2 = Math.min(x2, largura - 1); y2 = Math.min(y2, profundidade - 1); z2 = Math.min(z2, zMax);
+        if (x1 > x2 || y1 > y2 || z1 > z2) {
+            return; // Nada mudou dentro do campo
+        }
+        if (bloqueadas) {
+            bloquear(x1, y1, z1, x2, y2, z2);
+        } else {
+            liberar(x1, y1, z1, x2, y2, z2);
+        }
+        propagar();
+    }
+
+    /** Células liberadas recebem a menor distância entre as vizinhas e a propagam. */
+    private void liberar(int x1, int y1, int z1, int x2, int y2, int z2) {
+        for (int z = z1; z <= z2; z++) {
+            for (int y = y1; y <= y2; y++) {
+                for (int x = x1; x <= x2; x++) {
+                    if (bloqueada(x, y, z)) continue; // Ainda coberta por outro obstáculo
+                    int c = indice(x, y, z);
+                    if (x == alvoX && y == alvoY) {
+                        distancia[c] = 0;
+                        pai[c] = -1;
+                        enfileirar(c);
+                    } else {
+                        reabastecer(x, y, z, c);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Células bloqueadas e todas as que herdaram sua distância (a subárvore de pais)
+     * ficam órfãs; cada órfã é então reabastecida pelas vizinhas que não eram órfãs.
+     */
+    private void bloquear(int x1, int y1, int z1, int x2, int y2, int z2) {
+        int numOrfas = 0;
+        for (int z = z1; z <= z2; z++) {
+            for (int y = y1; y <= y2; y++) {
+                for (int x = x1; x <= x2; x++) {
+                    int c = indice(x, y, z);
+                    if (distancia[c] == INALCANCAVEL || orfa[c]) continue;
+                    numOrfas = adicionarOrfa(c, numOrfas);
+                }
+            }
+        }
+        // Espalha a orfandade pelos filhos
+        int planoXY = largura * profundidade;
+        for (int i = 0; i < numOrfas; i++) {
+            int c = orfas[i];
+            int cz = c / planoXY + zMin, resto = c % planoXY;
+            int cy = resto / largura, cx = resto % largura;
+            for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+                int nx = cx + Vizinhanca.DX[v], ny = cy + Vizinhanca.DY[v], nz = cz + Vizinhanca.DZ[v];
+                if (nz < zMin || nz > zMax || nx < 0 || ny < 0 || nx >= largura || ny >= profundidade) continue;
+                int n = indice(nx, ny, nz);
+                if (pai[n] == c && !orfa[n]) {
+                    numOrfas = adicionarOrfa(n, numOrfas);
+                }
+            }
+        }
+        // Reabastece as órfãs a partir da fronteira com o restante do campo
+        for (int i = 0; i < numOrfas; i++) {
+            int c = orfas[i];
+            int cz = c / planoXY + zMin, resto = c % planoXY;
+            int cy = resto / largura, cx = resto % largura;
+            if (!bloqueada(cx, cy, cz)) {
+                reabastecer(cx, cy, cz, c);
+            }
+        }
+        for (int i = 0; i < numOrfas; i++) {
+            orfa[orfas[i]] = false;
+        }
+    }
+
+    private int adicionarOrfa(int c, int numOrfas) {
+        if (numOrfas == orfas.length) {
+            orfas = Arrays.copyOf(orfas, numOrfas * 2);
+        }
+        orfas[numOrfas] = c;
+        orfa[c] = true;
+        distancia[c] = INALCANCAVEL;
+        pai[c] = -1;
+        return numOrfas + 1;
+    }
+
+    /** Define a distância da célula a partir da melhor vizinha válida e a enfileira. */
+    private void reabastecer(int x, int y, int z, int c) {
+        int melhor = INALCANCAVEL, melhorPai = -1;
+        for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+            if (!perfil.permiteDiagonais() && Vizinhanca.EIXOS[v] != 1) continue;
+            int nx = x + Vizinhanca.DX[v], ny = y + Vizinhanca.DY[v], nz = z + Vizinhanca.DZ[v];
+            if (nz < zMin || nz > zMax || nx < 0 || ny < 0 || nx >= largura || ny >= profundidade) continue;
+            int n = indice(nx, ny, nz);
+            if (orfa[n] || distancia[n] >= melhor || bloqueada(nx, ny, nz)) continue;
+            melhor = distancia[n];
+            melhorPai = n;
+        }
+        if (melhorPai >= 0) {
+            distancia[c] = melhor + 1;
+            pai[c] = melhorPai;
+            enfileirar(c);
+        }
+    }
+
+    private void enfileirar(int c) {
+        if (naFila[c]) return;
+        naFila[c] = true;
+        int fim = inicioFila + tamanhoFila;
+        fila[fim >= fila.length ? fim - fila.length : fim] = c;
+        tamanhoFila++;
+    }
+
+    /**
+     * Propaga as distâncias da fila para as vizinhas enquanto houver melhora.
+     * Com fontes de distâncias diferentes, uma célula pode ser corrigida mais de uma vez.
+     */
+    private void propagar() {
+        int planoXY = largura * profundidade;
+        boolean diagonais = perfil.permiteDiagonais();
+        while (tamanhoFila > 0) {
+            int c = fila[inicioFila];
+            inicioFila = inicioFila + 1 == fila.length ? 0 : inicioFila + 1;
+            tamanhoFila--;
+            naFila[c] = false;
+            int dNovo = distancia[c] + 1;
+            int cz = c / planoXY + zMin, resto = c % planoXY;
+            int cy = resto / largura, cx = resto % largura;
+            for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+                if (!diagonais && Vizinhanca.EIXOS[v] != 1) continue;
+                int nx = cx + Vizinhanca.DX[v], ny = cy + Vizinhanca.DY[v], nz = cz + Vizinhanca.DZ[v];
+                if (nz < zMin || nz > zMax || nx < 0 || ny < 0 || nx >= largura || ny >= profundidade) continue;
+                int n = indice(nx, ny, nz);
+                if (dNovo >= distancia[n] || bloqueada(nx, ny, nz)) continue;
+                distancia[n] = dNovo;
+                pai[n] = c;
+                enfileirar(n);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package navegacao;
+// CamposDeFluxo.java
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ambiente.Ambiente;
+import util.Metricas;
+
+/**
+ * Cache dos {@link CampoDeFluxo} de um ambiente, um por destino e perfil de movimento.
+ * Robôs que compartilham o mesmo destino (como a base dos drones de carga) usam o mesmo
+ * campo, calculado uma única vez e mantido atualizado pelos avisos de mudança do mapa.
+ * Quando o cache enche, o campo usado há mais tempo é descartado e deixa de ouvir o ambiente.
+ * Cada campo construído é contado em {@link Metricas.Contador#CAMPOS_FLUXO_CONSTRUIDOS}.
+ * Uma instância não deve ser usada por várias threads ao mesmo tempo.
+ */
+public class CamposDeFluxo {
+    /** Número padrão de campos mantidos em memória. */
+    public static final int CAPACIDADE_PADRAO = 16;
+
+    private final Ambiente ambiente;
+    private final LinkedHashMap<Long, CampoDeFluxo> campos;
+
+    public CamposDeFluxo(Ambiente ambiente) {
+        this(ambiente, CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * @param ambiente   O ambiente dos campos.
+     * @param capacidade Quantos campos manter ao mesmo tempo.
+     */
+    public CamposDeFluxo(Ambiente ambiente, int capacidade) {
+        this.ambiente = ambiente;
+        final int limite = Math.max(1, capacidade);
+        this.campos = new LinkedHashMap<Long, CampoDeFluxo>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CampoDeFluxo> maisAntigo) {
+                if (size() > limite) {
+                    ambiente.removerOuvinte(maisAntigo.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retorna o campo de distâncias até a coluna (alvoX, alvoY) para o perfil dado,
+     * construindo-o na primeira vez em que é pedido.
+     *
+     * @param alvoX  Coordenada X do destino.
+     * @param alvoY  Coordenada Y do destino.
+     * @param perfil As restrições de movimento de quem vai usar o campo.
+     * @return O campo correspondente.
+     */
+    public CampoDeFluxo obter(int alvoX, int alvoY, PerfilMovimento perfil) {
+        int altura = ambiente.getAltura();
+        long chave = (((((long) alvoX * ambiente.getProfundidade() + alvoY) * altura + perfil.getZMin()) * altura
+                + perfil.getZMax()) << 1) | (perfil.permiteDiagonais() ? 1 : 0);
+        CampoDeFluxo campo = campos.get(chave);
+        if (campo == null) {
+            campo = new CampoDeFluxo(ambiente, alvoX, alvoY, perfil);
+            Metricas.contar(Metricas.Contador.CAMPOS_FLUXO_CONSTRUIDOS);
+            ambiente.adicionarOuvinte(campo);
+            campos.put(chave, campo);
+        }
+        return campo;
+    }
+
+    /** Número de campos atualmente em cache. */
+    public int getQuantidade() {
+        return campos.size();
+    }
+}
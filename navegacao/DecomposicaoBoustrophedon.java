@@ -0,0 +1,204 @@
+package navegacao;
+// DecomposicaoBoustrophedon.java
+
+import java.util.Arrays;
+
+import ambiente.Ambiente;
+import ambiente.TipoEntidade;
+
+/**
+ * Decomposição boustrophedon de uma região retangular de um plano do ambiente.
+ * Uma linha de varredura percorre as colunas (X) da região; em cada coluna, os trechos
+ * livres de obstáculos formam intervalos em Y. Um intervalo continua a célula da coluna
+ * anterior quando os dois só se tocam entre si; quando um obstáculo divide ou junta
+ * intervalos, novas células começam. Cada célula resultante é livre de obstáculos e pode
+ * ser varrida em zigue-zague sem desvios.
+ * Os intervalos de todas as células ficam em arrays primitivos, agrupados por célula.
+ * As instâncias são imutáveis, exceto pela marca de validade usada pelo cache
+ * ({@link Decomposicoes}) quando o mapa muda.
+ */
+public class DecomposicaoBoustrophedon {
+    private final int x1, y1, x2, y2, z;
+    private final int numCelulas;
+    private final int[] xInicio, xFim; // Colunas de cada célula
+    private final int[] inicio;        // inicio[c]: posição do primeiro intervalo da célula c nos arrays abaixo
+    private final int[] intervaloY1, intervaloY2; // Um intervalo por coluna de cada célula
+    private boolean valida = true;
+
+    private DecomposicaoBoustrophedon(int x1, int y1, int x2, int y2, int z, int numCelulas,
+                                      int[] xInicio, int[] xFim, int[] inicio, int[] intervaloY1, int[] intervaloY2) {
+        this.x1 = x1;
+        this.y1 = y1;
+        this.x2 = x2;
+        this.y2 = y2;
+        this.z = z;
+        this.numCelulas = numCelulas;
+        this.xInicio = xInicio;
+        this.xFim = xFim;
+        this.inicio = inicio;
+        this.intervaloY1 = intervaloY1;
+        this.intervaloY2 = intervaloY2;
+    }
+
+    /**
+     * Calcula a decomposição da região [x1, x2] x [y1, y2] no plano z.
+     * Apenas obstáculos bloqueiam células; a região é recortada aos limites do ambiente.
+     * @throws IllegalArgumentException Se a região for vazia ou o plano estiver fora do ambiente.
+     */
+    public static DecomposicaoBoustrophedon calcular(Ambiente ambiente, int x1, int y1, int x2, int y2, int z) {
+        x1 = Math.max(x1, 0);
+        y1 = Math.max(y1, 0);
+        x2 = Math.min(x2, ambiente.getLargura() - 1);
+        y2 = Math.min(y2, ambiente.getProfundidade() - 1);
+        if (x1 > x2 || y1 > y2 || z < 0 || z >= ambiente.getAltura()) {
+            throw new IllegalArgumentException("Região de cobertura vazia ou fora do ambiente.");
+        }
+        int altura = y2 - y1 + 1;
+        // Intervalos da coluna anterior e da atual, com a célula de cada um
+        int[] antY1 = new int[altura], antY2 = new int[altura], antCelula = new int[altura];
+        int[] atuY1 = new int[altura], atuY2 = new int[altura], atuCelula = new int[altura];
+        int numAnt = 0;
+        // Entradas (célula, coluna, intervalo) na ordem da varredura
+        int[] entCelula = new int[64], entY1 = new int[64], entY2 = new int[64];
+        int numEntradas = 0;
+        int[] xIni = new int[16], xFim = new int[16];
+        int numCelulas = 0;
+
+        for (int x = x1; x <= x2; x++) {
+            int numAtu = 0;
+            for (int y = y1; y <= y2; y++) {
+                if (ambiente.getTipoEm(x, y, z) == TipoEntidade.OBSTACULO) continue;
+                int fim = y;
+                while (fim + 1 <= y2 && ambiente.getTipoEm(x, fim + 1, z) != TipoEntidade.OBSTACULO) fim++;
+                atuY1[numAtu] = y;
+                atuY2[numAtu++] = fim;
+                y = fim;
+            }
+            // Intervalos ordenados em Y: as sobreposições entre colunas vizinhas se acham em uma passada
+            int j = 0;
+            for (int i = 0; i < numAtu; i++) {
+                while (j < numAnt && antY2[j] < atuY1[i]) j++;
+                int sobreposicoes = 0, unico = -1;
+                for (int k = j; k < numAnt && antY1[k] <= atuY2[i]; k++) {
+                    sobreposicoes++;
+                    unico = k;
+                }
+                int celula = -1;
+                if (sobreposicoes == 1 && tocaUmSo(antY1[unico], antY2[unico], atuY1, atuY2, numAtu)) {
+                    celula = antCelula[unico];
+                    xFim[celula] = x;
+                } else {
+                    if (numCelulas == xIni.length) {
+                        xIni = Arrays.copyOf(xIni, numCelulas * 2);
+                        xFim = Arrays.copyOf(xFim, numCelulas * 2);
+                    }
+                    celula = numCelulas++;
+                    xIni[celula] = x;
+                    xFim[celula] = x;
+                }
+                atuCelula[i] = celula;
+                if (numEntradas == entCelula.length) {
+                    entCelula = Arrays.copyOf(entCelula, numEntradas * 2);
+                    entY1 = Arrays.copyOf(entY1, numEntradas * 2);
+                    entY2 = Arrays.copyOf(entY2, numEntradas * 2);
+                }
+                entCelula[numEntradas] = celula;
+                entY1[numEntradas] = atuY1[i];
+                entY2[numEntradas++] = atuY2[i];
+            }
+            int[] t;
+            t = antY1; antY1 = atuY1; atuY1 = t;
+            t = antY2; antY2 = atuY2; atuY2 = t;
+            t = antCelula; antCelula = atuCelula; atuCelula = t;
+            numAnt = numAtu;
+        }
+
+        // Agrupa as entradas por célula (ordenação por contagem, estável: as colunas ficam em ordem)
+        int[] inicio = new int[numCelulas + 1];
+        for (int e = 0; e < numEntradas; e++) inicio[entCelula[e] + 1]++;
+        for (int c = 0; c < numCelulas; c++) inicio[c + 1] += inicio[c];
+        int[] cursor = Arrays.copyOf(inicio, numCelulas);
+        int[] intY1 = new int[numEntradas], intY2 = new int[numEntradas];
+        for (int e = 0; e < numEntradas; e++) {
+            int p = cursor[entCelula[e]]++;
+            intY1[p] = entY1[e];
+            intY2[p] = entY2[e];
+        }
+        return new DecomposicaoBoustrophedon(x1, y1, x2, y2, z, numCelulas,
+            Arrays.copyOf(xIni, numCelulas), Arrays.copyOf(xFim, numCelulas), inicio, intY1, intY2);
+    }
+
+    /** Verifica se o intervalo [a, b] da coluna anterior toca exatamente um intervalo da coluna atual. */
+    private static boolean tocaUmSo(int a, int b, int[] y1s, int[] y2s, int n) {
+        int toques = 0;
+        for (int i = 0; i < n && y1s[i] <= b; i++) {
+            if (y2s[i] >= a && ++toques > 1) return false;
+        }
+        return toques == 1;
+    }
+
+    public int getNumCelulas() { return numCelulas; }
+    public int getXInicio(int celula) { return xInicio[celula]; }
+    public int getXFim(int celula) { return xFim[celula]; }
+    /** Menor Y livre da célula na coluna x. */
+    public int getY1(int celula, int x) { return intervaloY1[inicio[celula] + x - xInicio[celula]]; }
+    /** Maior Y livre da célula na coluna x. */
+    public int getY2(int celula, int x) { return intervaloY2[inicio[celula] + x - xInicio[celula]]; }
+    public int getZ() { return z; }
+
+    /** false depois que um obstáculo mudou dentro da região; a decomposição deve ser refeita. */
+    public boolean isValida() { return valida; }
+
+    void invalidar() { valida = false; }
+
+    /** Verifica se a caixa dada cruza a região decomposta. */
+    boolean cruza(int bx1, int by1, int bz1, int bx2, int by2, int bz2) {
+        return bx1 <= x2 && bx2 >= x1 && by1 <= y2 && by2 >= y1 && bz1 <= z && bz2 >= z;
+    }
+
+    /**
+     * Gera os pontos de uma varredura em zigue-zague de todas as células, em passadas
+     * paralelas a Y. Um sensor de alcance euclidiano r, levado ao longo de uma passada,
+     * cobre a faixa de colunas a até h = floor(r / sqrt(2)) dela, inclusive nos cantos
+     * das pontas quando cada ponta fica recuada h células: h² + h² &lt;= r². As passadas
+     * são então espaçadas de 2 * h + 1 colunas, e cada uma vai de um extremo a outro da
+     * união dos intervalos livres das colunas da sua faixa (recuados de h), sem sair do
+     * intervalo livre da coluna da passada.
+     *
+     * @param raio    O alcance (em células) dos sensores do robô.
+     * @param destino Recebe os pontos, em ordem (o conteúdo anterior é descartado).
+     */
+    public void gerarVarredura(double raio, Caminho destino) {
+        destino.limpar();
+        int h = (int) Math.floor(Math.max(raio, 0) / Math.sqrt(2));
+        int passo = 2 * h + 1;
+        for (int c = 0; c < numCelulas; c++) {
+            int xs = xInicio[c], xe = xFim[c];
+            int x = Math.min(xs + h, xe);
+            boolean subindo = true;
+            while (true) {
+                // União dos intervalos das colunas cobertas pela faixa desta passada
+                int ua = Integer.MAX_VALUE, ub = Integer.MIN_VALUE;
+                for (int cx = Math.max(xs, x - h), fx = Math.min(xe, x + h); cx <= fx; cx++) {
+                    ua = Math.min(ua, getY1(c, cx));
+                    ub = Math.max(ub, getY2(c, cx));
+                }
+                int ya = getY1(c, x), yb = getY2(c, x);
+                int ini, fim;
+                if (ub - ua <= 2 * h) {
+                    ini = fim = Math.max(ya, Math.min(yb, (ua + ub) / 2));
+                } else {
+                    ini = Math.max(ya, Math.min(yb, ua + h));
+                    fim = Math.max(ya, Math.min(yb, ub - h));
+                }
+                destino.adicionar(x, subindo ? ini : fim, z);
+                if (ini != fim) {
+                    destino.adicionar(x, subindo ? fim : ini, z);
+                }
+                subindo = !subindo;
+                if (x + h >= xe) break;
+                x = Math.min(x + passo, xe - h);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package navegacao;
+// Decomposicoes.java
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ambiente.Ambiente;
+import ambiente.OuvinteMudancaCelulas;
+
+/**
+ * Cache das {@link DecomposicaoBoustrophedon} de um ambiente, uma por região.
+ * Robôs que cobrem a mesma região compartilham a decomposição, calculada uma única vez;
+ * quando um obstáculo muda dentro da região, ela é invalidada e sai do cache.
+ * Quando o cache enche, a decomposição usada há mais tempo é descartada.
+ * Uma instância não deve ser usada por várias threads ao mesmo tempo.
+ */
+public class Decomposicoes implements OuvinteMudancaCelulas {
+    /** Número padrão de decomposições mantidas em memória. */
+    public static final int CAPACIDADE_PADRAO = 16;
+
+    private final Ambiente ambiente;
+    private final LinkedHashMap<String, DecomposicaoBoustrophedon> regioes;
+
+    public Decomposicoes(Ambiente ambiente) {
+        this(ambiente, CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * @param ambiente   O ambiente das regiões.
+     * @param capacidade Quantas decomposições manter ao mesmo tempo.
+     */
+    public Decomposicoes(Ambiente ambiente, int capacidade) {
+        this.ambiente = ambiente;
+        final int limite = Math.max(1, capacidade);
+        this.regioes = new LinkedHashMap<String, DecomposicaoBoustrophedon>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DecomposicaoBoustrophedon> maisAntiga) {
+                return size() > limite;
+            }
+        };
+    }
+
+    /**
+     * Retorna a decomposição da região [x1, x2] x [y1, y2] no plano z, calculando-a na
+     * primeira vez em que é pedida (ou depois de invalidada).
+     * @throws IllegalArgumentException Se a região for vazia ou o plano estiver fora do ambiente.
+     */
+    public DecomposicaoBoustrophedon obter(int x1, int y1, int x2, int y2, int z) {
+        String chave = x1 + "," + y1 + "," + x2 + "," + y2 + "," + z;
+        DecomposicaoBoustrophedon d = regioes.get(chave);
+        if (d == null) {
+            d = DecomposicaoBoustrophedon.calcular(ambiente, x1, y1, x2, y2, z);
+            regioes.put(chave, d);
+        }
+        return d;
+    }
+
+    /** Número de decomposições atualmente em cache. */
+    public int getQuantidade() {
+        return regioes.size();
+    }
+
+    /** Invalida e descarta as decomposições cujas regiões foram alteradas. */
+    @Override
+    public void celulasAlteradas(int x1, int y1, int z1, int x2, int y2, int z2, boolean bloqueadas) {
+        for (Iterator<DecomposicaoBoustrophedon> it = regioes.values().iterator(); it.hasNext(); ) {
+            DecomposicaoBoustrophedon d = it.next();
+            if (d.cruza(x1, y1, z1, x2, y2, z2)) {
+                d.invalidar();
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package navegacao;
+// MapaExploracao.java
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import ambiente.Ambiente;
+import ambiente.OuvinteMudancaCelulas;
+import ambiente.TipoEntidade;
+
+/**
+ * Registro do que já foi explorado em um plano horizontal (altitude fixa) do ambiente.
+ * Guarda, em {@link BitSet}s de uma posição por célula, as células visitadas, as bloqueadas
+ * por obstáculos e a fronteira: células livres ainda não visitadas vizinhas de uma visitada.
+ * A fronteira é mantida de forma incremental a cada visita e a cada aviso de mudança do
+ * mapa, e pode ser compartilhada por todos os robôs que exploram o mesmo plano.
+ * Uma instância não deve ser usada por várias threads ao mesmo tempo.
+ */
+public class MapaExploracao implements OuvinteMudancaCelulas {
+    /** Raio (em células) padrão da área considerada vista ao redor do robô. */
+    public static final int RAIO_PADRAO = 2;
+
+    private final Ambiente ambiente;
+    private final int largura, profundidade, z;
+    private final BitSet visitadas, bloqueadas, fronteira;
+    private int numVisitadas, numBloqueadas, numFronteira;
+
+    // Busca em largura até a fronteira mais próxima, com buffers reaproveitados
+    private int[] marca, pai, fila;
+    private int marcaAtual;
+
+    /**
+     * @param ambiente O ambiente a explorar.
+     * @param z        A altitude do plano explorado.
+     */
+    public MapaExploracao(Ambiente ambiente, int z) {
+        this.ambiente = ambiente;
+        this.largura = ambiente.getLargura();
+        this.profundidade = ambiente.getProfundidade();
+        this.z = z;
+        int celulas = largura * profundidade;
+        this.visitadas = new BitSet(celulas);
+        this.bloqueadas = new BitSet(celulas);
+        this.fronteira = new BitSet(celulas);
+        for (int y = 0; y < profundidade; y++) {
+            for (int x = 0; x < largura; x++) {
+                if (ambiente.getTipoEm(x, y, z) == TipoEntidade.OBSTACULO) {
+                    bloqueadas.set(indice(x, y));
+                    numBloqueadas++;
+                }
+            }
+        }
+    }
+
+    private int indice(int x, int y) {
+        return x + largura * y;
+    }
+
+    /**
+     * Marca como visitadas as células livres do quadrado de raio dado ao redor de (cx, cy).
+     * @return Quantas células foram visitadas pela primeira vez.
+     */
+    public int marcarVisitadas(int cx, int cy, int raio) {
+        int antes = numVisitadas;
+        int x1 = Math.max(cx - raio, 0), x2 = Math.min(cx + raio, largura - 1);
+        int y1 = Math.max(cy - raio, 0), y2 = Math.min(cy + raio, profundidade - 1);
+        for (int y = y1; y <= y2; y++) {
+            for (int x = x1; x <= x2; x++) {
+                visitar(x, y);
+            }
+        }
+        return numVisitadas - antes;
+    }
+
+    private void visitar(int x, int y) {
+        int c = indice(x, y);
+        if (visitadas.get(c) || bloqueadas.get(c)) {
+            return;
+        }
+        visitadas.set(c);
+        numVisitadas++;
+        if (fronteira.get(c)) {
+            fronteira.clear(c);
+            numFronteira--;
+        }
+        // As vizinhas livres ainda não visitadas passam a ser fronteira
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int nx = x + dx, ny = y + dy;
+                if ((dx == 0 && dy == 0) || nx < 0 || ny < 0 || nx >= largura || ny >= profundidade) continue;
+                int n = indice(nx, ny);
+                if (!visitadas.get(n) && !bloqueadas.get(n) && !fronteira.get(n)) {
+                    fronteira.set(n);
+                    numFronteira++;
+                }
+            }
+        }
+    }
+
+    public boolean isVisitada(int x, int y) { return visitadas.get(indice(x, y)); }
+    public boolean isFronteira(int x, int y) { return fronteira.get(indice(x, y)); }
+    public int getZ() { return z; }
+    public int getCelulasVisitadas() { return numVisitadas; }
+    public int getCelulasFronteira() { return numFronteira; }
+    /** Número de células do plano não bloqueadas por obstáculos. */
+    public int getCelulasLivres() { return largura * profundidade - numBloqueadas; }
+
+    /** Fração (de 0 a 1) das células livres do plano que já foram visitadas. */
+    public double getCobertura() {
+        int livres = getCelulasLivres();
+        return livres == 0 ? 1.0 : (double) numVisitadas / livres;
+    }
+
+    /**
+     * Procura, por busca em largura a partir de (ox, oy), a célula de fronteira mais próxima
+     * e monta o caminho até ela. Células ocupadas por obstáculos ou robôs não são atravessadas.
+     *
+     * @param ox        Coordenada X do robô.
+     * @param oy        Coordenada Y do robô.
+     * @param diagonais Se o robô pode dar passos diagonais.
+     * @param caminho   O buffer que receberá o caminho (sem a célula de origem).
+     * @return true se alguma fronteira é alcançável; false caso contrário (caminho vazio).
+     */
+    public boolean caminhoAteFronteira(int ox, int oy, boolean diagonais, Caminho caminho) {
+        caminho.limpar();
+        if (numFronteira == 0 || ox < 0 || oy < 0 || ox >= largura || oy >= profundidade) {
+            return false;
+        }
+        if (marca == null) {
+            int celulas = largura * profundidade;
+            marca = new int[celulas];
+            pai = new int[celulas];
+            fila = new int[celulas];
+        }
+        if (++marcaAtual == Integer.MAX_VALUE) {
+            Arrays.fill(marca, 0);
+            marcaAtual = 1;
+        }
+        int origem = indice(ox, oy);
+        int inicio = 0, fim = 0;
+        fila[fim++] = origem;
+        marca[origem] = marcaAtual;
+        pai[origem] = -1;
+        while (inicio < fim) {
+            int c = fila[inicio++];
+            if (c != origem && fronteira.get(c)) {
+                reconstruir(origem, c, caminho);
+                return true;
+            }
+            int cx = c % largura, cy = c / largura;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if ((dx == 0 && dy == 0) || (!diagonais && dx != 0 && dy != 0)) continue;
+                    int nx = cx + dx, ny = cy + dy;
+                    if (nx < 0 || ny < 0 || nx >= largura || ny >= profundidade) continue;
+                    int n = indice(nx, ny);
+                    if (marca[n] == marcaAtual || bloqueadas.get(n) || ambiente.getTipoEm(nx, ny, z) != TipoEntidade.VAZIO) continue;
+                    marca[n] = marcaAtual;
+                    pai[n] = c;
+                    fila[fim++] = n;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void reconstruir(int origem, int destino, Caminho caminho) {
+        int n = 0;
+        for (int c = destino; c != origem; c = pai[c]) n++;
+        caminho.preparar(n);
+        int i = n - 1;
+        for (int c = destino; c != origem; c = pai[c]) {
+            caminho.definir(i--, c % largura, c / largura, z);
+        }
+    }
+
+    /** Atualiza as células bloqueadas do plano e, com elas, a fronteira e a contagem de visitadas. */
+    @Override
+    public void celulasAlteradas(int x1, int y1, int z1, int x2, int y2, int z2, boolean bloqueadasAgora) {
+        if (z < z1 || z > z2) {
+            return;
+        }
+        x1 = Math.max(x1, 0); y1 = Math.max(y1, 0);
+        x2 = Math.min(x2, largura - 1); y2 = Math.min(y2, profundidade - 1);
+        for (int y = y1; y <= y2; y++) {
+            for (int x = x1; x <= x2; x++) {
+                int c = indice(x, y);
+                // Confere o mapa, pois a célula pode continuar coberta por outro obstáculo
+                boolean bloqueada = ambiente.getTipoEm(x, y, z) == TipoEntidade.OBSTACULO;
+                if (bloqueada == bloqueadas.get(c)) continue;
+                if (bloqueada) {
+                    bloqueadas.set(c);
+                    numBloqueadas++;
+                    if (visitadas.get(c)) {
+                        visitadas.clear(c);
+                        numVisitadas--;
+                    }
+                } else {
+                    bloqueadas.clear(c);
+                    numBloqueadas--;
+                }
+            }
+        }
+        // Refaz a fronteira na área alterada e ao redor dela
+        for (int y = Math.max(y1 - 1, 0); y <= Math.min(y2 + 1, profundidade - 1); y++) {
+            for (int x = Math.max(x1 - 1, 0); x <= Math.min(x2 + 1, largura - 1); x++) {
+                int c = indice(x, y);
+                boolean deveSer = !visitadas.get(c) && !bloqueadas.get(c) && temVizinhaVisitada(x, y);
+                if (deveSer != fronteira.get(c)) {
+                    fronteira.set(c, deveSer);
+                    numFronteira += deveSer ? 1 : -1;
+                }
+            }
+        }
+    }
+
+    private boolean temVizinhaVisitada(int x, int y) {
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int nx = x + dx, ny = y + dy;
+                if ((dx == 0 && dy == 0) || nx < 0 || ny < 0 || nx >= largura || ny >= profundidade) continue;
+                if (visitadas.get(indice(nx, ny))) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,64 @@
+package navegacao;
+// PerfilMovimento.java
+
+import ambiente.Ambiente;
+import robo.Robo;
+import robo.RoboAereo;
+import robo.RoboTerrestre;
+
+/**
+ * Restrições de movimento usadas pelos planejadores de caminho:
+ * a faixa de altitudes que o robô pode ocupar e se ele pode andar na diagonal.
+ * Um perfil com zMin == zMax restringe o robô a um único plano.
+ */
+public final class PerfilMovimento {
+    private final int zMin, zMax;
+    private final boolean diagonais;
+
+    /**
+     * Cria um perfil de movimento.
+     *
+     * @param zMin      A menor altitude permitida.
+     * @param zMax      A maior altitude permitida.
+     * @param diagonais true se o robô pode se mover na diagonal (inclusive entre camadas).
+     * @throws IllegalArgumentException Se a faixa de altitudes for inválida.
+     */
+    public PerfilMovimento(int zMin, int zMax, boolean diagonais) {
+        if (zMin < 0 || zMax < zMin) {
+            throw new IllegalArgumentException("Faixa de altitudes inválida: [" + zMin + ", " + zMax + "].");
+        }
+        this.zMin = zMin;
+        this.zMax = zMax;
+        this.diagonais = diagonais;
+    }
+
+    /**
+     * Deduz o perfil de movimento de um robô a partir do seu tipo.
+     * Robôs terrestres ficam no plano em que estão e só andam na diagonal se a
+     * velocidade máxima permitir um passo de raiz de 2. Robôs aéreos podem ocupar
+     * qualquer altitude entre 0 e a menor entre sua altitude máxima e o teto do ambiente.
+     *
+     * @param robo     O robô.
+     * @param ambiente O ambiente onde o robô se move.
+     * @return O perfil de movimento correspondente.
+     */
+    public static PerfilMovimento paraRobo(Robo robo, Ambiente ambiente) {
+        if (robo instanceof RoboAereo) {
+            int teto = Math.min(((RoboAereo) robo).getAltitudeMaxima(), ambiente.getAltura() - 1);
+            return new PerfilMovimento(0, Math.max(0, teto), true);
+        }
+        if (robo instanceof RoboTerrestre) {
+            return new PerfilMovimento(robo.getZ(), robo.getZ(), ((RoboTerrestre) robo).getVelocidadeMaxima() >= 2);
+        }
+        return new PerfilMovimento(robo.getZ(), robo.getZ(), false);
+    }
+
+    public int getZMin() { return zMin; }
+    public int getZMax() { return zMax; }
+    public boolean permiteDiagonais() { return diagonais; }
+
+    /** Verifica se a altitude dada está dentro da faixa do perfil. */
+    public boolean permiteAltitude(int z) {
+        return z >= zMin && z <= zMax;
+    }
+}
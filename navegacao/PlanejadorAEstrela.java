@@ -0,0 +1,235 @@
+package navegacao;
+// PlanejadorAEstrela.java
+
+import java.util.Arrays;
+
+import ambiente.Ambiente;
+import ambiente.TipoEntidade;
+
+/**
+ * Planejador de caminhos A* sobre a grade de ocupação 3D do {@link Ambiente}.
+ * Cada célula é identificada por um índice inteiro (x + largura * (y + profundidade * z)).
+ * As células tocadas pela busca viram nós de uma {@link TabelaCelulas}, e o estado da busca
+ * (custos, pais, fila de prioridade) fica em arrays primitivos indexados pelo nó, que só
+ * crescem e são reaproveitados entre consultas: a memória acompanha o número de células
+ * visitadas, não o tamanho do mapa, e planejar um caminho não gera lixo.
+ * Os custos são inteiros (10 para passos retos, 14 para diagonais no plano e 17 para
+ * diagonais 3D) e a heurística é a distância octil 3D com os mesmos pesos.
+ * Uma instância não deve ser usada por várias threads ao mesmo tempo.
+ */
+public class PlanejadorAEstrela {
+    public static final int CUSTO_RETO = 10;
+    public static final int CUSTO_DIAGONAL = 14;
+    public static final int CUSTO_DIAGONAL_3D = 17;
+
+    // Custo de cada direção de vizinhança (ver Vizinhanca)
+    static final int[] VIZ_CUSTO = new int[Vizinhanca.TOTAL];
+    static {
+        for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+            int eixos = Vizinhanca.EIXOS[v];
+            VIZ_CUSTO[v] = eixos == 1 ? CUSTO_RETO : (eixos == 2 ? CUSTO_DIAGONAL : CUSTO_DIAGONAL_3D);
+        }
+    }
+
+    private final Ambiente ambiente;
+    private final int largura, profundidade;
+
+    // Estado da busca, indexado pelo nó da célula na tabela
+    private final TabelaCelulas nos = new TabelaCelulas();
+    private int[] g = new int[256];
+    private int[] f = new int[256];
+    private int[] pai = new int[256];         // Nó pai, ou -1 na origem
+    private int[] posicaoHeap = new int[256]; // Posição do nó no heap, ou -1 se já foi fechado
+
+    // Heap binário (mínimo por f, desempate pelo maior g) de nós
+    private int[] heap = new int[256];
+    private int tamanhoHeap;
+
+    private int nosExpandidos;
+
+    /**
+     * Cria um planejador para o ambiente dado.
+     * @param ambiente O ambiente cuja grade de ocupação será usada.
+     */
+    public PlanejadorAEstrela(Ambiente ambiente) {
+        this.ambiente = ambiente;
+        this.largura = ambiente.getLargura();
+        this.profundidade = ambiente.getProfundidade();
+    }
+
+    private int indice(int x, int y, int z) {
+        return x + largura * (y + profundidade * z);
+    }
+
+    /**
+     * Distância octil 3D entre duas células, com os mesmos pesos dos passos.
+     * Sem diagonais, é a distância de Manhattan.
+     */
+    static int heuristica(int x0, int y0, int z0, int x1, int y1, int z1, boolean diagonais) {
+        int a = Math.abs(x1 - x0), b = Math.abs(y1 - y0), c = Math.abs(z1 - z0);
+        if (!diagonais) {
+            return CUSTO_RETO * (a + b + c);
+        }
+        // Ordena a >= b >= c
+        if (a < b) { int t = a; a = b; b = t; }
+        if (b < c) { int t = b; b = c; c = t; }
+        if (a < b) { int t = a; a = b; b = t; }
+        return CUSTO_DIAGONAL_3D * c + CUSTO_DIAGONAL * (b - c) + CUSTO_RETO * (a - b);
+    }
+
+    /**
+     * Procura o caminho de menor custo entre duas células. A célula de origem pode estar
+     * ocupada (é a do próprio robô), e a de destino pode estar ocupada por um robô: só
+     * obstáculos tornam o destino inalcançável, e quem segue o caminho deve esperar o
+     * destino vagar. Todas as demais células do caminho devem estar vazias.
+     *
+     * @param ox      Coordenada X de origem.
+     * @param oy      Coordenada Y de origem.
+     * @param oz      Coordenada Z de origem.
+     * @param dx      Coordenada X de destino.
+     * @param dy      Coordenada Y de destino.
+     * @param dz      Coordenada Z de destino.
+     * @param perfil  As restrições de movimento do robô.
+     * @param caminho O buffer que receberá o caminho (sem a célula de origem).
+     * @return true se um caminho foi encontrado; false se o destino é um obstáculo ou não há
+     * caminho até ele por células vazias (nesse caso o buffer fica vazio).
+     */
+    public boolean planejar(int ox, int oy, int oz, int dx, int dy, int dz, PerfilMovimento perfil, Caminho caminho) {
+        caminho.limpar();
+        nosExpandidos = 0;
+        TipoEntidade tipoDestino = ambiente.getTipoEm(dx, dy, dz);
+        if (!ambiente.dentroDosLimites(ox, oy, oz) || !perfil.permiteAltitude(dz)
+                || tipoDestino == null || tipoDestino == TipoEntidade.OBSTACULO) {
+            return false;
+        }
+        if (dx == ox && dy == oy && dz == oz) {
+            return true; // Já está no destino: caminho vazio
+        }
+        nos.limpar();
+
+        boolean diagonais = perfil.permiteDiagonais();
+        int zMin = perfil.getZMin(), zMax = perfil.getZMax();
+        int destino = indice(dx, dy, dz);
+        tamanhoHeap = 0;
+        abrir(indice(ox, oy, oz), 0, heuristica(ox, oy, oz, dx, dy, dz, diagonais), -1);
+
+        int planoXY = largura * profundidade;
+        while (tamanhoHeap > 0) {
+            int atual = removerMinimo();
+            int celula = nos.getCelula(atual);
+            if (celula == destino) {
+                reconstruir(atual, caminho);
+                return true;
+            }
+            nosExpandidos++;
+            int cz = celula / planoXY, resto = celula - cz * planoXY;
+            int cy = resto / largura, cx = resto - cy * largura;
+            int gAtual = g[atual];
+
+            for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+                int custo = VIZ_CUSTO[v];
+                if (!diagonais && custo != CUSTO_RETO) continue;
+                int nx = cx + Vizinhanca.DX[v], ny = cy + Vizinhanca.DY[v], nz = cz + Vizinhanca.DZ[v];
+                if (nz < zMin || nz > zMax || nx < 0 || ny < 0 || nx >= largura || ny >= profundidade) continue;
+                int celulaVizinha = indice(nx, ny, nz);
+                if (celulaVizinha != destino && ambiente.getTipoEm(nx, ny, nz) != TipoEntidade.VAZIO) continue;
+                int gNovo = gAtual + custo;
+                int vizinho = nos.buscar(celulaVizinha);
+                if (vizinho >= 0) {
+                    if (posicaoHeap[vizinho] < 0 || gNovo >= g[vizinho]) continue; // Fechado ou sem melhora
+                    f[vizinho] -= g[vizinho] - gNovo;
+                    g[vizinho] = gNovo;
+                    pai[vizinho] = atual;
+                    subir(posicaoHeap[vizinho]);
+                } else {
+                    abrir(celulaVizinha, gNovo, gNovo + heuristica(nx, ny, nz, dx, dy, dz, diagonais), atual);
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Número de células expandidas na última consulta. */
+    public int getNosExpandidos() {
+        return nosExpandidos;
+    }
+
+    private void reconstruir(int fim, Caminho caminho) {
+        int n = 0;
+        for (int no = fim; pai[no] >= 0; no = pai[no]) n++;
+        caminho.preparar(n);
+        int planoXY = largura * profundidade;
+        int i = n - 1;
+        for (int no = fim; pai[no] >= 0; no = pai[no]) {
+            int c = nos.getCelula(no);
+            int cz = c / planoXY, resto = c - cz * planoXY;
+            caminho.definir(i--, resto % largura, resto / largura, cz);
+        }
+    }
+
+    // --- Heap binário indexado ---
+
+    private void abrir(int celula, int custoG, int custoF, int noPai) {
+        int no = nos.inserir(celula);
+        if (no == g.length) {
+            int novo = no * 2;
+            g = Arrays.copyOf(g, novo);
+            f = Arrays.copyOf(f, novo);
+            pai = Arrays.copyOf(pai, novo);
+            posicaoHeap = Arrays.copyOf(posicaoHeap, novo);
+            heap = Arrays.copyOf(heap, novo);
+        }
+        g[no] = custoG;
+        f[no] = custoF;
+        pai[no] = noPai;
+        heap[tamanhoHeap] = no;
+        posicaoHeap[no] = tamanhoHeap;
+        subir(tamanhoHeap++);
+    }
+
+    private int removerMinimo() {
+        int minimo = heap[0];
+        posicaoHeap[minimo] = -1;
+        int ultimo = heap[--tamanhoHeap];
+        if (tamanhoHeap > 0) {
+            heap[0] = ultimo;
+            posicaoHeap[ultimo] = 0;
+            descer(0);
+        }
+        return minimo;
+    }
+
+    /** a tem prioridade sobre b: menor f e, em caso de empate, maior g (mais perto do destino). */
+    private boolean antes(int a, int b) {
+        return f[a] < f[b] || (f[a] == f[b] && g[a] > g[b]);
+    }
+
+    private void subir(int pos) {
+        int no = heap[pos];
+        while (pos > 0) {
+            int paiPos = (pos - 1) >>> 1;
+            int acima = heap[paiPos];
+            if (!antes(no, acima)) break;
+            heap[pos] = acima;
+            posicaoHeap[acima] = pos;
+            pos = paiPos;
+        }
+        heap[pos] = no;
+        posicaoHeap[no] = pos;
+    }
+
+    private void descer(int pos) {
+        int no = heap[pos];
+        while (true) {
+            int filho = 2 * pos + 1;
+            if (filho >= tamanhoHeap) break;
+            if (filho + 1 < tamanhoHeap && antes(heap[filho + 1], heap[filho])) filho++;
+            if (!antes(heap[filho], no)) break;
+            heap[pos] = heap[filho];
+            posicaoHeap[heap[pos]] = pos;
+            pos = filho;
+        }
+        heap[pos] = no;
+        posicaoHeap[no] = pos;
+    }
+}
@@ -0,0 +1,312 @@
+package navegacao;
+// PlanejadorCooperativo.java
+
+import java.util.Arrays;
+
+import ambiente.Ambiente;
+import ambiente.TipoEntidade;
+
+/**
+ * Planejador cooperativo em espaço-tempo (A* com janela, no estilo WHCA*).
+ * Cada estado é uma célula em um tick; além dos passos para as células vizinhas, o agente
+ * pode esperar parado. Estados reservados por outros agentes na {@link TabelaReservas}
+ * são evitados, assim como trocas de posição entre dois agentes no mesmo tick; ao fim,
+ * o caminho encontrado é reservado em nome do agente. A busca olha apenas uma janela de
+ * ticks à frente, de modo que o agente deve replanejar antes de a janela acabar.
+ * O caminho produzido tem uma célula por tick (esperas repetem a célula anterior).
+ * Uma instância não deve ser usada por várias threads ao mesmo tempo.
+ */
+public class PlanejadorCooperativo {
+    /** Número padrão de ticks planejados à frente. */
+    public static final int JANELA_PADRAO = 16;
+
+    private static final int[] CUSTO_EIXOS = {
+        PlanejadorAEstrela.CUSTO_RETO, PlanejadorAEstrela.CUSTO_RETO,
+        PlanejadorAEstrela.CUSTO_DIAGONAL, PlanejadorAEstrela.CUSTO_DIAGONAL_3D
+    };
+
+    private final Ambiente ambiente;
+    private final TabelaReservas reservas;
+    private final int largura, profundidade;
+    private final long numCelulas;
+
+    // Estados visitados na consulta atual: (dt, célula) -> índice do nó
+    private long[] chavesEstados = new long[1024];
+    private int[] nosEstados = new int[1024];
+    private int[] posicoesUsadas = new int[256];
+    private int numNos;
+
+    // Dados dos nós
+    private int[] celulaNo = new int[256], dtNo = new int[256], gNo = new int[256], paiNo = new int[256];
+    private boolean[] fechadoNo = new boolean[256];
+
+    private long[] heap = new long[256];
+    private int nosExpandidos;
+
+    /**
+     * @param ambiente O ambiente.
+     * @param reservas A tabela de reservas compartilhada pelos agentes.
+     */
+    public PlanejadorCooperativo(Ambiente ambiente, TabelaReservas reservas) {
+        this.ambiente = ambiente;
+        this.reservas = reservas;
+        this.largura = ambiente.getLargura();
+        this.profundidade = ambiente.getProfundidade();
+        this.numCelulas = (long) largura * profundidade * ambiente.getAltura();
+        Arrays.fill(chavesEstados, -1L);
+    }
+
+    public TabelaReservas getReservas() { return reservas; }
+    /** Número de estados expandidos na última consulta. */
+    public int getNosExpandidos() { return nosExpandidos; }
+
+    private int celula(int x, int y, int z) {
+        return x + largura * (y + profundidade * z);
+    }
+
+    /**
+     * Planeja e reserva o caminho do agente para os próximos ticks.
+     *
+     * @param agente  Quem planeja (dono das reservas).
+     * @param tick    O tick atual; a primeira célula do caminho é a posição em tick + 1.
+     * @param ox      Coordenada X atual.
+     * @param oy      Coordenada Y atual.
+     * @param oz      Coordenada Z atual.
+     * @param dx      Coordenada X de destino.
+     * @param dy      Coordenada Y de destino.
+     * @param dz      Coordenada Z de destino.
+     * @param perfil  As restrições de movimento do agente.
+     * @param janela  Quantos ticks planejar à frente.
+     * @param caminho Recebe uma célula por tick, até o destino ou até o fim da janela. O destino
+     * só encerra o caminho antes do fim da janela se o agente pode ficar nele até lá.
+     * @return true se um caminho foi planejado e reservado; false se o destino está bloqueado por
+     * um obstáculo ou fora do perfil, se o agente não tem nem como esperar onde está, ou se as
+     * reservas não puderam ser feitas (o agente deve tentar de novo no próximo tick).
+     */
+    public boolean planejar(Object agente, long tick, int ox, int oy, int oz, int dx, int dy, int dz,
+                            PerfilMovimento perfil, int janela, Caminho caminho) {
+        caminho.limpar();
+        nosExpandidos = 0;
+        TipoEntidade tipoDestino = ambiente.getTipoEm(dx, dy, dz);
+        if (tipoDestino == null || tipoDestino == TipoEntidade.OBSTACULO || !perfil.permiteAltitude(dz) || janela < 1) {
+            return false;
+        }
+        limparEstados();
+        boolean diagonais = perfil.permiteDiagonais();
+        int destino = celula(dx, dy, dz);
+        int tamanhoHeap = 0;
+        int origem = celula(ox, oy, oz);
+        int raiz = novoNo(origem, 0, 0, -1);
+        tamanhoHeap = empilhar(tamanhoHeap, PlanejadorAEstrela.heuristica(ox, oy, oz, dx, dy, dz, diagonais), raiz);
+
+        int plano = largura * profundidade;
+        int fim = -1;
+        while (tamanhoHeap > 0) {
+            int no = (int) heap[0];
+            tamanhoHeap = removerTopo(tamanhoHeap);
+            if (fechadoNo[no]) continue;
+            fechadoNo[no] = true;
+            int c = celulaNo[no], dt = dtNo[no];
+            if (dt == janela || c == destino && podePermanecer(agente, tick + dt, c, tick + janela)) {
+                fim = no;
+                break;
+            }
+            nosExpandidos++;
+            int cz = c / plano, resto = c % plano;
+            int cy = resto / largura, cx = resto % largura;
+            long t = tick + dt;
+            // Ação de esperar (v = -1) e passos para as vizinhas
+            for (int v = -1; v < Vizinhanca.TOTAL; v++) {
+                int eixos = v < 0 ? 0 : Vizinhanca.EIXOS[v];
+                if (!diagonais && eixos > 1) continue;
+                int nx = v < 0 ? cx : cx + Vizinhanca.DX[v];
+                int ny = v < 0 ? cy : cy + Vizinhanca.DY[v];
+                int nz = v < 0 ? cz : cz + Vizinhanca.DZ[v];
+                if (!perfil.permiteAltitude(nz)) continue;
+                TipoEntidade tipo = ambiente.getTipoEm(nx, ny, nz);
+                if (tipo == null || tipo == TipoEntidade.OBSTACULO) continue;
+                int n = celula(nx, ny, nz);
+                // No primeiro passo, células ocupadas agora por outros robôs são evitadas
+                if (dt == 0 && v >= 0 && tipo != TipoEntidade.VAZIO) continue;
+                if (!reservas.livrePara(t + 1, n, agente)) continue;
+                // Troca de posição: quem estará em c no próximo tick está em n agora
+                if (v >= 0) {
+                    Object outro = reservas.donoEm(t + 1, c);
+                    if (outro != null && outro != agente && reservas.donoEm(t, n) == outro) continue;
+                }
+                int gNovo = gNo[no] + CUSTO_EIXOS[eixos];
+                int existente = buscarEstado(dt + 1, n);
+                if (existente >= 0) {
+                    if (fechadoNo[existente] || gNovo >= gNo[existente]) continue;
+                    gNo[existente] = gNovo;
+                    paiNo[existente] = no;
+                } else {
+                    existente = novoNo(n, dt + 1, gNovo, no);
+                }
+                int h = PlanejadorAEstrela.heuristica(nx, ny, nz, dx, dy, dz, diagonais);
+                tamanhoHeap = empilhar(tamanhoHeap, gNovo + h, existente);
+            }
+        }
+        if (fim < 0) {
+            return false;
+        }
+        if (fim == raiz) {
+            return true; // Já está no destino
+        }
+        reconstruir(fim, caminho);
+        if (!reservar(agente, tick, caminho, janela)) {
+            liberar(agente, tick, caminho, janela);
+            caminho.limpar();
+            return false;
+        }
+        return true;
+    }
+
+    /** Verifica se nenhum outro agente reservou a célula entre os ticks chegada + 1 e fim. */
+    private boolean podePermanecer(Object agente, long chegada, int c, long fim) {
+        for (long t = chegada + 1; t <= fim; t++) {
+            if (!reservas.livrePara(t, c, agente)) return false;
+        }
+        return true;
+    }
+
+    private void reconstruir(int fim, Caminho caminho) {
+        int n = dtNo[fim];
+        caminho.preparar(n);
+        int plano = largura * profundidade;
+        for (int no = fim; paiNo[no] >= 0; no = paiNo[no]) {
+            int c = celulaNo[no], resto = c % plano;
+            caminho.definir(dtNo[no] - 1, resto % largura, resto / largura, c / plano);
+        }
+    }
+
+    /**
+     * Reserva o caminho a partir de tick + 1. Se o destino foi alcançado antes do fim da janela,
+     * a célula de destino fica reservada até o fim dela.
+     * @return false se alguma célula já estava reservada por outro agente (as demais ficam reservadas).
+     */
+    private boolean reservar(Object agente, long tick, Caminho caminho, int janela) {
+        int n = caminho.getTamanho();
+        boolean todas = true;
+        for (int i = 0; i < janela; i++) {
+            int j = Math.min(i, n - 1);
+            todas &= reservas.reservar(tick + i + 1, celula(caminho.getX(j), caminho.getY(j), caminho.getZ(j)), agente);
+        }
+        return todas;
+    }
+
+    /**
+     * Cancela as reservas feitas por {@link #planejar} para um caminho.
+     *
+     * @param agente     O dono das reservas.
+     * @param tickInicio O tick em que o caminho foi planejado.
+     * @param caminho    O caminho planejado naquele tick.
+     * @param janela     A janela usada no planejamento.
+     */
+    public void liberar(Object agente, long tickInicio, Caminho caminho, int janela) {
+        int n = caminho.getTamanho();
+        if (n == 0) return;
+        for (int i = 0; i < janela; i++) {
+            int j = Math.min(i, n - 1);
+            reservas.liberar(tickInicio + i + 1, celula(caminho.getX(j), caminho.getY(j), caminho.getZ(j)), agente);
+        }
+    }
+
+    // --- Estados visitados (endereçamento aberto) ---
+
+    private void limparEstados() {
+        for (int i = 0; i < numNos; i++) {
+            chavesEstados[posicoesUsadas[i]] = -1L;
+        }
+        numNos = 0;
+    }
+
+    private int posicaoEstado(long chave) {
+        return (int) ((chave * 0x9E3779B97F4A7C15L) >>> 32) & (chavesEstados.length - 1);
+    }
+
+    private int buscarEstado(int dt, int c) {
+        long chave = dt * numCelulas + c;
+        int mascara = chavesEstados.length - 1;
+        for (int p = posicaoEstado(chave); chavesEstados[p] != -1L; p = (p + 1) & mascara) {
+            if (chavesEstados[p] == chave) return nosEstados[p];
+        }
+        return -1;
+    }
+
+    private int novoNo(int c, int dt, int g, int pai) {
+        if (numNos == celulaNo.length) {
+            int novo = numNos * 2;
+            celulaNo = Arrays.copyOf(celulaNo, novo);
+            dtNo = Arrays.copyOf(dtNo, novo);
+            gNo = Arrays.copyOf(gNo, novo);
+            paiNo = Arrays.copyOf(paiNo, novo);
+            fechadoNo = Arrays.copyOf(fechadoNo, novo);
+            posicoesUsadas = Arrays.copyOf(posicoesUsadas, novo);
+        }
+        if ((numNos + 1) * 2 > chavesEstados.length) {
+            crescerEstados();
+        }
+        int no = numNos;
+        celulaNo[no] = c;
+        dtNo[no] = dt;
+        gNo[no] = g;
+        paiNo[no] = pai;
+        fechadoNo[no] = false;
+        long chave = dt * numCelulas + c;
+        int mascara = chavesEstados.length - 1;
+        int p = posicaoEstado(chave);
+        while (chavesEstados[p] != -1L) p = (p + 1) & mascara;
+        chavesEstados[p] = chave;
+        nosEstados[p] = no;
+        posicoesUsadas[no] = p;
+        numNos++;
+        return no;
+    }
+
+    private void crescerEstados() {
+        chavesEstados = new long[chavesEstados.length * 2];
+        nosEstados = new int[chavesEstados.length];
+        Arrays.fill(chavesEstados, -1L);
+        int mascara = chavesEstados.length - 1;
+        for (int no = 0; no < numNos; no++) {
+            long chave = dtNo[no] * numCelulas + celulaNo[no];
+            int p = posicaoEstado(chave);
+            while (chavesEstados[p] != -1L) p = (p + 1) & mascara;
+            chavesEstados[p] = chave;
+            nosEstados[p] = no;
+            posicoesUsadas[no] = p;
+        }
+    }
+
+    // --- Heap binário de longs (prioridade nos 32 bits altos, nó nos baixos) ---
+
+    private int empilhar(int tamanho, int prioridade, int no) {
+        if (tamanho == heap.length) heap = Arrays.copyOf(heap, tamanho * 2);
+        long valor = ((long) prioridade << 32) | no;
+        int pos = tamanho;
+        while (pos > 0) {
+            int pai = (pos - 1) >>> 1;
+            if (heap[pai] <= valor) break;
+            heap[pos] = heap[pai];
+            pos = pai;
+        }
+        heap[pos] = valor;
+        return tamanho + 1;
+    }
+
+    private int removerTopo(int tamanho) {
+        long ultimo = heap[--tamanho];
+        int pos = 0;
+        while (true) {
+            int filho = 2 * pos + 1;
+            if (filho >= tamanho) break;
+            if (filho + 1 < tamanho && heap[filho + 1] < heap[filho]) filho++;
+            if (heap[filho] >= ultimo) break;
+            heap[pos] = heap[filho];
+            pos = filho;
+        }
+        if (tamanho > 0) heap[pos] = ultimo;
+        return tamanho;
+    }
+}
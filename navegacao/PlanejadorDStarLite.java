@@ -0,0 +1,388 @@
+package navegacao;
+// PlanejadorDStarLite.java
+
+import java.util.Arrays;
+
+import ambiente.Ambiente;
+import ambiente.OuvinteMudancaCelulas;
+import ambiente.TipoEntidade;
+
+/**
+ * Planejador incremental D* Lite para um único robô.
+ * A busca é feita do destino para o robô e seu estado (g, rhs e a fila de prioridade)
+ * é mantido entre as consultas: enquanto o destino não muda, replanejar depois que o robô
+ * andou ou que obstáculos foram adicionados ou removidos só reprocessa as células cujo
+ * custo até o destino mudou, em vez de refazer a busca inteira.
+ * Apenas obstáculos bloqueiam células; robôs, que se movem a todo tick, são ignorados.
+ * Os custos e a heurística são os mesmos do {@link PlanejadorAEstrela}.
+ * O estado fica em arrays indexados pelos nós de uma {@link TabelaCelulas}, como no A*:
+ * só as células tocadas desde a última troca de destino ocupam memória.
+ * Uma instância não deve ser usada por várias threads ao mesmo tempo.
+ */
+public class PlanejadorDStarLite implements OuvinteMudancaCelulas {
+    private static final int INFINITO = Integer.MAX_VALUE;
+
+    private final Ambiente ambiente;
+    private final int largura, profundidade, planoXY;
+    private final int zMin, zMax;
+    private final boolean diagonais;
+
+    // Estado da busca, indexado pelo nó da célula na tabela (células fora dela têm g = rhs = infinito)
+    private final TabelaCelulas nos = new TabelaCelulas();
+    private int[] g = new int[256];
+    private int[] rhs = new int[256];
+    private long[] chave = new long[256];      // Chave na fila: primeiro componente nos 32 bits altos, segundo nos baixos
+    private int[] posicaoHeap = new int[256];  // Posição do nó no heap, ou -1 se não está nele
+
+    private int[] heap = new int[256];
+    private int tamanhoHeap;
+
+    private boolean temDestino;
+    private int destino, destinoX, destinoY, destinoZ;
+    private int inicioX, inicioY, inicioZ;
+    private long km; // Soma das heurísticas entre as posições sucessivas do robô
+
+    private long versao;
+    private int nosExpandidos;
+
+    /**
+     * @param ambiente O ambiente cuja grade de ocupação será usada.
+     * @param perfil   As restrições de movimento do robô.
+     */
+    public PlanejadorDStarLite(Ambiente ambiente, PerfilMovimento perfil) {
+        this.ambiente = ambiente;
+        this.largura = ambiente.getLargura();
+        this.profundidade = ambiente.getProfundidade();
+        this.planoXY = largura * profundidade;
+        this.zMin = perfil.getZMin();
+        this.zMax = perfil.getZMax();
+        this.diagonais = perfil.permiteDiagonais();
+    }
+
+    private int indice(int x, int y, int z) {
+        return x + largura * (y + profundidade * z);
+    }
+
+    private boolean bloqueada(int x, int y, int z) {
+        return x < 0 || y < 0 || z < zMin || x >= largura || y >= profundidade || z > zMax
+            || ambiente.getTipoEm(x, y, z) == TipoEntidade.OBSTACULO;
+    }
+
+    /**
+     * Planeja (ou repara) o caminho do robô até o destino.
+     *
+     * @param ox      Coordenada X atual do robô.
+     * @param oy      Coordenada Y atual do robô.
+     * @param oz      Coordenada Z atual do robô.
+     * @param dx      Coordenada X de destino.
+     * @param dy      Coordenada Y de destino.
+     * @param dz      Coordenada Z de destino.
+     * @param caminho O buffer que receberá o caminho (sem a célula de origem).
+     * @return true se um caminho foi encontrado; false se o destino é inalcançável
+     * (nesse caso o buffer fica vazio).
+     */
+    public boolean planejar(int ox, int oy, int oz, int dx, int dy, int dz, Caminho caminho) {
+        caminho.limpar();
+        nosExpandidos = 0;
+        if (!ambiente.dentroDosLimites(ox, oy, oz) || bloqueada(dx, dy, dz)) {
+            return false;
+        }
+        if (dx == ox && dy == oy && dz == oz) {
+            return true; // Já está no destino: caminho vazio
+        }
+        if (!temDestino || dx != destinoX || dy != destinoY || dz != destinoZ) {
+            reiniciar(ox, oy, oz, dx, dy, dz);
+        } else if (ox != inicioX || oy != inicioY || oz != inicioZ) {
+            // O robô andou: as chaves já na fila continuam válidas se km crescer na mesma medida
+            km += PlanejadorAEstrela.heuristica(inicioX, inicioY, inicioZ, ox, oy, oz, diagonais);
+            inicioX = ox;
+            inicioY = oy;
+            inicioZ = oz;
+        }
+        calcularCaminhoMinimo();
+        int inicio = indice(ox, oy, oz);
+        if (valorG(inicio) == INFINITO) {
+            return false;
+        }
+        return extrairCaminho(inicio, caminho);
+    }
+
+    /** Número de células expandidas na última consulta. */
+    public int getNosExpandidos() {
+        return nosExpandidos;
+    }
+
+    /**
+     * Contador de mudanças do mapa que afetaram o estado do planejador; um caminho
+     * planejado quando a versão era outra pode estar desatualizado.
+     */
+    public long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Repara o estado da busca para as células alteradas e suas vizinhas; o caminho mínimo
+     * só é recalculado na próxima consulta.
+     */
+    @Override
+    public void celulasAlteradas(int x1, int y1, int z1, int x2, int y2, int z2, boolean bloqueadas) {
+        if (!temDestino) {
+            return;
+        }
+        // As vizinhas das células alteradas também mudam de custo
+        x1 = Math.max(x1 - 1, 0); y1 = Math.max(y1 - 1, 0); z1 = Math.max(z1 - 1, zMin);
+        x2 = Math.min(x2 + 1, largura - 1); y2 = Math.min(y2 + 1, profundidade - 1); z2 = Math.min(z2 + 1, zMax);
+        if (x1 > x2 || y1 > y2 || z1 > z2) {
+            return;
+        }
+        versao++;
+        if (bloqueada(destinoX, destinoY, destinoZ)) {
+            temDestino = false; // O destino virou obstáculo: a próxima consulta recomeça do zero
+            return;
+        }
+        for (int z = z1; z <= z2; z++) {
+            for (int y = y1; y <= y2; y++) {
+                for (int x = x1; x <= x2; x++) {
+                    int c = indice(x, y, z);
+                    if (c == destino) continue;
+                    int n = tocar(c);
+                    rhs[n] = bloqueada(x, y, z) ? INFINITO : menorCustoPelasVizinhas(x, y, z);
+                    atualizarCelula(n, x, y, z);
+                }
+            }
+        }
+    }
+
+    private void reiniciar(int ox, int oy, int oz, int dx, int dy, int dz) {
+        nos.limpar();
+        tamanhoHeap = 0;
+        km = 0;
+        temDestino = true;
+        destinoX = dx;
+        destinoY = dy;
+        destinoZ = dz;
+        destino = indice(dx, dy, dz);
+        inicioX = ox;
+        inicioY = oy;
+        inicioZ = oz;
+        int n = tocar(destino);
+        rhs[n] = 0;
+        inserir(n, calcularChave(n, dx, dy, dz));
+    }
+
+    private void calcularCaminhoMinimo() {
+        int inicio = tocar(indice(inicioX, inicioY, inicioZ));
+        while (tamanhoHeap > 0) {
+            if (chave[heap[0]] >= calcularChave(inicio, inicioX, inicioY, inicioZ) && rhs[inicio] == g[inicio]) {
+                break;
+            }
+            int u = heap[0];
+            int celulaU = nos.getCelula(u);
+            int uz = celulaU / planoXY, resto = celulaU - uz * planoXY;
+            int uy = resto / largura, ux = resto - uy * largura;
+            long chaveAntiga = chave[u];
+            long chaveNova = calcularChave(u, ux, uy, uz);
+            if (chaveAntiga < chaveNova) {
+                chave[u] = chaveNova; // Chave desatualizada por km: volta para a fila com a nova
+                descer(0);
+                continue;
+            }
+            nosExpandidos++;
+            if (g[u] > rhs[u]) {
+                // Sobreconsistente: fixa g e oferece o novo custo às vizinhas
+                g[u] = rhs[u];
+                remover(u);
+                for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+                    int custo = PlanejadorAEstrela.VIZ_CUSTO[v];
+                    if (!diagonais && custo != PlanejadorAEstrela.CUSTO_RETO) continue;
+                    int nx = ux + Vizinhanca.DX[v], ny = uy + Vizinhanca.DY[v], nz = uz + Vizinhanca.DZ[v];
+                    if (bloqueada(nx, ny, nz)) continue;
+                    int celulaS = indice(nx, ny, nz);
+                    if (celulaS == destino) continue;
+                    int s = tocar(celulaS);
+                    if (g[u] + custo < rhs[s]) {
+                        rhs[s] = g[u] + custo;
+                        atualizarCelula(s, nx, ny, nz);
+                    }
+                }
+            } else {
+                // Subconsistente: o custo antigo deixou de valer; recalcula quem dependia dele
+                int gAntigo = g[u];
+                g[u] = INFINITO;
+                if (celulaU != destino) {
+                    rhs[u] = bloqueada(ux, uy, uz) ? INFINITO : menorCustoPelasVizinhas(ux, uy, uz);
+                }
+                atualizarCelula(u, ux, uy, uz);
+                for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+                    int custo = PlanejadorAEstrela.VIZ_CUSTO[v];
+                    if (!diagonais && custo != PlanejadorAEstrela.CUSTO_RETO) continue;
+                    int nx = ux + Vizinhanca.DX[v], ny = uy + Vizinhanca.DY[v], nz = uz + Vizinhanca.DZ[v];
+                    if (bloqueada(nx, ny, nz)) continue;
+                    int celulaS = indice(nx, ny, nz);
+                    if (celulaS == destino) continue;
+                    int s = nos.buscar(celulaS);
+                    if (s < 0 || rhs[s] != gAntigo + custo) continue;
+                    rhs[s] = menorCustoPelasVizinhas(nx, ny, nz);
+                    atualizarCelula(s, nx, ny, nz);
+                }
+            }
+        }
+    }
+
+    /** Desce do robô ao destino escolhendo sempre a vizinha de menor custo + g. */
+    private boolean extrairCaminho(int inicio, Caminho caminho) {
+        int c = inicio;
+        int cx = inicioX, cy = inicioY, cz = inicioZ;
+        int limite = nos.getTamanho(); // Só células com g finito, todas na tabela, podem estar no caminho
+        while (c != destino) {
+            if (caminho.getTamanho() >= limite) {
+                caminho.limpar();
+                return false;
+            }
+            int melhor = INFINITO, mx = 0, my = 0, mz = 0;
+            for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+                int custo = PlanejadorAEstrela.VIZ_CUSTO[v];
+                if (!diagonais && custo != PlanejadorAEstrela.CUSTO_RETO) continue;
+                int nx = cx + Vizinhanca.DX[v], ny = cy + Vizinhanca.DY[v], nz = cz + Vizinhanca.DZ[v];
+                if (bloqueada(nx, ny, nz)) continue;
+                int gv = valorG(indice(nx, ny, nz));
+                if (gv != INFINITO && gv + custo < melhor) {
+                    melhor = gv + custo;
+                    mx = nx;
+                    my = ny;
+                    mz = nz;
+                }
+            }
+            if (melhor == INFINITO) {
+                caminho.limpar();
+                return false;
+            }
+            caminho.adicionar(mx, my, mz);
+            cx = mx;
+            cy = my;
+            cz = mz;
+            c = indice(cx, cy, cz);
+        }
+        return true;
+    }
+
+    private int menorCustoPelasVizinhas(int x, int y, int z) {
+        int melhor = INFINITO;
+        for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+            int custo = PlanejadorAEstrela.VIZ_CUSTO[v];
+            if (!diagonais && custo != PlanejadorAEstrela.CUSTO_RETO) continue;
+            int nx = x + Vizinhanca.DX[v], ny = y + Vizinhanca.DY[v], nz = z + Vizinhanca.DZ[v];
+            if (bloqueada(nx, ny, nz)) continue;
+            int gv = valorG(indice(nx, ny, nz));
+            if (gv != INFINITO && gv + custo < melhor) {
+                melhor = gv + custo;
+            }
+        }
+        return melhor;
+    }
+
+    private int valorG(int c) {
+        int n = nos.buscar(c);
+        return n >= 0 ? g[n] : INFINITO;
+    }
+
+    /**
+     * Inclui a célula na busca atual, com g e rhs infinitos, se ainda não estiver nela.
+     * @return O nó da célula.
+     */
+    private int tocar(int c) {
+        int n = nos.buscar(c);
+        if (n < 0) {
+            n = nos.inserir(c);
+            if (n == g.length) {
+                int novo = n * 2;
+                g = Arrays.copyOf(g, novo);
+                rhs = Arrays.copyOf(rhs, novo);
+                chave = Arrays.copyOf(chave, novo);
+                posicaoHeap = Arrays.copyOf(posicaoHeap, novo);
+                heap = Arrays.copyOf(heap, novo);
+            }
+            g[n] = INFINITO;
+            rhs[n] = INFINITO;
+            posicaoHeap[n] = -1;
+        }
+        return n;
+    }
+
+    private long calcularChave(int n, int x, int y, int z) {
+        long m = Math.min(g[n], rhs[n]);
+        if (m == INFINITO) {
+            return Long.MAX_VALUE;
+        }
+        long k1 = m + PlanejadorAEstrela.heuristica(inicioX, inicioY, inicioZ, x, y, z, diagonais) + km;
+        return (k1 << 32) | m;
+    }
+
+    /** Coloca o nó na fila se ele está inconsistente (g != rhs) e o retira se não está. */
+    private void atualizarCelula(int n, int x, int y, int z) {
+        if (g[n] != rhs[n]) {
+            long k = calcularChave(n, x, y, z);
+            if (posicaoHeap[n] >= 0) {
+                chave[n] = k;
+                subir(posicaoHeap[n]);
+                descer(posicaoHeap[n]);
+            } else {
+                inserir(n, k);
+            }
+        } else if (posicaoHeap[n] >= 0) {
+            remover(n);
+        }
+    }
+
+    // --- Heap binário indexado (mínimo pela chave) ---
+
+    private void inserir(int c, long k) {
+        chave[c] = k;
+        heap[tamanhoHeap] = c;
+        posicaoHeap[c] = tamanhoHeap;
+        subir(tamanhoHeap++);
+    }
+
+    private void remover(int c) {
+        int pos = posicaoHeap[c];
+        posicaoHeap[c] = -1;
+        int ultimo = heap[--tamanhoHeap];
+        if (pos < tamanhoHeap) {
+            heap[pos] = ultimo;
+            posicaoHeap[ultimo] = pos;
+            subir(pos);
+            descer(posicaoHeap[ultimo]);
+        }
+    }
+
+    private void subir(int pos) {
+        int c = heap[pos];
+        long k = chave[c];
+        while (pos > 0) {
+            int paiPos = (pos - 1) >>> 1;
+            int acima = heap[paiPos];
+            if (chave[acima] <= k) break;
+            heap[pos] = acima;
+            posicaoHeap[acima] = pos;
+            pos = paiPos;
+        }
+        heap[pos] = c;
+        posicaoHeap[c] = pos;
+    }
+
+    private void descer(int pos) {
+        int c = heap[pos];
+        long k = chave[c];
+        while (true) {
+            int filho = 2 * pos + 1;
+            if (filho >= tamanhoHeap) break;
+            if (filho + 1 < tamanhoHeap && chave[heap[filho + 1]] < chave[heap[filho]]) filho++;
+            if (chave[heap[filho]] >= k) break;
+            heap[pos] = heap[filho];
+            posicaoHeap[heap[pos]] = pos;
+            pos = filho;
+        }
+        heap[pos] = c;
+        posicaoHeap[c] = pos;
+    }
+}
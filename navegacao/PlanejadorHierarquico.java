@@ -0,0 +1,595 @@
+package navegacao;
+// PlanejadorHierarquico.java
+
+import java.util.Arrays;
+
+import ambiente.Ambiente;
+import ambiente.OuvinteMudancaCelulas;
+import ambiente.TipoEntidade;
+
+/**
+ * Planejador hierárquico (HPA*) para ambientes grandes.
+ * O plano XY é dividido em agrupamentos quadrados de lado fixo, cada um cobrindo toda a
+ * faixa de altitudes do {@link PerfilMovimento}. Nas bordas entre agrupamentos vizinhos,
+ * cada trecho contínuo de células livres dos dois lados vira uma entrada (no seu ponto
+ * médio); as distâncias entre as entradas de um mesmo agrupamento são pré-calculadas com
+ * uma busca restrita ao agrupamento. Uma consulta de longa distância busca então no grafo
+ * abstrato de entradas, que é muito menor que a grade, e devolve apenas os pontos
+ * intermediários; cada trecho entre eles é refinado quando o robô chega lá, com um A*
+ * restrito aos agrupamentos do robô e do próximo ponto, em buffers do tamanho de dois
+ * agrupamentos.
+ * Apenas obstáculos entram na abstração (robôs são tratados no refinamento). Quando um
+ * obstáculo muda o mapa, os agrupamentos afetados e seus vizinhos são marcados como sujos
+ * e reconstruídos sob demanda.
+ * Uma instância não deve ser usada por várias threads ao mesmo tempo.
+ */
+public class PlanejadorHierarquico implements OuvinteMudancaCelulas {
+    /** Lado padrão, em células, de cada agrupamento. */
+    public static final int TAMANHO_AGRUPAMENTO_PADRAO = 16;
+
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int NO_ORIGEM = -2, NO_DESTINO = -3;
+
+    private final Ambiente ambiente;
+    private final PerfilMovimento perfil;
+    private final int tamanho;                // Lado de cada agrupamento
+    private final int colunas, linhas;        // Número de agrupamentos em X e em Y
+    private final int largura, profundidade, zMin, zMax, camadas;
+    private final int bitsLocal;              // Bits do índice local de uma entrada no identificador do nó
+    private final Agrupamento[] agrupamentos;
+
+    // Busca local (Dijkstra restrito a um agrupamento), reaproveitada
+    private final int[] distLocal;
+    private long[] heapLocal = new long[256];
+
+    // Refinamento (A* restrito a um par de agrupamentos vizinhos), reaproveitado
+    private final int[] gRefino, paiRefino, marcaRefino;
+    private int marcaRefinoAtual;
+    private long[] heapRefino = new long[256];
+
+    // Busca abstrata
+    private long[] heapAbstrato = new long[256];
+    private int marcaAtual;
+    private int agrupamentoOrigem, agrupamentoDestino;
+    private int[] custoOrigem = new int[0], custoDestino = new int[0]; // Por entrada local
+    private int custoOrigemDestino;       // Custo direto dentro do mesmo agrupamento (ou INF)
+    private int gDestino, paiDestino;
+    private int nosExpandidos;
+
+    /**
+     * Dados de um agrupamento: suas entradas (células de borda), a célula vizinha do outro
+     * lado de cada entrada, a matriz de distâncias internas e o estado da busca abstrata.
+     */
+    private static final class Agrupamento {
+        boolean sujo = true;
+        int numEntradas;
+        int[] celulas = new int[0];       // Índice global da célula de cada entrada
+        int[] parceiras = new int[0];     // Célula do agrupamento vizinho ligada à entrada
+        int[] custos = new int[0];        // numEntradas x numEntradas
+        // Estado da busca abstrata (válido onde marca == marcaAtual)
+        int[] marca = new int[0], g = new int[0], pai = new int[0];
+        boolean[] fechado = new boolean[0];
+    }
+
+    /**
+     * Cria um planejador hierárquico com o tamanho de agrupamento padrão.
+     * @param ambiente O ambiente.
+     * @param perfil   As restrições de movimento dos robôs que usarão o planejador.
+     */
+    public PlanejadorHierarquico(Ambiente ambiente, PerfilMovimento perfil) {
+        this(ambiente, perfil, TAMANHO_AGRUPAMENTO_PADRAO);
+    }
+
+    /**
+     * @param ambiente           O ambiente.
+     * @param perfil             As restrições de movimento dos robôs que usarão o planejador.
+     * @param tamanhoAgrupamento O lado, em células, de cada agrupamento.
+     * @throws IllegalArgumentException Se o tamanho for menor que 2 ou a faixa de altitudes sair do ambiente.
+     */
+    public PlanejadorHierarquico(Ambiente ambiente, PerfilMovimento perfil, int tamanhoAgrupamento) {
+        if (tamanhoAgrupamento < 2) {
+            throw new IllegalArgumentException("O agrupamento deve ter lado de pelo menos 2 células.");
+        }
+        if (perfil.getZMax() >= ambiente.getAltura()) {
+            throw new IllegalArgumentException("Faixa de altitudes do perfil fora do ambiente.");
+        }
+        this.ambiente = ambiente;
+        this.perfil = perfil;
+        this.tamanho = tamanhoAgrupamento;
+        this.largura = ambiente.getLargura();
+        this.profundidade = ambiente.getProfundidade();
+        this.zMin = perfil.getZMin();
+        this.zMax = perfil.getZMax();
+        this.camadas = zMax - zMin + 1;
+        this.colunas = (largura + tamanho - 1) / tamanho;
+        this.linhas = (profundidade + tamanho - 1) / tamanho;
+        int maxEntradas = 4 * ((tamanho + 1) / 2) * camadas;
+        this.bitsLocal = 32 - Integer.numberOfLeadingZeros(maxEntradas);
+        if ((long) colunas * linhas << bitsLocal > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Agrupamentos demais para o ambiente; aumente o tamanho do agrupamento.");
+        }
+        this.agrupamentos = new Agrupamento[colunas * linhas];
+        this.distLocal = new int[tamanho * tamanho * camadas];
+        int caixaRefino = 4 * tamanho * tamanho * camadas;
+        this.gRefino = new int[caixaRefino];
+        this.paiRefino = new int[caixaRefino];
+        this.marcaRefino = new int[caixaRefino];
+    }
+
+    public PerfilMovimento getPerfil() { return perfil; }
+    public int getTamanhoAgrupamento() { return tamanho; }
+    /** Número de nós abstratos expandidos na última consulta. */
+    public int getNosExpandidos() { return nosExpandidos; }
+
+    // --- Índices ---
+
+    private int celula(int x, int y, int z) {
+        return x + largura * (y + profundidade * z);
+    }
+
+    private int agrupamentoDe(int x, int y) {
+        return (x / tamanho) + (y / tamanho) * colunas;
+    }
+
+    private int agrupamentoDaCelula(int c) {
+        int resto = c % (largura * profundidade);
+        return agrupamentoDe(resto % largura, resto / largura);
+    }
+
+    private boolean livre(int x, int y, int z) {
+        return ambiente.getTipoEm(x, y, z) != TipoEntidade.OBSTACULO;
+    }
+
+    /** Marca como sujos os agrupamentos tocados pela caixa e seus vizinhos (que compartilham as bordas). */
+    @Override
+    public void celulasAlteradas(int x1, int y1, int z1, int x2, int y2, int z2, boolean bloqueadas) {
+        if (z2 < zMin || z1 > zMax) return;
+        int ax0 = Math.max(0, Math.max(0, x1) / tamanho - 1), ax1 = Math.min(colunas - 1, Math.min(largura - 1, x2) / tamanho + 1);
+        int ay0 = Math.max(0, Math.max(0, y1) / tamanho - 1), ay1 = Math.min(linhas - 1, Math.min(profundidade - 1, y2) / tamanho + 1);
+        for (int ay = ay0; ay <= ay1; ay++) {
+            for (int ax = ax0; ax <= ax1; ax++) {
+                Agrupamento a = agrupamentos[ax + ay * colunas];
+                if (a != null) a.sujo = true;
+            }
+        }
+    }
+
+    /** Retorna o agrupamento, (re)construindo-o se necessário. */
+    private Agrupamento agrupamento(int k) {
+        Agrupamento a = agrupamentos[k];
+        if (a == null) {
+            a = new Agrupamento();
+            agrupamentos[k] = a;
+        }
+        if (a.sujo) {
+            construir(k, a);
+        }
+        return a;
+    }
+
+    // --- Construção de um agrupamento ---
+
+    private void construir(int k, Agrupamento a) {
+        int ax = k % colunas, ay = k / colunas;
+        int x0 = ax * tamanho, y0 = ay * tamanho;
+        int x1 = Math.min(largura, x0 + tamanho) - 1, y1 = Math.min(profundidade, y0 + tamanho) - 1;
+        a.numEntradas = 0;
+        // Bordas oeste, leste, sul e norte: a célula de dentro e a de fora de cada par
+        if (x0 > 0) detectarEntradas(a, x0, y0, 0, 1, y1 - y0 + 1, -1, 0);
+        if (x1 < largura - 1) detectarEntradas(a, x1, y0, 0, 1, y1 - y0 + 1, 1, 0);
+        if (y0 > 0) detectarEntradas(a, x0, y0, 1, 0, x1 - x0 + 1, 0, -1);
+        if (y1 < profundidade - 1) detectarEntradas(a, x0, y1, 1, 0, x1 - x0 + 1, 0, 1);
+
+        int n = a.numEntradas;
+        if (a.custos.length < n * n) a.custos = new int[n * n];
+        if (a.marca.length < n) {
+            a.marca = new int[n];
+            a.g = new int[n];
+            a.pai = new int[n];
+            a.fechado = new boolean[n];
+        } else {
+            Arrays.fill(a.marca, 0); // Invalida o estado de buscas anteriores
+        }
+        for (int i = 0; i < n; i++) {
+            buscaLocal(x0, y0, x1, y1, a.celulas[i]);
+            for (int j = 0; j < n; j++) {
+                a.custos[i * n + j] = distLocal[indiceLocal(x0, y0, x1, a.celulas[j])];
+            }
+        }
+        a.sujo = false;
+    }
+
+    /**
+     * Percorre uma borda a partir de (x, y), andando (px, py) a cada passo por 'comprimento'
+     * células; (ox, oy) aponta para o agrupamento vizinho. Cada trecho contínuo de pares
+     * livres em uma camada vira uma entrada no seu ponto médio.
+     */
+    private void detectarEntradas(Agrupamento a, int x, int y, int px, int py, int comprimento, int ox, int oy) {
+        for (int z = zMin; z <= zMax; z++) {
+            int inicio = -1;
+            for (int i = 0; i <= comprimento; i++) {
+                boolean par = i < comprimento
+                    && livre(x + px * i, y + py * i, z) && livre(x + px * i + ox, y + py * i + oy, z);
+                if (par && inicio < 0) {
+                    inicio = i;
+                } else if (!par && inicio >= 0) {
+                    int meio = (inicio + i - 1) / 2;
+                    int cx = x + px * meio, cy = y + py * meio;
+                    adicionarEntrada(a, celula(cx, cy, z), celula(cx + ox, cy + oy, z));
+                    inicio = -1;
+                }
+            }
+        }
+    }
+
+    private void adicionarEntrada(Agrupamento a, int celula, int parceira) {
+        int n = a.numEntradas;
+        if (a.celulas.length == n) {
+            a.celulas = Arrays.copyOf(a.celulas, Math.max(8, n * 2));
+            a.parceiras = Arrays.copyOf(a.parceiras, Math.max(8, n * 2));
+        }
+        a.celulas[n] = celula;
+        a.parceiras[n] = parceira;
+        a.numEntradas = n + 1;
+    }
+
+    private int indiceLocal(int x0, int y0, int x1, int c) {
+        int plano = largura * profundidade;
+        int z = c / plano, resto = c % plano;
+        int x = resto % largura, y = resto / largura;
+        return (x - x0) + (x1 - x0 + 1) * ((y - y0) + tamanho * (z - zMin));
+    }
+
+    /**
+     * Dijkstra a partir da célula de origem, restrito à caixa do agrupamento e à faixa de
+     * altitudes, com os mesmos custos do {@link PlanejadorAEstrela}. Preenche {@link #distLocal}.
+     */
+    private void buscaLocal(int x0, int y0, int x1, int y1, int origem) {
+        int bw = x1 - x0 + 1;
+        Arrays.fill(distLocal, INF);
+        int plano = largura * profundidade;
+        int lo = indiceLocal(x0, y0, x1, origem);
+        distLocal[lo] = 0;
+        int tamanhoHeap = 0;
+        heapLocal[tamanhoHeap++] = lo; // custo 0 nos bits altos
+        boolean diagonais = perfil.permiteDiagonais();
+        while (tamanhoHeap > 0) {
+            long topo = heapLocal[0];
+            tamanhoHeap = removerTopo(heapLocal, tamanhoHeap);
+            int d = (int) (topo >>> 32), l = (int) topo;
+            if (d > distLocal[l]) continue; // Entrada obsoleta
+            int lx = l % bw, resto = l / bw;
+            int ly = resto % tamanho, lz = resto / tamanho;
+            int x = x0 + lx, y = y0 + ly, z = zMin + lz;
+            for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+                int eixos = Vizinhanca.EIXOS[v];
+                if (!diagonais && eixos != 1) continue;
+                int nx = x + Vizinhanca.DX[v], ny = y + Vizinhanca.DY[v], nz = z + Vizinhanca.DZ[v];
+                if (nx < x0 || nx > x1 || ny < y0 || ny > y1 || nz < zMin || nz > zMax || !livre(nx, ny, nz)) continue;
+                int nl = (nx - x0) + bw * ((ny - y0) + tamanho * (nz - zMin));
+                int nd = d + (eixos == 1 ? PlanejadorAEstrela.CUSTO_RETO : eixos == 2 ? PlanejadorAEstrela.CUSTO_DIAGONAL : PlanejadorAEstrela.CUSTO_DIAGONAL_3D);
+                if (nd >= distLocal[nl]) continue;
+                distLocal[nl] = nd;
+                if (tamanhoHeap == heapLocal.length) heapLocal = Arrays.copyOf(heapLocal, tamanhoHeap * 2);
+                tamanhoHeap = inserir(heapLocal, tamanhoHeap, ((long) nd << 32) | nl);
+            }
+        }
+    }
+
+    // --- Consulta ---
+
+    /**
+     * Planeja a rota abstrata entre duas células: a sequência de entradas de agrupamento a
+     * atravessar, terminando no destino. Os trechos entre os pontos devem ser refinados com
+     * {@link #refinarProximoTrecho(int, int, int, Caminho, Caminho)}.
+     *
+     * @param ox     Coordenada X de origem.
+     * @param oy     Coordenada Y de origem.
+     * @param oz     Coordenada Z de origem.
+     * @param dx     Coordenada X de destino.
+     * @param dy     Coordenada Y de destino.
+     * @param dz     Coordenada Z de destino.
+     * @param pontos O buffer que receberá os pontos intermediários e o destino.
+     * @return true se existe uma rota; false caso contrário (o buffer fica vazio).
+     */
+    public boolean planejarPontos(int ox, int oy, int oz, int dx, int dy, int dz, Caminho pontos) {
+        pontos.limpar();
+        nosExpandidos = 0;
+        if (!ambiente.dentroDosLimites(ox, oy, oz) || !ambiente.dentroDosLimites(dx, dy, dz)
+                || !perfil.permiteAltitude(oz) || !perfil.permiteAltitude(dz) || !livre(dx, dy, dz)) {
+            return false;
+        }
+        if (ox == dx && oy == dy && oz == dz) {
+            return true;
+        }
+        if (++marcaAtual == Integer.MAX_VALUE) {
+            for (Agrupamento a : agrupamentos) {
+                if (a != null) Arrays.fill(a.marca, 0);
+            }
+            marcaAtual = 1;
+        }
+
+        // Liga a origem e o destino às entradas dos seus agrupamentos
+        agrupamentoOrigem = agrupamentoDe(ox, oy);
+        agrupamentoDestino = agrupamentoDe(dx, dy);
+        Agrupamento aOrigem = agrupamento(agrupamentoOrigem);
+        Agrupamento aDestino = agrupamento(agrupamentoDestino);
+        int origem = celula(ox, oy, oz), destino = celula(dx, dy, dz);
+        custoOrigem = custosAteEntradas(agrupamentoOrigem, aOrigem, origem, custoOrigem);
+        custoOrigemDestino = INF;
+        if (agrupamentoOrigem == agrupamentoDestino) {
+            int ax = agrupamentoOrigem % colunas * tamanho, ay = agrupamentoOrigem / colunas * tamanho;
+            custoOrigemDestino = distLocal[indiceLocal(ax, ay, Math.min(largura, ax + tamanho) - 1, destino)];
+        }
+        custoDestino = custosAteEntradas(agrupamentoDestino, aDestino, destino, custoDestino);
+
+        // A* no grafo abstrato
+        gDestino = INF;
+        paiDestino = 0;
+        int tamanhoHeap = 0;
+        if (custoOrigemDestino != INF) {
+            gDestino = custoOrigemDestino;
+            paiDestino = NO_ORIGEM;
+            tamanhoHeap = empilhar(tamanhoHeap, gDestino, NO_DESTINO);
+        }
+        for (int i = 0; i < aOrigem.numEntradas; i++) {
+            if (custoOrigem[i] != INF) {
+                tamanhoHeap = relaxar(tamanhoHeap, agrupamentoOrigem, i, custoOrigem[i], NO_ORIGEM, dx, dy, dz);
+            }
+        }
+        while (tamanhoHeap > 0) {
+            long topo = heapAbstrato[0];
+            tamanhoHeap = removerTopo(heapAbstrato, tamanhoHeap);
+            int no = (int) topo;
+            if (no == NO_DESTINO) {
+                reconstruir(pontos, dx, dy, dz);
+                return true;
+            }
+            int k = no >>> bitsLocal, i = no & ((1 << bitsLocal) - 1);
+            Agrupamento a = agrupamentos[k];
+            if (a.fechado[i]) continue;
+            a.fechado[i] = true;
+            nosExpandidos++;
+            int g = a.g[i], n = a.numEntradas;
+            // Arestas internas
+            for (int j = 0; j < n; j++) {
+                int custo = a.custos[i * n + j];
+                if (j != i && custo != INF) {
+                    tamanhoHeap = relaxar(tamanhoHeap, k, j, g + custo, no, dx, dy, dz);
+                }
+            }
+            // Aresta para o agrupamento vizinho
+            int kv = agrupamentoDaCelula(a.parceiras[i]);
+            Agrupamento av = agrupamento(kv);
+            for (int j = 0; j < av.numEntradas; j++) {
+                if (av.celulas[j] == a.parceiras[i]) {
+                    tamanhoHeap = relaxar(tamanhoHeap, kv, j, g + PlanejadorAEstrela.CUSTO_RETO, no, dx, dy, dz);
+                    break;
+                }
+            }
+            // Aresta para o destino
+            if (k == agrupamentoDestino && custoDestino[i] != INF && g + custoDestino[i] < gDestino) {
+                gDestino = g + custoDestino[i];
+                paiDestino = no;
+                tamanhoHeap = empilhar(tamanhoHeap, gDestino, NO_DESTINO);
+            }
+        }
+        return false;
+    }
+
+    /** Distâncias internas de uma célula qualquer do agrupamento até cada uma de suas entradas. */
+    private int[] custosAteEntradas(int k, Agrupamento a, int c, int[] saida) {
+        int ax = k % colunas * tamanho, ay = k / colunas * tamanho;
+        int x1 = Math.min(largura, ax + tamanho) - 1, y1 = Math.min(profundidade, ay + tamanho) - 1;
+        buscaLocal(ax, ay, x1, y1, c);
+        if (saida.length < a.numEntradas) saida = new int[a.numEntradas];
+        for (int i = 0; i < a.numEntradas; i++) {
+            saida[i] = distLocal[indiceLocal(ax, ay, x1, a.celulas[i])];
+        }
+        return saida;
+    }
+
+    private int relaxar(int tamanhoHeap, int k, int i, int g, int pai, int dx, int dy, int dz) {
+        Agrupamento a = agrupamentos[k];
+        if (a.marca[i] != marcaAtual) {
+            a.marca[i] = marcaAtual;
+            a.g[i] = INF;
+            a.fechado[i] = false;
+        }
+        if (a.fechado[i] || g >= a.g[i]) return tamanhoHeap;
+        a.g[i] = g;
+        a.pai[i] = pai;
+        int c = a.celulas[i], plano = largura * profundidade;
+        int z = c / plano, resto = c % plano;
+        int h = PlanejadorAEstrela.heuristica(resto % largura, resto / largura, z, dx, dy, dz, perfil.permiteDiagonais());
+        return empilhar(tamanhoHeap, g + h, (k << bitsLocal) | i);
+    }
+
+    private int empilhar(int tamanhoHeap, int prioridade, int no) {
+        if (tamanhoHeap == heapAbstrato.length) heapAbstrato = Arrays.copyOf(heapAbstrato, tamanhoHeap * 2);
+        return inserir(heapAbstrato, tamanhoHeap, ((long) prioridade << 32) | (no & 0xFFFFFFFFL));
+    }
+
+    private void reconstruir(Caminho pontos, int dx, int dy, int dz) {
+        int n = 1;
+        for (int no = paiDestino; no != NO_ORIGEM; no = agrupamentos[no >>> bitsLocal].pai[no & ((1 << bitsLocal) - 1)]) n++;
+        pontos.preparar(n);
+        pontos.definir(n - 1, dx, dy, dz);
+        int i = n - 2, plano = largura * profundidade;
+        for (int no = paiDestino; no != NO_ORIGEM; ) {
+            Agrupamento a = agrupamentos[no >>> bitsLocal];
+            int local = no & ((1 << bitsLocal) - 1);
+            int c = a.celulas[local], resto = c % plano;
+            pontos.definir(i--, resto % largura, resto / largura, c / plano);
+            no = a.pai[local];
+        }
+    }
+
+    /**
+     * Refina o próximo trecho de uma rota abstrata: descarta os pontos já alcançados e
+     * planeja o caminho da posição atual até o próximo ponto, com um A* restrito à caixa
+     * dos agrupamentos do robô e do ponto. O trecho desvia dos robôs quando pode; se robôs
+     * fecham a passagem, ou estão sobre o próprio ponto, o trecho passa por eles e cabe a
+     * quem o segue esperar ou tentar de novo, como com um ponto ocupado no {@link PlanejadorAEstrela}.
+     *
+     * @param x      Coordenada X atual do robô.
+     * @param y      Coordenada Y atual do robô.
+     * @param z      Coordenada Z atual do robô.
+     * @param pontos A rota abstrata produzida por {@link #planejarPontos}.
+     * @param trecho O buffer que receberá o caminho detalhado do trecho.
+     * @return true se o trecho foi planejado; false se a rota acabou, se o robô está longe
+     * demais do próximo ponto (fora dos agrupamentos vizinhos) ou se um obstáculo novo o
+     * separou do ponto; nos dois últimos casos a rota deve ser planejada de novo.
+     */
+    public boolean refinarProximoTrecho(int x, int y, int z, Caminho pontos, Caminho trecho) {
+        while (!pontos.concluido() && pontos.proximoX() == x && pontos.proximoY() == y && pontos.proximoZ() == z) {
+            pontos.avancar();
+        }
+        trecho.limpar();
+        if (pontos.concluido()) {
+            return false;
+        }
+        int px = pontos.proximoX(), py = pontos.proximoY(), pz = pontos.proximoZ();
+        if (!ambiente.dentroDosLimites(x, y, z) || !perfil.permiteAltitude(z) || !livre(px, py, pz)) {
+            return false;
+        }
+        int ax0 = Math.min(x, px) / tamanho, ax1 = Math.max(x, px) / tamanho;
+        int ay0 = Math.min(y, py) / tamanho, ay1 = Math.max(y, py) / tamanho;
+        if (ax1 - ax0 > 1 || ay1 - ay0 > 1) {
+            return false;
+        }
+        int bx0 = ax0 * tamanho, by0 = ay0 * tamanho;
+        int bx1 = Math.min(largura, (ax1 + 1) * tamanho) - 1, by1 = Math.min(profundidade, (ay1 + 1) * tamanho) - 1;
+        boolean ok = refinar(bx0, by0, bx1, by1, x, y, z, px, py, pz, true, trecho)
+            || refinar(bx0, by0, bx1, by1, x, y, z, px, py, pz, false, trecho);
+        if (ok) {
+            pontos.avancar();
+        }
+        return ok;
+    }
+
+    /**
+     * A* da origem ao destino restrito à caixa (bx0, by0)-(bx1, by1) e à faixa de altitudes
+     * do perfil, com os custos do {@link PlanejadorAEstrela}. Obstáculos sempre bloqueiam;
+     * com evitarRobos, as células ocupadas por robôs também, exceto a de destino.
+     */
+    private boolean refinar(int bx0, int by0, int bx1, int by1, int ox, int oy, int oz, int dx, int dy, int dz,
+                            boolean evitarRobos, Caminho trecho) {
+        if (++marcaRefinoAtual == Integer.MAX_VALUE) {
+            Arrays.fill(marcaRefino, 0);
+            marcaRefinoAtual = 1;
+        }
+        int bw = bx1 - bx0 + 1, bh = by1 - by0 + 1;
+        int origem = (ox - bx0) + bw * ((oy - by0) + bh * (oz - zMin));
+        int destino = (dx - bx0) + bw * ((dy - by0) + bh * (dz - zMin));
+        boolean diagonais = perfil.permiteDiagonais();
+        marcaRefino[origem] = marcaRefinoAtual;
+        gRefino[origem] = 0;
+        paiRefino[origem] = -1;
+        int tamanhoHeap = 0;
+        heapRefino[tamanhoHeap++] = ((long) PlanejadorAEstrela.heuristica(ox, oy, oz, dx, dy, dz, diagonais) << 32) | origem;
+        while (tamanhoHeap > 0) {
+            long topo = heapRefino[0];
+            tamanhoHeap = removerTopo(heapRefino, tamanhoHeap);
+            int l = (int) topo;
+            int lx = l % bw, resto = l / bw;
+            int ly = resto % bh, lz = resto / bh;
+            int x = bx0 + lx, y = by0 + ly, z = zMin + lz;
+            int g = gRefino[l];
+            if ((int) (topo >>> 32) > g + PlanejadorAEstrela.heuristica(x, y, z, dx, dy, dz, diagonais)) continue; // Entrada obsoleta
+            if (l == destino) {
+                reconstruirTrecho(origem, destino, bx0, by0, bw, bh, trecho);
+                return true;
+            }
+            for (int v = 0; v < Vizinhanca.TOTAL; v++) {
+                int eixos = Vizinhanca.EIXOS[v];
+                if (!diagonais && eixos != 1) continue;
+                int nx = x + Vizinhanca.DX[v], ny = y + Vizinhanca.DY[v], nz = z + Vizinhanca.DZ[v];
+                if (nx < bx0 || nx > bx1 || ny < by0 || ny > by1 || nz < zMin || nz > zMax) continue;
+                int nl = (nx - bx0) + bw * ((ny - by0) + bh * (nz - zMin));
+                TipoEntidade tipo = ambiente.getTipoEm(nx, ny, nz);
+                if (tipo == TipoEntidade.OBSTACULO || evitarRobos && tipo != TipoEntidade.VAZIO && nl != destino) continue;
+                int ng = g + PlanejadorAEstrela.VIZ_CUSTO[v];
+                if (marcaRefino[nl] == marcaRefinoAtual && ng >= gRefino[nl]) continue;
+                marcaRefino[nl] = marcaRefinoAtual;
+                gRefino[nl] = ng;
+                paiRefino[nl] = l;
+                if (tamanhoHeap == heapRefino.length) heapRefino = Arrays.copyOf(heapRefino, tamanhoHeap * 2);
+                int f = ng + PlanejadorAEstrela.heuristica(nx, ny, nz, dx, dy, dz, diagonais);
+                tamanhoHeap = inserir(heapRefino, tamanhoHeap, ((long) f << 32) | nl);
+            }
+        }
+        return false;
+    }
+
+    private void reconstruirTrecho(int origem, int destino, int bx0, int by0, int bw, int bh, Caminho trecho) {
+        int n = 0;
+        for (int l = destino; l != origem; l = paiRefino[l]) n++;
+        trecho.preparar(n);
+        int i = n - 1;
+        for (int l = destino; l != origem; l = paiRefino[l]) {
+            int resto = l / bw;
+            trecho.definir(i--, bx0 + l % bw, by0 + resto % bh, zMin + resto / bh);
+        }
+    }
+
+    /**
+     * Planeja e refina a rota inteira de uma só vez.
+     * @return true se um caminho foi encontrado.
+     */
+    public boolean planejar(int ox, int oy, int oz, int dx, int dy, int dz, Caminho caminho) {
+        Caminho pontos = new Caminho();
+        if (!planejarPontos(ox, oy, oz, dx, dy, dz, pontos)) {
+            caminho.limpar();
+            return false;
+        }
+        Caminho trecho = new Caminho();
+        caminho.limpar();
+        int x = ox, y = oy, z = oz;
+        while (!pontos.concluido()) {
+            if (!refinarProximoTrecho(x, y, z, pontos, trecho)) {
+                if (pontos.concluido()) break;
+                caminho.limpar();
+                return false;
+            }
+            for (int i = 0; i < trecho.getTamanho(); i++) {
+                caminho.adicionar(trecho.getX(i), trecho.getY(i), trecho.getZ(i));
+            }
+            if (trecho.getTamanho() > 0) {
+                x = trecho.getX(trecho.getTamanho() - 1);
+                y = trecho.getY(trecho.getTamanho() - 1);
+                z = trecho.getZ(trecho.getTamanho() - 1);
+            }
+        }
+        return true;
+    }
+
+    // --- Heap binário de longs (prioridade nos 32 bits altos) ---
+
+    private static int inserir(long[] heap, int tamanho, long valor) {
+        int pos = tamanho;
+        while (pos > 0) {
+            int pai = (pos - 1) >>> 1;
+            if (heap[pai] <= valor) break;
+            heap[pos] = heap[pai];
+            pos = pai;
+        }
+        heap[pos] = valor;
+        return tamanho + 1;
+    }
+
+    private static int removerTopo(long[] heap, int tamanho) {
+        long ultimo = heap[--tamanho];
+        int pos = 0;
+        while (true) {
+            int filho = 2 * pos + 1;
+            if (filho >= tamanho) break;
+            if (filho + 1 < tamanho && heap[filho + 1] < heap[filho]) filho++;
+            if (heap[filho] >= ultimo) break;
+            heap[pos] = heap[filho];
+            pos = filho;
+        }
+        if (tamanho > 0) heap[pos] = ultimo;
+        return tamanho;
+    }
+}
@@ -0,0 +1,87 @@
+package navegacao;
+// TabelaCelulas.java
+
+import java.util.Arrays;
+
+/**
+ * Associa índices de células da grade a nós numerados 0, 1, 2... na ordem em que são
+ * inseridos, com endereçamento aberto (sondagem linear), como a tabela de estados do
+ * {@link PlanejadorCooperativo}. Os planejadores guardam o estado da busca em arrays
+ * indexados pelo nó, de modo que a memória usada é proporcional às células tocadas pela
+ * busca e não ao tamanho do mapa. Limpar a tabela custa o número de nós inseridos.
+ */
+class TabelaCelulas {
+    private int[] chaves = new int[1024];   // Célula em cada posição, ou -1 se livre
+    private int[] nosPosicao = new int[1024];
+    private int[] celulas = new int[256];   // Célula de cada nó
+    private int[] posicoes = new int[256];  // Posição de cada nó em chaves
+    private int tamanho;
+
+    TabelaCelulas() {
+        Arrays.fill(chaves, -1);
+    }
+
+    /** Número de nós na tabela. */
+    int getTamanho() {
+        return tamanho;
+    }
+
+    /** A célula do nó dado. */
+    int getCelula(int no) {
+        return celulas[no];
+    }
+
+    /** O nó da célula, ou -1 se ela não está na tabela. */
+    int buscar(int celula) {
+        int mascara = chaves.length - 1;
+        for (int p = posicao(celula); chaves[p] != -1; p = (p + 1) & mascara) {
+            if (chaves[p] == celula) return nosPosicao[p];
+        }
+        return -1;
+    }
+
+    /** Insere uma célula que ainda não está na tabela e devolve o seu nó (igual ao tamanho anterior). */
+    int inserir(int celula) {
+        if (tamanho == celulas.length) {
+            celulas = Arrays.copyOf(celulas, tamanho * 2);
+            posicoes = Arrays.copyOf(posicoes, tamanho * 2);
+        }
+        if ((tamanho + 1) * 2 > chaves.length) {
+            crescer();
+        }
+        int no = tamanho++;
+        celulas[no] = celula;
+        colocar(celula, no);
+        return no;
+    }
+
+    /** Remove todos os nós. */
+    void limpar() {
+        for (int i = 0; i < tamanho; i++) {
+            chaves[posicoes[i]] = -1;
+        }
+        tamanho = 0;
+    }
+
+    private int posicao(int celula) {
+        return (int) ((celula * 0x9E3779B97F4A7C15L) >>> 32) & (chaves.length - 1);
+    }
+
+    private void colocar(int celula, int no) {
+        int mascara = chaves.length - 1;
+        int p = posicao(celula);
+        while (chaves[p] != -1) p = (p + 1) & mascara;
+        chaves[p] = celula;
+        nosPosicao[p] = no;
+        posicoes[no] = p;
+    }
+
+    private void crescer() {
+        chaves = new int[chaves.length * 2];
+        nosPosicao = new int[chaves.length];
+        Arrays.fill(chaves, -1);
+        for (int no = 0; no < tamanho; no++) {
+            colocar(celulas[no], no);
+        }
+    }
+}
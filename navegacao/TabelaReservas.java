@@ -0,0 +1,160 @@
+package navegacao;
+// TabelaReservas.java
+
+import java.util.Arrays;
+
+/**
+ * Tabela de reservas espaço-temporais: quem vai ocupar cada célula em cada tick.
+ * Planejadores cooperativos reservam aqui as células do seu caminho para que os demais
+ * agentes as evitem. As reservas ficam em uma tabela de endereçamento aberto (sondagem
+ * linear) com chaves primitivas (tick * número de células + célula); reservas de ticks
+ * que já passaram são descartadas quando a tabela precisa de espaço.
+ * Uma instância não deve ser usada por várias threads ao mesmo tempo.
+ */
+public class TabelaReservas {
+    private static final long VAZIA = -1L;
+
+    private final long numCelulas;
+    private long[] chaves;
+    private Object[] donos;
+    private int quantidade;
+    private long tickAtual;
+
+    /**
+     * @param numCelulas Número de células do ambiente (largura * profundidade * altura).
+     */
+    public TabelaReservas(long numCelulas) {
+        this.numCelulas = numCelulas;
+        this.chaves = new long[256];
+        this.donos = new Object[256];
+        Arrays.fill(chaves, VAZIA);
+    }
+
+    /**
+     * Informa o tick corrente; reservas anteriores a ele passam a ser descartáveis.
+     * @param tick O tick atual da simulação.
+     */
+    public void avancarPara(long tick) {
+        this.tickAtual = tick;
+    }
+
+    private long chave(long tick, int celula) {
+        return tick * numCelulas + celula;
+    }
+
+    private int posicaoInicial(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (chaves.length - 1);
+    }
+
+    /**
+     * Reserva uma célula em um tick.
+     *
+     * @param tick   O tick da reserva.
+     * @param celula O índice da célula.
+     * @param dono   Quem reserva.
+     * @return true se a reserva foi feita (ou já pertencia ao mesmo dono); false se outro dono já a tem.
+     */
+    public boolean reservar(long tick, int celula, Object dono) {
+        if (quantidade + 1 > chaves.length * 3 / 4) {
+            reconstruir();
+        }
+        long k = chave(tick, celula);
+        int mascara = chaves.length - 1;
+        for (int p = posicaoInicial(k); ; p = (p + 1) & mascara) {
+            if (chaves[p] == VAZIA) {
+                chaves[p] = k;
+                donos[p] = dono;
+                quantidade++;
+                return true;
+            }
+            if (chaves[p] == k) {
+                return donos[p] == dono;
+            }
+        }
+    }
+
+    /**
+     * Retorna quem reservou a célula no tick dado.
+     * @return O dono da reserva, ou null se a célula está livre.
+     */
+    public Object donoEm(long tick, int celula) {
+        long k = chave(tick, celula);
+        int mascara = chaves.length - 1;
+        for (int p = posicaoInicial(k); chaves[p] != VAZIA; p = (p + 1) & mascara) {
+            if (chaves[p] == k) return donos[p];
+        }
+        return null;
+    }
+
+    /**
+     * Verifica se a célula está livre no tick dado para o agente informado
+     * (livre ou reservada por ele mesmo).
+     */
+    public boolean livrePara(long tick, int celula, Object dono) {
+        Object d = donoEm(tick, celula);
+        return d == null || d == dono;
+    }
+
+    /**
+     * Cancela a reserva de uma célula em um tick, se ela pertencer ao dono informado.
+     * Usa remoção com deslocamento para trás, sem deixar marcas de remoção.
+     */
+    public void liberar(long tick, int celula, Object dono) {
+        long k = chave(tick, celula);
+        int mascara = chaves.length - 1;
+        int p = posicaoInicial(k);
+        while (chaves[p] != k) {
+            if (chaves[p] == VAZIA) return;
+            p = (p + 1) & mascara;
+        }
+        if (donos[p] != dono) return;
+        // Desloca para trás as entradas seguintes do mesmo agrupamento de sondagem
+        int vazio = p;
+        for (int q = (p + 1) & mascara; chaves[q] != VAZIA; q = (q + 1) & mascara) {
+            int ideal = posicaoInicial(chaves[q]);
+            // A entrada em q pode ocupar a vaga se sua posição ideal não estiver entre vazio (exclusivo) e q
+            boolean podeMover = vazio <= q ? (ideal <= vazio || ideal > q) : (ideal <= vazio && ideal > q);
+            if (podeMover) {
+                chaves[vazio] = chaves[q];
+                donos[vazio] = donos[q];
+                vazio = q;
+            }
+        }
+        chaves[vazio] = VAZIA;
+        donos[vazio] = null;
+        quantidade--;
+    }
+
+    /** Número de reservas guardadas (inclusive as de ticks passados ainda não descartadas). */
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    /** Descarta as reservas de ticks passados e, se ainda faltar espaço, dobra a capacidade. */
+    private void reconstruir() {
+        long[] antigasChaves = chaves;
+        Object[] antigosDonos = donos;
+        long limite = tickAtual * numCelulas; // Chaves menores pertencem a ticks passados
+        int vivas = 0;
+        for (long k : antigasChaves) {
+            if (k != VAZIA && k >= limite) vivas++;
+        }
+        int capacidade = antigasChaves.length;
+        while (vivas + 1 > capacidade / 2) capacidade *= 2;
+        chaves = new long[capacidade];
+        donos = new Object[capacidade];
+        Arrays.fill(chaves, VAZIA);
+        quantidade = 0;
+        int mascara = capacidade - 1;
+        for (int i = 0; i < antigasChaves.length; i++) {
+            long k = antigasChaves[i];
+            if (k == VAZIA || k < limite) continue;
+            int p = posicaoInicial(k);
+            while (chaves[p] != VAZIA) p = (p + 1) & mascara;
+            chaves[p] = k;
+            donos[p] = antigosDonos[i];
+            quantidade++;
+        }
+    }
+}
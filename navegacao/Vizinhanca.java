@@ -0,0 +1,34 @@
+package navegacao;
+// Vizinhanca.java
+
+/**
+ * Tabelas das 26 direções de vizinhança de uma célula da grade 3D, ordenadas
+ * dos passos retos para os diagonais (assim, em caso de empate, quem percorre
+ * as tabelas em ordem prefere o passo mais curto).
+ */
+final class Vizinhanca {
+    static final int TOTAL = 26;
+    static final int[] DX = new int[TOTAL], DY = new int[TOTAL], DZ = new int[TOTAL];
+    /** Número de eixos alterados pelo passo: 1 (reto), 2 (diagonal no plano) ou 3 (diagonal 3D). */
+    static final int[] EIXOS = new int[TOTAL];
+
+    static {
+        int n = 0;
+        for (int eixos = 1; eixos <= 3; eixos++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if (Math.abs(dx) + Math.abs(dy) + Math.abs(dz) != eixos) continue;
+                        DX[n] = dx;
+                        DY[n] = dy;
+                        DZ[n] = dz;
+                        EIXOS[n++] = eixos;
+                    }
+                }
+            }
+        }
+    }
+
+    private Vizinhanca() {
+    }
+}
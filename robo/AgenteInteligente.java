@@ -1,6 +1,8 @@
 package robo;
 import ambiente.Ambiente;
 import missao.Missao;
+import util.Metricas;
+import util.jfr.EventoPassoMissao;
 
 
 /**
@@ -11,7 +13,7 @@ import missao.Missao;
 public abstract class AgenteInteligente extends Robo {
     protected Missao missao;
 
-    public AgenteInteligente(String id, int x, int y, int z, String direcao) {
+    public AgenteInteligente(String id, int x, int y, int z, Rumo direcao) {
         super(id, x, y, z, direcao);
     }
 
@@ -32,6 +34,35 @@ public abstract class AgenteInteligente extends Robo {
         return missao != null;
     }
 
+    /**
+     * Retorna a missão atual do agente.
+     * @return A missão, ou null se não houver.
+     */
+    public Missao getMissao() {
+        return missao;
+    }
+
+    /**
+     * Executa um passo da missão atual, medindo a sua duração nas {@link Metricas}
+     * (um histograma por tipo de missão) e no evento {@link EventoPassoMissao} do JFR.
+     * Deve haver uma missão atribuída.
+     * @param a O ambiente de execução.
+     */
+    protected void executarPassoDaMissao(Ambiente a) {
+        long inicio = Metricas.inicio();
+        EventoPassoMissao evento = new EventoPassoMissao();
+        evento.begin();
+        Missao executada = missao; // A missão pode ser trocada durante o passo
+        executada.executar(this, a);
+        Metricas.missao(executada.getClass()).registrarDesde(inicio);
+        if (evento.shouldCommit()) {
+            evento.robo = getId();
+            evento.handle = getHandle();
+            evento.missao = executada.getClass();
+            evento.commit();
+        }
+    }
+
     /**
      * Método abstrato que as subclasses devem implementar para
      * invocar a execução da missão. 
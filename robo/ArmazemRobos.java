@@ -0,0 +1,151 @@
+package robo;
+// ArmazemRobos.java
+
+import java.util.Arrays;
+
+/**
+ * Armazém do estado "quente" dos robôs em estrutura de arrays: posição, estado, direção
+ * e tipo de todos os robôs ficam em arrays primitivos paralelos, indexados por um
+ * identificador inteiro (handle). O objeto {@code Robo} é apenas uma visão sobre a sua
+ * linha do armazém, e laços sobre muitos robôs (como a tabela de vizinhança dos sensores)
+ * percorrem memória contígua em vez de seguir ponteiros de objeto em objeto.
+ *
+ * <p>Cada {@link ambiente.Ambiente} tem o seu armazém, cujos handles são os do seu
+ * {@link ambiente.RegistroEntidades}: ao ser adicionado, o robô passa a sua linha para o
+ * handle que o registro lhe deu, e ao ser removido leva-a de volta para um armazém próprio
+ * de uma linha. Handles sem robô (livres ou de outras entidades) ficam marcados com o
+ * estado {@link #LIVRE} e são ignorados pelas consultas em lote. A direção é guardada como
+ * o ordinal do {@link Rumo}.
+ *
+ * <p>O armazém não é sincronizado: só a thread da simulação o altera (ao adicionar, mover
+ * e remover robôs), e a fase paralela de sensores apenas o lê, com o mundo parado.
+ */
+public class ArmazemRobos {
+    /** Tipos de robô guardados no array de tipos. */
+    public static final byte TIPO_OUTRO = 0, TIPO_TERRESTRE = 1, TIPO_AEREO = 2;
+    /** Estado de um handle que não pertence a nenhum robô. */
+    public static final byte LIVRE = -1;
+
+    private static final EstadoRobo[] ESTADOS = EstadoRobo.values();
+
+    private int[] x, y, z;
+    private byte[] estado;  // Ordinal de EstadoRobo, ou LIVRE
+    private byte[] direcao; // Ordinal de Rumo
+    private byte[] tipo;
+    private int limite;     // Handles em [0, limite) já foram ocupados alguma vez
+    private int ocupados;
+
+    /**
+     * @param capacidade O número inicial de handles (o armazém cresce conforme necessário).
+     */
+    public ArmazemRobos(int capacidade) {
+        capacidade = Math.max(1, capacidade);
+        x = new int[capacidade];
+        y = new int[capacidade];
+        z = new int[capacidade];
+        estado = new byte[capacidade];
+        direcao = new byte[capacidade];
+        tipo = new byte[capacidade];
+        Arrays.fill(estado, LIVRE);
+    }
+
+    /**
+     * Ocupa a linha do handle dado com um robô.
+     * @throws IllegalArgumentException Se o handle for negativo ou já estiver ocupado.
+     */
+    public void ocupar(int h, int x, int y, int z, EstadoRobo estado, Rumo direcao, byte tipo) {
+        if (h < 0) {
+            throw new IllegalArgumentException("Handle inválido: " + h);
+        }
+        if (h >= this.x.length) {
+            crescer(Math.max(h + 1, this.x.length * 2));
+        }
+        if (this.estado[h] != LIVRE) {
+            throw new IllegalArgumentException("O handle " + h + " já pertence a um robô.");
+        }
+        this.x[h] = x;
+        this.y[h] = y;
+        this.z[h] = z;
+        this.estado[h] = (byte) estado.ordinal();
+        this.direcao[h] = (byte) direcao.ordinal();
+        this.tipo[h] = tipo;
+        limite = Math.max(limite, h + 1);
+        ocupados++;
+    }
+
+    /** Marca a linha do handle como livre. */
+    public void liberar(int handle) {
+        if (estado[handle] == LIVRE) {
+            return;
+        }
+        estado[handle] = LIVRE;
+        ocupados--;
+    }
+
+    private void crescer(int capacidade) {
+        int antiga = x.length;
+        x = Arrays.copyOf(x, capacidade);
+        y = Arrays.copyOf(y, capacidade);
+        z = Arrays.copyOf(z, capacidade);
+        direcao = Arrays.copyOf(direcao, capacidade);
+        tipo = Arrays.copyOf(tipo, capacidade);
+        estado = Arrays.copyOf(estado, capacidade);
+        Arrays.fill(estado, antiga, capacidade, LIVRE);
+    }
+
+    // --- Acesso por handle ---
+
+    public int getX(int h) { return x[h]; }
+    public int getY(int h) { return y[h]; }
+    public int getZ(int h) { return z[h]; }
+    public EstadoRobo getEstado(int h) { return ESTADOS[estado[h]]; }
+    public Rumo getDirecao(int h) { return Rumo.doOrdinal(direcao[h]); }
+    public byte getTipo(int h) { return tipo[h]; }
+
+    public void setPosicao(int h, int nx, int ny, int nz) {
+        x[h] = nx;
+        y[h] = ny;
+        z[h] = nz;
+    }
+
+    public void setZ(int h, int nz) { z[h] = nz; }
+    public void setEstado(int h, EstadoRobo e) { estado[h] = (byte) e.ordinal(); }
+    public void setDirecao(int h, Rumo d) { direcao[h] = (byte) d.ordinal(); }
+
+    /** Número de robôs no armazém. */
+    public int getOcupados() { return ocupados; }
+
+    // --- Consultas em lote ---
+
+    /** Conta os robôs no estado dado. */
+    public int contarNoEstado(EstadoRobo e) {
+        byte alvo = (byte) e.ordinal();
+        byte[] es = estado;
+        int n = 0;
+        for (int h = 0; h < limite; h++) {
+            n += es[h] == alvo ? 1 : 0;
+        }
+        return n;
+    }
+
+    /**
+     * Copia o handle e a posição de todos os robôs do armazém, em ordem de handle.
+     * Os arrays de destino devem ter pelo menos {@link #getOcupados()} posições.
+     *
+     * @return O número de robôs copiados.
+     */
+    public int coletarPosicoes(int[] handles, int[] xs, int[] ys, int[] zs) {
+        int[] ax = x, ay = y, az = z;
+        byte[] es = estado;
+        int n = 0;
+        for (int h = 0; h < limite; h++) {
+            if (es[h] != LIVRE) {
+                handles[n] = h;
+                xs[n] = ax[h];
+                ys[n] = ay[h];
+                zs[n++] = az[h];
+            }
+        }
+        return n;
+    }
+}
@@ -20,13 +20,15 @@ import sensores.Sensor;
  * Classe abstrata que representa um robô genérico no ambiente.
  * Utiliza composição para delegar responsabilidades de movimento e sensores
  * para módulos especializados. 
+ * A posição, o estado e a direção ficam no {@link ArmazemRobos}; o robô guarda apenas
+ * o armazém e o handle da sua linha e lê e escreve esses campos através deles. Fora de um
+ * ambiente, o robô tem um armazém próprio de uma linha; dentro, usa o do ambiente.
  */
 public abstract class Robo implements Entidade {
     private final String id;
-    protected int x, y, z;
+    protected ArmazemRobos armazem;
+    protected int handle;
     private TipoEntidade tipoEntidade;
-    private EstadoRobo estado;
-    private String direcao;
     private List<Sensor> sensores;
 
     // --- MÓDULOS DE COMPOSIÇÃO ---
@@ -38,14 +40,13 @@ public abstract class Robo implements Entidade {
      * Construtor para um robô.
      * As subclasses serão responsáveis por instanciar os módulos corretos.
      */
-    public Robo(String id, int x, int y, int z, String direcao) {
+    public Robo(String id, int x, int y, int z, Rumo direcao) {
         this.id = id;
-        this.x = x;
-        this.y = y;
-        this.z = z;
+        this.armazem = new ArmazemRobos(1);
+        byte tipo = this instanceof RoboAereo ? ArmazemRobos.TIPO_AEREO
+                  : this instanceof RoboTerrestre ? ArmazemRobos.TIPO_TERRESTRE : ArmazemRobos.TIPO_OUTRO;
+        armazem.ocupar(0, x, y, z, EstadoRobo.DESLIGADO, direcao, tipo);
         this.tipoEntidade = TipoEntidade.ROBO;
-        this.estado = EstadoRobo.DESLIGADO;
-        this.direcao = direcao;
         this.sensores = new ArrayList<>();
         
         // Inicializa o gerenciador de sensores. O módulo de movimento
@@ -70,30 +71,30 @@ public abstract class Robo implements Entidade {
      * Este método calcula o delta e reutiliza o moverRelativamente.
      */
     public void moverPara(Ambiente ambiente, int novoX, int novoY, int novoZ) throws ColisaoException, ForaDosLimitesException, RoboDesligadoException, AcaoNaoPermitidaException {
-        if (this.estado == EstadoRobo.DESLIGADO) {
+        if (getEstado() == EstadoRobo.DESLIGADO) {
             throw new RoboDesligadoException("Robô " + id + " está desligado. Não pode mover.");
         }
-        int dx = novoX - this.x;
-        int dy = novoY - this.y;
-        int dz = novoZ - this.z;
+        int dx = novoX - getX();
+        int dy = novoY - getY();
+        int dz = novoZ - getZ();
         this.moverRelativamente(ambiente, dx, dy, dz);
     }
 
     // --- MÉTODOS E GETTERS/SETTERS PADRÃO ---
 
     @Override
-    public int getX() { return x; }
+    public int getX() { return armazem.getX(handle); }
     @Override
-    public int getY() { return y; }
+    public int getY() { return armazem.getY(handle); }
     @Override
-    public int getZ() { return z; }
+    public int getZ() { return armazem.getZ(handle); }
     @Override
     public TipoEntidade getTipo() { return tipoEntidade; }
 
     @Override
     public String getDescricao() {
         return "Robo ID: " + id + ", Tipo: " + getClass().getSimpleName() + 
-               ", Pos: (" + x + "," + y + "," + z + "), Estado: " + estado + ", Dir: " + direcao;
+               ", Pos: (" + getX() + "," + getY() + "," + getZ() + "), Estado: " + getEstado() + ", Dir: " + getDirecao();
     }
 
     @Override
@@ -106,27 +107,45 @@ public abstract class Robo implements Entidade {
     }
 
     public void ligar() {
-        this.estado = EstadoRobo.LIGADO;
+        armazem.setEstado(handle, EstadoRobo.LIGADO);
         System.out.println("Robô " + id + " ligado.");
     }
 
     public void desligar() {
-        this.estado = EstadoRobo.DESLIGADO;
+        armazem.setEstado(handle, EstadoRobo.DESLIGADO);
         System.out.println("Robô " + id + " desligado.");
     }
 
     public void atualizarPosicao(int novoX, int novoY, int novoZ) {
-        this.x = novoX;
-        this.y = novoY;
-        this.z = novoZ;
+        armazem.setPosicao(handle, novoX, novoY, novoZ);
     }
 
     public abstract void executarTarefa(Ambiente ambiente) throws RoboDesligadoException, AcaoNaoPermitidaException, ColisaoException, ForaDosLimitesException, RecursoInsuficienteException, ErroComunicacaoException;
 
     public String getId() { return id; }
-    public EstadoRobo getEstado() { return estado; }
-    public String getDirecao() { return direcao; }
-    public void setDirecao(String direcao) { this.direcao = direcao; }
+    public EstadoRobo getEstado() { return armazem.getEstado(handle); }
+    public Rumo getDirecao() { return armazem.getDirecao(handle); }
+    public void setDirecao(Rumo direcao) { armazem.setDirecao(handle, direcao); }
+
+    /** O handle do robô: o do registro do ambiente onde ele está, ou 0 fora de um ambiente. */
+    @Override
+    public int getHandle() { return handle; }
+
+    /**
+     * Passa a linha do robô para outro armazém, no handle dado, liberando a linha atual.
+     * Chamado pelo {@link ambiente.RegistroEntidades} ao registrar o robô (com o handle que
+     * lhe deu) e ao removê-lo.
+     *
+     * @param destino     O armazém que passa a guardar o estado do robô.
+     * @param novoHandle  O handle do robô no armazém de destino.
+     * @throws IllegalArgumentException Se o handle de destino já pertencer a outro robô.
+     */
+    public void transferirPara(ArmazemRobos destino, int novoHandle) {
+        destino.ocupar(novoHandle, getX(), getY(), getZ(), getEstado(), getDirecao(), armazem.getTipo(handle));
+        armazem.liberar(handle);
+        armazem = destino;
+        handle = novoHandle;
+    }
 
     public List<Sensor> getSensores() { return sensores; }
     public void adicionarSensor(Sensor s) { this.sensores.add(s); }
@@ -1,7 +1,6 @@
 package robo;
 
 import ambiente.*;
-import sensores.Sensor;
 import sensores.Sensoreavel;
 
 /**
@@ -14,7 +13,7 @@ public class RoboAereo extends AgenteInteligente implements Sensoreavel {
     protected final int altitudeMaxima;
     protected int numHelices;
 
-    public RoboAereo(String id, int x, int y, int z, String direcao, int altitudeMaxima, int numHelices) {
+    public RoboAereo(String id, int x, int y, int z, Rumo direcao, int altitudeMaxima, int numHelices) {
         super(id, x, y, z, direcao); // Chama o construtor do AgenteInteligente
         this.altitudeMaxima = Math.max(0, altitudeMaxima);
         this.numHelices = numHelices;
@@ -24,11 +23,11 @@ public class RoboAereo extends AgenteInteligente implements Sensoreavel {
 
         if (getZ() > this.altitudeMaxima) {
              System.out.println("Aviso: Altitude inicial ("+getZ()+") do RoboAereo "+getId()+" excede a máxima ("+this.altitudeMaxima+"). Ajustando.");
-             this.z = this.altitudeMaxima;
+             armazem.setZ(handle, this.altitudeMaxima);
         }
         if (getZ() < 0) {
              System.out.println("Aviso: Altitude inicial ("+getZ()+") do RoboAereo "+getId()+" é negativa. Ajustando para 0.");
-             this.z = 0;
+             armazem.setZ(handle, 0);
         }
     }
     
@@ -76,30 +75,29 @@ public class RoboAereo extends AgenteInteligente implements Sensoreavel {
         if (getEstado() == EstadoRobo.DESLIGADO) throw new RoboDesligadoException(getId() + " desligado.");
         System.out.println("Robô Aéreo " + getId() + " está realizando patrulha aérea em Z=" + getZ() + ".");
         
-        int dx_patrulha = 0, dy_patrulha = 0;
-        switch (getDirecao().toUpperCase()) {
-            case "NORTE": dy_patrulha = 1; break;
-            case "SUL": dy_patrulha = -1; break;
-            case "LESTE": dx_patrulha = 1; break;
-            case "OESTE": dx_patrulha = -1; break;
-        }
+        Rumo rumo = getDirecao();
+        int dx_patrulha = rumo.dx(), dy_patrulha = rumo.dy(); // A patrulha mantém a altitude
         if (dx_patrulha != 0 || dy_patrulha != 0) {
              System.out.println(getId() + " (Aereo) tentando mover 1 passo para " + getDirecao());
              moverRelativamente(ambiente, dx_patrulha, dy_patrulha, 0);
         }
-        setDirecao("SUL");
+        setDirecao(rumo.oposto()); // Patrulha em vaivém: o próximo passo volta pelo mesmo caminho
     }
 
     @Override
-    public void acionarSensores(Ambiente ambiente) throws RoboDesligadoException {
+    public void acionarSensores(Ambiente ambiente, StringBuilder saida) throws RoboDesligadoException {
         if (getEstado() == EstadoRobo.DESLIGADO) throw new RoboDesligadoException(getId() + " desligado.");
-        System.out.println("\n--- Sensores do Robô Aéreo " + getId() + " ---");
+        saida.append("\n--- Sensores do Robô Aéreo ").append(getId()).append(" ---\n");
         if (getSensores().isEmpty()) {
-            System.out.println(getId() + " não possui sensores."); return;
-        }
-        for (Sensor s : getSensores()) {
-            System.out.println(s.monitorar(ambiente, this));
+            saida.append(getId()).append(" não possui sensores.\n"); return;
         }
+        gerenciadorSensores.escreverLeituras(ambiente, saida);
+    }
+
+    @Override
+    public int lerSensores(Ambiente ambiente) throws RoboDesligadoException {
+        if (getEstado() == EstadoRobo.DESLIGADO) throw new RoboDesligadoException(getId() + " desligado.");
+        return gerenciadorSensores.lerSensores(ambiente);
     }
 
 
@@ -112,7 +110,7 @@ public class RoboAereo extends AgenteInteligente implements Sensoreavel {
     public void executarMissao(Ambiente ambiente) {
         if (temMissao()) {
             System.out.println("Robô Aéreo " + getId() + " executando missão: " + missao.getClass().getSimpleName());
-            missao.executar(this, ambiente);
+            executarPassoDaMissao(ambiente);
         } else {
             System.out.println(getId() + " não possui missão para executar. Executando tarefa padrão.");
             try {
@@ -5,9 +5,6 @@ import comunicacao.CentralComunicacao;
 import comunicacao.Comunicavel;
 import robo.modulos.ModuloComunicacao; 
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 /**
  * Representa um robô terrestre com capacidade de comunicação.
  * Estende {@link RoboTerrestre} e implementa {@link Comunicavel}.
@@ -28,7 +25,7 @@ public class RoboComunicador extends RoboTerrestre implements Comunicavel {
      * Construtor para RoboComunicador.
      * Recebe a CentralComunicacao e a utiliza para inicializar o ModuloComunicacao interno.
      */
-    public RoboComunicador(String id, int x, int y, String direcao, int velocidadeMaxima, CentralComunicacao central) {
+    public RoboComunicador(String id, int x, int y, Rumo direcao, int velocidadeMaxima, CentralComunicacao central) {
         super(id, x, y, direcao, velocidadeMaxima);
         this.centralComunicacao = central; // Guarda a referência da central
        
@@ -69,13 +66,17 @@ public class RoboComunicador extends RoboTerrestre implements Comunicavel {
         System.out.println(getId() + " (Comunicador) está ocioso, procurando alguém para conversar...");
 
         // Lógica para encontrar outros robôs que podem se comunicar
-        List<Robo> outrosComunicaveis = ambiente.getEntidades().stream()
-            .filter(e -> e instanceof Robo && e instanceof Comunicavel && e != this && ((Robo)e).getEstado() != EstadoRobo.DESLIGADO)
-            .map(e -> (Robo)e)
-            .collect(Collectors.toList());
+        // Pega o primeiro comunicador ligado que encontrar entre os do registro
+        RegistroEntidades registro = ambiente.getRegistro();
+        Comunicavel destinatario = null;
+        for (int i = 0; i < registro.getTamanho(RegistroEntidades.Categoria.COMUNICADOR) && destinatario == null; i++) {
+            Robo outro = (Robo) registro.get(RegistroEntidades.Categoria.COMUNICADOR, i);
+            if (outro != this && outro.getEstado() != EstadoRobo.DESLIGADO) {
+                destinatario = (Comunicavel) outro;
+            }
+        }
 
-        if (!outrosComunicaveis.isEmpty()) {
-            Comunicavel destinatario = (Comunicavel) outrosComunicaveis.get(0); // Pega o primeiro que encontrar
+        if (destinatario != null) {
             String mensagem = "Olá de " + getId() + "!";
             System.out.println(getId() + " encontrou " + ((Robo)destinatario).getId() + " e vai enviar uma mensagem.");
 
@@ -1,6 +1,8 @@
 package robo;
 
 import ambiente.*;
+import navegacao.CampoDeFluxo;
+import navegacao.PerfilMovimento;
 
 /**
      * Representa um drone de carga, um tipo especializado de {@link RoboAereo}.
@@ -10,6 +12,7 @@ import ambiente.*;
     public class RoboDroneDeCarga extends RoboAereo implements Autonomo {
         private int carga; // Carga atual do drone
         private final int cargaMaxima; // Capacidade máxima de carga
+        private final int[] passo = new int[3]; // Próxima célula lida do campo de distâncias
 
         /**
          * Construtor para RoboDroneDeCarga.
@@ -23,7 +26,7 @@ import ambiente.*;
          * @param cargaInicial Carga inicial do drone.
          * @param cargaMaxima Capacidade máxima de carga.
          */
-        public RoboDroneDeCarga(String id, int x, int y, int z, String direcao, int altitudeMaxima,
+        public RoboDroneDeCarga(String id, int x, int y, int z, Rumo direcao, int altitudeMaxima,
                                 int numHelices, int cargaInicial, int cargaMaxima) {
             super(id, x, y, z, direcao, altitudeMaxima, numHelices);
             this.cargaMaxima = Math.max(0, cargaMaxima); // Garante que a carga máxima não seja negativa
@@ -96,11 +99,7 @@ import ambiente.*;
                 }
             } else if (carga > 0 && (getX() != 0 || getY() != 0)) { // Se tem carga e não está na base
                 System.out.println(getId() + " tem carga, tentando mover para base (0,0) para descarregar.");
-                int targetX = 0; int targetY = 0; // Coordenadas da base
-                // Calcula o deslocamento para chegar à base
-                int dx = Integer.compare(targetX, getX()); // Retorna -1, 0, ou 1
-                int dy = Integer.compare(targetY, getY());
-                if (dx !=0 || dy !=0) moverRelativamente(ambiente, dx, dy, 0); // Move um passo em direção à base
+                moverEmDirecao(ambiente, 0, 0); // Dá um passo no caminho até a base (0,0)
             } else if (carga > 0 && getX() == 0 && getY() == 0) { // Se tem carga e está na base
                  System.out.println(getId() + " na base com carga, descarregando...");
                  descarregar(carga); // Descarrega toda a carga
@@ -125,12 +124,9 @@ import ambiente.*;
 
             if (carga > 0 && (getX() != 0 || getY() != 0)) { // Se tem carga e não está na base (0,0)
                 int targetX = 0; int targetY = 0; // Ponto de descarga (base)
-                // Calcula o movimento para a base
-                int dx = Integer.compare(targetX, getX());
-                int dy = Integer.compare(targetY, getY());
-                if (dx !=0 || dy !=0) { // Se não está na base
-                    System.out.println("Autônomo: Movendo para base (" + dx + "," + dy + ")");
-                    moverRelativamente(ambiente, dx, dy, 0); // Move um passo em direção à base
+                if (getX() != targetX || getY() != targetY) { // Se não está na base
+                    System.out.println("Autônomo: Movendo para base (" + targetX + "," + targetY + ")");
+                    moverEmDirecao(ambiente, targetX, targetY); // Dá um passo no caminho até a base
                 } else { // Se chegou na base e ainda tem carga (caso raro, pois deveria descarregar)
                      try { if (carga > 0) descarregar(carga); }
                      catch (RoboDesligadoException | AcaoNaoPermitidaException e) { System.err.println("Autônomo: Falha ao descarregar - " + e.getMessage());}
@@ -139,12 +135,9 @@ import ambiente.*;
                 // Define um ponto de coleta (ex: canto oposto do ambiente)
                 int targetX = ambiente.getLargura() -1; 
                 int targetY = ambiente.getProfundidade() -1; 
-                // Calcula o movimento para o ponto de coleta
-                int dx = Integer.compare(targetX, getX());
-                int dy = Integer.compare(targetY, getY());
-                if (dx !=0 || dy !=0) { // Se não está no ponto de coleta
-                    System.out.println("Autônomo: Movendo para coleta (" + dx + "," + dy + ")");
-                    moverRelativamente(ambiente, dx, dy, 0); // Move um passo em direção ao ponto de coleta
+                if (getX() != targetX || getY() != targetY) { // Se não está no ponto de coleta
+                    System.out.println("Autônomo: Movendo para coleta (" + targetX + "," + targetY + ")");
+                    moverEmDirecao(ambiente, targetX, targetY); // Dá um passo no caminho até o ponto de coleta
                 } else { // Se chegou no ponto de coleta
                     try { if (cargaMaxima - carga > 0) carregar(cargaMaxima - carga); } // Carrega até a capacidade máxima
                     catch (RoboDesligadoException | AcaoNaoPermitidaException e) { System.err.println("Autônomo: Falha ao carregar - " + e.getMessage());}
@@ -153,6 +146,28 @@ import ambiente.*;
                  System.out.println(getId() + " (Autônomo) - Carga máxima e na base, ou outra condição.");
             }
         }
+        /**
+         * Dá um passo em direção à coluna (alvoX, alvoY), em qualquer altitude permitida.
+         * O passo é lido do campo de distâncias compartilhado por todos os drones com o mesmo
+         * destino, que contorna obstáculos ou passa por cima deles; robôs no caminho são
+         * desviados escolhendo outra célula vizinha que também aproxime do destino.
+         * @param ambiente O ambiente de simulação.
+         * @param alvoX Coordenada X do destino.
+         * @param alvoY Coordenada Y do destino.
+         * @throws AcaoNaoPermitidaException Se não houver caminho até o destino.
+         */
+        public void moverEmDirecao(Ambiente ambiente, int alvoX, int alvoY) throws RoboDesligadoException, AcaoNaoPermitidaException, ColisaoException, ForaDosLimitesException {
+            CampoDeFluxo campo = ambiente.getCamposDeFluxo().obter(alvoX, alvoY, PerfilMovimento.paraRobo(this, ambiente));
+            if (campo.getDistancia(getX(), getY(), getZ()) == CampoDeFluxo.INALCANCAVEL) {
+                throw new AcaoNaoPermitidaException("Nenhum caminho de " + getId() + " até (" + alvoX + "," + alvoY + ").");
+            }
+            if (!campo.proximoPasso(getX(), getY(), getZ(), passo)) {
+                System.out.println(getId() + " aguardando: passagem bloqueada por outro robô.");
+                return;
+            }
+            moverRelativamente(ambiente, passo[0] - getX(), passo[1] - getY(), passo[2] - getZ());
+        }
+
         /**
          * Executa a missão atribuída ao drone.
          * Sobrescreve o método de RoboAereo para usar a lógica de missão.
@@ -163,7 +178,7 @@ import ambiente.*;
         public void executarMissao(Ambiente ambiente) {
             if (temMissao()) {
                 System.out.println("Drone de Carga " + getId() + " iniciando sua missão: " + missao.getClass().getSimpleName());
-                missao.executar(this, ambiente); // Executa a missão específica
+                executarPassoDaMissao(ambiente); // Executa a missão específica
             } else {
                 System.out.println(getId() + " (Drone de Carga) não possui missão. Executando ação autônoma padrão.");
                 try {
@@ -1,8 +1,8 @@
 package robo;
 
 import ambiente.*;
-import sensores.Sensor;
 import sensores.Sensoreavel;
+import util.KernelDistancia;
 
 /**
  * Representa um robô terrestre, um tipo específico de {@link Robo}.
@@ -22,12 +22,14 @@ public class RoboTerrestre extends AgenteInteligente implements Sensoreavel {
      * @param id                O identificador único do robô.
      * @param x                 A coordenada X inicial.
      * @param y                 A coordenada Y inicial.
-     * @param direcao           A direção inicial do robô.
+     * @param direcao           A direção inicial do robô (ver {@link #podeSeguir(Rumo)}).
      * @param velocidadeMaxima  A velocidade máxima de deslocamento do robô (deve ser >= 1).
+     * @throws IllegalArgumentException Se o robô não puder seguir a direção inicial.
      */
-    public RoboTerrestre(String id, int x, int y, String direcao, int velocidadeMaxima) {
+    public RoboTerrestre(String id, int x, int y, Rumo direcao, int velocidadeMaxima) {
         super(id, x, y, 0, direcao); // Nenhuma alteração necessária aqui.
         this.velocidadeMaxima = Math.max(1, velocidadeMaxima);
+        validarRumo(direcao);
 
         // Inicializa o módulo de movimento específico para robôs terrestres
         this.controleMovimento = new robo.modulos.ControleMovimentoTerrestre(this);
@@ -41,6 +43,33 @@ public class RoboTerrestre extends AgenteInteligente implements Sensoreavel {
         return velocidadeMaxima;
     }
 
+    /**
+     * Indica se o robô consegue dar um passo no rumo dado: apenas rumos do plano, e as
+     * diagonais (distância √2) só com velocidade máxima de pelo menos 2.
+     * @param rumo O rumo a verificar.
+     * @return true se um passo nesse rumo respeita as restrições do robô terrestre.
+     */
+    public boolean podeSeguir(Rumo rumo) {
+        return rumo.isPlanar() && KernelDistancia.dentroDaDistancia(rumo.dx(), rumo.dy(), velocidadeMaxima);
+    }
+
+    /**
+     * Define a direção do robô.
+     * @throws IllegalArgumentException Se o robô não puder seguir o rumo (ver {@link #podeSeguir(Rumo)}).
+     */
+    @Override
+    public void setDirecao(Rumo direcao) {
+        validarRumo(direcao);
+        super.setDirecao(direcao);
+    }
+
+    private void validarRumo(Rumo rumo) {
+        if (!podeSeguir(rumo)) {
+            throw new IllegalArgumentException("RoboTerrestre " + getId() + " não pode seguir o rumo " + rumo
+                + " (apenas rumos do plano; diagonais exigem velocidade máxima de pelo menos 2).");
+        }
+    }
+
     @Override
     public void moverPara(Ambiente ambiente, int novoX, int novoY, int novoZ) throws ColisaoException, ForaDosLimitesException, RoboDesligadoException, AcaoNaoPermitidaException {
         // (Lógica original do método - sem alterações)
@@ -50,8 +79,8 @@ public class RoboTerrestre extends AgenteInteligente implements Sensoreavel {
         if (novoZ != this.getZ()) {
             throw new AcaoNaoPermitidaException("RoboTerrestre " + getId() + " não pode mudar de altitude. Tentou mover para Z=" + novoZ + " a partir de Z=" + this.getZ());
         }
-        double distancia = Math.sqrt(Math.pow(novoX - getX(), 2) + Math.pow(novoY - getY(), 2));
-        if (distancia > this.velocidadeMaxima) {
+        if (!KernelDistancia.dentroDaDistancia(novoX - getX(), novoY - getY(), this.velocidadeMaxima)) {
+            double distancia = Math.hypot(novoX - getX(), novoY - getY());
             throw new AcaoNaoPermitidaException("Movimento (dist " + String.format("%.2f", distancia) + ") excede velocidade máxima (" + this.velocidadeMaxima + ") para " + getId());
         }
         super.moverPara(ambiente, novoX, novoY, this.getZ());
@@ -66,8 +95,8 @@ public class RoboTerrestre extends AgenteInteligente implements Sensoreavel {
         if (dz != 0) {
             throw new AcaoNaoPermitidaException("RoboTerrestre " + getId() + " não pode se mover verticalmente (dz=" + dz + ").");
         }
-        double distancia = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
-        if (distancia > this.velocidadeMaxima) {
+        if (!KernelDistancia.dentroDaDistancia(dx, dy, this.velocidadeMaxima)) {
+            double distancia = Math.hypot(dx, dy);
             throw new AcaoNaoPermitidaException("Movimento relativo (dist " + String.format("%.2f", distancia) + ") excede velocidade máxima (" + this.velocidadeMaxima + ") para " + getId());
         }
         super.moverRelativamente(ambiente, dx, dy, 0);
@@ -87,20 +116,13 @@ public class RoboTerrestre extends AgenteInteligente implements Sensoreavel {
         setEstado(EstadoRobo.EXECUTANDO_TAREFA);
         System.out.println("Robô Terrestre " + getId() + " está patrulhando a área em (" + getX() + "," + getY() + "," + getZ() + ").");
 
-        int dx_patrulha = 0, dy_patrulha = 0;
-        switch (getDirecao().toUpperCase()) {
-            case "NORTE": dy_patrulha = 1; break;
-            case "SUL": dy_patrulha = -1; break;
-            case "LESTE": dx_patrulha = 1; break;
-            case "OESTE": dx_patrulha = -1; break;
-        }
+        Rumo rumo = getDirecao(); // Sempre um rumo do plano que o robô consegue seguir
         try {
-            if (dx_patrulha != 0 || dy_patrulha != 0) {
-                 System.out.println(getId() + " tentando mover 1 passo para " + getDirecao());
-                 moverRelativamente(ambiente, dx_patrulha, dy_patrulha, 0);
-            }
+            System.out.println(getId() + " tentando mover 1 passo para " + rumo);
+            moverRelativamente(ambiente, rumo.dx(), rumo.dy(), 0);
         } catch (ColisaoException | ForaDosLimitesException | RoboDesligadoException | AcaoNaoPermitidaException e) {
             System.out.println(getId() + " falhou ao tentar patrulhar (mover): " + e.getMessage());
+            setDirecao(rumo.girar(2)); // Bloqueado: vira 90 graus para tentar outro caminho
         }
         setEstado(EstadoRobo.OCIOSO);
     }
@@ -115,7 +137,7 @@ public class RoboTerrestre extends AgenteInteligente implements Sensoreavel {
     public void executarMissao(Ambiente ambiente) {
         if (temMissao()) {
             System.out.println("Robô Terrestre " + getId() + " executando missão: " + missao.getClass().getSimpleName());
-            missao.executar(this, ambiente); // Executa a missão específica
+            executarPassoDaMissao(ambiente); // Executa a missão específica
         } else {
             System.out.println(getId() + " não possui missão. Executando tarefa padrão de patrulha.");
             try {
@@ -129,22 +151,31 @@ public class RoboTerrestre extends AgenteInteligente implements Sensoreavel {
 
 
     /**
-     * Aciona todos os sensores acoplados a este robô terrestre.
+     * Aciona todos os sensores acoplados a este robô terrestre,
+     * escrevendo as leituras no buffer fornecido.
      */
     @Override
-    public void acionarSensores(Ambiente ambiente) throws RoboDesligadoException {
-        // (Lógica original do método - sem alterações)
+    public void acionarSensores(Ambiente ambiente, StringBuilder saida) throws RoboDesligadoException {
         if (getEstado() == EstadoRobo.DESLIGADO) {
             throw new RoboDesligadoException(getId() + " está desligado, não pode acionar sensores.");
         }
-        System.out.println("\n--- Sensores do Robô Terrestre " + getId() + " ---");
+        saida.append("\n--- Sensores do Robô Terrestre ").append(getId()).append(" ---\n");
         if (getSensores().isEmpty()) {
-            System.out.println(getId() + " não possui sensores acoplados.");
+            saida.append(getId()).append(" não possui sensores acoplados.\n");
             return;
         }
-        for (Sensor s : getSensores()) {
-            System.out.println(s.monitorar(ambiente, this));
+        gerenciadorSensores.escreverLeituras(ambiente, saida);
+    }
+
+    /**
+     * Lê todos os sensores acoplados a este robô terrestre sem formatar as leituras.
+     */
+    @Override
+    public int lerSensores(Ambiente ambiente) throws RoboDesligadoException {
+        if (getEstado() == EstadoRobo.DESLIGADO) {
+            throw new RoboDesligadoException(getId() + " está desligado, não pode acionar sensores.");
         }
+        return gerenciadorSensores.lerSensores(ambiente);
     }
 
     /**
@@ -0,0 +1,105 @@
+package robo;
+// Rumo.java
+
+/**
+ * Rumo (direção de deslocamento) de um {@link Robo}, entre as 26 vizinhas de uma célula.
+ * Os oito rumos do plano vêm primeiro, em sentido horário a partir do NORTE, seguidos dos
+ * mesmos oito subindo e descendo, e por fim da subida e da descida na vertical. O passo
+ * (dx, dy, dz) de cada rumo fica em tabelas pré-calculadas, e girar é aritmética sobre o
+ * ordinal. Texto só é convertido em rumo na entrada, por {@link #analisar(String)}.
+ */
+public enum Rumo {
+    NORTE, NORDESTE, LESTE, SUDESTE, SUL, SUDOESTE, OESTE, NOROESTE,
+    NORTE_ACIMA, NORDESTE_ACIMA, LESTE_ACIMA, SUDESTE_ACIMA, SUL_ACIMA, SUDOESTE_ACIMA, OESTE_ACIMA, NOROESTE_ACIMA,
+    NORTE_ABAIXO, NORDESTE_ABAIXO, LESTE_ABAIXO, SUDESTE_ABAIXO, SUL_ABAIXO, SUDOESTE_ABAIXO, OESTE_ABAIXO, NOROESTE_ABAIXO,
+    ACIMA, ABAIXO;
+
+    /** Número de rumos do plano (vizinhança de 8). */
+    public static final int PLANARES = 8;
+
+    private static final Rumo[] VALORES = values();
+    // Passo de cada rumo do plano, em sentido horário a partir do norte (Y cresce para o norte)
+    private static final int[] DX_PLANO = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] DY_PLANO = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] DX = new int[VALORES.length], DY = new int[VALORES.length], DZ = new int[VALORES.length];
+
+    static {
+        for (Rumo r : VALORES) {
+            int o = r.ordinal();
+            if (o < 3 * PLANARES) {
+                DX[o] = DX_PLANO[o % PLANARES];
+                DY[o] = DY_PLANO[o % PLANARES];
+                DZ[o] = o < PLANARES ? 0 : o < 2 * PLANARES ? 1 : -1;
+            } else {
+                DZ[o] = r == ACIMA ? 1 : -1;
+            }
+        }
+    }
+
+    public int dx() { return DX[ordinal()]; }
+    public int dy() { return DY[ordinal()]; }
+    public int dz() { return DZ[ordinal()]; }
+
+    /** true para os oito rumos sem componente vertical. */
+    public boolean isPlanar() {
+        return ordinal() < PLANARES;
+    }
+
+    /**
+     * Gira o rumo no plano, mantendo a componente vertical.
+     * @param passos Giros de 45 graus; positivos no sentido horário.
+     * @return O rumo girado (ACIMA e ABAIXO não mudam).
+     */
+    public Rumo girar(int passos) {
+        int o = ordinal();
+        if (o >= 3 * PLANARES) {
+            return this;
+        }
+        int grupo = o - o % PLANARES;
+        return VALORES[grupo + Math.floorMod(o + passos, PLANARES)];
+    }
+
+    /** O rumo oposto (mesmo passo com os sinais trocados): meia volta no plano e troca de subida por descida. */
+    public Rumo oposto() {
+        int o = ordinal();
+        if (o >= 3 * PLANARES) {
+            return this == ACIMA ? ABAIXO : ACIMA;
+        }
+        int grupo = o / PLANARES;
+        int grupoOposto = grupo == 0 ? 0 : 3 - grupo; // Plano fica no plano; acima e abaixo se trocam
+        return VALORES[grupoOposto * PLANARES + (o + PLANARES / 2) % PLANARES];
+    }
+
+    /** O rumo de um ordinal, para quem guarda rumos como números (sem copiar values()). */
+    public static Rumo doOrdinal(int ordinal) {
+        return VALORES[ordinal];
+    }
+
+    /**
+     * Converte texto em rumo, para uso na entrada de dados. Aceita o nome (sem distinguir
+     * maiúsculas; espaços e hifens valem como '_') ou as siglas N, NE, L, SE, S, SO, O e NO.
+     * @throws IllegalArgumentException Se o texto não corresponder a nenhum rumo.
+     */
+    public static Rumo analisar(String texto) {
+        if (texto == null) {
+            throw new IllegalArgumentException("Rumo não informado.");
+        }
+        String nome = texto.trim().toUpperCase().replace(' ', '_').replace('-', '_');
+        switch (nome) {
+            case "N": return NORTE;
+            case "NE": return NORDESTE;
+            case "L": return LESTE;
+            case "SE": return SUDESTE;
+            case "S": return SUL;
+            case "SO": return SUDOESTE;
+            case "O": return OESTE;
+            case "NO": return NOROESTE;
+            default:
+                try {
+                    return valueOf(nome);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Rumo desconhecido: '" + texto + "'.");
+                }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package robo.modulos;
 import ambiente.*;
 import robo.EstadoRobo;
 import robo.RoboTerrestre;
+import util.KernelDistancia;
 
 /**
  * Implementação do ControleMovimento para robôs terrestres.
@@ -29,8 +30,8 @@ public class ControleMovimentoTerrestre extends ControleMovimento {
 
         // Regra específica: verifica a velocidade máxima.
         RoboTerrestre roboTerrestre = (RoboTerrestre) this.robo;
-        double distancia = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
-        if (distancia > roboTerrestre.getVelocidadeMaxima()) {
+        if (!KernelDistancia.dentroDaDistancia(dx, dy, roboTerrestre.getVelocidadeMaxima())) {
+            double distancia = Math.hypot(dx, dy);
             throw new AcaoNaoPermitidaException("Movimento relativo (dist " + String.format("%.2f", distancia) + ") excede velocidade máxima (" + roboTerrestre.getVelocidadeMaxima() + ") para " + robo.getId());
         }
 
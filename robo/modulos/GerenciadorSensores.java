@@ -5,12 +5,14 @@ import ambiente.RoboDesligadoException;
 import robo.EstadoRobo;
 import robo.Robo;
 import sensores.Sensor;
+import util.jfr.EventoVarreduraSensores;
 import java.util.List;
 
 public class GerenciadorSensores {
 
     private Robo robo;
     private List<Sensor> sensores;
+    private long rodada; // Quantas vezes os sensores deste robô já foram acionados
 
     public GerenciadorSensores(Robo robo, List<Sensor> sensores) {
         this.robo = robo;
@@ -26,8 +28,56 @@ public class GerenciadorSensores {
             System.out.println(robo.getId() + " não possui sensores.");
             return;
         }
+        StringBuilder saida = new StringBuilder();
+        escreverLeituras(ambiente, saida);
+        System.out.print(saida);
+    }
+
+    /**
+     * Escreve a leitura de cada sensor do robô no buffer, uma por linha.
+     * Cada chamada é uma rodada de acionamento: sensores com período de amostragem
+     * maior que 1 só são lidos nas rodadas da sua fase e repetem a última leitura nas demais.
+     * Não imprime nada nem modifica o ambiente, podendo ser usado na fase
+     * paralela de sensores do {@link Ambiente}.
+     *
+     * @param ambiente O ambiente que os sensores irão analisar.
+     * @param saida    O buffer que recebe as leituras.
+     */
+    public void escreverLeituras(Ambiente ambiente, StringBuilder saida) {
+        EventoVarreduraSensores evento = new EventoVarreduraSensores();
+        evento.begin();
         for (Sensor s : sensores) {
-            System.out.println(s.monitorar(ambiente, robo));
+            saida.append(s.monitorarAgendado(ambiente, robo, rodada)).append('\n');
+        }
+        concluirRodada(evento);
+    }
+
+    /**
+     * Lê cada sensor do robô na rodada atual, como {@link #escreverLeituras}, mas sem
+     * formatar as leituras em texto.
+     *
+     * @param ambiente O ambiente que os sensores irão analisar.
+     * @return O total de detecções nas leituras de todos os sensores.
+     */
+    public int lerSensores(Ambiente ambiente) {
+        EventoVarreduraSensores evento = new EventoVarreduraSensores();
+        evento.begin();
+        int deteccoes = 0;
+        for (Sensor s : sensores) {
+            deteccoes += s.lerAgendado(ambiente, robo, rodada).getQuantidade();
+        }
+        concluirRodada(evento);
+        return deteccoes;
+    }
+
+    private void concluirRodada(EventoVarreduraSensores evento) {
+        if (evento.shouldCommit()) {
+            evento.robo = robo.getId();
+            evento.handle = robo.getHandle();
+            evento.sensores = sensores.size();
+            evento.rodada = rodada;
+            evento.commit();
         }
+        rodada++;
     }
 }
\ No newline at end of file
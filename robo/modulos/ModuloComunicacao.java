@@ -4,28 +4,99 @@ import ambiente.ErroComunicacaoException;
 import ambiente.RoboDesligadoException;
 import comunicacao.CentralComunicacao;
 import comunicacao.Comunicavel;
+import comunicacao.LimitadorTaxa;
+import comunicacao.ResultadoEnvio;
 import robo.Robo;
 import robo.EstadoRobo;
 
 public class ModuloComunicacao {
-    
+    /** Taxa padrão de mensagens por tick que um robô pode enviar. */
+    public static final double TAXA_PADRAO_REMETENTE = 1.0;
+    /** Rajada padrão de mensagens que um robô pode enviar de uma só vez. */
+    public static final double RAJADA_PADRAO_REMETENTE = 10.0;
+
     private Robo robo;
     private CentralComunicacao central;
+    private final LimitadorTaxa limitador; // Limite de envio deste robô
 
     public ModuloComunicacao(Robo robo, CentralComunicacao central) {
+        this(robo, central, new LimitadorTaxa(TAXA_PADRAO_REMETENTE, RAJADA_PADRAO_REMETENTE));
+    }
+
+    public ModuloComunicacao(Robo robo, CentralComunicacao central, LimitadorTaxa limitador) {
         this.robo = robo;
         this.central = central;
+        this.limitador = limitador;
     }
 
-    public void enviarMensagem(Comunicavel destinatario, String mensagem) throws RoboDesligadoException, ErroComunicacaoException {
+    /**
+     * Tenta enviar uma mensagem sem bloquear e sem lançar exceções de rejeição.
+     * A mensagem passa pelo limite de taxa do remetente e depois pelo limite
+     * do canal na central; o resultado é contabilizado na central, e a mensagem só
+     * conta como entregue depois que o destinatário a recebeu.
+     *
+     * @param destinatario O destinatário da mensagem.
+     * @param mensagem     O conteúdo da mensagem.
+     * @return O {@link ResultadoEnvio} da tentativa.
+     * @throws RoboDesligadoException Se o próprio remetente estiver desligado.
+     */
+    public ResultadoEnvio tentarEnviar(Comunicavel destinatario, String mensagem) throws RoboDesligadoException {
         if (robo.getEstado() == EstadoRobo.DESLIGADO) throw new RoboDesligadoException(robo.getId() + " desligado.");
-        if (!(destinatario instanceof Robo)) throw new ErroComunicacaoException("Destinatário inválido.");
-        
+        if (!(destinatario instanceof Robo) || ((Robo) destinatario).getEstado() == EstadoRobo.DESLIGADO) {
+            central.contabilizar(robo.getId(), ResultadoEnvio.DESCARTADA);
+            return ResultadoEnvio.DESCARTADA;
+        }
+        if (!limitador.tentarConsumir(central.getTick())) {
+            central.contabilizar(robo.getId(), ResultadoEnvio.LIMITADA_REMETENTE);
+            return ResultadoEnvio.LIMITADA_REMETENTE;
+        }
+
         Robo roboDestinatario = (Robo) destinatario;
-        if (roboDestinatario.getEstado() == EstadoRobo.DESLIGADO) throw new ErroComunicacaoException("Destinatário " + roboDestinatario.getId() + " está desligado.");
+        if (!central.tentarUsarCanal(robo.getId(), roboDestinatario.getId())) {
+            return ResultadoEnvio.LIMITADA_CANAL;
+        }
+        try {
+            destinatario.receberMensagem(robo.getId(), mensagem);
+        } catch (RoboDesligadoException e) {
+            // O destinatário desligou entre a verificação e a entrega
+            central.contabilizar(robo.getId(), ResultadoEnvio.DESCARTADA);
+            return ResultadoEnvio.DESCARTADA;
+        }
+        central.confirmarEntrega(robo.getId(), roboDestinatario.getId(), mensagem);
+        return ResultadoEnvio.ENTREGUE;
+    }
 
-        System.out.println(robo.getId() + " (via Módulo) enviando para " + roboDestinatario.getId() + ": " + mensagem);
-        central.registrarMensagem(robo.getId(), roboDestinatario.getId(), mensagem);
-        destinatario.receberMensagem(robo.getId(), mensagem);
+    /**
+     * Envia uma mensagem pelo mesmo caminho de {@link #tentarEnviar(Comunicavel, String)},
+     * com a mesma contabilização, convertendo as rejeições em exceções.
+     *
+     * @param destinatario O destinatário da mensagem.
+     * @param mensagem     O conteúdo da mensagem.
+     * @throws RoboDesligadoException   Se o próprio remetente estiver desligado.
+     * @throws ErroComunicacaoException Se a mensagem foi limitada ou descartada; a mensagem da
+     *                                  exceção explica o motivo.
+     */
+    public void enviarMensagem(Comunicavel destinatario, String mensagem) throws RoboDesligadoException, ErroComunicacaoException {
+        ResultadoEnvio resultado = tentarEnviar(destinatario, mensagem);
+        if (resultado == ResultadoEnvio.ENTREGUE) {
+            System.out.println(robo.getId() + " (via Módulo) enviou para " + ((Robo) destinatario).getId() + ": " + mensagem);
+            return;
+        }
+        if (!(destinatario instanceof Robo)) {
+            throw new ErroComunicacaoException("Destinatário inválido.");
+        }
+        Robo roboDestinatario = (Robo) destinatario;
+        switch (resultado) {
+            case LIMITADA_REMETENTE:
+                throw new ErroComunicacaoException(robo.getId() + " excedeu sua taxa de envio de mensagens. O limite é contado em ticks da simulação;"
+                    + " a próxima mensagem será aceita em " + limitador.ticksAteLiberar(central.getTick()) + " tick(s).");
+            case LIMITADA_CANAL:
+                throw new ErroComunicacaoException("Canal de " + roboDestinatario.getId() + " está saturado; mensagem rejeitada.");
+            default:
+                if (roboDestinatario.getEstado() == EstadoRobo.DESLIGADO) {
+                    throw new ErroComunicacaoException("Destinatário " + roboDestinatario.getId() + " está desligado.");
+                }
+                throw new ErroComunicacaoException("Mensagem para " + roboDestinatario.getId() + " foi descartada.");
+        }
     }
-}
\ No newline at end of file
+}
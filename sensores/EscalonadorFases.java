@@ -0,0 +1,36 @@
+package sensores;
+// EscalonadorFases.java
+
+import java.util.HashMap;
+
+/**
+ * Distribui as fases de amostragem dos sensores de um {@link ambiente.Ambiente} que pedem
+ * {@link Sensor#FASE_AUTOMATICA}. Para cada período, guarda o custo acumulado dos sensores
+ * já colocados em cada fase e dá a cada sensor novo a fase menos carregada, pesando-o pelo
+ * custo medido da sua primeira leitura. Assim os sensores caros de um ambiente se espalham
+ * pelas rodadas em vez de serem lidos todos juntos.
+ * Os sensores pedem a sua fase durante a fase paralela de sensores, por isso a atribuição
+ * é sincronizada.
+ */
+public class EscalonadorFases {
+    private final HashMap<Integer, double[]> cargas = new HashMap<>(); // Custo acumulado de cada fase, por período
+
+    /**
+     * Escolhe a fase menos carregada do período e soma a ela o custo do sensor.
+     *
+     * @param periodo O período de amostragem do sensor.
+     * @param custo   O custo estimado de uma leitura do sensor (em nanossegundos).
+     * @return A fase atribuída, entre 0 e periodo - 1.
+     */
+    public synchronized int atribuir(int periodo, double custo) {
+        double[] carga = cargas.computeIfAbsent(periodo, p -> new double[p]);
+        int melhor = 0;
+        for (int f = 1; f < periodo; f++) {
+            if (carga[f] < carga[melhor]) {
+                melhor = f;
+            }
+        }
+        carga[melhor] += custo;
+        return melhor;
+    }
+}
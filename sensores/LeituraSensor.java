@@ -0,0 +1,118 @@
+package sensores;
+// LeituraSensor.java
+
+import java.util.Arrays;
+
+import ambiente.Ambiente;
+import ambiente.Entidade;
+import ambiente.TipoEntidade;
+
+/**
+ * Buffer reutilizável com o resultado estruturado de uma leitura de sensor.
+ * Cada detecção é guardada em arrays paralelos de tipos primitivos: o handle da
+ * entidade detectada no registro do ambiente, o tipo, a distância e a posição.
+ * A leitura não segura referências a entidades; quem precisa do objeto o obtém
+ * pelo handle com {@link #getEntidade(int, Ambiente)}.
+ * Sensores que medem uma grandeza escalar (como a altitude) usam {@link #getValor()}.
+ * Limpar e preencher o mesmo buffer não aloca memória depois que ele atinge
+ * a capacidade necessária; o texto só é gerado quando alguém chama
+ * {@link Sensor#formatar(Ambiente, LeituraSensor, robo.Robo)}.
+ */
+public class LeituraSensor {
+    private static final TipoEntidade[] TIPOS = TipoEntidade.values();
+
+    private int[] handles;        // Handle da entidade detectada, ou -1 se desconhecida
+    private byte[] tipos;         // Ordinal de TipoEntidade
+    private double[] distancias;
+    private int[] xs, ys, zs;
+    private int quantidade;
+    private double valor;         // Grandeza escalar medida (quando aplicável)
+
+    public LeituraSensor() {
+        this(8);
+    }
+
+    /**
+     * Cria um buffer com capacidade inicial para o número de detecções dado.
+     * @param capacidade A capacidade inicial (o buffer cresce se necessário).
+     */
+    public LeituraSensor(int capacidade) {
+        capacidade = Math.max(1, capacidade);
+        handles = new int[capacidade];
+        tipos = new byte[capacidade];
+        distancias = new double[capacidade];
+        xs = new int[capacidade];
+        ys = new int[capacidade];
+        zs = new int[capacidade];
+    }
+
+    /** Esvazia o buffer para uma nova leitura, sem liberar a memória. */
+    public void limpar() {
+        quantidade = 0;
+        valor = 0;
+    }
+
+    /**
+     * Acrescenta uma detecção ao buffer.
+     *
+     * @param e         A entidade detectada.
+     * @param distancia A distância até a entidade.
+     * @param x         A coordenada X relevante da detecção.
+     * @param y         A coordenada Y relevante da detecção.
+     * @param z         A coordenada Z relevante da detecção.
+     */
+    public void adicionar(Entidade e, double distancia, int x, int y, int z) {
+        adicionar(e.getHandle(), e.getTipo(), distancia, x, y, z);
+    }
+
+    /**
+     * Acrescenta uma detecção ao buffer pelo handle da entidade, informando o tipo explicitamente.
+     * Usado por sensores que já têm o handle ou que detectam células do mapa sem identificar a entidade.
+     *
+     * @param handle    O handle da entidade detectada, ou -1 se desconhecida.
+     * @param tipo      O tipo da entidade detectada.
+     * @param distancia A distância até a detecção.
+     * @param x         A coordenada X da detecção.
+     * @param y         A coordenada Y da detecção.
+     * @param z         A coordenada Z da detecção.
+     */
+    public void adicionar(int handle, TipoEntidade tipo, double distancia, int x, int y, int z) {
+        if (quantidade == handles.length) {
+            int nova = quantidade * 2;
+            handles = Arrays.copyOf(handles, nova);
+            tipos = Arrays.copyOf(tipos, nova);
+            distancias = Arrays.copyOf(distancias, nova);
+            xs = Arrays.copyOf(xs, nova);
+            ys = Arrays.copyOf(ys, nova);
+            zs = Arrays.copyOf(zs, nova);
+        }
+        handles[quantidade] = handle;
+        tipos[quantidade] = (byte) tipo.ordinal();
+        distancias[quantidade] = distancia;
+        xs[quantidade] = x;
+        ys[quantidade] = y;
+        zs[quantidade] = z;
+        quantidade++;
+    }
+
+    public void setValor(double valor) { this.valor = valor; }
+    public double getValor() { return valor; }
+
+    /** Número de detecções na leitura. */
+    public int getQuantidade() { return quantidade; }
+    /** O handle da entidade da detecção i, ou -1 se o sensor não a identificou. */
+    public int getHandle(int i) { return handles[i]; }
+
+    /**
+     * A entidade da detecção i, obtida pelo handle no registro do ambiente onde a leitura foi feita.
+     * @return A entidade, ou null se o sensor não a identificou ou ela já saiu do ambiente.
+     */
+    public Entidade getEntidade(int i, Ambiente ambiente) {
+        return handles[i] < 0 ? null : ambiente.getRegistro().getEntidade(handles[i]);
+    }
+    public TipoEntidade getTipo(int i) { return TIPOS[tipos[i]]; }
+    public double getDistancia(int i) { return distancias[i]; }
+    public int getX(int i) { return xs[i]; }
+    public int getY(int i) { return ys[i]; }
+    public int getZ(int i) { return zs[i]; }
+}
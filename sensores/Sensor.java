@@ -2,18 +2,49 @@ package sensores;
 // Sensor.java
 
 import ambiente.Ambiente;
+import ambiente.GradeEspacial;
 import robo.Robo;
+import util.Histograma;
+import util.Metricas;
 
 /**
  * Classe abstrata base para todos os tipos de sensores.
  * Um sensor possui um nome e um raio de alcance (que pode ou não ser
  * relevante dependendo do tipo específico do sensor).
- * Define um método abstrato `monitorar` que as subclasses devem implementar.
+ * As subclasses implementam `ler`, que preenche uma {@link LeituraSensor} estruturada,
+ * e `formatar`, que a converte em texto apenas quando alguém precisa exibi-la.
+ * O método {@link #lerComCache(Ambiente, Robo)} reaproveita a última leitura enquanto
+ * nem o robô nem nada na região coberta pelo raio tiver mudado desde então.
+ * Cada sensor pode declarar um período de amostragem: com período N, ele só é lido
+ * de fato a cada N rodadas de acionamento do robô (deslocado pela sua fase), e nas
+ * demais rodadas a última leitura é repetida. Um sensor com fase automática recebe a sua
+ * fase na primeira leitura, do {@link EscalonadorFases} do ambiente, pesada pelo custo
+ * medido dessa leitura, para que os sensores caros não sejam todos lidos na mesma rodada.
  */
 public abstract class Sensor {
     private final double raio; // O raio de alcance ou detecção do sensor.
     private String nome;       // Nome identificador do sensor.
 
+    // Cache da última leitura, invalidado pelas épocas da grade espacial do ambiente.
+    private final LeituraSensor leitura = new LeituraSensor();
+    private boolean leituraValida;
+    private String textoCache;     // Texto da leitura atual, formatado sob demanda
+    private Ambiente ambienteCache;
+    private Robo roboCache;
+    private int cacheX, cacheY, cacheZ;
+    private long epocaCache;
+    private long acertosCache, falhasCache;
+
+    // Agendamento da amostragem
+    /** Valor de fase que pede ao agendador uma fase escalonada automaticamente. */
+    public static final int FASE_AUTOMATICA = -1;
+    private int periodo = 1;
+    private int fase = 0;
+    private boolean faseAutomatica;  // A fase ainda será pedida ao escalonador do ambiente
+    private double custoMedioNanos;  // Média móvel do custo de uma leitura efetiva
+    private long rodadas, amostras;  // Rodadas de acionamento e leituras efetivamente feitas
+    private final Histograma histograma = Metricas.sensor(getClass()); // Duração das leituras deste tipo de sensor
+
     /**
      * Construtor para a classe Sensor.
      *
@@ -43,7 +74,8 @@ public abstract class Sensor {
     }
 
     /**
-     * Método abstrato que define a ação de monitoramento do sensor.
+     * Método abstrato que realiza a leitura do sensor, escrevendo o resultado
+     * estruturado no buffer fornecido (que deve ser limpo pela implementação).
      * Cada subclasse de Sensor implementará este método para realizar
      * sua lógica específica de detecção ou leitura de dados do ambiente
      * em relação ao robô que o carrega.
@@ -51,10 +83,194 @@ public abstract class Sensor {
      * @param ambiente O {@link Ambiente} que o sensor irá analisar.
      * @param robo     O {@link Robo} ao qual o sensor está acoplado e a partir do qual
      * o monitoramento é realizado (referência de posição, etc.).
+     * @param destino  O buffer que receberá as detecções.
+     */
+    public abstract void ler(Ambiente ambiente, Robo robo, LeituraSensor destino);
+
+    /**
+     * Método abstrato que converte uma leitura estruturada em texto legível.
+     *
+     * @param ambiente O {@link Ambiente} onde a leitura foi feita, para obter as entidades detectadas pelos handles.
+     * @param leitura A leitura produzida por {@link #ler(Ambiente, Robo, LeituraSensor)}.
+     * @param robo    O {@link Robo} que fez a leitura.
+     * @return Uma string contendo as informações coletadas ou o status detectado pelo sensor.
+     */
+    public abstract String formatar(Ambiente ambiente, LeituraSensor leitura, Robo robo);
+
+    /**
+     * Realiza uma leitura completa e a retorna em forma de texto.
+     *
+     * @param ambiente O {@link Ambiente} que o sensor irá analisar.
+     * @param robo     O {@link Robo} ao qual o sensor está acoplado.
      * @return Uma string contendo as informações coletadas ou o status detectado pelo sensor.
      */
-    // O parâmetro foi alterado de Robo para Entidade para maior generalidade se necessário,
-    // mas para a lógica do sensor, pode ser necessário converter para Robo.
-    // Mantendo Robo por enquanto, conforme o Lab 3, assumindo que os sensores estão em Robos.
-    public abstract String monitorar(Ambiente ambiente, Robo robo);
-}
\ No newline at end of file
+    public String monitorar(Ambiente ambiente, Robo robo) {
+        LeituraSensor leitura = new LeituraSensor();
+        long inicio = Metricas.inicioAmostrado();
+        ler(ambiente, robo, leitura);
+        histograma.registrarDesde(inicio);
+        return formatar(ambiente, leitura, robo);
+    }
+
+    /**
+     * Retorna a leitura estruturada do sensor, reaproveitando a anterior quando possível.
+     * A leitura em cache é servida se foi feita pelo mesmo robô, na mesma posição e no
+     * mesmo ambiente, e se nenhum balde da grade espacial dentro do raio do sensor
+     * foi modificado (robô movido, entidade adicionada ou removida) desde então.
+     * O buffer retornado pertence ao sensor e é sobrescrito na próxima leitura.
+     *
+     * @param ambiente O {@link Ambiente} que o sensor irá analisar.
+     * @param robo     O {@link Robo} ao qual o sensor está acoplado.
+     * @return A leitura do sensor.
+     */
+    public LeituraSensor lerComCache(Ambiente ambiente, Robo robo) {
+        GradeEspacial grade = ambiente.getGrade();
+        if (leituraValida && ambienteCache == ambiente && roboCache == robo
+                && cacheX == robo.getX() && cacheY == robo.getY() && cacheZ == robo.getZ()
+                && grade.epocaRegiao(robo.getX(), robo.getY(), getRaio()) <= epocaCache) {
+            acertosCache++;
+            Metricas.contar(Metricas.Contador.CACHE_SENSORES_ACERTOS);
+            return leitura;
+        }
+        falhasCache++;
+        Metricas.contar(Metricas.Contador.CACHE_SENSORES_FALHAS);
+        epocaCache = grade.getEpocaAtual();
+        long inicio = System.nanoTime();
+        ler(ambiente, robo, leitura);
+        long custo = System.nanoTime() - inicio;
+        if (Metricas.isAtiva()) {
+            histograma.registrar(custo);
+        }
+        custoMedioNanos = custoMedioNanos == 0 ? custo : custoMedioNanos * 0.9 + custo * 0.1;
+        leituraValida = true;
+        textoCache = null;
+        ambienteCache = ambiente;
+        roboCache = robo;
+        cacheX = robo.getX();
+        cacheY = robo.getY();
+        cacheZ = robo.getZ();
+        return leitura;
+    }
+
+    /**
+     * Retorna a leitura do sensor em texto, usando o cache de {@link #lerComCache(Ambiente, Robo)}.
+     * O texto só é formatado uma vez para cada leitura nova.
+     *
+     * @param ambiente O {@link Ambiente} que o sensor irá analisar.
+     * @param robo     O {@link Robo} ao qual o sensor está acoplado.
+     * @return A leitura do sensor, igual à que {@link #monitorar(Ambiente, Robo)} retornaria.
+     */
+    public String monitorarComCache(Ambiente ambiente, Robo robo) {
+        LeituraSensor atual = lerComCache(ambiente, robo);
+        if (textoCache == null) {
+            textoCache = formatar(ambiente, atual, robo);
+        }
+        return textoCache;
+    }
+
+    /**
+     * Define a taxa de amostragem do sensor.
+     *
+     * @param periodo A cada quantas rodadas de acionamento o sensor é lido (1 = em todas).
+     * @param fase    O deslocamento da amostragem dentro do período, ou {@link #FASE_AUTOMATICA}
+     *                para que o sensor receba, na primeira leitura, uma fase escalonada em
+     *                relação aos demais sensores do ambiente.
+     * @throws IllegalArgumentException Se o período não for positivo.
+     */
+    public void definirAmostragem(int periodo, int fase) {
+        if (periodo < 1) {
+            throw new IllegalArgumentException("O período de amostragem deve ser positivo.");
+        }
+        this.periodo = periodo;
+        this.faseAutomatica = fase == FASE_AUTOMATICA && periodo > 1;
+        this.fase = fase == FASE_AUTOMATICA ? 0 : Math.floorMod(fase, periodo);
+    }
+
+    public int getPeriodo() { return periodo; }
+    /** A fase de amostragem (0 enquanto uma fase automática ainda não foi atribuída). */
+    public int getFase() { return fase; }
+
+    /**
+     * Indica se o sensor deve ser lido na rodada de acionamento dada.
+     * @param rodada O número da rodada de acionamento do robô.
+     * @return true se a rodada coincide com a fase do sensor.
+     */
+    public boolean deveAmostrar(long rodada) {
+        return periodo == 1 || (rodada + fase) % periodo == 0;
+    }
+
+    /**
+     * Retorna a leitura do sensor respeitando o período de amostragem: fora da sua fase,
+     * o sensor repete a última leitura feita para o mesmo robô sem consultar o ambiente.
+     *
+     * @param ambiente O {@link Ambiente} que o sensor irá analisar.
+     * @param robo     O {@link Robo} ao qual o sensor está acoplado.
+     * @param rodada   O número da rodada de acionamento do robô.
+     * @return A leitura do sensor (possivelmente de uma rodada anterior).
+     */
+    public LeituraSensor lerAgendado(Ambiente ambiente, Robo robo, long rodada) {
+        rodadas++;
+        if (faseAutomatica) {
+            // Primeira leitura: mede o custo e pede ao ambiente a fase menos carregada
+            LeituraSensor atual = lerComCache(ambiente, robo);
+            fase = ambiente.getEscalonadorFases().atribuir(periodo, custoMedioNanos);
+            faseAutomatica = false;
+            amostras++;
+            return atual;
+        }
+        if (leituraValida && ambienteCache == ambiente && roboCache == robo && !deveAmostrar(rodada)) {
+            return leitura;
+        }
+        amostras++;
+        return lerComCache(ambiente, robo);
+    }
+
+    /**
+     * Retorna a taxa efetiva de amostragem observada: a fração das rodadas de
+     * acionamento em que o sensor foi de fato lido (e não repetiu a leitura anterior).
+     * @return Um valor entre 0 e 1, ou 1/período se o sensor ainda não foi acionado.
+     */
+    public double getTaxaEfetiva() {
+        return rodadas == 0 ? 1.0 / periodo : (double) amostras / rodadas;
+    }
+
+    /**
+     * Retorna o custo médio, em nanossegundos, de uma leitura que precisou consultar o ambiente.
+     * @return O custo médio medido (média móvel exponencial), ou 0 se nunca foi medido.
+     */
+    public double getCustoMedioNanos() {
+        return custoMedioNanos;
+    }
+
+    /**
+     * Versão em texto de {@link #lerAgendado(Ambiente, Robo, long)}.
+     *
+     * @param ambiente O {@link Ambiente} que o sensor irá analisar.
+     * @param robo     O {@link Robo} ao qual o sensor está acoplado.
+     * @param rodada   O número da rodada de acionamento do robô.
+     * @return O texto da leitura do sensor.
+     */
+    public String monitorarAgendado(Ambiente ambiente, Robo robo, long rodada) {
+        LeituraSensor atual = lerAgendado(ambiente, robo, rodada);
+        if (textoCache == null) {
+            textoCache = formatar(ambiente, atual, robo);
+        }
+        return textoCache;
+    }
+
+    /**
+     * Retorna quantas leituras foram servidas a partir do cache.
+     * @return O número de acertos do cache.
+     */
+    public long getAcertosCache() {
+        return acertosCache;
+    }
+
+    /**
+     * Retorna quantas leituras precisaram ser refeitas.
+     * @return O número de falhas do cache.
+     */
+    public long getFalhasCache() {
+        return falhasCache;
+    }
+}
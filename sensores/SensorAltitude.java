@@ -22,17 +22,31 @@ public class SensorAltitude extends Sensor {
     }
 
     /**
-     * Monitora e retorna a altitude atual do robô.
-     * A altitude é obtida diretamente da coordenada Z do robô.
+     * Lê a altitude atual do robô.
+     * A altitude é obtida diretamente da coordenada Z do robô e guardada como valor escalar da leitura.
      *
      * @param ambiente O {@link Ambiente} (não utilizado diretamente por este sensor, mas parte da assinatura do método).
      * @param robo     O {@link Robo} cuja altitude será medida.
+     * @param destino  O buffer que receberá a altitude.
+     */
+    @Override
+    public void ler(Ambiente ambiente, Robo robo, LeituraSensor destino) {
+        // Para o Lab 04, todos os Robos são Entidade e possuem getZ()
+        destino.limpar();
+        destino.setValor(robo.getZ());
+    }
+
+    /**
+     * Formata a altitude lida.
+     *
+     * @param ambiente O {@link Ambiente} onde a leitura foi feita (não utilizado por este sensor).
+     * @param leitura A leitura com a altitude.
+     * @param robo    O {@link Robo} cuja altitude foi medida.
      * @return Uma string formatada indicando a altitude detectada pelo sensor.
      * Ex: "Sensor de Altitude 'Altímetro Principal' detectou altitude: 10 metros."
      */
     @Override
-    public String monitorar(Ambiente ambiente, Robo robo) {
-        // Para o Lab 04, todos os Robos são Entidade e possuem getZ()
-        return "Sensor de Altitude '" + getNome() + "' detectou altitude: " + robo.getZ() + " metros.";
+    public String formatar(Ambiente ambiente, LeituraSensor leitura, Robo robo) {
+        return "Sensor de Altitude '" + getNome() + "' detectou altitude: " + (int) leitura.getValor() + " metros.";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package sensores;
+// SensorLinhaDeVisada.java
+
+import ambiente.Ambiente;
+import ambiente.TipoEntidade;
+import robo.Robo;
+
+/**
+ * Um tipo específico de {@link Sensor} que enxerga apenas o que está em linha de visada,
+ * ao contrário do {@link SensorProximidade}, que detecta entidades atrás de paredes.
+ * Funciona como um lidar: lança um leque de raios a partir do robô e, para cada raio,
+ * percorre as células do mapa do {@link Ambiente} com o algoritmo DDA 3D
+ * (Amanatides &amp; Woo) até encontrar a primeira célula ocupada ou atingir o raio de alcance.
+ * O traçado não aloca memória por raio.
+ */
+public class SensorLinhaDeVisada extends Sensor {
+    private final double[] direcoes; // Direções normalizadas, em triplas (dx, dy, dz)
+    private final int numRaios;
+
+    // Buffers de saída da varredura, reaproveitados entre leituras
+    private final double[] distancias;
+    private final int[] celulas;
+    private final int[] celulaVisada = new int[3]; // Célula atingida em temLinhaDeVisada
+
+    /**
+     * Construtor para um sensor com um leque horizontal de raios igualmente espaçados.
+     *
+     * @param nome     O nome do sensor (ex: "Lidar Frontal").
+     * @param raio     O alcance máximo de cada raio.
+     * @param numRaios Quantos raios são lançados em 360 graus no plano XY.
+     */
+    public SensorLinhaDeVisada(String nome, double raio, int numRaios) {
+        this(nome, raio, direcoesHorizontais(numRaios));
+    }
+
+    /**
+     * Construtor para um sensor com direções de raio arbitrárias.
+     *
+     * @param nome     O nome do sensor.
+     * @param raio     O alcance máximo de cada raio.
+     * @param direcoes As direções dos raios em triplas (dx, dy, dz); serão normalizadas.
+     * @throws IllegalArgumentException Se o array não contiver triplas ou tiver direção nula.
+     */
+    public SensorLinhaDeVisada(String nome, double raio, double[] direcoes) {
+        super(nome, raio);
+        if (direcoes.length == 0 || direcoes.length % 3 != 0) {
+            throw new IllegalArgumentException("As direções devem ser informadas em triplas (dx, dy, dz).");
+        }
+        this.numRaios = direcoes.length / 3;
+        this.direcoes = new double[direcoes.length];
+        for (int i = 0; i < direcoes.length; i += 3) {
+            double norma = Math.sqrt(direcoes[i] * direcoes[i] + direcoes[i + 1] * direcoes[i + 1] + direcoes[i + 2] * direcoes[i + 2]);
+            if (norma == 0) {
+                throw new IllegalArgumentException("Direção de raio nula no índice " + (i / 3) + ".");
+            }
+            this.direcoes[i] = direcoes[i] / norma;
+            this.direcoes[i + 1] = direcoes[i + 1] / norma;
+            this.direcoes[i + 2] = direcoes[i + 2] / norma;
+        }
+        this.distancias = new double[numRaios];
+        this.celulas = new int[numRaios * 3];
+    }
+
+    private static double[] direcoesHorizontais(int numRaios) {
+        numRaios = Math.max(1, numRaios);
+        double[] d = new double[numRaios * 3];
+        for (int i = 0; i < numRaios; i++) {
+            double angulo = 2 * Math.PI * i / numRaios;
+            d[i * 3] = Math.cos(angulo);
+            d[i * 3 + 1] = Math.sin(angulo);
+        }
+        return d;
+    }
+
+    public int getNumRaios() {
+        return numRaios;
+    }
+
+    /**
+     * Lança um raio a partir do centro da célula de origem e retorna a distância até a
+     * primeira célula ocupada. A célula de origem é ignorada (é a do próprio robô).
+     *
+     * @param ambiente O ambiente cujo mapa será percorrido.
+     * @param ox       Coordenada X da célula de origem.
+     * @param oy       Coordenada Y da célula de origem.
+     * @param oz       Coordenada Z da célula de origem.
+     * @param dx       Componente X da direção (normalizada).
+     * @param dy       Componente Y da direção (normalizada).
+     * @param dz       Componente Z da direção (normalizada).
+     * @param alcance  Distância máxima percorrida.
+     * @param celula   Array que recebe a célula atingida em [pos, pos+3), se houver.
+     * @param pos      Posição inicial de escrita em {@code celula}.
+     * @return A distância até a célula atingida, ou -1 se nada foi atingido dentro do alcance
+     * (ou o raio saiu do ambiente).
+     */
+    public static double lancarRaio(Ambiente ambiente, int ox, int oy, int oz,
+                                    double dx, double dy, double dz, double alcance,
+                                    int[] celula, int pos) {
+        int x = ox, y = oy, z = oz;
+        int passoX = dx > 0 ? 1 : (dx < 0 ? -1 : 0);
+        int passoY = dy > 0 ? 1 : (dy < 0 ? -1 : 0);
+        int passoZ = dz > 0 ? 1 : (dz < 0 ? -1 : 0);
+        // Distância percorrida ao longo do raio para atravessar uma célula em cada eixo
+        double deltaX = passoX != 0 ? Math.abs(1.0 / dx) : Double.POSITIVE_INFINITY;
+        double deltaY = passoY != 0 ? Math.abs(1.0 / dy) : Double.POSITIVE_INFINITY;
+        double deltaZ = passoZ != 0 ? Math.abs(1.0 / dz) : Double.POSITIVE_INFINITY;
+        // Partindo do centro da célula, a primeira fronteira em cada eixo está a meia célula
+        double limiteX = deltaX * 0.5, limiteY = deltaY * 0.5, limiteZ = deltaZ * 0.5;
+
+        while (true) {
+            double t;
+            if (limiteX <= limiteY && limiteX <= limiteZ) {
+                t = limiteX; x += passoX; limiteX += deltaX;
+            } else if (limiteY <= limiteZ) {
+                t = limiteY; y += passoY; limiteY += deltaY;
+            } else {
+                t = limiteZ; z += passoZ; limiteZ += deltaZ;
+            }
+            if (t > alcance) {
+                return -1;
+            }
+            TipoEntidade tipo = ambiente.getTipoEm(x, y, z);
+            if (tipo == null) {
+                return -1; // Saiu do ambiente
+            }
+            if (tipo != TipoEntidade.VAZIO) {
+                celula[pos] = x;
+                celula[pos + 1] = y;
+                celula[pos + 2] = z;
+                return t;
+            }
+        }
+    }
+
+    /**
+     * Lança vários raios de uma só vez a partir da mesma origem.
+     *
+     * @param ambiente   O ambiente cujo mapa será percorrido.
+     * @param ox         Coordenada X da célula de origem.
+     * @param oy         Coordenada Y da célula de origem.
+     * @param oz         Coordenada Z da célula de origem.
+     * @param direcoes   Direções normalizadas em triplas (dx, dy, dz).
+     * @param numRaios   Quantos raios lançar.
+     * @param alcance    Distância máxima de cada raio.
+     * @param distancias Recebe a distância de cada raio (-1 se nada foi atingido).
+     * @param celulas    Recebe a célula atingida por cada raio, em triplas.
+     * @return Quantos raios atingiram alguma célula ocupada.
+     */
+    public static int lancarRaios(Ambiente ambiente, int ox, int oy, int oz, double[] direcoes, int numRaios,
+                                  double alcance, double[] distancias, int[] celulas) {
+        int atingidos = 0;
+        for (int i = 0; i < numRaios; i++) {
+            int d = i * 3;
+            distancias[i] = lancarRaio(ambiente, ox, oy, oz, direcoes[d], direcoes[d + 1], direcoes[d + 2], alcance, celulas, d);
+            if (distancias[i] >= 0) atingidos++;
+        }
+        return atingidos;
+    }
+
+    /**
+     * Verifica se há linha de visada livre entre duas células.
+     * As células de origem e de destino não são consideradas obstruções.
+     * Usa um buffer do sensor para a célula atingida; como as leituras, não deve ser
+     * chamado por várias threads ao mesmo tempo no mesmo sensor.
+     *
+     * @param ambiente O ambiente cujo mapa será percorrido.
+     * @param x0 Coordenada X de origem.
+     * @param y0 Coordenada Y de origem.
+     * @param z0 Coordenada Z de origem.
+     * @param x1 Coordenada X de destino.
+     * @param y1 Coordenada Y de destino.
+     * @param z1 Coordenada Z de destino.
+     * @return true se nenhuma célula ocupada estiver entre as duas posições.
+     */
+    public boolean temLinhaDeVisada(Ambiente ambiente, int x0, int y0, int z0, int x1, int y1, int z1) {
+        double dx = x1 - x0, dy = y1 - y0, dz = z1 - z0;
+        double distancia = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (distancia == 0) {
+            return true;
+        }
+        double t = lancarRaio(ambiente, x0, y0, z0, dx / distancia, dy / distancia, dz / distancia, distancia, celulaVisada, 0);
+        return t < 0 || (celulaVisada[0] == x1 && celulaVisada[1] == y1 && celulaVisada[2] == z1);
+    }
+
+    /**
+     * Lança o leque de raios a partir do robô. Cada célula atingida vira uma detecção
+     * (raios vizinhos que atingem a mesma célula são agrupados).
+     *
+     * @param ambiente O {@link Ambiente} cujo mapa será percorrido.
+     * @param robo     O {@link Robo} que carrega o sensor.
+     * @param destino  O buffer que receberá as detecções.
+     */
+    @Override
+    public void ler(Ambiente ambiente, Robo robo, LeituraSensor destino) {
+        destino.limpar();
+        int atingidos = lancarRaios(ambiente, robo.getX(), robo.getY(), robo.getZ(), direcoes, numRaios, getRaio(), distancias, celulas);
+        destino.setValor(atingidos);
+        for (int i = 0; i < numRaios; i++) {
+            if (distancias[i] < 0) continue;
+            int c = i * 3;
+            int n = destino.getQuantidade();
+            if (n > 0 && destino.getX(n - 1) == celulas[c] && destino.getY(n - 1) == celulas[c + 1] && destino.getZ(n - 1) == celulas[c + 2]) {
+                continue; // Mesma célula do raio anterior
+            }
+            TipoEntidade tipo = ambiente.getTipoEm(celulas[c], celulas[c + 1], celulas[c + 2]);
+            destino.adicionar(-1, tipo, distancias[i], celulas[c], celulas[c + 1], celulas[c + 2]);
+        }
+    }
+
+    /**
+     * Formata as células visíveis atingidas pelos raios.
+     *
+     * @param ambiente O {@link Ambiente} onde a leitura foi feita.
+     * @param leitura A leitura com as detecções.
+     * @param robo    O {@link Robo} que realizou a varredura.
+     * @return Uma string listando as células atingidas e suas distâncias.
+     */
+    @Override
+    public String formatar(Ambiente ambiente, LeituraSensor leitura, Robo robo) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Sensor de Linha de Visada '").append(getNome()).append("' (Raio: ").append(getRaio())
+          .append(", ").append(numRaios).append(" raios) no Robô ").append(robo.getId()).append(" detectou:\n");
+        if (leitura.getQuantidade() == 0) {
+            sb.append("  Nenhum objeto visível dentro do raio.\n");
+            return sb.toString();
+        }
+        for (int i = 0; i < leitura.getQuantidade(); i++) {
+            sb.append("  - ").append(leitura.getTipo(i) == TipoEntidade.ROBO ? "Robô" : "Obstáculo")
+              .append(" visível em (").append(leitura.getX(i)).append(",").append(leitura.getY(i)).append(",").append(leitura.getZ(i))
+              .append(") a ").append(String.format("%.2f", leitura.getDistancia(i))).append(" unidades.\n");
+        }
+        sb.append("  ").append((int) leitura.getValor()).append(" de ").append(numRaios).append(" raios atingiram algo.\n");
+        return sb.toString();
+    }
+}
@@ -1,8 +1,11 @@
 package sensores;
 // SensorProximidade.java
-import java.util.stream.Collectors; // Garante que esta importação esteja presente
 
+import ambiente.Entidade;
+import ambiente.GradeEspacial;
 import ambiente.Obstaculo;
+import ambiente.TabelaVizinhanca;
+import ambiente.TipoEntidade;
 import robo.Robo;
 import ambiente.Ambiente;
 
@@ -12,8 +15,13 @@ import ambiente.Ambiente;
  * dentro de um determinado raio de alcance ao redor do robô.
  * Calcula distâncias tridimensionais para robôs e distâncias à superfície
  * de obstáculos (bounding box).
+ * A busca usa a {@link ambiente.GradeEspacial} do ambiente, examinando apenas
+ * os baldes vizinhos ao robô em vez de todas as entidades do mundo. Durante uma
+ * rodada global de sensores, os robôs vizinhos são lidos da {@link TabelaVizinhanca}
+ * já calculada pelo ambiente, e da grade vêm apenas os obstáculos.
  */
 public class SensorProximidade extends Sensor {
+    private final BuscaProximidade busca = new BuscaProximidade();
 
     /**
      * Construtor para o SensorProximidade.
@@ -27,74 +35,129 @@ public class SensorProximidade extends Sensor {
     }
 
     /**
-     * Monitora o ambiente em busca de outros robôs e obstáculos dentro do raio de alcance.
+     * Procura outros robôs e obstáculos dentro do raio de alcance.
      * Para robôs, calcula a distância entre os centros.
      * Para obstáculos, calcula a distância do centro do robô até o ponto mais próximo
-     * na superfície da caixa delimitadora (bounding box) do obstáculo.
+     * na superfície da caixa delimitadora (bounding box) do obstáculo, que é guardado
+     * como posição da detecção.
      *
      * @param ambiente O {@link Ambiente} contendo as entidades a serem verificadas.
      * @param robo     O {@link Robo} que está realizando a varredura com este sensor.
+     * @param destino  O buffer que receberá as detecções.
+     */
+    @Override
+    public void ler(Ambiente ambiente, Robo robo, LeituraSensor destino) {
+        destino.limpar();
+        final double raioQuadrado = getRaio() * getRaio();
+
+        // Se há uma tabela de vizinhança válida para esta rodada, os robôs vêm dela.
+        TabelaVizinhanca tabela = ambiente.getTabelaVizinhanca();
+        int indice = tabela != null && tabela.cobre(getRaio()) ? tabela.indice(robo) : -1;
+        if (indice >= 0) {
+            for (int k = tabela.inicioVizinhos(indice), fim = tabela.fimVizinhos(indice); k < fim; k++) {
+                long distanciaQuadrada = tabela.distanciaQuadrada(k);
+                if (distanciaQuadrada <= raioQuadrado) {
+                    destino.adicionar(tabela.handleVizinho(k), TipoEntidade.ROBO, Math.sqrt(distanciaQuadrada),
+                        tabela.xVizinho(k), tabela.yVizinho(k), tabela.zVizinho(k));
+                }
+            }
+        }
+
+        // Examina apenas as entidades dos baldes da grade que intersectam o raio (só os obstáculos,
+        // se os robôs vieram da tabela), comparando distâncias ao quadrado; a raiz só é
+        // calculada para o que foi detectado.
+        busca.iniciar(robo, raioQuadrado, destino);
+        if (indice >= 0) {
+            ambiente.getGrade().consultarObstaculos(robo.getX(), robo.getY(), getRaio(), busca);
+        } else {
+            ambiente.getGrade().consultar(robo.getX(), robo.getY(), getRaio(), busca);
+        }
+        busca.concluir();
+    }
+
+    /**
+     * Formata as detecções: primeiro os robôs, depois os obstáculos.
+     *
+     * @param ambiente O {@link Ambiente} onde a leitura foi feita.
+     * @param leitura A leitura com as detecções.
+     * @param robo    O {@link Robo} que realizou a varredura.
      * @return Uma string formatada listando todas as entidades detectadas e suas distâncias,
      * ou uma mensagem indicando que nada foi detectado.
      */
     @Override
-    public String monitorar(Ambiente ambiente, Robo robo) {
+    public String formatar(Ambiente ambiente, LeituraSensor leitura, Robo robo) {
         StringBuilder detections = new StringBuilder();
         detections.append("Sensor de Proximidade '").append(getNome()).append("' (Raio: ").append(getRaio()).append(") no Robô ").append(robo.getId()).append(" detectou:\n");
-        boolean detected = false; // Flag para saber se algo foi detectado
-
-        // Verifica outros robôs
-        // Itera sobre todas as entidades no ambiente
-        for (Robo otherRobo : ambiente.getEntidades().stream()
-                .filter(e -> e instanceof Robo && e != robo) // Filtra para pegar apenas Robos que não sejam o próprio robô sensor
-                .map(e -> (Robo) e)                         // Converte Entidade para Robo
-                .collect(Collectors.toList())) {            // Coleta em uma lista
-
-            // Calcula a distância 3D entre o robô sensor e o outro robô
-            double distance = Math.sqrt(Math.pow(robo.getX() - otherRobo.getX(), 2) +
-                    Math.pow(robo.getY() - otherRobo.getY(), 2) +
-                    Math.pow(robo.getZ() - otherRobo.getZ(), 2));
-            
-            // Se a distância for menor ou igual ao raio do sensor, detectou
-            if (distance <= getRaio()) {
-                detections.append("  - Robô ").append(otherRobo.getId()).append(" @(").append(otherRobo.getX()).append(",").append(otherRobo.getY()).append(",").append(otherRobo.getZ()).append(") a ").append(String.format("%.2f", distance)).append(" unidades.\n");
-                detected = true;
+        for (int i = 0; i < leitura.getQuantidade(); i++) {
+            if (leitura.getEntidade(i, ambiente) instanceof Robo) {
+                Robo otherRobo = (Robo) leitura.getEntidade(i, ambiente);
+                detections.append("  - Robô ").append(otherRobo.getId()).append(" @(").append(leitura.getX(i)).append(",").append(leitura.getY(i)).append(",").append(leitura.getZ(i)).append(") a ").append(String.format("%.2f", leitura.getDistancia(i))).append(" unidades.\n");
             }
         }
-
-        // Verifica obstáculos
-        // Itera sobre todas as entidades no ambiente
-        for (Obstaculo obstaculo : ambiente.getEntidades().stream()
-                .filter(e -> e instanceof Obstaculo)        // Filtra para pegar apenas Obstaculos
-                .map(e -> (Obstaculo) e)                    // Converte Entidade para Obstaculo
-                .collect(Collectors.toList())) {           // Coleta em uma lista
-
-            // Calcula o ponto mais próximo na superfície do obstáculo (bounding box) ao robô
-            double closestX = Math.max(obstaculo.getX1(), Math.min(robo.getX(), obstaculo.getX2()));
-            double closestY = Math.max(obstaculo.getY1(), Math.min(robo.getY(), obstaculo.getY2()));
-            double closestZ = Math.max(obstaculo.getZ1(), Math.min(robo.getZ(), obstaculo.getZ2()));
-
-            // Calcula a distância 3D do robô a este ponto mais próximo na superfície do obstáculo
-            double distanceToObstacleSurface = Math.sqrt(
-                Math.pow(robo.getX() - closestX, 2) +
-                Math.pow(robo.getY() - closestY, 2) +
-                Math.pow(robo.getZ() - closestZ, 2)
-            );
-
-            // Se a distância à superfície for menor ou igual ao raio do sensor, detectou
-            if (distanceToObstacleSurface <= getRaio()) {
+        for (int i = 0; i < leitura.getQuantidade(); i++) {
+            if (leitura.getEntidade(i, ambiente) instanceof Obstaculo) {
+                Obstaculo obstaculo = (Obstaculo) leitura.getEntidade(i, ambiente);
                 detections.append("  - Obstáculo ").append(obstaculo.getTipoObstaculo())
                           .append(" (").append(obstaculo.getRepresentacao()).append(") de (").append(obstaculo.getX1()).append(",").append(obstaculo.getY1()).append(",").append(obstaculo.getZ1())
                           .append(") para (").append(obstaculo.getX2()).append(",").append(obstaculo.getY2()).append(",").append(obstaculo.getZ2()).append(")")
-                          .append(" a aprox. ").append(String.format("%.2f", distanceToObstacleSurface)).append(" unidades.\n");
-                detected = true;
+                          .append(" a aprox. ").append(String.format("%.2f", leitura.getDistancia(i))).append(" unidades.\n");
             }
         }
-
         // Se nada foi detectado, adiciona uma mensagem informando
-        if (!detected) {
+        if (leitura.getQuantidade() == 0) {
             detections.append("  Nenhum objeto detectado dentro do raio.\n");
         }
         return detections.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Visitante da grade reaproveitado entre leituras, para que a varredura não aloque memória.
+     * A distância de cada candidato é calculada ao visitá-lo, e os que estão no raio vão
+     * direto para o buffer da leitura.
+     */
+    private static final class BuscaProximidade implements GradeEspacial.Visitante {
+        private Robo robo;
+        private int rx, ry, rz;
+        private double raioQuadrado;
+        private LeituraSensor destino;
+
+        void iniciar(Robo robo, double raioQuadrado, LeituraSensor destino) {
+            this.robo = robo;
+            this.rx = robo.getX();
+            this.ry = robo.getY();
+            this.rz = robo.getZ();
+            this.raioQuadrado = raioQuadrado;
+            this.destino = destino;
+        }
+
+        @Override
+        public void visitar(Entidade e) {
+            if (e instanceof Robo) {
+                if (e == robo) return;
+                int x = e.getX(), y = e.getY(), z = e.getZ();
+                long dx = (long) x - rx, dy = (long) y - ry, dz = (long) z - rz;
+                long distanciaQuadrada = dx * dx + dy * dy + dz * dz;
+                if (distanciaQuadrada <= raioQuadrado) {
+                    destino.adicionar(e, Math.sqrt(distanciaQuadrada), x, y, z);
+                }
+            } else if (e instanceof Obstaculo) {
+                Obstaculo o = (Obstaculo) e;
+                // Ponto mais próximo da caixa delimitadora (AABB) do obstáculo ao robô
+                int px = Math.max(o.getX1(), Math.min(rx, o.getX2()));
+                int py = Math.max(o.getY1(), Math.min(ry, o.getY2()));
+                int pz = Math.max(o.getZ1(), Math.min(rz, o.getZ2()));
+                long dx = (long) rx - px, dy = (long) ry - py, dz = (long) rz - pz;
+                long distanciaQuadrada = dx * dx + dy * dy + dz * dz;
+                if (distanciaQuadrada <= raioQuadrado) {
+                    destino.adicionar(o, Math.sqrt(distanciaQuadrada), px, py, pz);
+                }
+            }
+        }
+
+        /** Solta as referências para não segurar o robô nem o buffer entre leituras. */
+        void concluir() {
+            robo = null;
+            destino = null;
+        }
+    }
+}
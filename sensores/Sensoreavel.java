@@ -11,14 +11,40 @@ import ambiente.RoboDesligadoException;
  */
 public interface Sensoreavel {
     /**
-     * Aciona os sensores da entidade.
-     * A implementação deste método deve iterar sobre os sensores da entidade
-     * e chamar o método `monitorar` de cada um, possivelmente imprimindo
-     * ou processando os resultados.
+     * Aciona os sensores da entidade e imprime o resultado no console.
      *
      * @param ambiente O {@link Ambiente} que os sensores irão analisar.
      * @throws RoboDesligadoException Se a entidade for um robô e estiver desligada,
      * impedindo o acionamento dos sensores.
      */
-    void acionarSensores(Ambiente ambiente) throws RoboDesligadoException;
+    default void acionarSensores(Ambiente ambiente) throws RoboDesligadoException {
+        StringBuilder saida = new StringBuilder();
+        acionarSensores(ambiente, saida);
+        System.out.print(saida);
+    }
+
+    /**
+     * Aciona os sensores da entidade, escrevendo as leituras em um buffer próprio
+     * em vez de imprimi-las. Permite acionar os sensores de várias entidades em
+     * paralelo e imprimir os resultados depois, em ordem determinística.
+     * A implementação deve apenas ler o ambiente, nunca modificá-lo.
+     *
+     * @param ambiente O {@link Ambiente} que os sensores irão analisar.
+     * @param saida    O buffer que recebe o texto das leituras.
+     * @throws RoboDesligadoException Se a entidade for um robô e estiver desligada,
+     * impedindo o acionamento dos sensores.
+     */
+    void acionarSensores(Ambiente ambiente, StringBuilder saida) throws RoboDesligadoException;
+
+    /**
+     * Lê os sensores da entidade sem formatar nem imprimir texto, para quem só consome
+     * as leituras estruturadas. Conta como uma rodada de acionamento, assim como
+     * {@link #acionarSensores(Ambiente, StringBuilder)}.
+     *
+     * @param ambiente O {@link Ambiente} que os sensores irão analisar.
+     * @return O total de detecções nas leituras de todos os sensores.
+     * @throws RoboDesligadoException Se a entidade for um robô e estiver desligada,
+     * impedindo o acionamento dos sensores.
+     */
+    int lerSensores(Ambiente ambiente) throws RoboDesligadoException;
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package util;
+// Histograma.java
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências em escala log-linear, no estilo do HdrHistogram: cada potência
+ * de dois é dividida em 32 baldes iguais, de modo que qualquer valor (até Long.MAX_VALUE)
+ * é guardado com erro relativo de no máximo 1/32 (cerca de 3%), em um array de tamanho
+ * fixo. Registrar um valor custa algumas operações atômicas e nenhuma alocação, e pode
+ * ser feito por várias threads ao mesmo tempo.
+ */
+public class Histograma implements HistogramaMBean {
+    private static final int BITS_SUB = 5;
+    private static final int SUB = 1 << BITS_SUB;              // Baldes por potência de dois
+    private static final int BALDES = (64 - BITS_SUB - 1) * SUB + 2 * SUB;
+
+    private final String nome;
+    private final AtomicLongArray contagens = new AtomicLongArray(BALDES);
+    private final LongAdder soma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    public Histograma(String nome) {
+        this.nome = nome;
+    }
+
+    /** Índice do balde de um valor não negativo. */
+    static int indice(long valor) {
+        if (valor < 2 * SUB) {
+            return (int) valor;
+        }
+        int deslocamento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUB;
+        return deslocamento * SUB + (int) (valor >>> deslocamento);
+    }
+
+    /** Maior valor que cai no balde. */
+    static long limiteSuperior(int indice) {
+        if (indice < 2 * SUB) {
+            return indice;
+        }
+        int deslocamento = indice / SUB - 1;
+        long mantissa = indice - deslocamento * SUB;
+        return ((mantissa + 1) << deslocamento) - 1;
+    }
+
+    /** Registra um valor (valores negativos contam como zero). */
+    public void registrar(long valor) {
+        if (valor < 0) {
+            valor = 0;
+        }
+        contagens.incrementAndGet(indice(valor));
+        soma.add(valor);
+        long atual = maximo.get();
+        while (valor > atual && !maximo.compareAndSet(atual, valor)) {
+            atual = maximo.get();
+        }
+    }
+
+    /**
+     * Registra o tempo decorrido desde o instante dado por {@link Metricas#inicio()}.
+     * Não faz nada se o instante for 0 (métricas desativadas ou medida fora da amostra).
+     */
+    public void registrarDesde(long inicioNanos) {
+        if (inicioNanos != 0) {
+            registrar(System.nanoTime() - inicioNanos);
+        }
+    }
+
+    /**
+     * Retorna o valor abaixo do qual está a fração dada dos registros.
+     * @param percentil Entre 0 e 100.
+     * @return O limite superior do balde do percentil (limitado ao máximo registrado), ou 0 se vazio.
+     */
+    public long getPercentil(double percentil) {
+        long total = 0;
+        long[] copia = new long[BALDES];
+        for (int i = 0; i < BALDES; i++) {
+            copia[i] = contagens.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentil)) / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < BALDES; i++) {
+            acumulado += copia[i];
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    @Override public String getNome() { return nome; }
+    @Override
+    public long getContagem() {
+        long total = 0;
+        for (int i = 0; i < BALDES; i++) {
+            total += contagens.get(i);
+        }
+        return total;
+    }
+
+    @Override public long getMaximo() { return maximo.get(); }
+    @Override public long getP50() { return getPercentil(50); }
+    @Override public long getP90() { return getPercentil(90); }
+    @Override public long getP99() { return getPercentil(99); }
+    @Override public long getP999() { return getPercentil(99.9); }
+
+    @Override
+    public double getMedia() {
+        long n = getContagem();
+        return n == 0 ? 0 : (double) soma.sum() / n;
+    }
+
+    /** Descarta todos os registros. Registros feitos durante a chamada podem se perder. */
+    @Override
+    public void zerar() {
+        for (int i = 0; i < BALDES; i++) {
+            contagens.set(i, 0);
+        }
+        soma.reset();
+        maximo.set(0);
+    }
+
+    /** Uma linha com contagem, média, percentis e máximo, em microssegundos. */
+    public String resumir() {
+        return String.format(Locale.ROOT, "%-40s n=%d media=%.1fus p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus",
+            nome, getContagem(), getMedia() / 1e3, getP50() / 1e3, getP99() / 1e3, getP999() / 1e3, getMaximo() / 1e3);
+    }
+}
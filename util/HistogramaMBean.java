@@ -0,0 +1,18 @@
+package util;
+// HistogramaMBean.java
+
+/**
+ * Interface JMX de um {@link Histograma}: os atributos são os valores resumidos da
+ * distribuição, em nanossegundos.
+ */
+public interface HistogramaMBean {
+    String getNome();
+    long getContagem();
+    double getMedia();
+    long getMaximo();
+    long getP50();
+    long getP90();
+    long getP99();
+    long getP999();
+    void zerar();
+}
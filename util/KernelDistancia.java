@@ -0,0 +1,26 @@
+package util;
+
+/**
+ * Testes de distância em aritmética inteira, sem raiz quadrada: as distâncias são
+ * comparadas ao quadrado, em long, de modo que não transbordam para nenhuma coordenada int.
+ */
+public final class KernelDistancia {
+
+    private KernelDistancia() {
+        // Classe utilitária: não deve ser instanciada
+    }
+
+    /**
+     * Verifica se um deslocamento no plano XY cabe em uma distância máxima,
+     * sem calcular raiz quadrada.
+     *
+     * @param dx        O deslocamento em X.
+     * @param dy        O deslocamento em Y.
+     * @param distancia A distância máxima permitida.
+     * @return true se sqrt(dx² + dy²) &lt;= distancia.
+     */
+    public static boolean dentroDaDistancia(int dx, int dy, int distancia) {
+        long d2 = (long) dx * dx + (long) dy * dy;
+        return d2 <= (long) distancia * distancia;
+    }
+}
@@ -13,15 +13,24 @@ import java.time.format.DateTimeFormatter;
 public class Log {
     private static final String NOME_ARQUIVO = "missao_log.txt"; // Nome do arquivo de log
     private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+    // Desativado com -Dsimulador.log=false ou setAtivo(false), por exemplo em simulações de carga
+    private static volatile boolean ativo = !"false".equals(System.getProperty("simulador.log"));
+
+    public static boolean isAtivo() { return ativo; }
+    public static void setAtivo(boolean valor) { ativo = valor; }
 
     /**
      * Registra uma mensagem no arquivo de log.
      * A mensagem é prefixada com a data e hora atuais.
      * O arquivo é aberto em modo 'append', então novas mensagens são adicionadas ao final.
+     * Não faz nada se o log estiver desativado.
      *
      * @param mensagem A mensagem a ser registrada.
      */
     public static void registrar(String mensagem) {
+        if (!ativo) {
+            return;
+        }
         // Usa try-with-resources para garantir que o PrintWriter e FileWriter sejam fechados
         try (FileWriter fw = new FileWriter(NOME_ARQUIVO, true); // true para modo append
              PrintWriter pw = new PrintWriter(fw)) {
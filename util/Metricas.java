@@ -0,0 +1,287 @@
+package util;
+// Metricas.java
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Registro global de métricas de desempenho da simulação: histogramas de latência
+ * ({@link Histograma}) por fase e por tipo de missão ou sensor, e contadores de eventos.
+ * As métricas podem ser exportadas por JMX ({@link #registrarJmx()}) e gravadas
+ * periodicamente em arquivo ({@link #iniciarDespejoPeriodico(String, long)}).
+ *
+ * <p>Uso nos pontos medidos:
+ * <pre>
+ * long inicio = Metricas.inicio();
+ * ...
+ * Metricas.TICK.registrarDesde(inicio);
+ * </pre>
+ * Operações curtas e frequentes usam {@link #inicioAmostrado()}, que mede só parte das
+ * chamadas; os contadores registram todas. Desativadas (propriedade
+ * {@code -Dsimulador.metricas=false} ou {@link #setAtiva(boolean)}), as medidas custam
+ * apenas a leitura de um campo volátil.
+ */
+public final class Metricas {
+    /** Contadores de eventos da simulação. */
+    public enum Contador { MOVIMENTOS_ACEITOS, COLISOES, FORA_DOS_LIMITES, MENSAGENS, CACHE_SENSORES_ACERTOS, CACHE_SENSORES_FALHAS, CAMPOS_FLUXO_CONSTRUIDOS, CELULAS_EXPLORADAS }
+
+    /** Uma a cada quantas medidas de {@link #inicioAmostrado()} é de fato feita (potência de 2). */
+    public static final int PERIODO_AMOSTRAGEM = 16;
+
+    private static final String DOMINIO_JMX = "simulador";
+    private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+
+    private static volatile boolean ativa = !"false".equals(System.getProperty("simulador.metricas"));
+    private static final Map<String, Histograma> histogramas = new ConcurrentHashMap<>();
+    private static final LongAdder[] contadores = new LongAdder[Contador.values().length];
+    private static volatile MBeanServer servidorJmx; // Definido depois de registrarJmx
+    private static ScheduledExecutorService despejo;
+    private static int chamadasAmostradas; // Sem sincronização: corridas só alteram qual chamada é amostrada
+    private static volatile DoubleSupplier cobertura; // Cobertura da exploração da simulação exportada, se definida
+
+    static {
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = new LongAdder();
+        }
+    }
+
+    /** Duração de {@code Ambiente.executarTick}. */
+    public static final Histograma TICK = histograma("tick");
+    /** Duração de um movimento aceito por {@code Ambiente.moverEntidade} (amostrada). */
+    public static final Histograma MOVIMENTO = histograma("moverEntidade");
+
+    private static final ClassValue<Histograma> porMissao = new ClassValue<>() {
+        @Override
+        protected Histograma computeValue(Class<?> tipo) {
+            return histograma("missao." + tipo.getSimpleName());
+        }
+    };
+    private static final ClassValue<Histograma> porSensor = new ClassValue<>() {
+        @Override
+        protected Histograma computeValue(Class<?> tipo) {
+            return histograma("sensor." + tipo.getSimpleName());
+        }
+    };
+
+    private Metricas() {
+        // Classe utilitária: não deve ser instanciada
+    }
+
+    public static boolean isAtiva() { return ativa; }
+    public static void setAtiva(boolean valor) { ativa = valor; }
+
+    /**
+     * Marca o início de uma medida.
+     * @return O instante atual em nanossegundos, ou 0 se as métricas estiverem desativadas.
+     */
+    public static long inicio() {
+        return ativa ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Como {@link #inicio()}, mas mede apenas uma a cada {@link #PERIODO_AMOSTRAGEM} chamadas.
+     * Usado em operações curtas e frequentes (movimentos, leituras de sensor), em que ler o
+     * relógio duas vezes a cada chamada pesaria no custo da própria operação.
+     * @return O instante atual em nanossegundos, ou 0 se a chamada não for amostrada.
+     */
+    public static long inicioAmostrado() {
+        if (!ativa || (++chamadasAmostradas & (PERIODO_AMOSTRAGEM - 1)) != 0) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    /** Incrementa um contador (se as métricas estiverem ativas). */
+    public static void contar(Contador c) {
+        if (ativa) {
+            contadores[c.ordinal()].increment();
+        }
+    }
+
+    /** Soma uma quantidade a um contador (se as métricas estiverem ativas). */
+    public static void contar(Contador c, long quantidade) {
+        if (ativa) {
+            contadores[c.ordinal()].add(quantidade);
+        }
+    }
+
+    public static long getContagem(Contador c) {
+        return contadores[c.ordinal()].sum();
+    }
+
+    /**
+     * Define de onde vem a cobertura da exploração exportada pelas métricas; a fonte é
+     * consultada apenas quando a cobertura é lida (resumo ou JMX), não a cada execução de missão.
+     * @param fonte Fração (de 0 a 1) das células livres já exploradas, ou null para não exportar.
+     */
+    public static void definirCobertura(DoubleSupplier fonte) {
+        cobertura = fonte;
+    }
+
+    /** A cobertura da exploração informada pela fonte definida, ou 0 se não houver fonte. */
+    public static double getCobertura() {
+        DoubleSupplier fonte = cobertura;
+        return fonte == null ? 0 : fonte.getAsDouble();
+    }
+
+    /** Histograma da execução de um tipo de missão. */
+    public static Histograma missao(Class<?> tipo) {
+        return porMissao.get(tipo);
+    }
+
+    /** Histograma das leituras de um tipo de sensor. */
+    public static Histograma sensor(Class<?> tipo) {
+        return porSensor.get(tipo);
+    }
+
+    /** Retorna o histograma com o nome dado, criando-o (e exportando-o por JMX) na primeira vez. */
+    public static Histograma histograma(String nome) {
+        return histogramas.computeIfAbsent(nome, n -> {
+            Histograma h = new Histograma(n);
+            MBeanServer servidor = servidorJmx;
+            if (servidor != null) {
+                exportar(servidor, h);
+            }
+            return h;
+        });
+    }
+
+    /** Zera todos os histogramas e contadores. */
+    public static void zerar() {
+        for (Histograma h : histogramas.values()) {
+            h.zerar();
+        }
+        for (LongAdder c : contadores) {
+            c.reset();
+        }
+    }
+
+    /** Resumo textual: um histograma por linha, em ordem de nome, seguido dos contadores. */
+    public static String resumo() {
+        StringBuilder sb = new StringBuilder();
+        for (Histograma h : new TreeMap<>(histogramas).values()) {
+            if (h.getContagem() > 0) {
+                sb.append(h.resumir()).append('\n');
+            }
+        }
+        for (Contador c : Contador.values()) {
+            sb.append(c.name().toLowerCase()).append('=').append(getContagem(c)).append(c.ordinal() + 1 < contadores.length ? ' ' : '\n');
+        }
+        if (cobertura != null) {
+            sb.append(String.format(Locale.ROOT, "cobertura_exploracao=%.3f%n", getCobertura()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Exporta as métricas pelo servidor de MBeans da plataforma: {@code simulador:type=Metricas}
+     * e um {@code simulador:type=Histograma,name=...} por histograma, inclusive os criados depois.
+     * Chamadas repetidas não têm efeito.
+     */
+    public static synchronized void registrarJmx() {
+        if (servidorJmx != null) {
+            return;
+        }
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            servidor.registerMBean(new StandardMBean(new Exportacao(), MetricasMBean.class),
+                new ObjectName(DOMINIO_JMX + ":type=Metricas"));
+        } catch (JMException e) {
+            System.err.println("Não foi possível exportar as métricas por JMX: " + e.getMessage());
+            return;
+        }
+        servidorJmx = servidor;
+        for (Histograma h : histogramas.values()) {
+            exportar(servidor, h);
+        }
+    }
+
+    private static void exportar(MBeanServer servidor, Histograma h) {
+        try {
+            ObjectName nome = new ObjectName(DOMINIO_JMX + ":type=Histograma,name=" + ObjectName.quote(h.getNome()));
+            if (!servidor.isRegistered(nome)) {
+                servidor.registerMBean(h, nome);
+            }
+        } catch (JMException e) {
+            System.err.println("Não foi possível exportar o histograma " + h.getNome() + " por JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Acrescenta o resumo atual ao arquivo dado, precedido da data e hora.
+     * @throws IOException Se o arquivo não puder ser escrito.
+     */
+    public static void despejar(String arquivo) throws IOException {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(arquivo, true))) {
+            pw.println("=== Métricas " + dtf.format(LocalDateTime.now()) + " ===");
+            pw.print(resumo());
+        }
+    }
+
+    /**
+     * Grava o resumo no arquivo a cada período, em uma thread de fundo. Substitui um
+     * despejo periódico anterior.
+     * @throws IllegalArgumentException Se o período não for positivo.
+     */
+    public static synchronized void iniciarDespejoPeriodico(String arquivo, long periodoSegundos) {
+        if (periodoSegundos <= 0) {
+            throw new IllegalArgumentException("O período do despejo de métricas deve ser positivo.");
+        }
+        pararDespejoPeriodico();
+        despejo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "despejo-metricas");
+            t.setDaemon(true);
+            return t;
+        });
+        despejo.scheduleAtFixedRate(() -> {
+            try {
+                despejar(arquivo);
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar as métricas: " + e.getMessage());
+            }
+        }, periodoSegundos, periodoSegundos, TimeUnit.SECONDS);
+    }
+
+    /** Interrompe o despejo periódico, se houver. */
+    public static synchronized void pararDespejoPeriodico() {
+        if (despejo != null) {
+            despejo.shutdown();
+            despejo = null;
+        }
+    }
+
+    /** Implementação exportada por JMX; delega aos métodos estáticos. */
+    private static final class Exportacao implements MetricasMBean {
+        @Override public boolean isAtiva() { return Metricas.isAtiva(); }
+        @Override public void setAtiva(boolean valor) { Metricas.setAtiva(valor); }
+        @Override public long getMovimentosAceitos() { return getContagem(Contador.MOVIMENTOS_ACEITOS); }
+        @Override public long getColisoes() { return getContagem(Contador.COLISOES); }
+        @Override public long getForaDosLimites() { return getContagem(Contador.FORA_DOS_LIMITES); }
+        @Override public long getMensagens() { return getContagem(Contador.MENSAGENS); }
+        @Override public long getAcertosCacheSensores() { return getContagem(Contador.CACHE_SENSORES_ACERTOS); }
+        @Override public long getFalhasCacheSensores() { return getContagem(Contador.CACHE_SENSORES_FALHAS); }
+        @Override public long getCamposFluxoConstruidos() { return getContagem(Contador.CAMPOS_FLUXO_CONSTRUIDOS); }
+        @Override public long getCelulasExploradas() { return getContagem(Contador.CELULAS_EXPLORADAS); }
+        @Override public double getCoberturaExploracao() { return getCobertura(); }
+        @Override public String getResumo() { return resumo(); }
+        @Override public void zerar() { Metricas.zerar(); }
+    }
+}
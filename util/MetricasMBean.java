@@ -0,0 +1,22 @@
+package util;
+// MetricasMBean.java
+
+/**
+ * Interface JMX das {@link Metricas}: contadores da simulação, chave de ativação e um
+ * resumo textual. Cada histograma é exportado como um {@link HistogramaMBean} próprio.
+ */
+public interface MetricasMBean {
+    boolean isAtiva();
+    void setAtiva(boolean ativa);
+    long getMovimentosAceitos();
+    long getColisoes();
+    long getForaDosLimites();
+    long getMensagens();
+    long getAcertosCacheSensores();
+    long getFalhasCacheSensores();
+    long getCamposFluxoConstruidos();
+    long getCelulasExploradas();
+    double getCoberturaExploracao();
+    String getResumo();
+    void zerar();
+}
@@ -0,0 +1,37 @@
+package util.jfr;
+// EventoColisao.java
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento instantâneo do JFR com um movimento recusado por colisão em
+ * {@code Ambiente.moverEntidade}: o robô e a célula ocupada.
+ */
+@Name("simulador.Colisao")
+@Label("Colisão")
+@Description("Movimento recusado porque a célula de destino estava ocupada.")
+@Category({"Simulador", "Movimento"})
+@StackTrace(false)
+public class EventoColisao extends jdk.jfr.Event {
+    @Label("Robô")
+    public String robo;
+
+    @Label("Handle")
+    @Description("Handle do robô no registro do ambiente (o mesmo da sua linha no armazém de robôs).")
+    public int handle;
+
+    @Label("X")
+    public int x;
+    @Label("Y")
+    public int y;
+    @Label("Z")
+    public int z;
+
+    @Label("Ocupante")
+    @Description("Tipo da entidade que ocupava a célula.")
+    public String ocupante;
+}
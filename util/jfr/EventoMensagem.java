@@ -0,0 +1,31 @@
+package util.jfr;
+// EventoMensagem.java
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento do JFR com a entrega de uma mensagem à {@code CentralComunicacao}.
+ */
+@Name("simulador.Mensagem")
+@Label("Entrega de Mensagem")
+@Description("Registro de uma mensagem entre robôs na central de comunicação.")
+@Category({"Simulador", "Comunicação"})
+@Threshold("0 ms")
+@StackTrace(false)
+public class EventoMensagem extends jdk.jfr.Event {
+    @Label("Remetente")
+    public String remetente;
+
+    @Label("Destinatário")
+    @Description("Id do destinatário, ou TODOS para difusão.")
+    public String destinatario;
+
+    @Label("Tamanho")
+    @Description("Número de caracteres da mensagem.")
+    public int tamanho;
+}
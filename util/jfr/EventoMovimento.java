@@ -0,0 +1,41 @@
+package util.jfr;
+// EventoMovimento.java
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento do JFR com um movimento aceito por {@code Ambiente.moverEntidade}, da validação
+ * até a gravação da nova posição no mapa e na grade espacial.
+ */
+@Name("simulador.Movimento")
+@Label("Movimento")
+@Description("Movimento de um robô aceito e gravado pelo ambiente.")
+@Category({"Simulador", "Movimento"})
+@Threshold("20 us")
+@StackTrace(false)
+public class EventoMovimento extends jdk.jfr.Event {
+    @Label("Robô")
+    public String robo;
+
+    @Label("Handle")
+    @Description("Handle do robô no registro do ambiente (o mesmo da sua linha no armazém de robôs).")
+    public int handle;
+
+    @Label("X de Origem")
+    public int deX;
+    @Label("Y de Origem")
+    public int deY;
+    @Label("Z de Origem")
+    public int deZ;
+    @Label("X de Destino")
+    public int paraX;
+    @Label("Y de Destino")
+    public int paraY;
+    @Label("Z de Destino")
+    public int paraZ;
+}
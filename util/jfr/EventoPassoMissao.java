@@ -0,0 +1,31 @@
+package util.jfr;
+// EventoPassoMissao.java
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento do JFR com a fase de decisão de um agente: um passo da sua missão, incluindo os
+ * movimentos e leituras que ela dispara (que têm eventos próprios, aninhados neste).
+ */
+@Name("simulador.PassoMissao")
+@Label("Passo de Missão")
+@Description("Um passo da missão de um agente inteligente.")
+@Category({"Simulador", "Missão"})
+@Threshold("100 us")
+@StackTrace(false)
+public class EventoPassoMissao extends jdk.jfr.Event {
+    @Label("Robô")
+    public String robo;
+
+    @Label("Handle")
+    @Description("Handle do robô no registro do ambiente (o mesmo da sua linha no armazém de robôs).")
+    public int handle;
+
+    @Label("Missão")
+    public Class<?> missao;
+}
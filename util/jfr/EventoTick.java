@@ -0,0 +1,27 @@
+package util.jfr;
+// EventoTick.java
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento do JFR com o início e o fim de um tick do ambiente ({@code Ambiente.executarTick}).
+ */
+@Name("simulador.Tick")
+@Label("Tick")
+@Description("Execução de um tick da simulação: um passo da missão de cada agente.")
+@Category({"Simulador", "Tick"})
+@Threshold("0 ms")
+@StackTrace(false)
+public class EventoTick extends jdk.jfr.Event {
+    @Label("Tick")
+    public long tick;
+
+    @Label("Agentes")
+    @Description("Número de agentes que executaram um passo de missão no tick.")
+    public int agentes;
+}
@@ -0,0 +1,34 @@
+package util.jfr;
+// EventoVarreduraSensores.java
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento do JFR com uma rodada de acionamento de todos os sensores de um robô
+ * ({@code GerenciadorSensores.escreverLeituras}).
+ */
+@Name("simulador.VarreduraSensores")
+@Label("Varredura de Sensores")
+@Description("Leitura de todos os sensores de um robô em uma rodada.")
+@Category({"Simulador", "Sensores"})
+@Threshold("50 us")
+@StackTrace(false)
+public class EventoVarreduraSensores extends jdk.jfr.Event {
+    @Label("Robô")
+    public String robo;
+
+    @Label("Handle")
+    @Description("Handle do robô no registro do ambiente (o mesmo da sua linha no armazém de robôs).")
+    public int handle;
+
+    @Label("Sensores")
+    public int sensores;
+
+    @Label("Rodada")
+    public long rodada;
+}